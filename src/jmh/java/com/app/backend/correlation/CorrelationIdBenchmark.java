@@ -0,0 +1,43 @@
+package com.app.backend.correlation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generowanie correlation ID z wielu wątków naraz: UUID v4 (współdzielony
+ * SecureRandom) kontra ID czasowe z atomowym licznikiem węzła.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=CorrelationIdBenchmark -PjmhProfilers=gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class CorrelationIdBenchmark {
+
+  @Param({ "uuid", "time-ordered" })
+  public String generator;
+
+  private CorrelationIdGenerator ids;
+
+  @Setup
+  public void setUp() {
+    ids = "uuid".equals(generator)
+        ? new UuidCorrelationIdGenerator()
+        : new TimeOrderedCorrelationIdGenerator(1);
+  }
+
+  @Benchmark
+  public String next() {
+    return ids.next();
+  }
+}
@@ -0,0 +1,200 @@
+package com.app.backend.db;
+
+import com.app.backend.BackendApplication;
+import com.app.backend.metrics.LatencyHistogram;
+import com.app.backend.sanitize.Sanitize;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wątki platformowe (Tomcat, 200 wątków) kontra wirtualne
+ * ({@code spring.threads.virtual.enabled}) przy {@code concurrency}
+ * równoczesnych żądaniach HTTP, z których każde czeka {@code WAIT_MILLIS}:
+ * <ul>
+ * <li>{@code io} - czekanie poza bazą (np. wywołanie innej usługi); platformowe
+ * obsługują najwyżej 200 naraz, więc paczka trwa ok.
+ * {@code concurrency / 200 * WAIT_MILLIS}, wirtualne ok. {@code WAIT_MILLIS};</li>
+ * <li>{@code db} - połączenie z puli trzymane przez {@code WAIT_MILLIS} (wolne
+ * zapytanie); oba tryby są ograniczone pulą Hikari (10), a nadmiar czeka na
+ * semaforze {@link BoundedDataSource} - wątki wirtualne nie dodają tu
+ * przepustowości.</li>
+ * </ul>
+ * Wynik to średni czas jednej paczki; przepustowość = {@code concurrency} /
+ * czas. Żądania zakończone innym statusem niż 200 są liczone w kolumnie
+ * {@code failed} wyników JMH. Po każdym przebiegu (trial) na stdout trafia
+ * linia {@code ThreadModeBenchmark summary} z iteracji pomiarowych:
+ * przepustowość w żądaniach na sekundę, p50/p99/max czasu pojedynczego
+ * żądania (od wysłania do odpowiedzi) i liczba nieudanych.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=ThreadModeBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadModeBenchmark {
+
+  private static final long WAIT_MILLIS = 20;
+
+  @Param({ "platform", "virtual" })
+  public String threads;
+
+  @Param({ "io", "db" })
+  public String workload;
+
+  @Param({ "1000" })
+  public int concurrency;
+
+  private ConfigurableApplicationContext context;
+  private ExecutorService clientExecutor;
+  private HttpClient client;
+  private HttpRequest request;
+
+  // Tylko iteracje pomiarowe (bez rozgrzewki)
+  private volatile boolean measuring;
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private long measuredNanos;
+  private long measuredFailed;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(BackendApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+            "spring.datasource.url=jdbc:h2:mem:threads;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "ratelimiter.whitelist=127.0.0.1",
+            "ratelimiter.early-rejection.enabled=false",
+            "access-log.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.com.app.backend=WARN")
+        .run();
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+    clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .executor(clientExecutor)
+        .build();
+    request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/bench/wait?workload=" + workload
+        + "&millis=" + WAIT_MILLIS)).GET().build();
+  }
+
+  @Setup(Level.Iteration)
+  public void startIteration(IterationParams params) {
+    measuring = params.getType() == IterationType.MEASUREMENT;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    LatencyHistogram.Snapshot s = latencies.snapshot();
+    System.out.printf("%nThreadModeBenchmark summary: threads=%s workload=%s requests=%d failed=%d "
+        + "throughput=%.0f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n", threads, workload, s.getCount(),
+        measuredFailed, measuredNanos > 0 ? s.getCount() * 1e9 / measuredNanos : 0.0, s.percentile(0.5) / 1e6,
+        s.percentile(0.99) / 1e6, s.getMax() / 1e6);
+    clientExecutor.close();
+    context.close();
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public int burst(Responses counters) {
+    boolean record = measuring;
+    long burstStart = System.nanoTime();
+    CompletableFuture<HttpResponse<Void>>[] responses = new CompletableFuture[concurrency];
+    for (int i = 0; i < concurrency; i++) {
+      long start = System.nanoTime();
+      responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+      if (record) {
+        responses[i] = responses[i].whenComplete((response, error) -> latencies.record(System.nanoTime() - start));
+      }
+    }
+    int ok = 0;
+    for (CompletableFuture<HttpResponse<Void>> response : responses) {
+      if (response.join().statusCode() == 200) {
+        ok++;
+      } else {
+        counters.failed++;
+      }
+    }
+    if (record) {
+      measuredNanos += System.nanoTime() - burstStart;
+      measuredFailed += concurrency - ok;
+    }
+    return ok;
+  }
+
+  /** Odpowiedzi inne niż 200 (kolumna obok czasu paczki). */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Responses {
+
+    public long failed;
+  }
+
+  /**
+   * Endpoint tylko dla benchmarku (klasy JMH nie trafiają do aplikacji).
+   * Połączenie w {@code db} jest trzymane w {@link Thread#sleep} poza
+   * sterownikiem - H2 blokuje sesję przez {@code synchronized}, co przy
+   * wątkach wirtualnych przypinałoby nośnik i mierzyło H2 zamiast trybu.
+   */
+  @RestController
+  @Sanitize(mode = Sanitize.Mode.NONE)
+  public static class WaitController {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WaitController(JdbcTemplate jdbcTemplate) {
+      this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @GetMapping("/bench/wait")
+    public String waitFor(@RequestParam String workload, @RequestParam long millis) throws InterruptedException {
+      if (!"db".equals(workload)) {
+        Thread.sleep(millis);
+        return workload;
+      }
+      return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("select 1");
+        }
+        try {
+          Thread.sleep(millis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return workload;
+      });
+    }
+  }
+}
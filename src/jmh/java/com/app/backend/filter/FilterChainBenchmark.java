@@ -0,0 +1,217 @@
+package com.app.backend.filter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.app.backend.accesslog.AccessLog;
+import com.app.backend.accesslog.AccessLogSampler;
+import com.app.backend.accesslog.RequestLog;
+import com.app.backend.config.AccessLogProperties;
+import com.app.backend.config.ClientIpProperties;
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.config.SanitizerProperties;
+import com.app.backend.correlation.TimeOrderedCorrelationIdGenerator;
+import com.app.backend.metrics.RouteLatencyMetrics;
+import com.app.backend.net.ClientIpResolver;
+import com.app.backend.ratelimit.Bucket4jRateLimiterBackend;
+import com.app.backend.ratelimit.RateLimitEnforcer;
+import com.app.backend.ratelimit.RateLimitPolicies;
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import com.app.backend.sanitize.SanitizationPolicies;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt każdego filtra osobno i całego łańcucha w kolejności z {@code @Order}
+ * dla typowych żądań: {@code get} (query params, nagłówki przeglądarki, XFF z
+ * zaufanego proxy) i {@code post} (to samo plus body JSON ~1 KB). Końcowy
+ * "servlet" czyta parametry i całe body jak konwerter Springa. {@code baseline}
+ * to koszt samych mocków i servletu - różnica to koszt filtrów.
+ * <p>
+ * Filtry są tworzone bez kontekstu Springa (polityki sanitizacji = FULL,
+ * backend limitera = Bucket4j z limitem, którego benchmark nie wyczerpie).
+ * Logback nie ma appenderów, więc mierzone jest budowanie zdarzeń bez I/O;
+ * access log zapisuje do katalogu tymczasowego.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=FilterChainBenchmark -PjmhProfilers=gc}
+ * - Throughput, rozkład czasu (SampleTime: p50/p99/p99.9) i
+ * {@code gc.alloc.rate.norm} (bajty na żądanie).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterChainBenchmark {
+
+  private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+      + "(KHTML, like Gecko) Chrome/128.0.0.0 Safari/537.36";
+
+  @Param({ "get", "post" })
+  public String request;
+
+  private byte[] body;
+  private Filter sanitization;
+  private Filter securityHeaders;
+  private Filter rateLimiter;
+  private Filter requestLogging;
+  private Filter errorLogging;
+  private Filter[] all;
+  private AccessLog accessLog;
+  private int client;
+
+  @Setup
+  public void setUp() throws IOException {
+    LoggerContext logging = (LoggerContext) LoggerFactory.getILoggerFactory();
+    ch.qos.logback.classic.Logger root = logging.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+    root.detachAndStopAllAppenders();
+    root.setLevel(Level.INFO);
+
+    RateLimiterProperties limiterProps = new RateLimiterProperties();
+    limiterProps.setRequests(Integer.MAX_VALUE);
+    ClientIpResolver resolver = new ClientIpResolver(new ClientIpProperties());
+    RateLimitEnforcer enforcer = new RateLimitEnforcer(limiterProps, new Bucket4jRateLimiterBackend(),
+        new RateLimitPolicies(limiterProps), resolver);
+
+    sanitization = new RequestSanitizationFilter(new SanitizerProperties(), new SanitizationPolicies(null));
+    securityHeaders = new SecurityHeadersFilter();
+    rateLimiter = new GlobalRateLimiterFilter(enforcer, new RateLimiterMetrics(limiterProps));
+    AccessLogProperties accessLogProps = new AccessLogProperties();
+    accessLogProps.setDirectory(Files.createTempDirectory("access-log-bench").toString());
+    accessLogProps.setMaxFiles(2);
+    accessLog = new AccessLog(accessLogProps);
+    accessLog.start();
+    requestLogging = new RequestLoggingFilter(
+        new RequestLog(resolver, accessLog, new AccessLogSampler(accessLogProps), new RouteLatencyMetrics()),
+        new TimeOrderedCorrelationIdGenerator(1));
+    errorLogging = new ErrorLoggingFilter();
+    all = new Filter[] { requestLogging, sanitization, securityHeaders, rateLimiter, errorLogging };
+
+    StringBuilder json = new StringBuilder("{\"username\":\"john.doe\",\"email\":\"john.doe@example.com\","
+        + "\"password\":\"S3cret&Pass<word>\",\"profile\":{\"bio\":\"");
+    while (json.length() < 900) {
+      json.append("Lorem ipsum <b>dolor</b> sit amet & consectetur. ");
+    }
+    json.append("\",\"tags\":[\"java\",\"spring\",\"jmh\"],\"age\":34,\"active\":true}");
+    body = json.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    accessLog.stop();
+  }
+
+  @Benchmark
+  public int baseline() throws Exception {
+    return run();
+  }
+
+  @Benchmark
+  public int sanitization() throws Exception {
+    return run(sanitization);
+  }
+
+  @Benchmark
+  public int securityHeaders() throws Exception {
+    return run(securityHeaders);
+  }
+
+  @Benchmark
+  public int rateLimiter() throws Exception {
+    return run(rateLimiter);
+  }
+
+  @Benchmark
+  public int requestLogging() throws Exception {
+    return run(requestLogging);
+  }
+
+  @Benchmark
+  public int errorLogging() throws Exception {
+    return run(errorLogging);
+  }
+
+  @Benchmark
+  public int fullChain() throws Exception {
+    return run(all);
+  }
+
+  private int run(Filter... filters) throws IOException, ServletException {
+    MockHttpServletRequest req = newRequest();
+    MockHttpServletResponse res = new MockHttpServletResponse();
+    new OrderedChain(filters).doFilter(req, res);
+    return res.getStatus();
+  }
+
+  private MockHttpServletRequest newRequest() {
+    boolean post = "post".equals(request);
+    MockHttpServletRequest req = new MockHttpServletRequest(post ? "POST" : "GET", "/users");
+    // Rotacja klientów jak przy realnym ruchu (bucket4j: cache per IP)
+    int c = client++ & 0xFFFF;
+    req.setRemoteAddr("10.0.0.1");
+    req.addHeader("X-Forwarded-For", "203.0." + (c >>> 8) + "." + (c & 0xFF) + ", 10.0.0.7");
+    req.addHeader("Host", "api.example.com");
+    req.addHeader("User-Agent", USER_AGENT);
+    req.addHeader("Accept", "application/json, text/plain, */*");
+    req.addHeader("Accept-Language", "pl-PL,pl;q=0.9,en-US;q=0.8,en;q=0.7");
+    req.addHeader("Accept-Encoding", "gzip, deflate, br");
+    req.addHeader("Cookie", "JSESSIONID=5F2A7C9E0B1D3F4A6C8E0A2B4D6F8A1C; theme=dark");
+    if (post) {
+      req.setContentType("application/json");
+      req.setContent(body);
+    } else {
+      req.setQueryString("page=2&size=50&sort=createdAt,desc&q=john");
+      req.addParameter("page", "2");
+      req.addParameter("size", "50");
+      req.addParameter("sort", "createdAt,desc");
+      req.addParameter("q", "john");
+    }
+    return req;
+  }
+
+  /**
+   * Łańcuch filtrów zakończony "servletem", który czyta parametry i body.
+   */
+  private static final class OrderedChain implements FilterChain {
+    private final Filter[] filters;
+    private int position;
+
+    OrderedChain(Filter[] filters) {
+      this.filters = filters;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+      if (position < filters.length) {
+        filters[position++].doFilter(request, response, this);
+        return;
+      }
+      request.getParameterMap();
+      request.getInputStream().transferTo(OutputStream.nullOutputStream());
+      HttpServletResponse http = (HttpServletResponse) response;
+      http.setStatus(200);
+      http.setContentType("application/json");
+      http.getOutputStream().write('{');
+      http.getOutputStream().write('}');
+    }
+  }
+}
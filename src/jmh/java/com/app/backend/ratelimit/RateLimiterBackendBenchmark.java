@@ -0,0 +1,78 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porównanie backendów limitera przy rotacji adresów IP.
+ * {@code clients} większe niż 10 000 odpowiada floodowi, przy którym cache
+ * Bucket4j ciągle wypiera wpisy.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=RateLimiterBackendBenchmark}
+ * (z {@code -PjmhProfilers=gc} dla alokacji na operację).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class RateLimiterBackendBenchmark {
+
+  @Param({ "bucket4j", "compact" })
+  public String backend;
+
+  @Param({ "1000", "1000000" })
+  public int clients;
+
+  @Param({ "false", "true" })
+  public boolean ipv6;
+
+  private final RateLimit limit = new RateLimit(0, "default:ip", 50, 60_000L);
+
+  private RateLimiterBackend limiter;
+  private String[] addresses;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    RateLimiterProperties props = new RateLimiterProperties();
+    props.getCompact().setCapacity(1 << 21);
+
+    limiter = "compact".equals(backend)
+        ? new CompactRateLimiterBackend(props)
+        : new Bucket4jRateLimiterBackend();
+
+    addresses = new String[clients];
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < clients; i++) {
+      addresses[i] = ipv6
+          ? String.format("2001:db8:%x:%x::%x", random.nextInt(0x10000), i >>> 16, i & 0xFFFF)
+          : ((i >>> 24) & 0xFF | 10) + "." + ((i >>> 16) & 0xFF) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next = ThreadLocalRandom.current().nextInt(1 << 20);
+  }
+
+  @Benchmark
+  public long tryConsume(Cursor cursor) {
+    String ip = addresses[cursor.next++ % addresses.length];
+    long result = limiter.tryConsume(ip, limit);
+    if (result < 0) {
+      return limiter.recordExceeded(ip, limit);
+    }
+    return result;
+  }
+}
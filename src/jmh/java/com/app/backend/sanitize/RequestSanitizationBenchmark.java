@@ -0,0 +1,93 @@
+package com.app.backend.sanitize;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Koszt sanitizacji parametrów na żądanie: wariant {@code legacy} odtwarza
+ * poprzednie zachowanie (escapeHtml4 na każdej wartości, mapa budowana
+ * streamami przy każdym wywołaniu), {@code current} to
+ * {@link SanitizedParametersRequest}. Spring MVC odczytuje mapę kilka razy,
+ * stąd {@code reads}.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=RequestSanitizationBenchmark -PjmhProfilers=gc}
+ * - kolumna {@code gc.alloc.rate.norm} to bajty alokowane na operację.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestSanitizationBenchmark {
+
+  @Param({ "clean", "dirty" })
+  public String values;
+
+  @Param({ "3" })
+  public int reads;
+
+  private MockHttpServletRequest request;
+  private String single;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    request = new MockHttpServletRequest("GET", "/users");
+    boolean dirty = "dirty".equals(values);
+    request.addParameter("page", "2");
+    request.addParameter("size", "50");
+    request.addParameter("sort", "createdAt,desc");
+    request.addParameter("q", dirty ? "<script>alert(1)</script>" : "john.doe");
+    request.addParameter("tag", "java", dirty ? "a&b" : "spring");
+    single = dirty ? " Tom & \"Jerry\" " : "plain-value-without-markup";
+  }
+
+  @Benchmark
+  public String sanitizeValueLegacy() {
+    return StringEscapeUtils.escapeHtml4(single.trim());
+  }
+
+  @Benchmark
+  public String sanitizeValue() {
+    return HtmlSanitizer.sanitize(single);
+  }
+
+  @Benchmark
+  public void parametersLegacy(Blackhole bh) {
+    for (int i = 0; i < reads; i++) {
+      bh.consume(legacyParameterMap(request));
+      bh.consume(StringEscapeUtils.escapeHtml4(request.getParameter("q").trim()));
+    }
+  }
+
+  @Benchmark
+  public void parameters(Blackhole bh) {
+    HttpServletRequest wrapped = new SanitizedParametersRequest(request);
+    for (int i = 0; i < reads; i++) {
+      bh.consume(wrapped.getParameterMap());
+      bh.consume(wrapped.getParameter("q"));
+    }
+  }
+
+  private static Map<String, String[]> legacyParameterMap(HttpServletRequest request) {
+    return request.getParameterMap().entrySet().stream()
+        .collect(Collectors.toMap(
+            Map.Entry::getKey,
+            entry -> Arrays.stream(entry.getValue())
+                .map(v -> StringEscapeUtils.escapeHtml4(v.trim()))
+                .toArray(String[]::new)));
+  }
+}
@@ -0,0 +1,76 @@
+package com.app.backend.search;
+
+import com.app.backend.dto.UserView;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jedna strona (20) wyników {@link UserTextIndex} dla {@code users}
+ * syntetycznych użytkowników ({@code imię_losowy-sufiks}): zapytanie wąskie,
+ * prefiks 2-znakowy i szerokie (co 15. użytkownik), przy limicie kandydatów
+ * jak domyślny {@code users.search.maxCandidates}. Zajęta pamięć na
+ * użytkownika jest raportowana jako licznik {@code memoryBytesPerUser}.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=UserSearchBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserSearchBenchmark {
+
+  private static final String[] NAMES = { "john", "anna", "mike", "kate", "tom", "eva", "piotr", "marta", "adam",
+      "ola", "jan", "ewa", "kuba", "zosia", "alex" };
+
+  @Param({ "1000000" })
+  public int users;
+
+  @Param({ "zosia_a1", "ka", "anna" })
+  public String query;
+
+  private UserTextIndex index;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    index = new UserTextIndex(users);
+    Instant now = Instant.now();
+    for (int i = 1; i <= users; i++) {
+      String username = NAMES[random.nextInt(NAMES.length)] + "_" + Integer.toString(random.nextInt(1_000_000), 36)
+          + i;
+      index.add(new UserView((long) i, username, username + "@mail" + random.nextInt(50) + ".com", now));
+    }
+    index.trimToSize();
+  }
+
+  @Benchmark
+  public UserTextIndex.Result search(Footprint footprint) {
+    return index.search(query, -1, 21, 20_000);
+  }
+
+  /** Rozmiar indeksu w wynikach JMH (kolumny obok czasu wyszukiwania). */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+
+    public long memoryBytesPerUser;
+    public long trigrams;
+
+    @Setup(Level.Iteration)
+    public void measure(UserSearchBenchmark benchmark) {
+      memoryBytesPerUser = benchmark.index.memoryBytes() / benchmark.users;
+      trigrams = benchmark.index.trigramCount();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.app.backend.service;
+
+import com.app.backend.BackendApplication;
+import com.app.backend.dto.UserView;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Koszt operacji {@link UserService} na pełnym kontekście aplikacji (JPA,
+ * Hibernate, pula Hikari) z bazą H2 w pamięci, wypełnioną {@code users}
+ * rekordami. {@code getAllUsers} pokazuje, jak rośnie koszt przy braku
+ * stronicowania.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=UserServiceBenchmark -PjmhProfilers=gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserServiceBenchmark {
+
+  @Param({ "100", "10000" })
+  public int users;
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private long[] ids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(BackendApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN",
+            "logging.level.com.app.backend=WARN")
+        .run();
+    userService = context.getBean(UserService.class);
+
+    List<User> batch = new ArrayList<>(users);
+    for (int i = 0; i < users; i++) {
+      batch.add(newUser());
+    }
+    ids = context.getBean(UserRepository.class).saveAll(batch).stream()
+        .mapToLong(User::getId)
+        .toArray();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserView createUser() {
+    return userService.createUser(newUser());
+  }
+
+  @Benchmark
+  public UserView getUserById() {
+    return userService.getUserById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+  }
+
+  @Benchmark
+  public List<UserView> getAllUsers() {
+    return userService.getAllUsers();
+  }
+
+  private User newUser() {
+    long n = sequence.incrementAndGet();
+    return User.builder()
+        .username("user" + n)
+        .email("user" + n + "@example.com")
+        .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3ZkDqBcT5nR0q2hXrFhqNVe")
+        .build();
+  }
+}
@@ -0,0 +1,184 @@
+package com.app.backend.accesslog;
+
+import com.app.backend.config.AccessLogProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchroniczny access log. Wątek requestu tylko wypełnia wolny slot
+ * {@link AccessLogRingBuffer} (jeden CAS, bez alokacji i bez I/O); osobny
+ * wątek koduje rekordy do JSON lines ({@link AccessLogEncoder}) i zapisuje je
+ * do zmapowanego, rotowanego pliku ({@link RollingMappedFile}). Przy pełnym
+ * buforze obowiązuje {@code access-log.overflow}: DROP albo BLOCK z limitem
+ * czasu; odrzucone rekordy są liczone i raportowane w logu aplikacji.
+ */
+@Component
+public class AccessLog {
+
+  private static final Logger logger = LoggerFactory.getLogger(AccessLog.class);
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long DROP_REPORT_NANOS = TimeUnit.SECONDS.toNanos(10);
+  // Co ile rekordów sprawdzać zegar raportu, gdy bufor nie pustoszeje
+  private static final int DROP_REPORT_CHECK_MASK = 1023;
+
+  private final boolean enabled;
+  private final boolean block;
+  private final long blockTimeoutNanos;
+  private final AccessLogRingBuffer ring;
+  private final RollingMappedFile file;
+  private final Thread writer;
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder written = new LongAdder();
+
+  private volatile boolean running;
+
+  // Tylko wątek zapisujący
+  private long reportedDrops;
+  private long lastReport;
+
+  public AccessLog(AccessLogProperties props) {
+    this.enabled = props.isEnabled();
+    this.block = props.getOverflow() == AccessLogProperties.Overflow.BLOCK;
+    this.blockTimeoutNanos = props.getBlockTimeout().toNanos();
+    this.ring = enabled ? new AccessLogRingBuffer(props.getBufferSize()) : null;
+    this.file = new RollingMappedFile(Path.of(props.getDirectory()), props.getFileName(),
+        props.getSegmentSize().toBytes(), props.getMaxFiles());
+    this.writer = Thread.ofPlatform().name("access-log-writer").daemon().unstarted(this::drainLoop);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  public long getWritten() {
+    return written.sum();
+  }
+
+  /**
+   * Wstawia rekord do bufora.
+   *
+   * @param weight liczba żądań reprezentowanych przez linię (patrz
+   *          {@link AccessLogSampler})
+   * @return {@code false}, gdy rekord został odrzucony (pełny bufor)
+   */
+  public boolean record(long timestamp, long durationNanos, int status, long weight, String method, String uri,
+      String query, String clientIp, String userAgent, String correlationId) {
+    long pos = ring.tryClaim();
+    if (pos < 0 && (!block || (pos = awaitSlot()) < 0)) {
+      dropped.increment();
+      return false;
+    }
+    AccessLogRecord r = ring.slot(pos);
+    r.timestamp = timestamp;
+    r.durationNanos = durationNanos;
+    r.status = status;
+    r.weight = weight;
+    r.method = method;
+    r.uri = uri;
+    r.query = query;
+    r.clientIp = clientIp;
+    r.userAgent = userAgent;
+    r.correlationId = correlationId;
+    ring.publish(pos);
+    return true;
+  }
+
+  private long awaitSlot() {
+    long deadline = System.nanoTime() + blockTimeoutNanos;
+    long pos;
+    while ((pos = ring.tryClaim()) < 0) {
+      if (!running || System.nanoTime() - deadline >= 0) {
+        return -1;
+      }
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    }
+    return pos;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (enabled) {
+      running = true;
+      writer.start();
+      logger.info("Access log writer started: {} slots", ring.capacity());
+    }
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writer);
+    writer.join(TimeUnit.SECONDS.toMillis(5));
+    logger.info("Access log writer stopped: written={}, dropped={}", written.sum(), dropped.sum());
+  }
+
+  private void drainLoop() {
+    AccessLogEncoder encoder = new AccessLogEncoder();
+    lastReport = System.nanoTime();
+    long failures = 0;
+    long drained = 0;
+    // Po zatrzymaniu dopisz to, co już jest w buforze
+    while (true) {
+      AccessLogRecord record = ring.peek();
+      // Raport także przy stale niepustym buforze - wtedy właśnie są odrzuty
+      if (record == null || (++drained & DROP_REPORT_CHECK_MASK) == 0) {
+        reportDrops(System.nanoTime());
+      }
+      if (record == null) {
+        if (!running) {
+          break;
+        }
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+      int length = encoder.encode(record);
+      ring.release();
+      try {
+        file.write(encoder.buffer(), length);
+        written.increment();
+      } catch (IOException | RuntimeException e) {
+        dropped.increment();
+        if (failures++ % 1000 == 0) {
+          logger.error("Access log write failed ({} failures so far): {}", failures, e.getMessage());
+        }
+        file.reset();
+      }
+    }
+    try {
+      file.close();
+    } catch (IOException e) {
+      logger.warn("Failed to close access log: {}", e.getMessage());
+    }
+  }
+
+  private void reportDrops(long now) {
+    if (now - lastReport < DROP_REPORT_NANOS) {
+      return;
+    }
+    long drops = dropped.sum();
+    if (drops != reportedDrops) {
+      logger.warn("Access log buffer full: {} records dropped in the last {} s", drops - reportedDrops,
+          TimeUnit.NANOSECONDS.toSeconds(now - lastReport));
+      reportedDrops = drops;
+    }
+    lastReport = now;
+  }
+}
@@ -0,0 +1,170 @@
+package com.app.backend.accesslog;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Koduje {@link AccessLogRecord} jako jedną linię JSON (UTF-8) do własnego,
+ * wielokrotnie używanego bufora. Używany tylko przez wątek zapisujący, więc
+ * nie jest thread-safe. Pola tekstowe są escapowane zgodnie z RFC 8259 i
+ * przycinane do {@link #MAX_FIELD_LENGTH} znaków, żeby rozmiar rekordu był
+ * ograniczony.
+ */
+final class AccessLogEncoder {
+
+  static final int MAX_FIELD_LENGTH = 2048;
+
+  private static final DateTimeFormatter SECOND_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private byte[] buffer = new byte[1024];
+  private int length;
+
+  // Prefiks "yyyy-MM-ddTHH:mm:ss." liczony raz na sekundę
+  private long cachedSecond = Long.MIN_VALUE;
+  private byte[] secondPrefix;
+
+  byte[] buffer() {
+    return buffer;
+  }
+
+  /** @return liczba bajtów linii w {@link #buffer()}, łącznie z {@code \n} */
+  int encode(AccessLogRecord record) {
+    length = 0;
+    raw("{\"ts\":\"");
+    timestamp(record.timestamp);
+    raw("\",\"method\":");
+    string(record.method);
+    raw(",\"uri\":");
+    string(record.uri);
+    if (record.query != null) {
+      raw(",\"query\":");
+      string(record.query);
+    }
+    raw(",\"status\":");
+    number(record.status);
+    raw(",\"durationMs\":");
+    long micros = record.durationNanos / 1_000;
+    number(micros / 1_000);
+    ensure(4);
+    int fraction = (int) (micros % 1_000);
+    buffer[length++] = '.';
+    buffer[length++] = (byte) ('0' + fraction / 100);
+    buffer[length++] = (byte) ('0' + fraction / 10 % 10);
+    buffer[length++] = (byte) ('0' + fraction % 10);
+    raw(",\"weight\":");
+    number(record.weight);
+    raw(",\"ip\":");
+    string(record.clientIp);
+    if (record.userAgent != null) {
+      raw(",\"ua\":");
+      string(record.userAgent);
+    }
+    if (record.correlationId != null) {
+      raw(",\"correlationId\":");
+      string(record.correlationId);
+    }
+    raw("}\n");
+    return length;
+  }
+
+  private void timestamp(long epochMillis) {
+    long second = Math.floorDiv(epochMillis, 1_000);
+    if (second != cachedSecond) {
+      cachedSecond = second;
+      secondPrefix = (SECOND_FORMAT.format(Instant.ofEpochSecond(second)) + ".")
+          .getBytes(StandardCharsets.US_ASCII);
+    }
+    ensure(secondPrefix.length + 4);
+    System.arraycopy(secondPrefix, 0, buffer, length, secondPrefix.length);
+    length += secondPrefix.length;
+    int millis = (int) Math.floorMod(epochMillis, 1_000);
+    buffer[length++] = (byte) ('0' + millis / 100);
+    buffer[length++] = (byte) ('0' + millis / 10 % 10);
+    buffer[length++] = (byte) ('0' + millis % 10);
+    buffer[length++] = 'Z';
+  }
+
+  private void raw(String ascii) {
+    int n = ascii.length();
+    ensure(n);
+    for (int i = 0; i < n; i++) {
+      buffer[length++] = (byte) ascii.charAt(i);
+    }
+  }
+
+  private void number(long value) {
+    if (value < 0) {
+      ensure(1);
+      buffer[length++] = '-';
+      value = -value;
+    }
+    ensure(20);
+    int start = length;
+    do {
+      buffer[length++] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    for (int i = start, j = length - 1; i < j; i++, j--) {
+      byte tmp = buffer[i];
+      buffer[i] = buffer[j];
+      buffer[j] = tmp;
+    }
+  }
+
+  private void string(String value) {
+    if (value == null) {
+      raw("null");
+      return;
+    }
+    int n = Math.min(value.length(), MAX_FIELD_LENGTH);
+    // Najgorszy przypadek: \\u00XX (6 bajtów) na znak
+    ensure(n * 6 + 2);
+    byte[] b = buffer;
+    int pos = length;
+    b[pos++] = '"';
+    for (int i = 0; i < n; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c < 0x80) {
+        if (c == '"' || c == '\\') {
+          b[pos++] = '\\';
+        }
+        b[pos++] = (byte) c;
+      } else if (c < 0x20) {
+        b[pos++] = '\\';
+        b[pos++] = 'u';
+        b[pos++] = '0';
+        b[pos++] = '0';
+        b[pos++] = HEX[c >> 4];
+        b[pos++] = HEX[c & 0xF];
+      } else if (c < 0x800) {
+        b[pos++] = (byte) (0xC0 | c >> 6);
+        b[pos++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, value.charAt(++i));
+        b[pos++] = (byte) (0xF0 | cp >> 18);
+        b[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+        b[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+        b[pos++] = (byte) (0x80 | cp & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        b[pos++] = '?'; // Osierocony surogat - nie da się go zakodować w UTF-8
+      } else {
+        b[pos++] = (byte) (0xE0 | c >> 12);
+        b[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+        b[pos++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+    b[pos++] = '"';
+    length = pos;
+  }
+
+  private void ensure(int extra) {
+    if (length + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+    }
+  }
+}
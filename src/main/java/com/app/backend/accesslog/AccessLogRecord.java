@@ -0,0 +1,30 @@
+package com.app.backend.accesslog;
+
+/**
+ * Slot bufora {@link AccessLogRingBuffer}. Obiekty są alokowane raz przy
+ * starcie i nadpisywane przez wątki requestów; pola tekstowe to referencje do
+ * Stringów, które kontener i tak już utworzył.
+ */
+final class AccessLogRecord {
+
+  long timestamp;
+  long durationNanos;
+  int status;
+  long weight;
+  String method;
+  String uri;
+  String query;
+  String clientIp;
+  String userAgent;
+  String correlationId;
+
+  /** Zwalnia referencje, żeby slot nie trzymał Stringów zakończonych żądań. */
+  void clear() {
+    method = null;
+    uri = null;
+    query = null;
+    clientIp = null;
+    userAgent = null;
+    correlationId = null;
+  }
+}
@@ -0,0 +1,79 @@
+package com.app.backend.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ograniczony bufor wielu producentów / jednego konsumenta bez blokad
+ * (schemat Vyukova): każdy slot ma numer sekwencji, który mówi, czy slot jest
+ * wolny dla pozycji {@code pos} ({@code seq == pos}), czy zawiera opublikowany
+ * rekord ({@code seq == pos + 1}). Producent rezerwuje pozycję jednym CAS-em,
+ * wypełnia slot i publikuje go zapisem z semantyką release.
+ */
+final class AccessLogRingBuffer {
+
+  private final AccessLogRecord[] slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  // Tylko wątek zapisujący
+  private long head;
+
+  AccessLogRingBuffer(int requestedCapacity) {
+    int capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+    this.slots = new AccessLogRecord[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = new AccessLogRecord();
+      sequences.set(i, i);
+    }
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+
+  /**
+   * Rezerwuje następną pozycję.
+   *
+   * @return pozycja do wypełnienia i {@link #publish(long)} albo -1, gdy bufor
+   *         jest pełny
+   */
+  long tryClaim() {
+    while (true) {
+      long pos = tail.get();
+      long diff = sequences.get((int) pos & mask) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          return pos;
+        }
+      } else if (diff < 0) {
+        return -1;
+      }
+      // diff > 0: inny producent zajął już tę pozycję, ponów z nowym tail
+    }
+  }
+
+  AccessLogRecord slot(long pos) {
+    return slots[(int) pos & mask];
+  }
+
+  void publish(long pos) {
+    sequences.lazySet((int) pos & mask, pos + 1);
+  }
+
+  /** Następny opublikowany rekord albo {@code null}; tylko wątek zapisujący. */
+  AccessLogRecord peek() {
+    int index = (int) head & mask;
+    return sequences.get(index) == head + 1 ? slots[index] : null;
+  }
+
+  /** Oddaje slot zwrócony przez {@link #peek()} producentom. */
+  void release() {
+    int index = (int) head & mask;
+    slots[index].clear();
+    sequences.lazySet(index, head + slots.length);
+    head++;
+  }
+}
@@ -0,0 +1,190 @@
+package com.app.backend.accesslog;
+
+import com.app.backend.config.AccessLogProperties;
+import com.app.backend.routing.RouteTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decyzja o zapisaniu linii access logu podejmowana po odpowiedzi. Zawsze
+ * zostają 5xx, 429 i wolne żądania; zdrowe żądania są próbkowane per trasa.
+ * Każda zapisana linia niesie wagę - liczbę żądań, które reprezentuje (ona
+ * sama plus pominięte od poprzedniej zapisanej na tej trasie), więc suma wag
+ * w logu odtwarza faktyczny ruch. Liczniki per trasa są w {@link #snapshot()}.
+ * <p>
+ * Żeby waga nie czekała w nieskończoność przy {@code fraction: 0},
+ * {@code ratePerSecond: 0} albo rzadkim ruchu, trasa z pominiętymi żądaniami
+ * zapisuje co najmniej jedną linię na {@code weightFlushInterval}. Linia, której
+ * nie udało się zapisać (pełny bufor), oddaje wagę przez
+ * {@link #unrecorded(String, String, long)}.
+ */
+@Component
+public class AccessLogSampler {
+
+  private static final Logger log = LoggerFactory.getLogger(AccessLogSampler.class);
+
+  private final boolean enabled;
+  private final long slowThresholdNanos;
+  private final long weightFlushMillis;
+  private final RouteTrie<Route> routes = new RouteTrie<>();
+  private final List<Route> allRoutes = new ArrayList<>();
+  private final Route defaultRoute;
+
+  public AccessLogSampler(AccessLogProperties props) {
+    AccessLogProperties.Sampling sampling = props.getSampling();
+    this.enabled = sampling.isEnabled();
+    this.slowThresholdNanos = sampling.getSlowThreshold().toNanos();
+    this.weightFlushMillis = sampling.getWeightFlushInterval().toMillis();
+    this.defaultRoute = new Route("default", sampling.getDefaultFraction(), -1);
+    allRoutes.add(defaultRoute);
+
+    for (AccessLogProperties.Route r : sampling.getRoutes()) {
+      Route route = new Route(r.getName(), r.getFraction() != null ? r.getFraction() : sampling.getDefaultFraction(),
+          r.getRatePerSecond() != null ? r.getRatePerSecond() : -1);
+      allRoutes.add(route);
+      List<String> methods = r.getMethods();
+      for (String path : r.getPaths()) {
+        if (methods == null || methods.isEmpty()) {
+          routes.add(path, null, route);
+        } else {
+          for (String method : methods) {
+            routes.add(path, method, route);
+          }
+        }
+      }
+      log.info("Access log sampling route '{}' compiled: paths={}, methods={}, fraction={}, ratePerSecond={}",
+          r.getName(), r.getPaths(), methods, route.fraction, r.getRatePerSecond());
+    }
+  }
+
+  /**
+   * @param path ścieżka jak z {@link com.app.backend.routing.RequestPaths#lookupPath}
+   * @return 0 gdy linię należy pominąć, w przeciwnym razie jej waga (liczba
+   *         reprezentowanych żądań, co najmniej 1)
+   */
+  public long sample(String method, String path, int status, long durationNanos) {
+    return sample(method, path, status, durationNanos, System.currentTimeMillis());
+  }
+
+  long sample(String method, String path, int status, long durationNanos, long nowMillis) {
+    if (!enabled) {
+      return 1;
+    }
+    Route route = route(method, path);
+    route.total.increment();
+    if (status >= 500 || status == 429 || durationNanos >= slowThresholdNanos) {
+      route.always.increment();
+      return 1;
+    }
+    if (!route.admit(nowMillis) && !route.flushDue(nowMillis, weightFlushMillis)) {
+      route.suppressed.increment();
+      route.suppressedSinceKept.incrementAndGet();
+      return 0;
+    }
+    route.sampled.increment();
+    return route.suppressedSinceKept.getAndSet(0) + 1;
+  }
+
+  /**
+   * Oddaje wagę linii, której nie zapisano (np. pełny bufor access logu) -
+   * przejmie ją następna zapisana linia tej trasy.
+   */
+  public void unrecorded(String method, String path, long weight) {
+    if (!enabled || weight <= 0) {
+      return;
+    }
+    Route route = route(method, path);
+    route.unrecorded.add(weight);
+    route.suppressedSinceKept.addAndGet(weight);
+  }
+
+  private Route route(String method, String path) {
+    Route route = routes.find(method, path);
+    return route != null ? route : defaultRoute;
+  }
+
+  /**
+   * Liczniki per trasa: wszystkie żądania, zapisane bezwarunkowo (błąd, 429,
+   * wolne), zapisane z próbkowania, pominięte, waga linii niezapisanych z
+   * braku miejsca i waga czekająca na następną zapisaną linię.
+   */
+  public Map<String, Object> snapshot() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    for (Route route : allRoutes) {
+      Map<String, Object> counters = new LinkedHashMap<>();
+      counters.put("total", route.total.sum());
+      counters.put("always", route.always.sum());
+      counters.put("sampled", route.sampled.sum());
+      counters.put("suppressed", route.suppressed.sum());
+      counters.put("unrecorded", route.unrecorded.sum());
+      counters.put("pendingWeight", route.suppressedSinceKept.get());
+      result.put(route.name, counters);
+    }
+    return result;
+  }
+
+  private static final class Route {
+    final String name;
+    final double fraction;
+    final int ratePerSecond;
+    final LongAdder total = new LongAdder();
+    final LongAdder always = new LongAdder();
+    final LongAdder sampled = new LongAdder();
+    final LongAdder suppressed = new LongAdder();
+    final LongAdder unrecorded = new LongAdder();
+    final AtomicLong suppressedSinceKept = new AtomicLong();
+    // Od kiedy czeka pierwsze pominięte żądanie; wyścig najwyżej dubluje
+    // linię opróżniającą, więc bez CAS
+    volatile long pendingSinceMillis;
+    // Sekunda (starsze bity) i liczba zapisanych w niej linii (24 młodsze bity)
+    final AtomicLong rateWindow = new AtomicLong();
+
+    Route(String name, double fraction, int ratePerSecond) {
+      this.name = name;
+      this.fraction = fraction;
+      this.ratePerSecond = ratePerSecond;
+    }
+
+    boolean admit(long nowMillis) {
+      if (ratePerSecond < 0) {
+        return fraction >= 1.0 || fraction > 0 && ThreadLocalRandom.current().nextDouble() < fraction;
+      }
+      if (ratePerSecond == 0) {
+        return false;
+      }
+      long second = nowMillis / 1_000;
+      while (true) {
+        long state = rateWindow.get();
+        long next;
+        if (state >>> 24 != second) {
+          next = second << 24 | 1;
+        } else if ((state & 0xFFFFFF) < ratePerSecond) {
+          next = state + 1;
+        } else {
+          return false;
+        }
+        if (rateWindow.compareAndSet(state, next)) {
+          return true;
+        }
+      }
+    }
+
+    /** Czy pominięte żądania czekają co najmniej {@code intervalMillis}. */
+    boolean flushDue(long nowMillis, long intervalMillis) {
+      if (suppressedSinceKept.get() == 0) {
+        pendingSinceMillis = nowMillis;
+        return false;
+      }
+      return nowMillis - pendingSinceMillis >= intervalMillis;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.app.backend.accesslog;
+
+import com.app.backend.metrics.RouteLatencyMetrics;
+import com.app.backend.net.ClientIpResolver;
+import com.app.backend.routing.RequestPaths;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Zapis zakończonego żądania: histogram trasy w {@link RouteLatencyMetrics},
+ * decyzja {@link AccessLogSampler} i linia w {@link AccessLog} (albo przez
+ * logback, gdy access log jest wyłączony). Wołany przez
+ * {@code RequestLoggingFilter} i przez {@code EarlyRejectionValve} dla
+ * żądań odrzuconych przed łańcuchem filtrów.
+ */
+@Component
+public class RequestLog {
+
+  public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+
+  private static final Logger logger = LoggerFactory.getLogger(RequestLog.class);
+
+  private final ClientIpResolver clientIpResolver;
+  private final AccessLog accessLog;
+  private final AccessLogSampler sampler;
+  private final RouteLatencyMetrics latencyMetrics;
+
+  public RequestLog(ClientIpResolver clientIpResolver, AccessLog accessLog, AccessLogSampler sampler,
+      RouteLatencyMetrics latencyMetrics) {
+    this.clientIpResolver = clientIpResolver;
+    this.accessLog = accessLog;
+    this.sampler = sampler;
+    this.latencyMetrics = latencyMetrics;
+  }
+
+  /**
+   * @param timestamp początek żądania (epoch millis)
+   * @param correlationId może być {@code null}
+   */
+  public void record(HttpServletRequest request, int status, long timestamp, long durationNanos,
+      String correlationId) {
+    String method = request.getMethod();
+    latencyMetrics.record(method, (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+        status, durationNanos);
+    String path = RequestPaths.lookupPath(request);
+    long weight = sampler.sample(method, path, status, durationNanos);
+    if (weight <= 0) {
+      return;
+    }
+
+    String uri = request.getRequestURI();
+    String clientIp = clientIpResolver.resolve(request).address();
+    String userAgent = request.getHeader("User-Agent");
+    if (accessLog.isEnabled()) {
+      if (!accessLog.record(timestamp, durationNanos, status, weight, method, uri, request.getQueryString(),
+          clientIp, userAgent, correlationId)) {
+        sampler.unrecorded(method, path, weight);
+      }
+    } else if (logger.isInfoEnabled()) {
+      String query = request.getQueryString();
+      logger.info("method={} uri={} ip={} status={} timeMs={} weight={} ua=\"{}\"", method,
+          query != null ? uri + "?" + query : uri, clientIp, status, durationNanos / 1_000_000, weight, userAgent);
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package com.app.backend.accesslog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plik JSON lines zapisywany przez pamięć mapowaną. Segment rośnie oknami po
+ * {@link #CHUNK_SIZE} bajtów; po przekroczeniu {@code segmentSize} segment
+ * jest przycinany do faktycznej długości i zaczyna się nowy
+ * ({@code <prefix>-yyyyMMdd-HHmmss-SSS.jsonl}, czas UTC - kolejność nazw jest
+ * chronologiczna także przy zmianie czasu). Starsze niż {@code maxFiles}
+ * ostatnich segmentów są usuwane. Zapis to kopiowanie do page cache -
+ * flush na dysk robi system, więc wolny dysk nie blokuje wątku zapisującego
+ * na każdej linii. Tylko jeden wątek.
+ * <p>
+ * Segment niezamknięty poprawnie (awaria procesu) kończy się dopełnieniem
+ * okna bajtami NUL i czasem uciętą linią. Przed otwarciem pierwszego
+ * segmentu takie pliki są przycinane do ostatniego pełnego {@code \n}.
+ */
+final class RollingMappedFile implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(RollingMappedFile.class);
+
+  static final int CHUNK_SIZE = 1 << 20;
+  private static final String SUFFIX = ".jsonl";
+  private static final DateTimeFormatter NAME_FORMAT =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+  private static final int RECOVERY_BLOCK = 64 * 1024;
+
+  private final Path directory;
+  private final String prefix;
+  private final long segmentSize;
+  private final int maxFiles;
+
+  private FileChannel channel;
+  private MappedByteBuffer chunk;
+  private long chunkStart;
+  private long position;
+  private boolean recovered;
+
+  RollingMappedFile(Path directory, String prefix, long segmentSize, int maxFiles) {
+    this.directory = directory;
+    this.prefix = prefix;
+    this.segmentSize = Math.max(segmentSize, CHUNK_SIZE);
+    this.maxFiles = maxFiles;
+  }
+
+  void write(byte[] data, int length) throws IOException {
+    if (channel != null && position > 0 && position + length > segmentSize) {
+      finishSegment();
+    }
+    if (channel == null) {
+      openSegment();
+    }
+    int offset = 0;
+    while (offset < length) {
+      if (!chunk.hasRemaining()) {
+        chunkStart += CHUNK_SIZE;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_SIZE);
+      }
+      int n = Math.min(length - offset, chunk.remaining());
+      chunk.put(data, offset, n);
+      offset += n;
+    }
+    position += length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      finishSegment();
+    }
+  }
+
+  /** Porzuca bieżący segment po błędzie I/O; następny zapis otworzy nowy. */
+  void reset() {
+    try {
+      close();
+    } catch (IOException e) {
+      logger.debug("Failed to close access log segment: {}", e.getMessage());
+    }
+  }
+
+  private void openSegment() throws IOException {
+    Files.createDirectories(directory);
+    if (!recovered) {
+      recovered = true;
+      listSegments().forEach(RollingMappedFile::recover);
+    }
+    Path file;
+    long now = System.currentTimeMillis();
+    do {
+      file = directory.resolve(prefix + "-" + NAME_FORMAT.format(Instant.ofEpochMilli(now++)) + SUFFIX);
+    } while (Files.exists(file));
+    channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    chunkStart = 0;
+    position = 0;
+    chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+    deleteOldSegments();
+  }
+
+  private void finishSegment() throws IOException {
+    try {
+      if (chunk != null) {
+        chunk.force();
+        try {
+          channel.truncate(position);
+        } catch (IOException e) {
+          // Windows nie pozwala przyciąć zmapowanego pliku - dopełnij okno
+          // znakami nowej linii, żeby plik pozostał poprawnym JSON lines
+          while (chunk.hasRemaining()) {
+            chunk.put((byte) '\n');
+          }
+          chunk.force();
+        }
+      }
+    } finally {
+      chunk = null;
+      FileChannel closing = channel;
+      channel = null;
+      closing.close();
+    }
+  }
+
+  private void deleteOldSegments() {
+    List<Path> segments = listSegments();
+    if (segments.size() <= maxFiles) {
+      return;
+    }
+    for (Path old : segments.subList(0, segments.size() - maxFiles)) {
+      try {
+        Files.deleteIfExists(old);
+      } catch (IOException e) {
+        logger.debug("Cannot delete access log segment {}: {}", old, e.getMessage());
+      }
+    }
+  }
+
+  /** @return segmenty od najstarszego (pusta lista, gdy katalogu nie da się odczytać) */
+  private List<Path> listSegments() {
+    List<Path> segments = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*" + SUFFIX)) {
+      stream.forEach(segments::add);
+    } catch (IOException e) {
+      logger.warn("Cannot list access log segments in {}: {}", directory, e.getMessage());
+      return List.of();
+    }
+    // Nazwy zawierają znacznik czasu UTC, więc kolejność leksykograficzna = chronologiczna
+    segments.sort(null);
+    return segments;
+  }
+
+  /**
+   * Przycina segment kończący się bajtami NUL (niezamknięty po awarii) do
+   * ostatniego {@code \n}. Koder nigdy nie zapisuje bajtu 0, więc NUL na
+   * końcu to zawsze dopełnienie okna.
+   */
+  static void recover(Path segment) {
+    try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = ch.size();
+      ByteBuffer last = ByteBuffer.allocate(1);
+      if (size == 0 || ch.read(last, size - 1) != 1 || last.get(0) != 0) {
+        return;
+      }
+      long length = lastNewLine(ch, size) + 1;
+      ch.truncate(length);
+      logger.warn("Recovered access log segment {}: truncated from {} to {} bytes", segment, size, length);
+    } catch (IOException e) {
+      logger.warn("Cannot recover access log segment {}: {}", segment, e.getMessage());
+    }
+  }
+
+  private static long lastNewLine(FileChannel ch, long size) throws IOException {
+    ByteBuffer block = ByteBuffer.allocate(RECOVERY_BLOCK);
+    long end = size;
+    while (end > 0) {
+      long start = Math.max(0, end - RECOVERY_BLOCK);
+      block.clear().limit((int) (end - start));
+      while (block.hasRemaining()) {
+        if (ch.read(block, start + block.position()) < 0) {
+          throw new IOException("Unexpected end of " + ch);
+        }
+      }
+      for (int i = block.limit() - 1; i >= 0; i--) {
+        if (block.get(i) == '\n') {
+          return start + i;
+        }
+      }
+      end = start;
+    }
+    return -1;
+  }
+}
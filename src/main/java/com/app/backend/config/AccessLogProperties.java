@@ -0,0 +1,279 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "access-log")
+@Validated
+public class AccessLogProperties {
+  private static final Logger logger = LoggerFactory.getLogger(AccessLogProperties.class);
+
+  /**
+   * Zachowanie przy pełnym buforze.
+   */
+  public enum Overflow {
+    /** Rekord jest odrzucany i liczony - request nigdy nie czeka. */
+    DROP,
+    /** Request czeka na wolny slot najwyżej {@code blockTimeout}, potem DROP. */
+    BLOCK
+  }
+
+  /** Wyłączony = linia przez logback na wątku requestu, jak wcześniej. */
+  private boolean enabled = true;
+
+  @NotBlank
+  private String directory = "logs";
+
+  @NotBlank
+  @Pattern(regexp = "[A-Za-z0-9_.-]+")
+  private String fileName = "access";
+
+  /** Liczba slotów bufora (zaokrąglana w górę do potęgi dwójki). */
+  @Min(64)
+  @Max(1 << 22)
+  private int bufferSize = 16384;
+
+  @NotNull
+  private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+  @Min(1)
+  private int maxFiles = 30;
+
+  @NotNull
+  private Overflow overflow = Overflow.DROP;
+
+  @NotNull
+  private Duration blockTimeout = Duration.ofMillis(50);
+
+  @Valid
+  private Sampling sampling = new Sampling();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public void setFileName(String fileName) {
+    this.fileName = fileName;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public DataSize getSegmentSize() {
+    return segmentSize;
+  }
+
+  public void setSegmentSize(DataSize segmentSize) {
+    this.segmentSize = segmentSize;
+  }
+
+  public int getMaxFiles() {
+    return maxFiles;
+  }
+
+  public void setMaxFiles(int maxFiles) {
+    this.maxFiles = maxFiles;
+  }
+
+  public Overflow getOverflow() {
+    return overflow;
+  }
+
+  public void setOverflow(Overflow overflow) {
+    this.overflow = overflow;
+  }
+
+  public Duration getBlockTimeout() {
+    return blockTimeout;
+  }
+
+  public void setBlockTimeout(Duration blockTimeout) {
+    this.blockTimeout = blockTimeout;
+  }
+
+  public Sampling getSampling() {
+    return sampling;
+  }
+
+  public void setSampling(Sampling sampling) {
+    this.sampling = sampling;
+  }
+
+  /**
+   * Próbkowanie po odpowiedzi (tail-based). Błędy 5xx, 429 i żądania wolniejsze
+   * niż {@code slowThreshold} są zawsze logowane; z pozostałych trafia do logu
+   * ułamek {@code fraction} albo najwyżej {@code ratePerSecond} na sekundę,
+   * osobno dla każdej trasy z {@code routes} (reszta: {@code defaultFraction}).
+   */
+  public static class Sampling {
+
+    private boolean enabled = true;
+
+    @NotNull
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double defaultFraction = 0.1;
+
+    // Najdłuższy czas, przez jaki waga pominiętych żądań trasy czeka na
+    // zapisaną linię (ważne przy fraction: 0 / ratePerSecond: 0)
+    @NotNull
+    private Duration weightFlushInterval = Duration.ofMinutes(1);
+
+    @Valid
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getSlowThreshold() {
+      return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+      this.slowThreshold = slowThreshold;
+    }
+
+    public double getDefaultFraction() {
+      return defaultFraction;
+    }
+
+    public void setDefaultFraction(double defaultFraction) {
+      this.defaultFraction = defaultFraction;
+    }
+
+    public Duration getWeightFlushInterval() {
+      return weightFlushInterval;
+    }
+
+    public void setWeightFlushInterval(Duration weightFlushInterval) {
+      this.weightFlushInterval = weightFlushInterval;
+    }
+
+    public List<Route> getRoutes() {
+      return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+      this.routes = routes;
+    }
+  }
+
+  /**
+   * Próbkowanie dla grupy tras (wzorce jak w {@code ratelimiter.policies}).
+   * {@code ratePerSecond} ma pierwszeństwo przed {@code fraction}.
+   */
+  public static class Route {
+
+    @NotBlank
+    private String name;
+
+    @NotEmpty
+    private List<String> paths = new ArrayList<>();
+
+    private List<String> methods = new ArrayList<>();
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double fraction;
+
+    // Licznik w oknie ma 24 bity
+    @Min(0)
+    @Max(16_777_215)
+    private Integer ratePerSecond;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public List<String> getPaths() {
+      return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+      this.paths = paths;
+    }
+
+    public List<String> getMethods() {
+      return methods;
+    }
+
+    public void setMethods(List<String> methods) {
+      this.methods = methods;
+    }
+
+    public Double getFraction() {
+      return fraction;
+    }
+
+    public void setFraction(Double fraction) {
+      this.fraction = fraction;
+    }
+
+    public Integer getRatePerSecond() {
+      return ratePerSecond;
+    }
+
+    public void setRatePerSecond(Integer ratePerSecond) {
+      this.ratePerSecond = ratePerSecond;
+    }
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("Access log loaded: enabled={}, directory={}, fileName={}, bufferSize={}, segmentSize={}, "
+        + "maxFiles={}, overflow={}, sampling={}", enabled, directory, fileName, bufferSize, segmentSize, maxFiles,
+        overflow, sampling.isEnabled());
+  }
+}
@@ -0,0 +1,65 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "client-ip")
+@Validated
+public class ClientIpProperties {
+  private static final Logger logger = LoggerFactory.getLogger(ClientIpProperties.class);
+
+  /**
+   * Zakresy CIDR proxy, którym wierzymy w nagłówki z adresem klienta.
+   * Domyślnie pętla zwrotna i sieci prywatne IPv4 (jak w application.yml).
+   */
+  @NotNull
+  private List<String> trustedProxies = new ArrayList<>(List.of(
+      "127.0.0.0/8", "::1/128", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16"));
+
+  @NotBlank
+  private String forwardedHeader = "X-Forwarded-For";
+
+  @NotBlank
+  private String realIpHeader = "X-Real-IP";
+
+  public List<String> getTrustedProxies() {
+    return trustedProxies;
+  }
+
+  public void setTrustedProxies(List<String> trustedProxies) {
+    this.trustedProxies = trustedProxies;
+  }
+
+  public String getForwardedHeader() {
+    return forwardedHeader;
+  }
+
+  public void setForwardedHeader(String forwardedHeader) {
+    this.forwardedHeader = forwardedHeader;
+  }
+
+  public String getRealIpHeader() {
+    return realIpHeader;
+  }
+
+  public void setRealIpHeader(String realIpHeader) {
+    this.realIpHeader = realIpHeader;
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("Client IP resolution: trustedProxies={}, forwardedHeader={}, realIpHeader={}", trustedProxies,
+        forwardedHeader, realIpHeader);
+  }
+}
@@ -0,0 +1,36 @@
+package com.app.backend.config;
+
+import com.app.backend.ratelimit.JdbcTokenLeaseStore;
+import com.app.backend.ratelimit.LeasingRateLimiterBackend;
+import com.app.backend.ratelimit.TokenLeaseStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tryb klastrowy limitera ({@code ratelimiter.backend=cluster}). Domyślny
+ * magazyn dzierżaw korzysta ze skonfigurowanego datasource; własny
+ * {@link TokenLeaseStore} (np. Redis) wystarczy zarejestrować jako bean.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ratelimiter", name = "backend", havingValue = "cluster")
+public class ClusterRateLimiterConfig {
+
+  @Bean
+  @ConditionalOnMissingBean(TokenLeaseStore.class)
+  public JdbcTokenLeaseStore jdbcTokenLeaseStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+      RateLimiterProperties props) {
+    JdbcTokenLeaseStore store = new JdbcTokenLeaseStore(jdbcTemplate, transactionTemplate,
+        props.getCluster().getTable());
+    store.initSchema();
+    return store;
+  }
+
+  @Bean
+  public LeasingRateLimiterBackend leasingRateLimiterBackend(RateLimiterProperties props, TokenLeaseStore store) {
+    return new LeasingRateLimiterBackend(props, store);
+  }
+}
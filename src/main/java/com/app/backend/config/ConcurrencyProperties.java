@@ -0,0 +1,138 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Zabezpieczenia dla trybu wątków wirtualnych
+ * ({@code spring.threads.virtual.enabled}): limit równoczesnego dostępu do
+ * bazy i wykrywanie przypinania wątków wirtualnych do nośników.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "concurrency")
+@Validated
+public class ConcurrencyProperties {
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrencyProperties.class);
+
+  @Valid
+  private Database database = new Database();
+
+  @Valid
+  private Pinning pinning = new Pinning();
+
+  public Database getDatabase() {
+    return database;
+  }
+
+  public void setDatabase(Database database) {
+    this.database = database;
+  }
+
+  public Pinning getPinning() {
+    return pinning;
+  }
+
+  public void setPinning(Pinning pinning) {
+    this.pinning = pinning;
+  }
+
+  /**
+   * Semafor przed pulą Hikari: najwyżej {@code maxConcurrent} wątków trzyma
+   * połączenie (domyślnie {@code maximumPoolSize} puli), reszta czeka do
+   * {@code acquireTimeout} i dostaje 503. Bez limitu tysiące wątków
+   * wirtualnych czekałyby w Hikari aż do jego {@code connectionTimeout}.
+   */
+  public static class Database {
+
+    private boolean enabled = true;
+
+    /** {@code null} = rozmiar puli Hikari; większe wartości są przycinane do niego. */
+    @Min(1)
+    private Integer maxConcurrent;
+
+    @NotNull
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Integer getMaxConcurrent() {
+      return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(Integer maxConcurrent) {
+      this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getAcquireTimeout() {
+      return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(Duration acquireTimeout) {
+      this.acquireTimeout = acquireTimeout;
+    }
+  }
+
+  /**
+   * Nasłuch zdarzeń JFR {@code jdk.VirtualThreadPinned} (tylko w trybie
+   * wątków wirtualnych): przypięcia dłuższe niż {@code threshold} są liczone
+   * per miejsce w kodzie, pierwsze z każdego miejsca trafia do logu ze stosem.
+   */
+  public static class Pinning {
+
+    private boolean enabled = true;
+
+    @NotNull
+    private Duration threshold = Duration.ofMillis(20);
+
+    @Min(1)
+    private int stackDepth = 12;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getThreshold() {
+      return threshold;
+    }
+
+    public void setThreshold(Duration threshold) {
+      this.threshold = threshold;
+    }
+
+    public int getStackDepth() {
+      return stackDepth;
+    }
+
+    public void setStackDepth(int stackDepth) {
+      this.stackDepth = stackDepth;
+    }
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("Concurrency guards loaded: database={} (maxConcurrent={}, acquireTimeout={}), pinning={} "
+        + "(threshold={})", database.isEnabled(), database.getMaxConcurrent() != null
+            ? database.getMaxConcurrent() : "pool size",
+        database.getAcquireTimeout(), pinning.isEnabled(), pinning.getThreshold());
+  }
+}
@@ -0,0 +1,44 @@
+package com.app.backend.config;
+
+import com.app.backend.correlation.CorrelationIdGenerator;
+import com.app.backend.correlation.TimeOrderedCorrelationIdGenerator;
+import com.app.backend.correlation.UuidCorrelationIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Wybiera implementację {@link CorrelationIdGenerator} według
+ * {@code correlation-id.generator}.
+ */
+@Configuration
+public class CorrelationIdConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(CorrelationIdConfig.class);
+
+  @Bean
+  public CorrelationIdGenerator correlationIdGenerator(CorrelationIdProperties props) {
+    if (props.getGenerator() == CorrelationIdProperties.Generator.UUID) {
+      return new UuidCorrelationIdGenerator();
+    }
+    int nodeId = props.getNodeId() != null ? props.getNodeId() : derivedNodeId();
+    logger.info("Time-ordered correlation IDs: nodeId={}{}", nodeId,
+        props.getNodeId() == null ? " (derived, set correlation-id.node-id for guaranteed uniqueness)" : "");
+    return new TimeOrderedCorrelationIdGenerator(nodeId);
+  }
+
+  private static int derivedNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "unknown";
+    }
+    int hash = (host + ":" + ProcessHandle.current().pid()).hashCode();
+    return (hash ^ hash >>> 16) & 0xFFFF;
+  }
+}
@@ -0,0 +1,59 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Configuration
+@ConfigurationProperties(prefix = "correlation-id")
+@Validated
+public class CorrelationIdProperties {
+  private static final Logger logger = LoggerFactory.getLogger(CorrelationIdProperties.class);
+
+  public enum Generator {
+    /** ULID-podobne, sortowalne po czasie, bez współdzielonego stanu. */
+    TIME_ORDERED,
+    /** Losowy UUID v4 (SecureRandom). */
+    UUID
+  }
+
+  @NotNull
+  private Generator generator = Generator.TIME_ORDERED;
+
+  /**
+   * Identyfikator węzła w ID (0-65535). Musi być różny na każdej instancji;
+   * bez ustawienia jest wyliczany z nazwy hosta i PID, co tylko
+   * z dużym prawdopodobieństwem daje unikalne wartości.
+   */
+  @Min(0)
+  @Max(65535)
+  private Integer nodeId;
+
+  public Generator getGenerator() {
+    return generator;
+  }
+
+  public void setGenerator(Generator generator) {
+    this.generator = generator;
+  }
+
+  public Integer getNodeId() {
+    return nodeId;
+  }
+
+  public void setNodeId(Integer nodeId) {
+    this.nodeId = nodeId;
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("Correlation ID loaded: generator={}, nodeId={}", generator, nodeId);
+  }
+}
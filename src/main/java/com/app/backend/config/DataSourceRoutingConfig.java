@@ -0,0 +1,67 @@
+package com.app.backend.config;
+
+import com.app.backend.db.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Przy {@code datasource-routing.enabled=true} zastępuje pojedynczy DataSource
+ * Spring Boota układem:
+ * <pre>
+ * dataSource (Lazy proxy, @Primary) -> ReadWriteRoutingDataSource -> primary | repliki
+ * </pre>
+ * Primary jest budowany z {@code spring.datasource.*} (i
+ * {@code spring.datasource.hikari.*}), repliki z
+ * {@code datasource-routing.replicas}. Każda pula ma własny limit
+ * {@code concurrency.database}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource-routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+      DataSourceProperties primaryProperties, DataSourceRoutingProperties props, ConcurrencyProperties concurrency) {
+    List<DataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < props.getReplicas().size(); i++) {
+      DataSourceRoutingProperties.Replica replica = props.getReplicas().get(i);
+      HikariDataSource pool = new HikariDataSource();
+      pool.setPoolName("replica-" + i);
+      pool.setJdbcUrl(replica.getUrl());
+      pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+      pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+      pool.setDriverClassName(primaryProperties.determineDriverClassName());
+      pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+      pool.setReadOnly(true);
+      replicas.add(DatabaseConcurrencyConfig.bound(pool, concurrency.getDatabase()));
+    }
+    return new ReadWriteRoutingDataSource(primary, replicas);
+  }
+
+  // Fizyczne połączenie dopiero przy pierwszym zapytaniu - wtedy flaga
+  // read-only transakcji jest już ustawiona i routing może z niej skorzystać
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
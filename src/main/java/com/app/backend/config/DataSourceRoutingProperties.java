@@ -0,0 +1,129 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routing odczytów do replik ({@code datasource-routing.enabled}). Primary to
+ * zwykłe {@code spring.datasource.*}; transakcje read-only idą do
+ * {@code replicas}, z wyjątkiem okna {@code readYourWritesWindow} po zapisie
+ * klienta (znacznik w cookie {@code cookieName}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "datasource-routing")
+@Validated
+public class DataSourceRoutingProperties {
+  private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingProperties.class);
+
+  private boolean enabled = false;
+
+  @Valid
+  private List<Replica> replicas = new ArrayList<>();
+
+  /** Czas po żądaniu zapisującym, przez który odczyty klienta idą do primary (≥ opóźnienie replikacji). */
+  @NotNull
+  private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+  @NotBlank
+  private String cookieName = "rw_primary_until";
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  public void setReplicas(List<Replica> replicas) {
+    this.replicas = replicas;
+  }
+
+  public Duration getReadYourWritesWindow() {
+    return readYourWritesWindow;
+  }
+
+  public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
+  public String getCookieName() {
+    return cookieName;
+  }
+
+  public void setCookieName(String cookieName) {
+    this.cookieName = cookieName;
+  }
+
+  /**
+   * Pula jednej repliki (Hikari, połączenia read-only). Brak
+   * {@code username}/{@code password} = te same co dla primary.
+   */
+  public static class Replica {
+
+    @NotBlank
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    @Min(1)
+    private int maximumPoolSize = 10;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("DataSource routing loaded: enabled={}, replicas={}, readYourWritesWindow={}", enabled,
+        replicas.size(), readYourWritesWindow);
+  }
+}
@@ -0,0 +1,56 @@
+package com.app.backend.config;
+
+import com.app.backend.db.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Owija pulę Hikari w {@link BoundedDataSource}
+ * ({@code concurrency.database.enabled}, domyślnie włączone), więc limit
+ * obejmuje JPA, JdbcTemplate i magazyn dzierżaw rate limitera.
+ */
+@Configuration
+public class DatabaseConcurrencyConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyConfig.class);
+
+  // static: BeanPostProcessor musi powstać przed innymi beanami; właściwości
+  // są pobierane leniwie, dopiero przy owijaniu DataSource
+  @Bean
+  public static BeanPostProcessor boundedDataSourcePostProcessor(ObjectProvider<ConcurrencyProperties> props) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource hikari)) {
+          return bean;
+        }
+        return bound(hikari, props.getObject().getDatabase());
+      }
+    };
+  }
+
+  /**
+   * Owija pulę w {@link BoundedDataSource} (limit = rozmiar puli albo mniejsze
+   * {@code maxConcurrent}); przy wyłączonym limicie zwraca pulę bez zmian.
+   * Używane też dla pul replik, które nie są beanami.
+   */
+  static DataSource bound(HikariDataSource hikari, ConcurrencyProperties.Database config) {
+    if (!config.isEnabled()) {
+      return hikari;
+    }
+    int poolSize = hikari.getMaximumPoolSize();
+    int maxConcurrent = config.getMaxConcurrent() != null ? Math.min(config.getMaxConcurrent(), poolSize)
+        : poolSize;
+    logger.info("Database access bounded to {} concurrent connections (pool {}{}, acquireTimeout {})",
+        maxConcurrent, poolSize, hikari.getPoolName() != null ? " " + hikari.getPoolName() : "",
+        config.getAcquireTimeout());
+    return new BoundedDataSource(hikari, maxConcurrent, config.getAcquireTimeout().toNanos());
+  }
+}
@@ -0,0 +1,28 @@
+package com.app.backend.config;
+
+import com.app.backend.accesslog.RequestLog;
+import com.app.backend.ratelimit.EarlyRejectionValve;
+import com.app.backend.ratelimit.RateLimitEnforcer;
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rejestruje {@link EarlyRejectionValve} jako zawór silnika Tomcata
+ * ({@code ratelimiter.early-rejection.enabled}, domyślnie włączone). Przy
+ * wyłączonym zaworze wszystkie poziomy sprawdza {@code GlobalRateLimiterFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ratelimiter.early-rejection", name = "enabled", havingValue = "true",
+    matchIfMissing = true)
+public class EarlyRejectionConfig {
+
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> earlyRejectionValveCustomizer(
+      RateLimitEnforcer enforcer, RateLimiterMetrics metrics, RequestLog requestLog) {
+    return factory -> factory.addEngineValves(new EarlyRejectionValve(enforcer, metrics, requestLog));
+  }
+}
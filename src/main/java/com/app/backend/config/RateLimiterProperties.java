@@ -0,0 +1,546 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "ratelimiter")
+@Validated
+public class RateLimiterProperties {
+  private static final Logger logger = LoggerFactory.getLogger(RateLimiterProperties.class);
+
+  /**
+   * Implementacja przechowująca stan limitów klientów.
+   */
+  public enum Backend {
+    /** Bucket4j + Caffeine, jeden obiekt Bucket na klienta. */
+    BUCKET4J,
+    /** Prymitywna tablica o stałym rozmiarze kluczowana binarnym adresem IP. */
+    COMPACT,
+    /** Wspólny limit dla wielu węzłów, tokeny dzierżawione partiami z bazy. */
+    CLUSTER
+  }
+
+  @Min(1)
+  private int requests = 100;
+
+  @Min(1)
+  private int durationMinutes = 1;
+
+  @Min(1)
+  private int logFrequency = 10;
+
+  private List<String> whitelist;
+
+  /** Adresy odrzucane od razu odpowiedzią 403. */
+  private List<String> denylist;
+
+  /** Limit równoczesnych żądań klienta dla tras bez własnej polityki (0 = bez limitu). */
+  @Min(0)
+  private int maxConcurrent = 0;
+
+  @Valid
+  private List<Policy> policies = new ArrayList<>();
+
+  private Backend backend = Backend.BUCKET4J;
+
+  @Valid
+  private Compact compact = new Compact();
+
+  @Valid
+  private Cluster cluster = new Cluster();
+
+  @Valid
+  private Metrics metrics = new Metrics();
+
+  private EarlyRejection earlyRejection = new EarlyRejection();
+
+  public int getRequests() {
+    return requests;
+  }
+
+  public void setRequests(int requests) {
+    this.requests = requests;
+  }
+
+  public int getDurationMinutes() {
+    return durationMinutes;
+  }
+
+  public void setDurationMinutes(int durationMinutes) {
+    this.durationMinutes = durationMinutes;
+  }
+
+  public int getLogFrequency() {
+    return logFrequency;
+  }
+
+  public void setLogFrequency(int logFrequency) {
+    this.logFrequency = logFrequency;
+  }
+
+  public List<String> getWhitelist() {
+    return whitelist;
+  }
+
+  public void setWhitelist(List<String> whitelist) {
+    this.whitelist = whitelist;
+  }
+
+  public List<String> getDenylist() {
+    return denylist;
+  }
+
+  public void setDenylist(List<String> denylist) {
+    this.denylist = denylist;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public List<Policy> getPolicies() {
+    return policies;
+  }
+
+  public void setPolicies(List<Policy> policies) {
+    this.policies = policies;
+  }
+
+  public Backend getBackend() {
+    return backend;
+  }
+
+  public void setBackend(Backend backend) {
+    this.backend = backend;
+  }
+
+  public Compact getCompact() {
+    return compact;
+  }
+
+  public void setCompact(Compact compact) {
+    this.compact = compact;
+  }
+
+  public Cluster getCluster() {
+    return cluster;
+  }
+
+  public void setCluster(Cluster cluster) {
+    this.cluster = cluster;
+  }
+
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * W trybie klastrowym kubełek usunięty po {@code cluster.idleTtl} musi być
+   * i tak pełny - TTL nie może być krótszy niż najdłuższy okres limitu.
+   */
+  @AssertTrue(message = "ratelimiter.cluster.idleTtl must be at least the longest limit period")
+  public boolean isClusterIdleTtlCoveringLimits() {
+    if (backend != Backend.CLUSTER) {
+      return true;
+    }
+    Duration longest = Duration.ofMinutes(durationMinutes);
+    for (Policy policy : policies) {
+      for (Limit limit : new Limit[] { policy.getGlobal(), policy.getIp(), policy.getUser() }) {
+        if (limit != null && limit.getPeriod() != null && limit.getPeriod().compareTo(longest) > 0) {
+          longest = limit.getPeriod();
+        }
+      }
+    }
+    return cluster.getIdleTtl() == null || cluster.getIdleTtl().compareTo(longest) >= 0;
+  }
+
+  @AssertTrue(message = "ratelimiter.cluster.failureBackoff must not exceed maxFailureBackoff")
+  public boolean isClusterBackoffOrdered() {
+    return cluster.getFailureBackoff() == null || cluster.getMaxFailureBackoff() == null
+        || cluster.getFailureBackoff().compareTo(cluster.getMaxFailureBackoff()) <= 0;
+  }
+
+  public EarlyRejection getEarlyRejection() {
+    return earlyRejection;
+  }
+
+  public void setEarlyRejection(EarlyRejection earlyRejection) {
+    this.earlyRejection = earlyRejection;
+  }
+
+  /**
+   * Polityka dla grupy tras. Wzorce ścieżek: segmenty dosłowne, {@code *} lub
+   * {@code {id}} dla jednego segmentu i {@code **} na końcu. Pusta lista
+   * {@code methods} oznacza wszystkie metody.
+   */
+  public static class Policy {
+
+    @NotBlank
+    private String name;
+
+    @NotEmpty
+    private List<String> paths = new ArrayList<>();
+
+    private List<String> methods = new ArrayList<>();
+
+    @Valid
+    private Limit global;
+
+    @Valid
+    private Limit ip;
+
+    @Valid
+    private Limit user;
+
+    @Min(0)
+    private int maxConcurrent = 0;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public List<String> getPaths() {
+      return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+      this.paths = paths;
+    }
+
+    public List<String> getMethods() {
+      return methods;
+    }
+
+    public void setMethods(List<String> methods) {
+      this.methods = methods;
+    }
+
+    public Limit getGlobal() {
+      return global;
+    }
+
+    public void setGlobal(Limit global) {
+      this.global = global;
+    }
+
+    public Limit getIp() {
+      return ip;
+    }
+
+    public void setIp(Limit ip) {
+      this.ip = ip;
+    }
+
+    public Limit getUser() {
+      return user;
+    }
+
+    public void setUser(Limit user) {
+      this.user = user;
+    }
+
+    public int getMaxConcurrent() {
+      return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+      this.maxConcurrent = maxConcurrent;
+    }
+  }
+
+  public static class Limit {
+
+    // Górna granica wynika z 20-bitowego licznika tokenów backendu compact
+    @Min(1)
+    @Max(1_048_575)
+    private int requests;
+
+    @NotNull
+    private Duration period = Duration.ofMinutes(1);
+
+    public int getRequests() {
+      return requests;
+    }
+
+    public void setRequests(int requests) {
+      this.requests = requests;
+    }
+
+    public Duration getPeriod() {
+      return period;
+    }
+
+    public void setPeriod(Duration period) {
+      this.period = period;
+    }
+  }
+
+  /**
+   * Ustawienia backendu {@link Backend#COMPACT}. Pamięć jest alokowana raz przy
+   * starcie: 16 bajtów na slot, czyli ok. 16 MB na 1M klientów.
+   */
+  public static class Compact {
+
+    @Min(1024)
+    @Max(1 << 28)
+    private int capacity = 1 << 20;
+
+    @Min(1)
+    @Max(1024)
+    private int stripes = 64;
+
+    @Min(1)
+    @Max(64)
+    private int maxProbe = 8;
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+      this.capacity = capacity;
+    }
+
+    public int getStripes() {
+      return stripes;
+    }
+
+    public void setStripes(int stripes) {
+      this.stripes = stripes;
+    }
+
+    public int getMaxProbe() {
+      return maxProbe;
+    }
+
+    public void setMaxProbe(int maxProbe) {
+      this.maxProbe = maxProbe;
+    }
+  }
+
+  /**
+   * Ustawienia backendu {@link Backend#CLUSTER}. Węzeł pobiera z bazy
+   * {@code batchSize} tokenów naraz i wydaje je lokalnie; niewykorzystana
+   * dzierżawa przepada po {@code leaseTtlMillis}, więc suma wpuszczonych żądań
+   * nigdy nie przekracza wspólnego limitu.
+   */
+  public static class Cluster {
+
+    @Min(1)
+    private int batchSize = 10;
+
+    @Min(100)
+    private long leaseTtlMillis = 5_000;
+
+    @NotBlank
+    @Pattern(regexp = "[A-Za-z_][A-Za-z0-9_]*")
+    private String table = "rate_limit_bucket";
+
+    /** Przepuszczaj ruch, gdy baza jest niedostępna. */
+    private boolean failOpen = true;
+
+    /**
+     * Przerwa po błędzie bazy, podwajana przy kolejnych błędach do
+     * {@code maxFailureBackoff}; w przerwie węzeł nie pyta bazy wcale.
+     */
+    @NotNull
+    private Duration failureBackoff = Duration.ofSeconds(1);
+
+    @NotNull
+    private Duration maxFailureBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Kubełki nieuzupełniane dłużej są usuwane z tabeli. Nie krótszy niż
+     * najdłuższy okres limitu - wtedy usunięty kubełek byłby i tak pełny.
+     */
+    @NotNull
+    private Duration idleTtl = Duration.ofHours(1);
+
+    @NotNull
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+
+    @Min(1)
+    private int cleanupBatchSize = 500;
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public long getLeaseTtlMillis() {
+      return leaseTtlMillis;
+    }
+
+    public void setLeaseTtlMillis(long leaseTtlMillis) {
+      this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    public String getTable() {
+      return table;
+    }
+
+    public void setTable(String table) {
+      this.table = table;
+    }
+
+    public boolean isFailOpen() {
+      return failOpen;
+    }
+
+    public void setFailOpen(boolean failOpen) {
+      this.failOpen = failOpen;
+    }
+
+    public Duration getFailureBackoff() {
+      return failureBackoff;
+    }
+
+    public void setFailureBackoff(Duration failureBackoff) {
+      this.failureBackoff = failureBackoff;
+    }
+
+    public Duration getMaxFailureBackoff() {
+      return maxFailureBackoff;
+    }
+
+    public void setMaxFailureBackoff(Duration maxFailureBackoff) {
+      this.maxFailureBackoff = maxFailureBackoff;
+    }
+
+    public Duration getIdleTtl() {
+      return idleTtl;
+    }
+
+    public void setIdleTtl(Duration idleTtl) {
+      this.idleTtl = idleTtl;
+    }
+
+    public Duration getCleanupInterval() {
+      return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+      this.cleanupInterval = cleanupInterval;
+    }
+
+    public int getCleanupBatchSize() {
+      return cleanupBatchSize;
+    }
+
+    public void setCleanupBatchSize(int cleanupBatchSize) {
+      this.cleanupBatchSize = cleanupBatchSize;
+    }
+  }
+
+  /**
+   * Ranking najaktywniejszych klientów (Count-Min sketch + top-N). Pamięć jest
+   * stała: {@code sketchWidth * sketchDepth * 8} bajtów na ranking, niezależnie
+   * od liczby klientów.
+   */
+  public static class Metrics {
+
+    @Min(1)
+    @Max(1000)
+    private int topN = 20;
+
+    @Min(5)
+    private int windowSeconds = 60;
+
+    @Min(64)
+    @Max(1 << 20)
+    private int sketchWidth = 4096;
+
+    @Min(1)
+    @Max(8)
+    private int sketchDepth = 4;
+
+    public int getTopN() {
+      return topN;
+    }
+
+    public void setTopN(int topN) {
+      this.topN = topN;
+    }
+
+    public int getWindowSeconds() {
+      return windowSeconds;
+    }
+
+    public void setWindowSeconds(int windowSeconds) {
+      this.windowSeconds = windowSeconds;
+    }
+
+    public int getSketchWidth() {
+      return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+      this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+      return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+      this.sketchDepth = sketchDepth;
+    }
+  }
+
+  /**
+   * Odrzucanie ruchu z denylisty i ponad limit IP/globalny już w zaworze
+   * Tomcata, przed łańcuchem filtrów Springa.
+   */
+  public static class EarlyRejection {
+
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("RateLimiter loaded: backend={}, requests={}, durationMinutes={}, logFrequency={}, whitelist={}, "
+        + "denylist={}, policies={}, earlyRejection={}", backend, requests, durationMinutes, logFrequency, whitelist,
+        denylist, policies.size(), earlyRejection.isEnabled());
+  }
+}
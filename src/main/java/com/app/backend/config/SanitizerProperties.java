@@ -0,0 +1,39 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.constraints.NotNull;
+
+@Configuration
+@ConfigurationProperties(prefix = "sanitizer")
+@Validated
+public class SanitizerProperties {
+  private static final Logger logger = LoggerFactory.getLogger(SanitizerProperties.class);
+
+  /**
+   * Maksymalny rozmiar body JSON. Sanitizacja jest strumieniowa, więc limit
+   * nie wpływa na zużycie pamięci - chroni tylko przed nadmiernie dużymi
+   * żądaniami.
+   */
+  @NotNull
+  private DataSize maxBodySize = DataSize.ofMegabytes(10);
+
+  public DataSize getMaxBodySize() {
+    return maxBodySize;
+  }
+
+  public void setMaxBodySize(DataSize maxBodySize) {
+    this.maxBodySize = maxBodySize;
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("Request sanitizer loaded: maxBodySize={}", maxBodySize);
+  }
+}
@@ -0,0 +1,16 @@
+package com.app.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Włącza {@code @Scheduled} (okresowe zadania w tle, np. przebudowa filtrów
+ * dostępności w {@code UserAvailabilityIndex}). Domyślny scheduler ma jeden
+ * wątek, a {@code UserPurger} śpi na nim między paczkami - dlatego
+ * {@code spring.task.scheduling.pool.size} w application.yml daje wątek na
+ * zadanie. Z wątkami wirtualnymi każde wykonanie dostaje własny wątek.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -25,7 +25,9 @@ public class SecurityConfig {
         @Bean
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
                 http
-                                .csrf(csrf -> csrf.ignoringRequestMatchers(toH2Console()))
+                                // /internal/** to API dla narzędzi z HTTP Basic (import, eksport), bez formularzy
+                                .csrf(csrf -> csrf.ignoringRequestMatchers(toH2Console())
+                                                .ignoringRequestMatchers("/internal/**"))
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                                 .headers(headers -> headers
                                                 .httpStrictTransportSecurity(hsts -> hsts
@@ -41,7 +43,10 @@ public class SecurityConfig {
                                                                 .policy("geolocation=(), microphone=(), camera=()")))
                                 .authorizeHttpRequests(auth -> auth
                                                 .requestMatchers(toH2Console()).permitAll()
-                                                .anyRequest().permitAll());
+                                                // Metryki wewnętrzne (ranking klientów, adresy IP)
+                                                .requestMatchers("/internal/**").authenticated()
+                                                .anyRequest().permitAll())
+                                .httpBasic(Customizer.withDefaults());
 
                 return http.build();
         }
@@ -0,0 +1,430 @@
+package com.app.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "users")
+@Validated
+public class UserApiProperties {
+  private static final Logger logger = LoggerFactory.getLogger(UserApiProperties.class);
+
+  /** Rozmiar strony {@code GET /users} bez parametru {@code size}. */
+  @Min(1)
+  private int defaultPageSize = 20;
+
+  /** Górny limit {@code size} - większe wartości są przycinane. */
+  @Min(1)
+  @Max(1000)
+  private int maxPageSize = 100;
+
+  @Valid
+  private Export export = new Export();
+
+  @Valid
+  private LookupCache cache = new LookupCache();
+
+  @Valid
+  private BulkImport bulkImport = new BulkImport();
+
+  @Valid
+  private Availability availability = new Availability();
+
+  @Valid
+  private Search search = new Search();
+
+  @Valid
+  private Purge purge = new Purge();
+
+  public int getDefaultPageSize() {
+    return defaultPageSize;
+  }
+
+  public void setDefaultPageSize(int defaultPageSize) {
+    this.defaultPageSize = defaultPageSize;
+  }
+
+  public int getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  public void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  /** Strona domyślna nie może być większa niż limit, którym jest przycinana. */
+  @AssertTrue(message = "users.defaultPageSize must not exceed users.maxPageSize")
+  public boolean isDefaultPageSizeWithinMax() {
+    return defaultPageSize <= maxPageSize;
+  }
+
+  public Export getExport() {
+    return export;
+  }
+
+  public void setExport(Export export) {
+    this.export = export;
+  }
+
+  public LookupCache getCache() {
+    return cache;
+  }
+
+  public void setCache(LookupCache cache) {
+    this.cache = cache;
+  }
+
+  public BulkImport getBulkImport() {
+    return bulkImport;
+  }
+
+  public void setBulkImport(BulkImport bulkImport) {
+    this.bulkImport = bulkImport;
+  }
+
+  public Availability getAvailability() {
+    return availability;
+  }
+
+  public void setAvailability(Availability availability) {
+    this.availability = availability;
+  }
+
+  public Search getSearch() {
+    return search;
+  }
+
+  public void setSearch(Search search) {
+    this.search = search;
+  }
+
+  public Purge getPurge() {
+    return purge;
+  }
+
+  public void setPurge(Purge purge) {
+    this.purge = purge;
+  }
+
+  /**
+   * Eksport {@code /internal/users/export}. {@code fetchSize} to liczba
+   * wierszy pobieranych z bazy w jednej paczce kursora.
+   */
+  public static class Export {
+
+    @Min(10)
+    @Max(100_000)
+    private int fetchSize = 1000;
+
+    public int getFetchSize() {
+      return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+      this.fetchSize = fetchSize;
+    }
+  }
+
+  /**
+   * Cache odczytów po id/username/e-mailu. Każdy z trzech cache'y mieści do
+   * {@code maximumSize} wpisów; brak użytkownika jest pamiętany przez
+   * {@code negativeTtl}.
+   */
+  public static class LookupCache {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    private long maximumSize = 10_000;
+
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(10);
+
+    @NotNull
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+      return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+      this.negativeTtl = negativeTtl;
+    }
+  }
+
+  /**
+   * Import {@code /internal/users/import}: {@code batchSize} wierszy na
+   * transakcję (INSERT-y idą w batchach JDBC {@code hibernate.jdbc.batch_size}),
+   * w odpowiedzi najwyżej {@code maxErrors} opisów odrzuconych rekordów.
+   */
+  public static class BulkImport {
+
+    @Min(1)
+    @Max(10_000)
+    private int batchSize = 1000;
+
+    @Min(0)
+    private int maxErrors = 1000;
+
+    /** Limit body importu; zastępuje {@code sanitizer.maxBodySize} dla tej trasy. */
+    @NotNull
+    private DataSize maxBodySize = DataSize.ofGigabytes(1);
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public int getMaxErrors() {
+      return maxErrors;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+      this.maxErrors = maxErrors;
+    }
+
+    public DataSize getMaxBodySize() {
+      return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+      this.maxBodySize = maxBodySize;
+    }
+  }
+
+  /**
+   * Filtry Blooma dla {@code GET /users/availability}. Każdy z dwóch filtrów
+   * (username, e-mail) jest wymiarowany na {@code max(expectedInsertions,
+   * 2 x liczba użytkowników)} - ok. 4,8 MB na milion kluczy przy
+   * {@code falsePositiveRate} 0.01.
+   */
+  public static class Availability {
+
+    private boolean enabled = true;
+
+    @Min(1000)
+    private long expectedInsertions = 1_000_000;
+
+    @DecimalMin("0.0001")
+    @DecimalMax("0.5")
+    private double falsePositiveRate = 0.01;
+
+    @NotNull
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getExpectedInsertions() {
+      return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+      this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+      return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+      this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+      return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+      this.rebuildInterval = rebuildInterval;
+    }
+  }
+
+  /**
+   * Indeks {@code GET /users/search}. Zajmuje ok. 160 B na użytkownika
+   * (username ~10, e-mail ~20 znaków: tekst, pola, mapa id i listy
+   * trigramów) - ok. 160 MB na milion; przebudowa przekraczająca
+   * {@code maxMemory} jest przerywana. {@code maxCandidates} ogranicza
+   * pracę jednego zapytania (ok. 0,5 ms na 20 000 kandydatów).
+   */
+  public static class Search {
+
+    private boolean enabled = true;
+
+    @NotNull
+    private DataSize maxMemory = DataSize.ofMegabytes(512);
+
+    @Min(100)
+    private int maxCandidates = 20_000;
+
+    @NotNull
+    private Duration rebuildInterval = Duration.ofHours(6);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public DataSize getMaxMemory() {
+      return maxMemory;
+    }
+
+    public void setMaxMemory(DataSize maxMemory) {
+      this.maxMemory = maxMemory;
+    }
+
+    public int getMaxCandidates() {
+      return maxCandidates;
+    }
+
+    public void setMaxCandidates(int maxCandidates) {
+      this.maxCandidates = maxCandidates;
+    }
+
+    public Duration getRebuildInterval() {
+      return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+      this.rebuildInterval = rebuildInterval;
+    }
+  }
+
+  /**
+   * Usuwanie wierszy po soft delete. Co {@code interval} usuwa najwyżej
+   * {@code maxBatchesPerRun} paczek po {@code batchSize} wierszy starszych niż
+   * {@code retention}, każdą w osobnej transakcji, z przerwą {@code pause}
+   * między paczkami - blokady są krótkie, a replikacja nadąża.
+   */
+  public static class Purge {
+
+    private boolean enabled = true;
+
+    @NotNull
+    private Duration interval = Duration.ofMinutes(1);
+
+    @NotNull
+    private Duration retention = Duration.ZERO;
+
+    @Min(1)
+    @Max(10_000)
+    private int batchSize = 500;
+
+    @Min(1)
+    private int maxBatchesPerRun = 100;
+
+    @NotNull
+    private Duration pause = Duration.ofMillis(50);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+      return interval;
+    }
+
+    public void setInterval(Duration interval) {
+      this.interval = interval;
+    }
+
+    public Duration getRetention() {
+      return retention;
+    }
+
+    public void setRetention(Duration retention) {
+      this.retention = retention;
+    }
+
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+      return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+      this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public Duration getPause() {
+      return pause;
+    }
+
+    public void setPause(Duration pause) {
+      this.pause = pause;
+    }
+  }
+
+  @PostConstruct
+  public void logConfig() {
+    logger.info("User API loaded: defaultPageSize={}, maxPageSize={}, exportFetchSize={}, cache={} (maximumSize={}, "
+        + "ttl={}, negativeTtl={}), availability={} (expectedInsertions={}, falsePositiveRate={}, "
+        + "rebuildInterval={}), search={} (maxMemory={}, maxCandidates={}, rebuildInterval={}), purge={} "
+        + "(interval={}, retention={}, batchSize={}, maxBatchesPerRun={}, pause={})", defaultPageSize,
+        maxPageSize, export.getFetchSize(), cache.isEnabled(), cache.getMaximumSize(), cache.getTtl(),
+        cache.getNegativeTtl(), availability.isEnabled(), availability.getExpectedInsertions(),
+        availability.getFalsePositiveRate(), availability.getRebuildInterval(), search.isEnabled(), search.getMaxMemory(), search.getMaxCandidates(),
+        search.getRebuildInterval(), purge.isEnabled(), purge.getInterval(), purge.getRetention(),
+        purge.getBatchSize(), purge.getMaxBatchesPerRun(), purge.getPause());
+  }
+}
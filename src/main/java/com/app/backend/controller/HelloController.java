@@ -1,11 +1,13 @@
 package com.app.backend.controller;
 
+import com.app.backend.sanitize.Sanitize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 // import org.slf4j.Logger;
 // import org.slf4j.LoggerFactory;
 
 @RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
 public class HelloController {
     // private static final Logger logger = LoggerFactory.getLogger(HelloController.class);
 
@@ -1,13 +1,21 @@
 package com.app.backend.controller;
 
+import com.app.backend.dto.CursorPage;
+import com.app.backend.dto.UserAvailability;
+import com.app.backend.dto.UserSearchPage;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
 import com.app.backend.model.User;
+import com.app.backend.sanitize.Sanitize;
+import com.app.backend.service.UserCursor;
 import com.app.backend.service.UserService;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/users")
+// Hasło nie może być zmieniane przez HTML-escape; q jest escapowane jak
+// zapisane username/e-maile, żeby wyszukiwanie porównywało te same teksty
+@Sanitize(mode = Sanitize.Mode.FIELDS, fields = { "username", "email", "q" })
 public class UserController {
 
   private final UserService userService;
@@ -16,18 +24,50 @@ public class UserController {
     this.userService = userService;
   }
 
+  // Odpowiedzi to UserView - hasło nie wychodzi poza warstwę persystencji
   @PostMapping
-  public User createUser(@RequestBody User user) {
+  public UserView createUser(@RequestBody User user) {
     return userService.createUser(user);
   }
 
+  /**
+   * Lista stronicowana keyset: {@code sort=id} (domyślnie) lub
+   * {@code sort=createdAt}, następna strona przez {@code cursor=<nextCursor>}.
+   */
   @GetMapping
-  public List<User> getAllUsers() {
-    return userService.getAllUsers();
+  public CursorPage<UserView> getAllUsers(
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) String cursor) {
+    return userService.getUsersPage(parseSort(sort), size, cursor);
+  }
+
+  /**
+   * Dostępność dla formularza rejestracji:
+   * {@code /users/availability?username=...&email=...} (co najmniej jeden).
+   */
+  @GetMapping("/availability")
+  public UserAvailability checkAvailability(
+      @RequestParam(required = false) String username,
+      @RequestParam(required = false) String email) {
+    return userService.checkAvailability(username, email);
+  }
+
+  /**
+   * Wyszukiwanie po fragmencie username lub e-maila (przed {@code @}):
+   * {@code /users/search?q=ali}, następna strona przez
+   * {@code cursor=<nextCursor>}.
+   */
+  @GetMapping("/search")
+  public UserSearchPage searchUsers(
+      @RequestParam String q,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(required = false) String cursor) {
+    return userService.searchUsers(q, size, cursor);
   }
 
   @GetMapping("/{id}")
-  public User getUser(@PathVariable Long id) {
+  public UserView getUser(@PathVariable Long id) {
     return userService.getUserById(id);
   }
 
@@ -35,4 +75,12 @@ public class UserController {
   public void deleteUser(@PathVariable Long id) {
     userService.deleteUser(id);
   }
+
+  private static UserCursor.Sort parseSort(String sort) {
+    return switch (sort) {
+      case "id" -> UserCursor.Sort.ID;
+      case "createdAt" -> UserCursor.Sort.CREATED_AT;
+      default -> throw new BadRequestException("Unsupported sort: " + sort + " (use id or createdAt)");
+    };
+  }
 }
@@ -1,5 +1,6 @@
 package com.app.backend.controller.health;
 
+import com.app.backend.sanitize.Sanitize;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -8,6 +9,7 @@ import java.time.Instant;
 import java.util.Map;
 
 @RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
 public class HealthController {
 
   private final Instant startTime = Instant.now();
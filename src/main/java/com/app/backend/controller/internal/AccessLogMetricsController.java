@@ -0,0 +1,33 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.accesslog.AccessLog;
+import com.app.backend.accesslog.AccessLogSampler;
+import com.app.backend.sanitize.Sanitize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class AccessLogMetricsController {
+
+  private final AccessLog accessLog;
+  private final AccessLogSampler sampler;
+
+  public AccessLogMetricsController(AccessLog accessLog, AccessLogSampler sampler) {
+    this.accessLog = accessLog;
+    this.sampler = sampler;
+  }
+
+  @GetMapping("/internal/accesslog")
+  public ResponseEntity<Map<String, Object>> accessLog() {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("written", accessLog.getWritten());
+    body.put("dropped", accessLog.getDropped());
+    body.put("routes", sampler.snapshot());
+    return ResponseEntity.ok(body);
+  }
+}
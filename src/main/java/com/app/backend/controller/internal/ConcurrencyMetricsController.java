@@ -0,0 +1,53 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.db.BoundedDataSource;
+import com.app.backend.db.ReadWriteRoutingDataSource;
+import com.app.backend.metrics.VirtualThreadPinningMonitor;
+import com.app.backend.sanitize.Sanitize;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class ConcurrencyMetricsController {
+
+  private final DataSource dataSource;
+  private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+  private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+  private final boolean virtualThreads;
+
+  public ConcurrencyMetricsController(DataSource dataSource,
+      ObjectProvider<ReadWriteRoutingDataSource> routingDataSource,
+      ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor, Environment environment) {
+    this.dataSource = dataSource;
+    this.routingDataSource = routingDataSource;
+    this.pinningMonitor = pinningMonitor;
+    this.virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+  }
+
+  @GetMapping("/internal/concurrency")
+  public ResponseEntity<Map<String, Object>> concurrency() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("virtualThreads", virtualThreads);
+    ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+    if (routing != null) {
+      result.put("database", routing.stats());
+    } else {
+      result.put("database", dataSource instanceof BoundedDataSource bounded
+          ? bounded.stats()
+          : Map.of("enabled", false));
+    }
+    VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+    if (monitor != null) {
+      result.put("pinning", monitor.stats());
+    }
+    return ResponseEntity.ok(result);
+  }
+}
@@ -0,0 +1,69 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.metrics.RouteLatencyMetrics;
+import com.app.backend.sanitize.Sanitize;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class LatencyMetricsController {
+
+  private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+  private final RouteLatencyMetrics metrics;
+
+  public LatencyMetricsController(RouteLatencyMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param view {@code cumulative} (od startu) albo {@code interval} (od
+   *          poprzedniego odczytu tego samego {@code consumer})
+   * @param consumer nazwa konsumenta, wymagana dla {@code view=interval}
+   */
+  @GetMapping(value = "/internal/latency", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<Map<String, Object>>> latency(
+      @RequestParam(defaultValue = "cumulative") String view,
+      @RequestParam(required = false) String consumer) {
+    return ResponseEntity.ok(interval(view)
+        ? read(() -> metrics.intervalSnapshot(consumer))
+        : metrics.snapshot());
+  }
+
+  /**
+   * Widok skumulowany to histogram Prometheusa, interwałowy - summary.
+   */
+  @GetMapping(value = "/internal/latency", produces = MediaType.TEXT_PLAIN_VALUE)
+  public ResponseEntity<String> prometheus(@RequestParam(defaultValue = "cumulative") String view,
+      @RequestParam(required = false) String consumer) {
+    return ResponseEntity.ok()
+        .contentType(PROMETHEUS_TEXT)
+        .body(interval(view) ? read(() -> metrics.prometheusInterval(consumer)) : metrics.prometheus());
+  }
+
+  private static boolean interval(String view) {
+    return switch (view.toLowerCase(Locale.ROOT)) {
+      case "cumulative" -> false;
+      case "interval" -> true;
+      default -> throw new BadRequestException("Unsupported view: " + view + " (use cumulative or interval)");
+    };
+  }
+
+  private static <T> T read(Supplier<T> reader) {
+    try {
+      return reader.get();
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import com.app.backend.sanitize.Sanitize;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class RateLimiterMetricsController {
+
+  private final RateLimiterMetrics metrics;
+
+  public RateLimiterMetricsController(RateLimiterMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @GetMapping("/internal/ratelimiter")
+  public ResponseEntity<Map<String, Object>> rateLimiter() {
+    return ResponseEntity.ok(metrics.snapshot());
+  }
+}
@@ -0,0 +1,50 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.sanitize.Sanitize;
+import com.app.backend.search.UserSearchIndex;
+import com.app.backend.service.UserAvailabilityIndex;
+import com.app.backend.service.UserLookupCache;
+import com.app.backend.service.UserPurger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class UserCacheController {
+
+  private final UserLookupCache cache;
+  private final UserAvailabilityIndex availability;
+  private final UserSearchIndex searchIndex;
+  private final UserPurger purger;
+
+  public UserCacheController(UserLookupCache cache, UserAvailabilityIndex availability,
+      UserSearchIndex searchIndex, UserPurger purger) {
+    this.cache = cache;
+    this.availability = availability;
+    this.searchIndex = searchIndex;
+    this.purger = purger;
+  }
+
+  @GetMapping("/internal/users/cache")
+  public ResponseEntity<Map<String, Object>> cache() {
+    return ResponseEntity.ok(cache.stats());
+  }
+
+  @GetMapping("/internal/users/availability")
+  public ResponseEntity<Map<String, Object>> availability() {
+    return ResponseEntity.ok(availability.stats());
+  }
+
+  @GetMapping("/internal/users/search")
+  public ResponseEntity<Map<String, Object>> search() {
+    return ResponseEntity.ok(searchIndex.stats());
+  }
+
+  @GetMapping("/internal/users/purge")
+  public ResponseEntity<Map<String, Object>> purge() {
+    return ResponseEntity.ok(purger.stats());
+  }
+}
@@ -0,0 +1,103 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.sanitize.Sanitize;
+import com.app.backend.service.UserExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@Sanitize(mode = Sanitize.Mode.NONE)
+public class UserExportController {
+
+  private final UserExportService exportService;
+
+  public UserExportController(UserExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  /**
+   * Cała tabela użytkowników jako NDJSON ({@code format=ndjson}, domyślnie)
+   * lub CSV. Gdy {@code Accept-Encoding} dopuszcza gzip (z {@code q > 0}),
+   * odpowiedź jest kompresowana.
+   */
+  @GetMapping("/internal/users/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    UserExportService.Format f = switch (format) {
+      case "ndjson" -> UserExportService.Format.NDJSON;
+      case "csv" -> UserExportService.Format.CSV;
+      default -> throw new BadRequestException("Unsupported format: " + format + " (use ndjson or csv)");
+    };
+    boolean gzip = acceptsGzip(acceptEncoding);
+
+    StreamingResponseBody body = out -> {
+      if (gzip) {
+        // close() zwalnia Deflater także po błędzie; strumień odpowiedzi
+        // zamyka kontener
+        try (GZIPOutputStream compressed = new GZIPOutputStream(StreamUtils.nonClosing(out), 64 * 1024)) {
+          exportService.export(f, compressed);
+        }
+      } else {
+        exportService.export(f, out);
+      }
+    };
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_TYPE, f.getContentType() + ";charset=UTF-8")
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + f.getExtension() + "\"")
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
+
+  /**
+   * RFC 9110: {@code gzip} (albo {@code x-gzip}, albo {@code *} bez osobnej
+   * pozycji gzip) z wagą większą od 0. Pozycja z błędną wagą się nie liczy.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Boolean gzip = null;
+    boolean any = false;
+    for (String entry : acceptEncoding.split(",")) {
+      String[] parts = entry.split(";");
+      String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+      boolean accepted = weight(parts) > 0;
+      if (coding.equals("gzip") || coding.equals("x-gzip")) {
+        gzip = (gzip != null && gzip) || accepted;
+      } else if (coding.equals("*")) {
+        any = accepted;
+      }
+    }
+    return gzip != null ? gzip : any;
+  }
+
+  private static double weight(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].strip().toLowerCase(Locale.ROOT);
+      if (param.startsWith("q=")) {
+        try {
+          double q = Double.parseDouble(param.substring(2).strip());
+          return q >= 0 && q <= 1 ? q : 0;
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
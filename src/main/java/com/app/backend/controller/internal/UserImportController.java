@@ -0,0 +1,38 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.dto.UserImportResult;
+import com.app.backend.sanitize.Sanitize;
+import com.app.backend.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+// Jak w UserController: escape tylko username/email, hasło bez zmian; import
+// ma własny limit body zamiast sanitizer.maxBodySize
+@Sanitize(mode = Sanitize.Mode.FIELDS, fields = { "username", "email" },
+    maxBodySize = "${users.bulkImport.maxBodySize:1GB}")
+public class UserImportController {
+
+  private final UserImportService importService;
+
+  public UserImportController(UserImportService importService) {
+    this.importService = importService;
+  }
+
+  /**
+   * Import użytkowników z tablicy JSON ({@code application/json}) albo NDJSON
+   * ({@code application/x-ndjson}). Body jest czytane strumieniowo; błędne
+   * rekordy (duplikaty, brak pól) są raportowane w odpowiedzi, reszta jest
+   * zapisywana. Body ponad {@code users.bulkImport.maxBodySize} przerywa
+   * import (413); paczki zapisane wcześniej zostają, a odpowiedź podaje ich
+   * liczbę.
+   */
+  @PostMapping(value = "/internal/users/import", consumes = { "application/json", "application/x-ndjson" })
+  public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request) throws IOException {
+    return ResponseEntity.ok(importService.importUsers(request.getInputStream()));
+  }
+}
@@ -0,0 +1,10 @@
+package com.app.backend.correlation;
+
+/**
+ * Źródło correlation ID dla żądań bez nagłówka {@code X-Correlation-ID}.
+ * Implementacja jest wybierana przez {@code correlation-id.generator}.
+ */
+public interface CorrelationIdGenerator {
+
+  String next();
+}
@@ -0,0 +1,15 @@
+package com.app.backend.correlation;
+
+import java.util.UUID;
+
+/**
+ * Losowy UUID v4 - poprzednie zachowanie. Każde wywołanie idzie przez
+ * współdzielony {@code SecureRandom}.
+ */
+public class UuidCorrelationIdGenerator implements CorrelationIdGenerator {
+
+  @Override
+  public String next() {
+    return UUID.randomUUID().toString();
+  }
+}
@@ -0,0 +1,148 @@
+package com.app.backend.db;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link DataSource} ograniczający liczbę równocześnie wypożyczonych połączeń
+ * semaforem: {@code getConnection} bierze zezwolenie (czekając najwyżej
+ * {@code acquireTimeout}), {@code close} zwróconego połączenia je oddaje.
+ * Czekanie na {@link Semaphore} parkuje wątek wirtualny bez przypinania
+ * nośnika, a nadmiar żądań dostaje szybki błąd zamiast kolejki w puli.
+ * <p>
+ * Wątek trzymający już połączenie i proszący o drugie (np.
+ * {@code REQUIRES_NEW}) potrzebuje drugiego zezwolenia - tak samo jak
+ * potrzebowałby drugiego połączenia z puli.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final long acquireTimeoutNanos;
+
+  private final LongAdder acquired = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  public BoundedDataSource(DataSource target, int maxConcurrent, long acquireTimeoutNanos) {
+    super(target);
+    this.permits = new Semaphore(maxConcurrent, true);
+    this.maxConcurrent = maxConcurrent;
+    this.acquireTimeoutNanos = acquireTimeoutNanos;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return bounded(obtainTargetDataSource().getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return bounded(obtainTargetDataSource().getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    long start = System.nanoTime();
+    boolean granted;
+    try {
+      granted = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+    }
+    long waited = System.nanoTime() - start;
+    maxWaitNanos.accumulateAndGet(waited, Math::max);
+    if (!granted) {
+      timeouts.increment();
+      throw new SQLTransientConnectionException("Database busy: no permit within "
+          + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms (" + maxConcurrent + " concurrent)");
+    }
+    acquired.increment();
+  }
+
+  private Connection bounded(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[] { Connection.class }, new PermitReleasingHandler(connection));
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("maxConcurrent", maxConcurrent);
+    result.put("inUse", maxConcurrent - permits.availablePermits());
+    result.put("waiting", permits.getQueueLength());
+    result.put("acquired", acquired.sum());
+    result.put("timeouts", timeouts.sum());
+    result.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    return result;
+  }
+
+  /** Oddaje zezwolenie przy pierwszym {@code close()}; reszta idzie do połączenia z puli. */
+  private final class PermitReleasingHandler implements InvocationHandler {
+
+    private final Connection target;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    PermitReleasingHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" -> {
+          try {
+            target.close();
+          } finally {
+            if (released.compareAndSet(false, true)) {
+              permits.release();
+            }
+          }
+          return null;
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        case "toString" -> {
+          return "Bounded[" + target + "]";
+        }
+        default -> {
+          try {
+            return method.invoke(target, args);
+          } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+          }
+        }
+      }
+    }
+  }
+}
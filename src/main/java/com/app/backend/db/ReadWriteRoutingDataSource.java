@@ -0,0 +1,145 @@
+package com.app.backend.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routing primary/repliki według bieżącej transakcji: read-only idzie do
+ * jednej z replik (round-robin), wszystko inne - zapisy i dostęp bez
+ * transakcji - do primary. Wyjątek: {@link ReadYourWrites} wymusza primary
+ * także dla odczytów.
+ * <p>
+ * Flaga read-only jest znana dopiero po rozpoczęciu transakcji, a menedżer
+ * transakcji bierze połączenie już na jej początku - dlatego ten DataSource
+ * musi być owinięty w {@code LazyConnectionDataSourceProxy}, który pobiera
+ * fizyczne połączenie przy pierwszym zapytaniu. Gdy replika nie wydaje
+ * połączenia, odczyt idzie do primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+  private static final String PRIMARY = "primary";
+
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final String[] replicaKeys;
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final LongAdder primaryRoutes = new LongAdder();
+  private final LongAdder forcedPrimaryRoutes = new LongAdder();
+  private final LongAdder[] replicaRoutes;
+  private final LongAdder fallbacks = new LongAdder();
+
+  public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.replicaKeys = new String[replicas.size()];
+    this.replicaRoutes = new LongAdder[replicas.size()];
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      replicaKeys[i] = "replica-" + i;
+      replicaRoutes[i] = new LongAdder();
+      targets.put(replicaKeys[i], replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicaKeys.length == 0 || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      primaryRoutes.increment();
+      return PRIMARY;
+    }
+    if (ReadYourWrites.isPrimaryForced()) {
+      forcedPrimaryRoutes.increment();
+      return PRIMARY;
+    }
+    int index = Math.floorMod(next.getAndIncrement(), replicaKeys.length);
+    replicaRoutes[index].increment();
+    return replicaKeys[index];
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    DataSource target = determineTargetDataSource();
+    try {
+      return target.getConnection();
+    } catch (SQLException e) {
+      if (target == primary) {
+        throw e;
+      }
+      fallbacks.increment();
+      log.warn("Replica unavailable, reading from primary: {}", e.getMessage());
+      return primary.getConnection();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    DataSource target = determineTargetDataSource();
+    try {
+      return target.getConnection(username, password);
+    } catch (SQLException e) {
+      if (target == primary) {
+        throw e;
+      }
+      fallbacks.increment();
+      log.warn("Replica unavailable, reading from primary: {}", e.getMessage());
+      return primary.getConnection(username, password);
+    }
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    Map<String, Object> primaryStats = new LinkedHashMap<>();
+    primaryStats.put("routed", primaryRoutes.sum());
+    primaryStats.put("readYourWrites", forcedPrimaryRoutes.sum());
+    if (primary instanceof BoundedDataSource bounded) {
+      primaryStats.put("connections", bounded.stats());
+    }
+    result.put("primary", primaryStats);
+    List<Object> replicaStats = new ArrayList<>();
+    for (int i = 0; i < replicas.size(); i++) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("name", replicaKeys[i]);
+      entry.put("routed", replicaRoutes[i].sum());
+      if (replicas.get(i) instanceof BoundedDataSource bounded) {
+        entry.put("connections", bounded.stats());
+      }
+      replicaStats.add(entry);
+    }
+    result.put("replicas", replicaStats);
+    result.put("replicaFallbacks", fallbacks.sum());
+    return result;
+  }
+
+  /** Zamyka pule replik; primary jest osobnym beanem i zamyka się sam. */
+  @Override
+  public void close() {
+    for (DataSource replica : replicas) {
+      try {
+        if (replica.isWrapperFor(AutoCloseable.class)) {
+          replica.unwrap(AutoCloseable.class).close();
+        }
+      } catch (Exception e) {
+        log.warn("Failed to close replica pool: {}", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.app.backend.db;
+
+import java.util.function.Supplier;
+
+/**
+ * Znacznik "czytaj z primary" dla bieżącego wątku, ustawiany przez
+ * {@code ReadYourWritesFilter} na czas żądania, które zapisuje albo
+ * przychodzi w oknie po zapisie tego klienta. {@link ReadWriteRoutingDataSource}
+ * kieruje wtedy także transakcje read-only na primary, więc klient widzi
+ * swoje zmiany mimo opóźnienia replikacji. {@link #onPrimary} robi to samo
+ * dla pojedynczego odczytu (np. przebudowy indeksów w tle).
+ */
+public final class ReadYourWrites {
+
+  private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+  private ReadYourWrites() {
+  }
+
+  public static void forcePrimary() {
+    PRIMARY.set(Boolean.TRUE);
+  }
+
+  public static boolean isPrimaryForced() {
+    return PRIMARY.get() != null;
+  }
+
+  public static void clear() {
+    PRIMARY.remove();
+  }
+
+  /**
+   * Wykonuje {@code action} z odczytami z primary i przywraca poprzedni stan
+   * znacznika - można zagnieżdżać w żądaniu, które ma go już ustawionego.
+   */
+  public static <T> T onPrimary(Supplier<T> action) {
+    Boolean previous = PRIMARY.get();
+    PRIMARY.set(Boolean.TRUE);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        PRIMARY.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.app.backend.dto;
+
+import java.util.List;
+
+/**
+ * Strona wyników stronicowania keyset. {@code nextCursor} przekazuje się jako
+ * {@code cursor} w kolejnym żądaniu; {@code null} oznacza ostatnią stronę.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
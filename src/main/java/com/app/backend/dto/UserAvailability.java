@@ -0,0 +1,11 @@
+package com.app.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Wynik {@code GET /users/availability}; pola niesprawdzanej wartości są
+ * pomijane.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserAvailability(String username, Boolean usernameAvailable, String email, Boolean emailAvailable) {
+}
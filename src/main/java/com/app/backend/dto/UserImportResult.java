@@ -0,0 +1,16 @@
+package com.app.backend.dto;
+
+import java.util.List;
+
+/**
+ * Wynik importu. {@code errors} zawiera najwyżej
+ * {@code users.bulk-import.max-errors} pozycji; {@code failed} liczy wszystkie.
+ */
+public record UserImportResult(long imported, long failed, List<Error> errors, boolean errorsTruncated) {
+
+  /**
+   * Odrzucony rekord; {@code index} to pozycja w wejściu, od 0.
+   */
+  public record Error(long index, String username, String email, String reason) {
+  }
+}
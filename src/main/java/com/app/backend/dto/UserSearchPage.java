@@ -0,0 +1,12 @@
+package com.app.backend.dto;
+
+import java.util.List;
+
+/**
+ * Strona wyników {@code GET /users/search}. {@code nextCursor} jak w
+ * {@link CursorPage}; {@code matches} to liczba trafień wśród sprawdzonych
+ * kandydatów, a {@code truncated} oznacza, że zapytanie miało ich więcej niż
+ * {@code users.search.maxCandidates} i ranking nie objął wszystkich.
+ */
+public record UserSearchPage(List<UserView> items, String nextCursor, long matches, boolean truncated) {
+}
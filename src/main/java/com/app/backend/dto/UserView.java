@@ -0,0 +1,19 @@
+package com.app.backend.dto;
+
+import com.app.backend.model.User;
+
+import java.time.Instant;
+
+/**
+ * Publiczne kolumny użytkownika - bez hasła. Zapytania w
+ * {@code UserRepository} budują go wyrażeniem {@code select new}, więc
+ * Hibernate czyta tylko te kolumny i nie tworzy zarządzanej encji (brak
+ * snapshotu do dirty-checkingu). Niezmienny, więc może być współdzielony
+ * przez cache.
+ */
+public record UserView(Long id, String username, String email, Instant createdAt) {
+
+  public static UserView of(User user) {
+    return new UserView(user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt());
+  }
+}
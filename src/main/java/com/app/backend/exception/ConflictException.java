@@ -0,0 +1,14 @@
+package com.app.backend.exception;
+
+public class ConflictException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public ConflictException(String message) {
+    super(message);
+  }
+
+  public ConflictException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -4,10 +4,13 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -34,6 +37,55 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(problem);
   }
 
+  // =======================
+  // BadRequestException handler (np. uszkodzony cursor stronicowania)
+  // =======================
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<ProblemDetail> handleBadRequest(BadRequestException ex, HttpServletRequest request) {
+    log.warn("Bad request {}: {}", request.getRequestURI(), ex.getMessage());
+    ProblemDetail problem = buildProblemDetail(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), request);
+    return ResponseEntity.badRequest().body(problem);
+  }
+
+  // =======================
+  // ConflictException handler (np. zajęty username/e-mail)
+  // =======================
+  @ExceptionHandler(ConflictException.class)
+  public ResponseEntity<ProblemDetail> handleConflict(ConflictException ex, HttpServletRequest request) {
+    log.warn("Conflict {}: {}", request.getRequestURI(), ex.getMessage());
+    ProblemDetail problem = buildProblemDetail(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), request);
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(problem);
+  }
+
+  // =======================
+  // Brak połączenia z bazą (limit BoundedDataSource, timeout puli, baza niedostępna)
+  // =======================
+  @ExceptionHandler({ CannotCreateTransactionException.class, DataAccessResourceFailureException.class })
+  public ResponseEntity<ProblemDetail> handleDatabaseUnavailable(RuntimeException ex, HttpServletRequest request) {
+    log.warn("Database unavailable for {}: {}", request.getRequestURI(), ex.getMessage());
+    ProblemDetail problem = buildProblemDetail(HttpStatus.SERVICE_UNAVAILABLE,
+        "Service Unavailable",
+        "Database temporarily unavailable, retry later",
+        request);
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(problem);
+  }
+
+  // =======================
+  // ServiceUnavailableException handler (np. indeks wyszukiwania jeszcze niezbudowany)
+  // =======================
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<ProblemDetail> handleServiceUnavailable(ServiceUnavailableException ex,
+      HttpServletRequest request) {
+    log.warn("Service unavailable for {}: {}", request.getRequestURI(), ex.getMessage());
+    ProblemDetail problem = buildProblemDetail(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+        ex.getMessage(), request);
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "5")
+        .body(problem);
+  }
+
   // =======================
   // NoResourceFoundException handler (special case for favicon)
   // =======================
@@ -112,6 +164,10 @@ public class GlobalExceptionHandler {
   @ExceptionHandler(HttpMessageNotReadableException.class)
   public ResponseEntity<ProblemDetail> handleInvalidJson(HttpMessageNotReadableException ex,
       HttpServletRequest request) {
+    // Limit body z RequestSanitizationFilter, zgłoszony w trakcie czytania strumienia
+    if (ex.getMostSpecificCause() instanceof RequestBodyTooLargeException tooLarge) {
+      return handleBodyTooLarge(tooLarge, request);
+    }
     ProblemDetail problem = buildProblemDetail(HttpStatus.BAD_REQUEST,
         "Malformed JSON Request",
         ex.getMostSpecificCause().getMessage(),
@@ -121,6 +177,21 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(problem);
   }
 
+  // =======================
+  // RequestBodyTooLargeException handler (body read outside a message converter)
+  // =======================
+  @ExceptionHandler(RequestBodyTooLargeException.class)
+  public ResponseEntity<ProblemDetail> handleBodyTooLarge(RequestBodyTooLargeException ex,
+      HttpServletRequest request) {
+    ProblemDetail problem = buildProblemDetail(HttpStatus.PAYLOAD_TOO_LARGE,
+        "Payload Too Large",
+        ex.getMessage(),
+        request);
+
+    log.warn("Request body too large: {} (limit {} bytes)", request.getRequestURI(), ex.getLimit());
+    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(problem);
+  }
+
   // =======================
   // Private helper to build ProblemDetail
   // =======================
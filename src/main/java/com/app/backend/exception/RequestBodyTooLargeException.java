@@ -0,0 +1,28 @@
+package com.app.backend.exception;
+
+import java.io.IOException;
+
+/**
+ * Body żądania przekroczyło limit w trakcie czytania. Jest to
+ * {@link IOException}, bo zgłaszane jest ze strumienia wejściowego - Spring
+ * opakowuje je w {@code HttpMessageNotReadableException}.
+ */
+public class RequestBodyTooLargeException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long limit;
+
+  public RequestBodyTooLargeException(long limit) {
+    this(limit, "Request body exceeds " + limit + " bytes");
+  }
+
+  public RequestBodyTooLargeException(long limit, String message) {
+    super(message);
+    this.limit = limit;
+  }
+
+  public long getLimit() {
+    return limit;
+  }
+}
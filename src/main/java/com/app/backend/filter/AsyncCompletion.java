@@ -0,0 +1,49 @@
+package com.app.backend.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Odkłada akcję filtra do końca żądania asynchronicznego
+ * ({@code StreamingResponseBody}, {@code DeferredResult}). Pierwszy dispatch
+ * kończy się wtedy po samym uruchomieniu handlera, a filtry nie są wołane
+ * ponownie przy dispatchu asynchronicznym, więc pomiar czasu i zwolnienie
+ * zasobów w {@code finally} byłyby za wcześnie.
+ * <p>
+ * {@code onComplete} przychodzi także po timeoucie i błędzie.
+ */
+final class AsyncCompletion implements AsyncListener {
+
+  private final Runnable action;
+
+  private AsyncCompletion(Runnable action) {
+    this.action = action;
+  }
+
+  /**
+   * @param request żądanie z {@link HttpServletRequest#isAsyncStarted()}
+   */
+  static void onComplete(HttpServletRequest request, Runnable action) {
+    request.getAsyncContext().addListener(new AsyncCompletion(action));
+  }
+
+  @Override
+  public void onComplete(AsyncEvent event) {
+    action.run();
+  }
+
+  @Override
+  public void onTimeout(AsyncEvent event) {
+  }
+
+  @Override
+  public void onError(AsyncEvent event) {
+  }
+
+  @Override
+  public void onStartAsync(AsyncEvent event) {
+    // Ponowny startAsync usuwa listenery - trzeba się zarejestrować jeszcze raz
+    event.getAsyncContext().addListener(this);
+  }
+}
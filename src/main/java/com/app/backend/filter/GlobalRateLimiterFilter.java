@@ -1,89 +1,25 @@
 package com.app.backend.filter;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.Cache;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
-import io.github.bucket4j.Refill;
+import com.app.backend.net.ClientIp;
+import com.app.backend.ratelimit.RateLimitEnforcer;
+import com.app.backend.ratelimit.RateLimitPolicy;
+import com.app.backend.ratelimit.RateLimitPrecheck;
+import com.app.backend.ratelimit.RateLimitResponses;
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import com.app.backend.routing.RequestPaths;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
-import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
-import org.springframework.validation.annotation.Validated;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.validation.constraints.Min;
-
 import java.io.IOException;
-import java.time.Duration;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-
-@Configuration
-@ConfigurationProperties(prefix = "ratelimiter")
-@Validated
-class RateLimiterProperties {
-  private static final Logger logger = LoggerFactory.getLogger(RateLimiterProperties.class);
-
-  @Min(1)
-  private int requests = 100;
-
-  @Min(1)
-  private int durationMinutes = 1;
-
-  @Min(1)
-  private int logFrequency = 10;
-
-  private List<String> whitelist;
-
-  public int getRequests() {
-    return requests;
-  }
-
-  public void setRequests(int requests) {
-    this.requests = requests;
-  }
-
-  public int getDurationMinutes() {
-    return durationMinutes;
-  }
-
-  public void setDurationMinutes(int durationMinutes) {
-    this.durationMinutes = durationMinutes;
-  }
-
-  public int getLogFrequency() {
-    return logFrequency;
-  }
-
-  public void setLogFrequency(int logFrequency) {
-    this.logFrequency = logFrequency;
-  }
-
-  public List<String> getWhitelist() {
-    return whitelist;
-  }
-
-  public void setWhitelist(List<String> whitelist) {
-    this.whitelist = whitelist;
-  }
-
-  @PostConstruct
-  public void logConfig() {
-    logger.info("RateLimiter loaded: requests={}, durationMinutes={}, logFrequency={}, whitelist={}",
-        requests, durationMinutes, logFrequency, whitelist);
-  }
-}
+import java.security.Principal;
 
 @Component
 @Order(3)
@@ -91,34 +27,12 @@ public class GlobalRateLimiterFilter extends OncePerRequestFilter {
 
   private static final Logger log = LoggerFactory.getLogger(GlobalRateLimiterFilter.class);
 
-  private final RateLimiterProperties props;
-
-  public GlobalRateLimiterFilter(RateLimiterProperties props) {
-    this.props = props;
-  }
-
-  private final Cache<String, Bucket> cache = Caffeine.newBuilder()
-      .expireAfterAccess(Duration.ofMinutes(30))
-      .maximumSize(10_000)
-      .build();
-
-  private final Cache<String, AtomicInteger> exceedCounters = Caffeine.newBuilder()
-      .expireAfterAccess(Duration.ofMinutes(30))
-      .maximumSize(10_000)
-      .build();
-
-  private Bucket createNewBucket() {
-    Refill refill = Refill.greedy(props.getRequests(), Duration.ofMinutes(props.getDurationMinutes()));
-    Bandwidth limit = Bandwidth.classic(props.getRequests(), refill);
-    return Bucket.builder().addLimit(limit).build();
-  }
-
-  private Bucket resolveBucket(String ip) {
-    return cache.get(ip, k -> createNewBucket());
-  }
+  private final RateLimitEnforcer enforcer;
+  private final RateLimiterMetrics metrics;
 
-  private AtomicInteger resolveCounter(String ip) {
-    return exceedCounters.get(ip, k -> new AtomicInteger(0));
+  public GlobalRateLimiterFilter(RateLimitEnforcer enforcer, RateLimiterMetrics metrics) {
+    this.enforcer = enforcer;
+    this.metrics = metrics;
   }
 
   @Override
@@ -127,54 +41,80 @@ public class GlobalRateLimiterFilter extends OncePerRequestFilter {
       @NonNull HttpServletResponse response,
       @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-    String ip = resolveClientIp(request);
+    long start = System.nanoTime();
+    // Poziomy IP i globalny mógł już sprawdzić EarlyRejectionValve
+    RateLimitPrecheck precheck = (RateLimitPrecheck) request.getAttribute(RateLimitPrecheck.ATTRIBUTE);
+    String ip;
+    RateLimitEnforcer.Access access;
+    if (precheck != null) {
+      ip = precheck.clientIp();
+      access = precheck.whitelisted() ? RateLimitEnforcer.Access.WHITELISTED : RateLimitEnforcer.Access.LIMITED;
+    } else {
+      ClientIp client = enforcer.resolveClient(request);
+      ip = client.address();
+      access = enforcer.access(client);
+    }
 
-    // Skip rate limiting for whitelisted IPs
-    if (props.getWhitelist() != null && props.getWhitelist().contains(ip)) {
-      filterChain.doFilter(request, response);
+    if (access == RateLimitEnforcer.Access.DENIED) {
+      metrics.recordRejected(ip, System.nanoTime() - start);
+      RateLimitResponses.writeForbidden(response);
       return;
     }
 
-    Bucket bucket = resolveBucket(ip);
-    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-
-    if (probe.isConsumed()) {
-      // Continue normally
+    // Skip rate limiting for whitelisted IPs
+    if (access == RateLimitEnforcer.Access.WHITELISTED) {
+      metrics.recordWhitelisted();
       filterChain.doFilter(request, response);
-    } else {
-      int retryAfterSeconds = (int) Duration.ofNanos(probe.getNanosToWaitForRefill()).getSeconds() + 1;
-
-      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-      response.setContentType("application/json;charset=UTF-8");
-      response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+      return;
+    }
 
-      String jsonResponse = String.format(
-          "{\"error\":\"Too many requests\",\"retryAfterSeconds\":%d}", retryAfterSeconds);
+    RateLimitPolicy policy = precheck != null
+        ? precheck.policy()
+        : enforcer.resolvePolicy(request.getMethod(), RequestPaths.lookupPath(request));
+    long earlyNanos = precheck != null ? precheck.checkNanos() : 0;
 
-      try (var writer = response.getWriter()) {
-        writer.write(jsonResponse);
+    // Od najwęższego poziomu, żeby odrzucony klient nie zużywał limitu globalnego
+    Principal principal = request.getUserPrincipal();
+    int retryAfter = 0;
+    if (principal != null) {
+      retryAfter = enforcer.tryConsume(policy.getUser(), principal.getName(), ip, policy);
+    }
+    if (precheck == null && retryAfter == 0) {
+      retryAfter = enforcer.tryConsume(policy.getIp(), ip, ip, policy);
+      if (retryAfter == 0) {
+        retryAfter = enforcer.tryConsume(policy.getGlobal(), RateLimitPolicy.GLOBAL_KEY, ip, policy);
+        if (retryAfter > 0) {
+          enforcer.refund(policy.getIp(), ip);
+        }
       }
-
-      // Log only every Nth exceedance
-      AtomicInteger counter = resolveCounter(ip);
-      int current = counter.incrementAndGet();
-      if (current % props.getLogFrequency() == 0) {
-        log.warn("Rate limit exceeded for IP: {} ({} times), remaining tokens={}", ip, current,
-            probe.getRemainingTokens());
+      // Odrzucenie na dalszym poziomie nie zużywa limitu węższych poziomów
+      if (retryAfter > 0 && principal != null) {
+        enforcer.refund(policy.getUser(), principal.getName());
       }
     }
-  }
+    if (retryAfter > 0) {
+      metrics.recordRejected(ip, earlyNanos + System.nanoTime() - start);
+      RateLimitResponses.writeTooManyRequests(response, retryAfter);
+      return;
+    }
 
-  private String resolveClientIp(HttpServletRequest request) {
-    String ip = request.getHeader("X-Forwarded-For");
-    if (ip != null && !ip.isEmpty()) {
-      ip = ip.split(",")[0].trim();
-    } else {
-      ip = request.getHeader("X-Real-IP");
-      if (ip == null || ip.isEmpty()) {
-        ip = request.getRemoteAddr();
+    if (!policy.tryEnter(ip)) {
+      metrics.recordRejected(ip, earlyNanos + System.nanoTime() - start);
+      RateLimitResponses.writeTooManyRequests(response, 1);
+      log.debug("Concurrent request limit ({}) reached for IP: {} (policy {})", policy.getMaxConcurrent(), ip,
+          policy.getName());
+      return;
+    }
+    metrics.recordAllowed(ip, earlyNanos + System.nanoTime() - start);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      // Żądanie asynchroniczne zajmuje slot aż do końca odpowiedzi
+      if (request.isAsyncStarted()) {
+        AsyncCompletion.onComplete(request, () -> policy.exit(ip));
+      } else {
+        policy.exit(ip);
       }
     }
-    return ip;
   }
 }
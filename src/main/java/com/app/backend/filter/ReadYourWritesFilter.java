@@ -0,0 +1,90 @@
+package com.app.backend.filter;
+
+import com.app.backend.config.DataSourceRoutingProperties;
+import com.app.backend.db.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Read-your-writes przy routingu do replik: żądanie zapisujące (metoda inna
+ * niż GET/HEAD/OPTIONS/TRACE) czyta z primary i dostaje cookie z terminem
+ * {@code datasource-routing.readYourWritesWindow}; kolejne żądania z ważnym
+ * cookie też czytają z primary. Cookie jest bezstanowe, więc działa przy
+ * kilku instancjach za load balancerem. Fałszywe cookie kieruje tylko
+ * odczyty tego klienta na primary, nie daje dostępu do niczego więcej.
+ */
+@Component
+@Order(6)
+@ConditionalOnProperty(prefix = "datasource-routing", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private final String cookieName;
+  private final long windowMillis;
+
+  public ReadYourWritesFilter(DataSourceRoutingProperties props) {
+    this.cookieName = props.getCookieName();
+    this.windowMillis = props.getReadYourWritesWindow().toMillis();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+    boolean write = !SAFE_METHODS.contains(request.getMethod());
+    if (write) {
+      // Przed łańcuchem - po zapisaniu body nagłówków nie da się już dodać
+      long until = System.currentTimeMillis() + windowMillis;
+      response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(cookieName, Long.toString(until))
+          .path("/")
+          .maxAge(Math.max(1, windowMillis / 1000))
+          .httpOnly(true)
+          .sameSite("Lax")
+          .build()
+          .toString());
+    }
+    if (!write && !withinWindow(request)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    ReadYourWrites.forcePrimary();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReadYourWrites.clear();
+    }
+  }
+
+  private boolean withinWindow(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return false;
+    }
+    for (Cookie cookie : cookies) {
+      if (cookieName.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+}
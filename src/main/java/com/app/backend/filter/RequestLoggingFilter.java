@@ -1,11 +1,14 @@
 package com.app.backend.filter;
 
+import com.app.backend.accesslog.AccessLog;
+import com.app.backend.accesslog.AccessLogSampler;
+import com.app.backend.accesslog.RequestLog;
+import com.app.backend.correlation.CorrelationIdGenerator;
+import com.app.backend.metrics.RouteLatencyMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.core.annotation.Order;
@@ -13,14 +16,32 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
+/**
+ * Access log i correlation ID. Linie trafiają do asynchronicznego
+ * {@link AccessLog} (JSON lines w {@code access-log.directory}); gdy jest
+ * wyłączony - przez logback na wątku requestu. O zapisie decyduje
+ * {@link AccessLogSampler} po odpowiedzi. Czas każdego żądania trafia też do
+ * histogramu trasy w {@link RouteLatencyMetrics}. Całość zapisuje
+ * {@link RequestLog}; dla handlerów asynchronicznych dopiero po zakończeniu
+ * odpowiedzi, nie po pierwszym dispatchu.
+ * <p>
+ * Filtr działa przed {@link GlobalRateLimiterFilter}, żeby odpowiedzi 429
+ * limitera trafiały do logu i histogramu; odrzucenia z
+ * {@code EarlyRejectionValve} zapisuje sam zawór.
+ */
 @Component
-@Order(4)
+@Order(0)
 public class RequestLoggingFilter extends OncePerRequestFilter {
-  private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
-  public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+  public static final String CORRELATION_ID_HEADER = RequestLog.CORRELATION_ID_HEADER;
 
+  private final RequestLog requestLog;
+  private final CorrelationIdGenerator correlationIds;
+
+  public RequestLoggingFilter(RequestLog requestLog, CorrelationIdGenerator correlationIds) {
+    this.requestLog = requestLog;
+    this.correlationIds = correlationIds;
+  }
   @Override
   protected void doFilterInternal(
       @NonNull HttpServletRequest request,
@@ -34,12 +55,13 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
       return;
     }
 
-    long start = System.currentTimeMillis();
+    long timestamp = System.currentTimeMillis();
+    long start = System.nanoTime();
 
     // Pobierz lub wygeneruj correlation ID
     String correlationId = request.getHeader(CORRELATION_ID_HEADER);
     if (correlationId == null || correlationId.isBlank()) {
-      correlationId = UUID.randomUUID().toString();
+      correlationId = correlationIds.next();
     }
     response.setHeader(CORRELATION_ID_HEADER, correlationId);
 
@@ -49,32 +71,15 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
     try {
       filterChain.doFilter(request, response);
     } finally {
-      long duration = System.currentTimeMillis() - start;
-      int status = response.getStatus();
-      String clientIp = extractClientIp(request);
-      String method = request.getMethod();
-      String query = request.getQueryString();
-      if (query != null) {
-        uri += "?" + query;
+      if (request.isAsyncStarted()) {
+        // Handler asynchroniczny (np. eksport strumieniem) - czas do końca odpowiedzi
+        String id = correlationId;
+        AsyncCompletion.onComplete(request,
+            () -> requestLog.record(request, response.getStatus(), timestamp, System.nanoTime() - start, id));
+      } else {
+        requestLog.record(request, response.getStatus(), timestamp, System.nanoTime() - start, correlationId);
       }
-      String userAgent = request.getHeader("User-Agent");
-
-      logger.info("method={} uri={} ip={} status={} timeMs={} ua=\"{}\"",
-          method, uri, clientIp, status, duration, userAgent);
-
       MDC.remove("correlationId");
     }
   }
-
-  private String extractClientIp(HttpServletRequest request) {
-    String xfwd = request.getHeader("X-Forwarded-For");
-    if (xfwd != null && !xfwd.isBlank()) {
-      return xfwd.split(",")[0].trim();
-    }
-    String realIp = request.getHeader("X-Real-IP");
-    if (realIp != null && !realIp.isBlank()) {
-      return realIp;
-    }
-    return request.getRemoteAddr();
-  }
 }
@@ -1,53 +1,64 @@
 package com.app.backend.filter;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TextNode;
+import com.app.backend.config.SanitizerProperties;
+import com.app.backend.routing.RequestPaths;
+import com.app.backend.sanitize.Sanitize;
+import com.app.backend.sanitize.SanitizationPolicies;
+import com.app.backend.sanitize.SanitizationPolicy;
+import com.app.backend.sanitize.SanitizedParametersRequest;
+import com.app.backend.sanitize.SanitizedServletInputStream;
 import jakarta.servlet.FilterChain;
-import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
-import org.apache.commons.text.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
 
 /**
  * Filtr sanitizujący request: query/form params i JSON body przed dotarciem do
  * controllera.
- * - Params: HTML-escape + trim.
- * - JSON: Rekurencyjne escape stringów (nie wpływa na strukturę).
- * - Obsługuje wielokrotne czytanie body via ContentCachingRequestWrapper.
- * - Edge cases: Duże body (limit 1MB), błędy parsowania (fallback do raw).
- * - Wydajność: Streamy dla kolekcji, cache dla mappera.
+ * - Params: HTML-escape + trim ({@link SanitizedParametersRequest}).
+ * - JSON: strumieniowo, token po tokenie ({@link SanitizedServletInputStream}) -
+ *   escape stringów bez zmiany struktury, bez buforowania całego body.
+ * - Polityka per handler z {@link Sanitize} (tryb NONE/PARAMS/JSON_BODY/FULL/
+ *   FIELDS), rozstrzygana z tablicy {@link SanitizationPolicies} - trasy bez
+ *   sanitizacji nie dostają żadnego wrappera.
+ * - Edge cases: body ponad {@code sanitizer.max-body-size} (albo limit z
+ *   {@link Sanitize#maxBodySize()} handlera) - 413 (od razu przy znanym
+ *   Content-Length, w trakcie czytania dla chunked); błędny JSON - 400 z
+ *   konwertera Springa.
  */
 @Component
-@Order(1) // Po logowaniu, rate limiterze i security headers
+@Order(1) // Po logowaniu, przed security headers i rate limiterem
 public class RequestSanitizationFilter extends OncePerRequestFilter {
 
   private static final Logger log = LoggerFactory.getLogger(RequestSanitizationFilter.class);
-  private static final int MAX_BODY_SIZE = 1024 * 1024; // 1MB limit na body
   private static final String JSON_CONTENT_TYPE = "application/json";
+  private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
 
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final long maxBodySize;
+  private final SanitizationPolicies policies;
+
+  public RequestSanitizationFilter(SanitizerProperties props, SanitizationPolicies policies) {
+    this.maxBodySize = props.getMaxBodySize().toBytes();
+    this.policies = policies;
+  }
 
   @Override
   protected void doFilterInternal(
@@ -55,173 +66,102 @@ public class RequestSanitizationFilter extends OncePerRequestFilter {
       @NonNull HttpServletResponse response,
       @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-    // Wrapper do wielokrotnego czytania body (nie modyfikuje oryginalnego)
-    ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-
-    // 1️⃣ Sanitizacja query/form params (zawsze)
-    HttpServletRequest paramsSanitizedRequest = new HttpServletRequestWrapper(wrappedRequest) {
-      @Override
-      public String getParameter(String name) {
-        String value = super.getParameter(name);
-        return sanitize(value);
-      }
-
-      @Override
-      public String[] getParameterValues(String name) {
-        String[] values = super.getParameterValues(name);
-        if (values == null)
-          return null;
-        return Arrays.stream(values).map(RequestSanitizationFilter::sanitize).toArray(String[]::new);
-      }
+    SanitizationPolicy policy = policies.resolve(request.getMethod(), RequestPaths.lookupPath(request));
+    if (policy.isNone()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
 
-      @Override
-      public Map<String, String[]> getParameterMap() {
-        Map<String, String[]> map = super.getParameterMap();
-        return map.entrySet().stream()
-            .collect(Collectors.toMap(
-                Map.Entry::getKey,
-                entry -> Arrays.stream(entry.getValue())
-                    .map(RequestSanitizationFilter::sanitize)
-                    .toArray(String[]::new)));
-      }
-    };
+    // 1️⃣ Sanitizacja query/form params (leniwie i raz na żądanie)
+    HttpServletRequest paramsSanitizedRequest = policy.params()
+        ? new SanitizedParametersRequest(request, policy.fields())
+        : request;
 
-    // 2️⃣ Sanitizacja JSON body, jeśli content-type = application/json
+    // 2️⃣ Sanitizacja JSON body, jeśli content-type = application/json lub NDJSON
     String contentType = request.getContentType();
-    if (contentType != null && contentType.toLowerCase().startsWith(JSON_CONTENT_TYPE)) {
-      byte[] bodyBytes = wrappedRequest.getContentAsByteArray();
-      if (bodyBytes.length > 0 && bodyBytes.length <= MAX_BODY_SIZE) {
-        try {
-          // Parsuj JSON
-          JsonNode root = objectMapper.readTree(bodyBytes);
-          sanitizeJsonNode(root);
-
-          // Serializuj z powrotem
-          byte[] sanitizedBody = objectMapper.writeValueAsBytes(root);
-
-          // Nowy wrapper z sanitized input stream
-          HttpServletRequest bodySanitizedRequest = new HttpServletRequestWrapper(paramsSanitizedRequest) {
-            @Override
-            public ServletInputStream getInputStream() {
-              return new DelegatingServletInputStream(new ByteArrayInputStream(sanitizedBody));
-            }
-
-            @Override
-            public int getContentLength() {
-              return sanitizedBody.length;
-            }
-
-            @Override
-            public long getContentLengthLong() {
-              return sanitizedBody.length;
-            }
-
-            @Override
-            public String getCharacterEncoding() {
-              return StandardCharsets.UTF_8.name(); // Zapewnij UTF-8
-            }
-          };
-
-          filterChain.doFilter(bodySanitizedRequest, response);
-          return; // Wyjdź, bo body jest sanitized
-        } catch (Exception e) {
-          log.warn("Failed to sanitize JSON body for request URI {}: {}", request.getRequestURI(), e.getMessage());
-          // Fallback: Przekaż raw body (bezpieczniejsze niż crash)
-        }
-      } else if (bodyBytes.length > MAX_BODY_SIZE) {
-        log.warn("JSON body too large for sanitization ({} bytes) for URI {}", bodyBytes.length,
+    if (policy.body() && isJson(contentType)) {
+      long limit = policy.maxBodySize(maxBodySize);
+      long declaredLength = request.getContentLengthLong();
+      if (declaredLength > limit) {
+        log.warn("JSON body too large ({} bytes, limit {}) for URI {}", declaredLength, limit,
             request.getRequestURI());
+        response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+        return;
       }
+      filterChain.doFilter(new JsonBodySanitizedRequest(paramsSanitizedRequest, limit, policy.fields()),
+          response);
+      return;
     }
 
     // Fallback: Tylko params sanitized
     filterChain.doFilter(paramsSanitizedRequest, response);
   }
 
-  /**
-   * Rekurencyjnie sanitizuje stringi w JSON node (obiekty i array'e).
-   * Nie zmienia struktury, tylko text values.
-   */
-  private static void sanitizeJsonNode(JsonNode node) {
-    if (node == null || node.isNull())
-      return;
-
-    if (node.isObject()) {
-      ObjectNode obj = (ObjectNode) node;
-      for (Map.Entry<String, JsonNode> entry : obj.properties()) {
-        JsonNode value = entry.getValue();
-        if (value.isTextual()) {
-          obj.set(entry.getKey(), TextNode.valueOf(sanitize(value.asText())));
-        } else {
-          sanitizeJsonNode(value);
-        }
-      }
-    } else if (node.isArray()) {
-      ArrayNode array = (ArrayNode) node;
-      IntStream.range(0, array.size()).forEach(i -> {
-        JsonNode value = array.get(i);
-        if (value.isTextual()) {
-          array.set(i, TextNode.valueOf(sanitize(value.asText())));
-        } else {
-          sanitizeJsonNode(value);
-        }
-      });
-    } else if (node.isTextual()) {
-      // Dla root text (rzadkie, ale obsługa)
-      // To nie zmieni root, bo caller musi to zrobić
+  private static boolean isJson(String contentType) {
+    if (contentType == null) {
+      return false;
     }
+    String type = contentType.toLowerCase();
+    return type.startsWith(JSON_CONTENT_TYPE) || type.startsWith(NDJSON_CONTENT_TYPE);
   }
 
   /**
-   * Sanitizuje string: HTML-escape + trim.
-   * Null-safe.
+   * Request z body zastąpionym strumieniem zsanityzowanego JSON-a. Długość
+   * wyniku nie jest znana z góry, więc Content-Length jest ukrywany.
    */
-  private static String sanitize(String input) {
-    if (input == null)
-      return null;
-    return StringEscapeUtils.escapeHtml4(input.trim());
-  }
+  private static class JsonBodySanitizedRequest extends HttpServletRequestWrapper {
 
-  /**
-   * Prosta implementacja ServletInputStream delegująca do InputStream.
-   * Obsługuje ReadListener (choć nie async w tym kontekście).
-   */
-  private static class DelegatingServletInputStream extends ServletInputStream {
+    private final long maxBodySize;
+    private final Set<String> fields;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
 
-    private final InputStream sourceStream;
+    JsonBodySanitizedRequest(HttpServletRequest request, long maxBodySize, Set<String> fields) {
+      super(request);
+      this.maxBodySize = maxBodySize;
+      this.fields = fields;
+    }
 
-    public DelegatingServletInputStream(InputStream sourceStream) {
-      this.sourceStream = sourceStream;
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (inputStream == null) {
+        inputStream = new SanitizedServletInputStream(super.getInputStream(), maxBodySize, fields);
+      }
+      return inputStream;
     }
 
     @Override
-    public boolean isFinished() {
-      try {
-        return sourceStream.available() == 0;
-      } catch (IOException e) {
-        return true;
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        reader = new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
       }
+      return reader;
     }
 
     @Override
-    public boolean isReady() {
-      return true;
+    public int getContentLength() {
+      return -1;
     }
 
     @Override
-    public void setReadListener(ReadListener readListener) {
+    public long getContentLengthLong() {
+      return -1;
+    }
 
+    @Override
+    public String getHeader(String name) {
+      return HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) ? null : super.getHeader(name);
     }
 
     @Override
-    public int read() throws IOException {
-      return sourceStream.read();
+    public Enumeration<String> getHeaders(String name) {
+      return HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) ? Collections.emptyEnumeration()
+          : super.getHeaders(name);
     }
 
     @Override
-    public void close() throws IOException {
-      super.close();
-      sourceStream.close();
+    public String getCharacterEncoding() {
+      return StandardCharsets.UTF_8.name(); // Zapewnij UTF-8
     }
   }
-}
\ No newline at end of file
+}
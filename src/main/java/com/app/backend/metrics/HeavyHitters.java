@@ -0,0 +1,189 @@
+package com.app.backend.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Najczęstsze klucze w oknie czasowym przy stałej pamięci: Count-Min sketch
+ * ({@code depth x width} liczników) szacuje częstość każdego klucza, a mała
+ * tablica top-N przechowuje kandydatów.
+ * <p>
+ * Ścieżka zapisu jest bez blokad; tablicę top-N aktualizuje tylko klucz,
+ * którego szacunek przekracza obecne minimum, i to przez {@code tryLock} -
+ * przy rywalizacji aktualizacja jest pomijana, bo licznik i tak jest w
+ * sketchu. Po upływie okna sketch jest czyszczony, a ranking z zakończonego
+ * okna zostaje jako {@link #previous()}.
+ */
+public final class HeavyHitters {
+
+  private final int depth;
+  private final int widthMask;
+  private final AtomicLongArray sketch;
+  private final int topN;
+  private final long windowNanos;
+
+  private final ReentrantLock topLock = new ReentrantLock();
+  private final String[] topKeys;
+  private final long[] topHashes;
+  private volatile long threshold;
+  private int topSize;
+
+  private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+  private volatile List<Entry> previous = List.of();
+
+  /**
+   * @param width       szerokość sketchu (zaokrąglana do potęgi dwójki)
+   * @param depth       liczba funkcji haszujących
+   * @param topN        rozmiar rankingu
+   * @param windowNanos długość okna w nanosekundach
+   */
+  public HeavyHitters(int width, int depth, int topN, long windowNanos) {
+    int w = width <= 16 ? 16 : Integer.highestOneBit(width - 1) << 1;
+    this.depth = depth;
+    this.widthMask = w - 1;
+    this.sketch = new AtomicLongArray(w * depth);
+    this.topN = topN;
+    this.topKeys = new String[topN];
+    this.topHashes = new long[topN];
+    this.windowNanos = windowNanos;
+  }
+
+  public void add(String key) {
+    rotateIfNeeded();
+    long hash = hash(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int index = row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+      estimate = Math.min(estimate, sketch.incrementAndGet(index));
+    }
+    if (estimate > threshold && topLock.tryLock()) {
+      try {
+        offer(key, hash, estimate);
+      } finally {
+        topLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * @return ranking bieżącego okna, malejąco po szacowanej liczbie
+   */
+  public List<Entry> current() {
+    List<Entry> result = new ArrayList<>(topN);
+    topLock.lock();
+    try {
+      for (int i = 0; i < topSize; i++) {
+        result.add(new Entry(topKeys[i], estimate(topHashes[i])));
+      }
+    } finally {
+      topLock.unlock();
+    }
+    result.sort(Comparator.comparingLong(Entry::count).reversed());
+    return result;
+  }
+
+  /**
+   * @return ranking poprzedniego, zakończonego okna
+   */
+  public List<Entry> previous() {
+    rotateIfNeeded();
+    return previous;
+  }
+
+  public long windowSeconds() {
+    return windowNanos / 1_000_000_000L;
+  }
+
+  private void offer(String key, long hash, long estimate) {
+    int minIndex = -1;
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < topSize; i++) {
+      if (topHashes[i] == hash && topKeys[i].equals(key)) {
+        updateThreshold();
+        return;
+      }
+      long count = estimate(topHashes[i]);
+      if (count < min) {
+        min = count;
+        minIndex = i;
+      }
+    }
+    if (topSize < topN) {
+      topKeys[topSize] = key;
+      topHashes[topSize] = hash;
+      topSize++;
+    } else if (estimate > min) {
+      topKeys[minIndex] = key;
+      topHashes[minIndex] = hash;
+    }
+    updateThreshold();
+  }
+
+  private void updateThreshold() {
+    if (topSize < topN) {
+      threshold = 0;
+      return;
+    }
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < topSize; i++) {
+      min = Math.min(min, estimate(topHashes[i]));
+    }
+    threshold = min;
+  }
+
+  private long estimate(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, sketch.get(row * (widthMask + 1) + ((h1 + row * h2) & widthMask)));
+    }
+    return estimate;
+  }
+
+  private void rotateIfNeeded() {
+    long start = windowStart.get();
+    long now = System.nanoTime();
+    if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+      return;
+    }
+    topLock.lock();
+    try {
+      List<Entry> finished = new ArrayList<>(topSize);
+      for (int i = 0; i < topSize; i++) {
+        finished.add(new Entry(topKeys[i], estimate(topHashes[i])));
+      }
+      finished.sort(Comparator.comparingLong(Entry::count).reversed());
+      previous = List.copyOf(finished);
+
+      for (int i = 0; i < sketch.length(); i++) {
+        sketch.set(i, 0);
+      }
+      Arrays.fill(topKeys, null);
+      topSize = 0;
+      threshold = 0;
+    } finally {
+      topLock.unlock();
+    }
+  }
+
+  private static long hash(String key) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001B3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    return h ^ (h >>> 33);
+  }
+
+  public record Entry(String key, long count) {
+  }
+}
@@ -0,0 +1,147 @@
+package com.app.backend.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram czasów w nanosekundach o stałym rozmiarze (log-liniowe kubełki w
+ * stylu HdrHistogram: 32 podkubełki na każdą potęgę dwójki, czyli błąd
+ * względny ok. 3%, zakres do ~73 minut). Zapis jest bez blokad i bez alokacji,
+ * odczyt robi kopię liczników.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int MAX_EXPONENT = 42;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts.incrementAndGet(indexOf(nanos));
+    sum.add(nanos);
+    max.accumulate(nanos);
+  }
+
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      total += copy[i];
+    }
+    return new Snapshot(copy, total, sum.sum(), max.get());
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BITS;
+    int index = (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    return Math.min(index, BUCKETS - 1);
+  }
+
+  /**
+   * @return największa wartość mieszcząca się w kubełku
+   */
+  static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Niezmienna kopia stanu histogramu.
+   */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    Snapshot(long[] counts, long count, long sum, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getSum() {
+      return sum;
+    }
+
+    public long getMax() {
+      return max;
+    }
+
+    public double getMean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param quantile wartość z przedziału 0..1
+     * @return górna granica kubełka, w którym leży kwantyl (0 dla pustego)
+     */
+    public long percentile(double quantile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(quantile * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), max > 0 ? max : upperBound(i));
+        }
+      }
+      return max;
+    }
+
+    /**
+     * @return liczba wartości mniejszych lub równych {@code nanos}
+     *         (z dokładnością do kubełka)
+     */
+    public long countAtOrBelow(long nanos) {
+      if (nanos < 0) {
+        return 0;
+      }
+      int last = indexOf(nanos);
+      long result = 0;
+      for (int i = 0; i <= last; i++) {
+        result += counts[i];
+      }
+      return result;
+    }
+
+    /**
+     * Różnica względem wcześniejszej kopii tego samego histogramu (widok
+     * interwałowy). {@code max} pozostaje wartością skumulowaną.
+     */
+    public Snapshot minus(Snapshot earlier) {
+      if (earlier == null) {
+        return this;
+      }
+      long[] diff = new long[counts.length];
+      for (int i = 0; i < counts.length; i++) {
+        diff[i] = counts[i] - earlier.counts[i];
+      }
+      return new Snapshot(diff, count - earlier.count, sum - earlier.sum, max);
+    }
+  }
+}
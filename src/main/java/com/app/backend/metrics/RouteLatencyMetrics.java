@@ -0,0 +1,248 @@
+package com.app.backend.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Histogramy czasu odpowiedzi per (metoda, wzorzec trasy, klasa statusu).
+ * Kluczem jest wzorzec dopasowany przez Springa ({@code /users/{id}}), nie
+ * surowe URI, więc liczba histogramów jest ograniczona liczbą handlerów;
+ * żądania bez handlera trafiają pod {@link #UNMATCHED} - 404 oraz odpowiedzi
+ * 403/429 z {@code GlobalRateLimiterFilter} i {@code EarlyRejectionValve}
+ * (zapisuje je {@code RequestLog}). Zapis jest bez blokad i - po pierwszym
+ * żądaniu danej trasy - bez alokacji.
+ * <p>
+ * Widok skumulowany to stan od startu. Widok interwałowy to przyrost od
+ * poprzedniego odczytu tego samego konsumenta - każdy konsument (np. osobny
+ * scraper albo dashboard) ma własny punkt odniesienia, więc odczyty jednego
+ * nie "zjadają" interwału drugiego. Liczba konsumentów jest ograniczona
+ * ({@link #MAX_CONSUMERS}), bo każdy trzyma kopię każdego histogramu.
+ */
+@Component
+public class RouteLatencyMetrics {
+
+  public static final String UNMATCHED = "UNMATCHED";
+  public static final int MAX_CONSUMERS = 16;
+
+  private static final Pattern CONSUMER = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+  private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS",
+      "TRACE");
+  private static final String[] STATUS_CLASSES = { "1xx", "1xx", "2xx", "3xx", "4xx", "5xx" };
+  // Granice kubełków Prometheusa w sekundach
+  private static final double[] PROMETHEUS_BOUNDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1,
+      2.5, 5, 10 };
+  private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+  // wzorzec -> metoda -> histogramy per klasa statusu
+  // Bez synchronized na ścieżce żądania - przy wątkach wirtualnych (Java 21)
+  // rywalizacja o monitor przypina wątek do nośnika
+  private final ConcurrentMap<String, ConcurrentMap<String, AtomicReferenceArray<Series>>> routes = new ConcurrentHashMap<>();
+  private final Set<String> consumers = ConcurrentHashMap.newKeySet();
+
+  public void record(String method, String route, int status, long nanos) {
+    String m = METHODS.contains(method) ? method : "OTHER";
+    int statusClass = status / 100;
+    if (statusClass < 1 || statusClass > 5) {
+      statusClass = 5;
+    }
+    AtomicReferenceArray<Series> byStatus = routes
+        .computeIfAbsent(route != null ? route : UNMATCHED, r -> new ConcurrentHashMap<>())
+        .computeIfAbsent(m, x -> new AtomicReferenceArray<>(STATUS_CLASSES.length));
+    Series series = byStatus.get(statusClass);
+    if (series == null) {
+      Series created = new Series(m, route != null ? route : UNMATCHED, STATUS_CLASSES[statusClass]);
+      series = byStatus.compareAndSet(statusClass, null, created) ? created : byStatus.get(statusClass);
+    }
+    series.histogram.record(nanos);
+  }
+
+  /**
+   * @return stan od startu
+   */
+  public List<Map<String, Object>> snapshot() {
+    return toMaps(views(null));
+  }
+
+  /**
+   * @param consumer nazwa konsumenta ({@code [A-Za-z0-9_.-]}, do 64 znaków)
+   * @return przyrost od poprzedniego odczytu tego konsumenta (przy pierwszym
+   *         odczycie - od startu)
+   * @throws IllegalArgumentException dla błędnej nazwy albo nowego konsumenta
+   *           ponad {@link #MAX_CONSUMERS}
+   */
+  public List<Map<String, Object>> intervalSnapshot(String consumer) {
+    return toMaps(views(register(consumer)));
+  }
+
+  private static List<Map<String, Object>> toMaps(List<View> views) {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (View view : views) {
+      LatencyHistogram.Snapshot s = view.snapshot;
+      Map<String, Object> latency = new LinkedHashMap<>();
+      latency.put("count", s.getCount());
+      latency.put("mean", Math.round(s.getMean()));
+      latency.put("p50", s.percentile(0.5));
+      latency.put("p90", s.percentile(0.9));
+      latency.put("p99", s.percentile(0.99));
+      latency.put("p999", s.percentile(0.999));
+      latency.put("max", s.getMax());
+
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("method", view.series.method);
+      entry.put("route", view.series.route);
+      entry.put("status", view.series.statusClass);
+      entry.put("latencyNanos", latency);
+      result.add(entry);
+    }
+    return result;
+  }
+
+  /**
+   * Format tekstowy Prometheusa: histogram ({@code _bucket/_sum/_count}) od
+   * startu.
+   */
+  public String prometheus() {
+    StringBuilder out = new StringBuilder(4096);
+    String name = "http_server_request_duration_seconds";
+    out.append("# HELP ").append(name).append(" Request latency by matched route and status class\n");
+    out.append("# TYPE ").append(name).append(" histogram\n");
+    for (View view : views(null)) {
+      LatencyHistogram.Snapshot s = view.snapshot;
+      for (double bound : PROMETHEUS_BOUNDS) {
+        out.append(name).append("_bucket");
+        labels(out, view.series).append(",le=\"").append(bound).append("\"} ");
+        out.append(s.countAtOrBelow((long) (bound * TimeUnit.SECONDS.toNanos(1)))).append('\n');
+      }
+      out.append(name).append("_bucket");
+      labels(out, view.series).append(",le=\"+Inf\"} ").append(s.getCount()).append('\n');
+      sumAndCount(out, name, view.series, s);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Format tekstowy Prometheusa jako {@code summary}: kwantyle z interwału
+   * konsumenta, a {@code _sum/_count} - jak wymaga typ summary - skumulowane
+   * od startu.
+   *
+   * @see #intervalSnapshot(String)
+   */
+  public String prometheusInterval(String consumer) {
+    String registered = register(consumer);
+    StringBuilder out = new StringBuilder(4096);
+    String name = "http_server_request_duration_interval_seconds";
+    out.append("# HELP ").append(name).append(" Request latency quantiles since the consumer's previous read\n");
+    out.append("# TYPE ").append(name).append(" summary\n");
+    for (View view : views(registered)) {
+      for (double q : QUANTILES) {
+        out.append(name);
+        labels(out, view.series).append(",quantile=\"").append(q).append("\"} ");
+        out.append(seconds(view.snapshot.percentile(q))).append('\n');
+      }
+      sumAndCount(out, name, view.series, view.series.histogram.snapshot());
+    }
+    return out.toString();
+  }
+
+  private static void sumAndCount(StringBuilder out, String name, Series series, LatencyHistogram.Snapshot s) {
+    out.append(name).append("_sum");
+    labels(out, series).append("} ").append(seconds(s.getSum())).append('\n');
+    out.append(name).append("_count");
+    labels(out, series).append("} ").append(s.getCount()).append('\n');
+  }
+
+  private String register(String consumer) {
+    if (consumer == null || !CONSUMER.matcher(consumer).matches()) {
+      throw new IllegalArgumentException("Consumer must match " + CONSUMER.pattern() + ": " + consumer);
+    }
+    if (!consumers.contains(consumer)) {
+      synchronized (consumers) {
+        if (!consumers.contains(consumer) && consumers.size() >= MAX_CONSUMERS) {
+          throw new IllegalArgumentException("Too many interval consumers (max " + MAX_CONSUMERS + ")");
+        }
+        consumers.add(consumer);
+      }
+    }
+    return consumer;
+  }
+
+  /**
+   * @param consumer {@code null} dla widoku skumulowanego
+   */
+  private List<View> views(String consumer) {
+    List<View> views = new ArrayList<>();
+    for (ConcurrentMap<String, AtomicReferenceArray<Series>> byMethod : routes.values()) {
+      for (AtomicReferenceArray<Series> byStatus : byMethod.values()) {
+        for (int i = 0; i < byStatus.length(); i++) {
+          Series series = byStatus.get(i);
+          if (series != null) {
+            views.add(new View(series, consumer != null ? series.interval(consumer) : series.histogram.snapshot()));
+          }
+        }
+      }
+    }
+    views.sort((a, b) -> a.series.key.compareTo(b.series.key));
+    return views;
+  }
+
+  private static StringBuilder labels(StringBuilder out, Series series) {
+    out.append("{method=\"").append(series.method).append("\",route=\"");
+    // Wzorce Springa mogą zawierać cudzysłów lub backslash tylko w regexach
+    for (int i = 0; i < series.route.length(); i++) {
+      char c = series.route.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\');
+      }
+      out.append(c == '\n' ? ' ' : c);
+    }
+    return out.append("\",status=\"").append(series.statusClass).append('"');
+  }
+
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+  }
+
+  private static final class Series {
+    final String method;
+    final String route;
+    final String statusClass;
+    final String key;
+    final LatencyHistogram histogram = new LatencyHistogram();
+    // konsument -> stan z jego poprzedniego odczytu
+    private final ConcurrentMap<String, LatencyHistogram.Snapshot> lastIntervals = new ConcurrentHashMap<>();
+
+    Series(String method, String route, String statusClass) {
+      this.method = method;
+      this.route = route;
+      this.statusClass = statusClass;
+      this.key = route + ' ' + method + ' ' + statusClass;
+    }
+
+    LatencyHistogram.Snapshot interval(String consumer) {
+      // Kopia i podmiana atomowo per konsument - przy równoległych odczytach
+      // tego samego konsumenta każdy przyrost trafia do dokładnie jednego
+      LatencyHistogram.Snapshot[] diff = new LatencyHistogram.Snapshot[1];
+      lastIntervals.compute(consumer, (c, previous) -> {
+        LatencyHistogram.Snapshot now = histogram.snapshot();
+        diff[0] = now.minus(previous);
+        return now;
+      });
+      return diff[0];
+    }
+  }
+
+  private record View(Series series, LatencyHistogram.Snapshot snapshot) {
+  }
+}
@@ -0,0 +1,138 @@
+package com.app.backend.metrics;
+
+import com.app.backend.config.ConcurrencyProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wykrywa przypinanie wątków wirtualnych (Java 21: blokowanie wewnątrz
+ * {@code synchronized} albo metody natywnej trzyma wątek nośnika, więc
+ * kilka takich wywołań naraz blokuje cały scheduler). Strumień JFR
+ * {@code jdk.VirtualThreadPinned} z progiem {@code concurrency.pinning.threshold}
+ * działa w tle; zdarzenia są grupowane po pierwszej ramce spoza JDK (albo
+ * po ramce szczytowej), pierwsze z każdego miejsca jest logowane ze stosem.
+ * <p>
+ * Aktywny tylko przy {@code spring.threads.virtual.enabled=true}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+  private static final String EVENT = "jdk.VirtualThreadPinned";
+
+  private final ConcurrencyProperties.Pinning config;
+  private final ConcurrentMap<String, Site> sites = new ConcurrentHashMap<>();
+  private final LongAdder events = new LongAdder();
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(ConcurrencyProperties props) {
+    this.config = props.getPinning();
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    try {
+      stream = new RecordingStream();
+      stream.enable(EVENT).withThreshold(config.getThreshold()).withStackTrace();
+      stream.onEvent(EVENT, this::onPinned);
+      stream.startAsync();
+      log.info("Virtual thread pinning monitor started (threshold {})", config.getThreshold());
+    } catch (RuntimeException e) {
+      // JVM bez JFR - aplikacja działa dalej, tylko bez monitora
+      log.warn("Virtual thread pinning monitor unavailable: {}", e.toString());
+      stream = null;
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+
+  private void onPinned(RecordedEvent event) {
+    events.increment();
+    RecordedStackTrace trace = event.getStackTrace();
+    List<RecordedFrame> frames = trace != null ? trace.getFrames() : List.of();
+    String site = site(frames);
+    long nanos = event.getDuration().toNanos();
+    Site stats = sites.computeIfAbsent(site, s -> new Site());
+    stats.count.increment();
+    stats.totalNanos.add(nanos);
+    if (stats.logged.compareAndSet(false, true)) {
+      log.warn("Virtual thread pinned for {} ms at {} (further events from this site are only counted):{}",
+          nanos / 1_000_000, site, format(frames));
+    }
+  }
+
+  private static String site(List<RecordedFrame> frames) {
+    for (RecordedFrame frame : frames) {
+      if (frame.isJavaFrame() && !isJdk(frame)) {
+        return describe(frame);
+      }
+    }
+    return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+  }
+
+  private static boolean isJdk(RecordedFrame frame) {
+    String type = frame.getMethod().getType().getName();
+    return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+  }
+
+  private static String describe(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + '.' + frame.getMethod().getName() + ':' + frame.getLineNumber();
+  }
+
+  private String format(List<RecordedFrame> frames) {
+    StringBuilder sb = new StringBuilder();
+    int depth = Math.min(frames.size(), config.getStackDepth());
+    for (int i = 0; i < depth; i++) {
+      sb.append("\n\tat ").append(describe(frames.get(i)));
+    }
+    return sb.toString();
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> bySite = new LinkedHashMap<>();
+    sites.forEach((site, s) -> {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("count", s.count.sum());
+      entry.put("totalMillis", s.totalNanos.sum() / 1_000_000);
+      bySite.put(site, entry);
+    });
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", config.isEnabled());
+    result.put("threshold", config.getThreshold().toString());
+    result.put("events", events.sum());
+    result.put("sites", bySite);
+    return result;
+  }
+
+  private static final class Site {
+    final LongAdder count = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+    final AtomicBoolean logged = new AtomicBoolean();
+  }
+}
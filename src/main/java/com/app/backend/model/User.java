@@ -1,19 +1,28 @@
 package com.app.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "users")
+// Indeksy pod stronicowanie keyset po createdAt (UserRepository.findViewsCreatedBefore)
+// i wyszukiwanie rekordów do usunięcia przez UserPurger
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_at_id", columnList = "createdAt, id"),
+    @Index(name = "idx_users_deleted_at", columnList = "deletedAt") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class User {
 
+  // Sekwencja z optymalizatorem pooled: Hibernate rezerwuje 100 id jednym
+  // zapytaniem i może grupować INSERT-y w batche JDBC (IDENTITY to wyklucza).
+  // Na MySQL sekwencja jest emulowana tabelą users_seq.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+  @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 100)
   private Long id;
 
   @Column(nullable = false, unique = true)
@@ -28,4 +37,11 @@ public class User {
   @Column(nullable = false, updatable = false)
   @Builder.Default
   private Instant createdAt = Instant.now();
+
+  // Soft delete: ustawione przez UserService.deleteUser, wiersz usuwa później
+  // UserPurger. Zapytania repozytorium pomijają takie wiersze, ale unikalne
+  // username/e-mail blokują do czasu usunięcia. Nie do ustawienia z JSON-a
+  // w POST /users.
+  @JsonIgnore
+  private Instant deletedAt;
 }
@@ -0,0 +1,115 @@
+package com.app.backend.net;
+
+import java.util.Arrays;
+
+/**
+ * Binarne drzewo prefiksów adresów IP (128 bitów, IPv4 jako {@code ::ffff:0:0/96})
+ * z wartością przypisaną do zakresu CIDR. Wyszukiwanie zwraca wartość
+ * najdłuższego pasującego prefiksu w co najwyżej 128 krokach, niezależnie od
+ * liczby zakresów.
+ * <p>
+ * Węzły są trzymane w tablicach {@code int}, bez obiektu na węzeł. Drzewo
+ * budowane jest przy starcie; po zakończeniu budowy można je czytać
+ * z wielu wątków bez synchronizacji.
+ */
+public final class CidrTrie {
+
+  /** Wynik {@link #find} gdy żaden zakres nie pasuje. */
+  public static final int NO_MATCH = -1;
+
+  private int[] children = new int[64];
+  private int[] values = new int[32];
+  private int size = 1;
+
+  public CidrTrie() {
+    values[0] = NO_MATCH;
+  }
+
+  /**
+   * Dodaje zakres. Dłuższy prefiks ma pierwszeństwo przed krótszym, ten sam
+   * prefiks dodany ponownie nadpisuje wartość.
+   *
+   * @param cidr  adres z opcjonalną długością prefiksu ({@code 10.0.0.0/8},
+   *              {@code 2001:db8::/32}); sam adres oznacza pojedynczy host
+   * @param value wartość >= 0
+   * @throws IllegalArgumentException gdy zapis jest niepoprawny
+   */
+  public void add(String cidr, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Value must be >= 0: " + value);
+    }
+    String s = cidr.trim();
+    int slash = s.indexOf('/');
+    int end = slash < 0 ? s.length() : slash;
+    long[] address = new long[2];
+    if (!IpAddresses.parse(s, 0, end, address)) {
+      throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+    }
+    boolean v4 = s.lastIndexOf(':', end - 1) < 0;
+    int maxBits = v4 ? 32 : 128;
+    int bits = maxBits;
+    if (slash >= 0) {
+      try {
+        bits = Integer.parseInt(s.substring(slash + 1));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid CIDR: " + cidr, e);
+      }
+      if (bits < 0 || bits > maxBits) {
+        throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+      }
+    }
+    insert(address[0], address[1], v4 ? bits + 96 : bits, value);
+  }
+
+  /**
+   * @return wartość najdłuższego prefiksu zawierającego adres albo
+   *         {@link #NO_MATCH}
+   */
+  public int find(long hi, long lo) {
+    int node = 0;
+    int result = values[0];
+    for (int depth = 0; depth < 128; depth++) {
+      node = children[node * 2 + bit(hi, lo, depth)];
+      if (node == 0) {
+        break;
+      }
+      if (values[node] != NO_MATCH) {
+        result = values[node];
+      }
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return size == 1 && values[0] == NO_MATCH;
+  }
+
+  private void insert(long hi, long lo, int bits, int value) {
+    int node = 0;
+    for (int depth = 0; depth < bits; depth++) {
+      int index = node * 2 + bit(hi, lo, depth);
+      if (children[index] == 0) {
+        // newNode() może podmienić tablicę - przypisanie po wywołaniu
+        int child = newNode();
+        children[index] = child;
+      }
+      node = children[index];
+    }
+    values[node] = value;
+  }
+
+  private int newNode() {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+      children = Arrays.copyOf(children, size * 4);
+    }
+    values[size] = NO_MATCH;
+    return size++;
+  }
+
+  private static int bit(long hi, long lo, int depth) {
+    return depth < 64
+        ? (int) (hi >>> (63 - depth)) & 1
+        : (int) (lo >>> (127 - depth)) & 1;
+  }
+}
@@ -0,0 +1,13 @@
+package com.app.backend.net;
+
+/**
+ * Adres klienta ustalony dla żądania.
+ *
+ * @param address postać tekstowa (jak w nagłówku lub z połączenia)
+ * @param hi      górne 64 bity adresu binarnego
+ * @param lo      dolne 64 bity adresu binarnego
+ * @param valid   {@code false} gdy adresu nie dało się sparsować - wtedy
+ *                {@code hi}/{@code lo} są zerami
+ */
+public record ClientIp(String address, long hi, long lo, boolean valid) {
+}
@@ -0,0 +1,151 @@
+package com.app.backend.net;
+
+import com.app.backend.config.ClientIpProperties;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Ustala adres klienta raz na żądanie (wynik jest zapamiętywany w atrybucie).
+ * <p>
+ * Nagłówkom {@code X-Forwarded-For}/{@code X-Real-IP} wierzymy tylko, gdy
+ * połączenie przyszło z zaufanego proxy ({@code client-ip.trustedProxies}).
+ * {@code X-Forwarded-For} jest czytany od prawej: kolejne adresy zaufanych
+ * proxy są pomijane, a pierwszy pozostały jest adresem klienta - wpisy dalej
+ * w lewo mógł podać sam klient. Nagłówek nie jest dzielony na tablicę,
+ * parsowane są kolejne fragmenty między przecinkami.
+ */
+@Component
+public class ClientIpResolver {
+
+  public static final String ATTRIBUTE = ClientIpResolver.class.getName();
+
+  private final CidrTrie trustedProxies = new CidrTrie();
+  private final String forwardedHeader;
+  private final String realIpHeader;
+
+  public ClientIpResolver(ClientIpProperties props) {
+    for (String cidr : props.getTrustedProxies()) {
+      trustedProxies.add(cidr, 0);
+    }
+    this.forwardedHeader = props.getForwardedHeader();
+    this.realIpHeader = props.getRealIpHeader();
+  }
+
+  public ClientIp resolve(HttpServletRequest request) {
+    Object cached = request.getAttribute(ATTRIBUTE);
+    if (cached instanceof ClientIp ip) {
+      return ip;
+    }
+    ClientIp ip = compute(request);
+    request.setAttribute(ATTRIBUTE, ip);
+    return ip;
+  }
+
+  private ClientIp compute(HttpServletRequest request) {
+    long[] address = new long[2];
+    String remote = remoteAddr(request);
+    if (!IpAddresses.parse(remote, address)) {
+      return new ClientIp(remote, 0, 0, false);
+    }
+    if (!isTrusted(address)) {
+      return new ClientIp(remote, address[0], address[1], true);
+    }
+
+    Enumeration<String> headers = request.getHeaders(forwardedHeader);
+    if (headers != null && headers.hasMoreElements()) {
+      String first = headers.nextElement();
+      ClientIp result;
+      if (!headers.hasMoreElements()) {
+        result = fromForwarded(first, address);
+      } else {
+        // Kilka nagłówków - czytamy od ostatniego
+        List<String> values = new ArrayList<>();
+        values.add(first);
+        while (headers.hasMoreElements()) {
+          values.add(headers.nextElement());
+        }
+        result = null;
+        for (int i = values.size() - 1; i >= 0 && (result == null || result.valid() && isTrusted(result)); i--) {
+          result = fromForwarded(values.get(i), address);
+        }
+      }
+      if (result != null) {
+        return result;
+      }
+    }
+
+    String realIp = request.getHeader(realIpHeader);
+    if (realIp != null && IpAddresses.parse(realIp, address)) {
+      return new ClientIp(realIp.trim(), address[0], address[1], true);
+    }
+    return new ClientIp(remote, address[0], address[1], true);
+  }
+
+  /**
+   * Przechodzi listę adresów od prawej.
+   *
+   * @return pierwszy adres spoza zaufanych proxy, a gdy wszystkie są zaufane -
+   *         skrajnie lewy; {@code null} gdy nagłówek jest pusty
+   */
+  private ClientIp fromForwarded(String header, long[] address) {
+    int lastFrom = -1;
+    int lastEnd = -1;
+    long lastHi = 0;
+    long lastLo = 0;
+    int to = header.length();
+    while (to >= 0) {
+      int comma = header.lastIndexOf(',', to - 1);
+      int from = comma + 1;
+      int end = to;
+      while (from < end && header.charAt(from) == ' ') {
+        from++;
+      }
+      while (end > from && header.charAt(end - 1) == ' ') {
+        end--;
+      }
+      if (from < end) {
+        if (!IpAddresses.parse(header, from, end, address)) {
+          // Nieczytelny wpis (np. "unknown") - dalej w lewo nie można ufać
+          return new ClientIp(header.substring(from, end), 0, 0, false);
+        }
+        if (!isTrusted(address)) {
+          return new ClientIp(header.substring(from, end), address[0], address[1], true);
+        }
+        lastFrom = from;
+        lastEnd = end;
+        lastHi = address[0];
+        lastLo = address[1];
+      }
+      if (comma < 0) {
+        break;
+      }
+      to = comma;
+    }
+    return lastFrom < 0 ? null : new ClientIp(header.substring(lastFrom, lastEnd), lastHi, lastLo, true);
+  }
+
+  private boolean isTrusted(long[] address) {
+    return trustedProxies.find(address[0], address[1]) != CidrTrie.NO_MATCH;
+  }
+
+  private boolean isTrusted(ClientIp ip) {
+    return trustedProxies.find(ip.hi(), ip.lo()) != CidrTrie.NO_MATCH;
+  }
+
+  /**
+   * Adres połączenia z pominięciem wrapperów (np. {@code ForwardedHeaderFilter}
+   * podmienia {@code getRemoteAddr()} na wartość z nagłówka).
+   */
+  private static String remoteAddr(ServletRequest request) {
+    while (request instanceof ServletRequestWrapper wrapper) {
+      request = wrapper.getRequest();
+    }
+    return request.getRemoteAddr();
+  }
+}
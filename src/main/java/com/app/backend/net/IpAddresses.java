@@ -0,0 +1,273 @@
+package com.app.backend.net;
+
+/**
+ * Parsowanie adresów IPv4/IPv6 do postaci binarnej (128 bitów w dwóch
+ * longach) bez tworzenia obiektów pośrednich. IPv4 jest zapisywany jako adres
+ * zmapowany {@code ::ffff:a.b.c.d}, więc oba rodzaje adresów mają wspólną
+ * przestrzeń.
+ */
+public final class IpAddresses {
+
+  /** Dolne 64 bity adresu {@code ::ffff:0.0.0.0}. */
+  public static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+  private IpAddresses() {
+  }
+
+  /**
+   * Parsuje adres z całego ciągu znaków.
+   *
+   * @param out tablica min. 2-elementowa: {@code out[0]} - górne 64 bity,
+   *            {@code out[1]} - dolne 64 bity
+   * @return {@code false} gdy ciąg nie jest poprawnym adresem IP
+   */
+  public static boolean parse(CharSequence s, long[] out) {
+    return s != null && parse(s, 0, s.length(), out);
+  }
+
+  /**
+   * Parsuje adres z fragmentu {@code [from, to)}. Pomija otaczające spacje,
+   * nawiasy kwadratowe ({@code [::1]}) oraz identyfikator strefy
+   * ({@code fe80::1%eth0}).
+   */
+  public static boolean parse(CharSequence s, int from, int to, long[] out) {
+    return parse(s, from, to, out, false) != 0;
+  }
+
+  /**
+   * 64-bitowy klucz klienta bez tablicy wyjściowej: dolna połowa adresu, gdy
+   * górna jest zerowa (IPv4 jako {@code ::ffff:a.b.c.d} i {@code ::/64}), w
+   * przeciwnym razie górna połowa, czyli prefiks /64 - tyle zwykle dostaje
+   * pojedynczy klient IPv6.
+   *
+   * @return klucz albo 0, gdy ciąg nie jest poprawnym adresem IP (także dla
+   *         adresu nieokreślonego {@code ::})
+   */
+  public static long prefix64(CharSequence s) {
+    return s == null ? 0 : parse(s, 0, s.length(), null, true);
+  }
+
+  /**
+   * @param out tablica wyniku; pomijana, gdy {@code key}
+   * @param key zwróć klucz z {@link #prefix64} zamiast zapisu do {@code out}
+   * @return 0 gdy adres jest niepoprawny; bez {@code key} 1, z {@code key}
+   *         klucz (0 dla {@code ::})
+   */
+  private static long parse(CharSequence s, int from, int to, long[] out, boolean key) {
+    while (from < to && s.charAt(from) == ' ') {
+      from++;
+    }
+    while (to > from && s.charAt(to - 1) == ' ') {
+      to--;
+    }
+    if (from >= to) {
+      return 0;
+    }
+    if (s.charAt(from) == '[') {
+      int close = indexOf(s, ']', from + 1, to);
+      if (close < 0) {
+        return 0;
+      }
+      from++;
+      to = close;
+    }
+    int zone = indexOf(s, '%', from, to);
+    if (zone >= 0) {
+      to = zone;
+    }
+    if (indexOf(s, ':', from, to) < 0) {
+      long v4 = parseIpv4(s, from, to);
+      if (v4 < 0) {
+        return 0;
+      }
+      return result(0, IPV4_MAPPED_PREFIX | v4, out, key);
+    }
+    return parseIpv6(s, from, to, out, key);
+  }
+
+  private static long result(long hi, long lo, long[] out, boolean key) {
+    if (key) {
+      return hi != 0 ? hi : lo;
+    }
+    out[0] = hi;
+    out[1] = lo;
+    return 1;
+  }
+
+  /**
+   * @return true gdy adres (hi, lo) jest zmapowanym adresem IPv4
+   */
+  public static boolean isIpv4Mapped(long hi, long lo) {
+    return hi == 0 && (lo & 0xFFFF_FFFF_0000_0000L) == IPV4_MAPPED_PREFIX;
+  }
+
+  /**
+   * Parsuje zapis kropkowy IPv4.
+   *
+   * @return adres jako nieujemny long (32 bity) albo -1 gdy niepoprawny
+   */
+  static long parseIpv4(CharSequence s, int from, int to) {
+    long result = 0;
+    int octets = 0;
+    int value = 0;
+    int digits = 0;
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (++digits > 3) {
+          return -1;
+        }
+        value = value * 10 + (c - '0');
+        if (value > 255) {
+          return -1;
+        }
+      } else if (c == '.') {
+        if (digits == 0 || octets == 3) {
+          return -1;
+        }
+        result = (result << 8) | value;
+        octets++;
+        value = 0;
+        digits = 0;
+      } else {
+        return -1;
+      }
+    }
+    if (digits == 0 || octets != 3) {
+      return -1;
+    }
+    return (result << 8) | value;
+  }
+
+  private static long parseIpv6(CharSequence s, int from, int to, long[] out, boolean key) {
+    long hi = 0;
+    long lo = 0;
+    int groups = 0;
+    int headGroups = -1; // liczba grup przed "::", -1 gdy brak kompresji
+    int i = from;
+
+    if (s.charAt(i) == ':') {
+      if (i + 1 >= to || s.charAt(i + 1) != ':') {
+        return 0;
+      }
+      headGroups = 0;
+      i += 2;
+    }
+
+    while (i < to) {
+      int start = i;
+      int value = 0;
+      int digits = 0;
+      while (i < to) {
+        int d = Character.digit(s.charAt(i), 16);
+        if (d < 0) {
+          break;
+        }
+        if (++digits > 4) {
+          return 0;
+        }
+        value = (value << 4) | d;
+        i++;
+      }
+
+      if (i < to && s.charAt(i) == '.') {
+        // Osadzony IPv4 (np. ::ffff:10.0.0.1) - zawsze na końcu adresu
+        long v4 = parseIpv4(s, start, to);
+        if (v4 < 0 || groups > 6) {
+          return 0;
+        }
+        hi = (hi << 32) | (lo >>> 32);
+        lo = (lo << 32) | v4;
+        groups += 2;
+        i = to;
+        break;
+      }
+      if (digits == 0 || groups == 8) {
+        return 0;
+      }
+      hi = (hi << 16) | (lo >>> 48);
+      lo = (lo << 16) | value;
+      groups++;
+
+      if (i == to) {
+        break;
+      }
+      if (s.charAt(i) != ':') {
+        return 0;
+      }
+      i++;
+      if (i < to && s.charAt(i) == ':') {
+        if (headGroups >= 0) {
+          return 0;
+        }
+        headGroups = groups;
+        i++;
+      } else if (i == to) {
+        return 0;
+      }
+    }
+
+    if (headGroups < 0) {
+      if (groups != 8) {
+        return 0;
+      }
+      return result(hi, lo, out, key);
+    }
+    if (groups > 7) {
+      return 0;
+    }
+
+    // Rozdziel zebrane grupy na część przed i po "::" i wstaw zera pomiędzy
+    int tailBits = 16 * (groups - headGroups);
+    long tailHi;
+    long tailLo;
+    long headHi;
+    long headLo;
+    if (tailBits == 0) {
+      tailHi = 0;
+      tailLo = 0;
+      headHi = hi;
+      headLo = lo;
+    } else if (tailBits < 64) {
+      tailHi = 0;
+      tailLo = lo & ((1L << tailBits) - 1);
+      headLo = (lo >>> tailBits) | (hi << (64 - tailBits));
+      headHi = hi >>> tailBits;
+    } else if (tailBits == 64) {
+      tailHi = 0;
+      tailLo = lo;
+      headHi = 0;
+      headLo = hi;
+    } else {
+      int b = tailBits - 64;
+      tailHi = hi & ((1L << b) - 1);
+      tailLo = lo;
+      headHi = 0;
+      headLo = hi >>> b;
+    }
+
+    long resultHi = tailHi;
+    long resultLo = tailLo;
+    if (headGroups > 0) {
+      int shift = 128 - 16 * headGroups;
+      if (shift < 64) {
+        resultHi |= (headHi << shift) | (headLo >>> (64 - shift));
+        resultLo |= headLo << shift;
+      } else if (shift == 64) {
+        resultHi |= headLo;
+      } else {
+        resultHi |= headLo << (shift - 64);
+      }
+    }
+    return result(resultHi, resultLo, out, key);
+  }
+
+  private static int indexOf(CharSequence s, char c, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (s.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
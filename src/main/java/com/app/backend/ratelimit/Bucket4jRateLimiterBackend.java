@@ -0,0 +1,65 @@
+package com.app.backend.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Domyślny backend: osobny {@link Bucket} na klucz i limit oraz licznik
+ * przekroczeń na adres IP, trzymane w cache Caffeine.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ratelimiter", name = "backend", havingValue = "bucket4j", matchIfMissing = true)
+public class Bucket4jRateLimiterBackend implements RateLimiterBackend {
+
+  private final Map<RateLimit, Cache<String, Bucket>> caches = new ConcurrentHashMap<>();
+
+  private final Cache<String, AtomicInteger> exceedCounters = Caffeine.newBuilder()
+      .expireAfterAccess(Duration.ofMinutes(30))
+      .maximumSize(10_000)
+      .build();
+
+  @Override
+  public long tryConsume(String key, RateLimit limit) {
+    Cache<String, Bucket> cache = caches.computeIfAbsent(limit, l -> Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .maximumSize(10_000)
+        .build());
+    Bucket bucket = cache.get(key, k -> createNewBucket(limit));
+    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+    if (probe.isConsumed()) {
+      return probe.getRemainingTokens();
+    }
+    return -Math.max(1, probe.getNanosToWaitForRefill());
+  }
+
+  @Override
+  public void refund(String key, RateLimit limit) {
+    Cache<String, Bucket> cache = caches.get(limit);
+    Bucket bucket = cache != null ? cache.getIfPresent(key) : null;
+    if (bucket != null) {
+      bucket.addTokens(1);
+    }
+  }
+
+  @Override
+  public int recordExceeded(String key, RateLimit limit) {
+    return exceedCounters.get(key, k -> new AtomicInteger(0)).incrementAndGet();
+  }
+
+  private Bucket createNewBucket(RateLimit limit) {
+    Refill refill = Refill.greedy(limit.requests(), Duration.ofMillis(limit.periodMillis()));
+    Bandwidth bandwidth = Bandwidth.classic(limit.requests(), refill);
+    return Bucket.builder().addLimit(bandwidth).build();
+  }
+}
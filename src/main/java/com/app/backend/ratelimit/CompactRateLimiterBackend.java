@@ -0,0 +1,68 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.net.IpAddresses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backend oparty o {@link CompactTokenTable}. Klientem jest binarny adres IP:
+ * pełny adres dla IPv4 (i adresów z prefiksem {@code ::/64}), a dla IPv6
+ * prefiks /64, bo tyle zwykle dostaje pojedynczy klient. Wpisy nie są
+ * obiektami, więc rotacja adresów nie generuje pracy dla GC, a pamięć jest
+ * stała niezależnie od liczby klientów.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ratelimiter", name = "backend", havingValue = "compact")
+public class CompactRateLimiterBackend implements RateLimiterBackend {
+
+  private static final Logger log = LoggerFactory.getLogger(CompactRateLimiterBackend.class);
+
+  private final CompactTokenTable table;
+
+  public CompactRateLimiterBackend(RateLimiterProperties props) {
+    if (props.getRequests() > CompactTokenTable.MAX_TOKENS) {
+      throw new IllegalStateException("ratelimiter.requests must not exceed " + CompactTokenTable.MAX_TOKENS
+          + " with the compact backend");
+    }
+    RateLimiterProperties.Compact compact = props.getCompact();
+    this.table = new CompactTokenTable(compact.getCapacity(), compact.getStripes(), compact.getMaxProbe());
+    log.info("Compact rate limiter table allocated: slots={}, approxBytes={}", table.capacity(),
+        (long) table.capacity() * 16);
+  }
+
+  @Override
+  public long tryConsume(String key, RateLimit limit) {
+    return table.tryConsume(slotKey(key, limit), limit.requests(), limit.periodMillis());
+  }
+
+  @Override
+  public void refund(String key, RateLimit limit) {
+    table.refund(slotKey(key, limit), limit.requests());
+  }
+
+  @Override
+  public int recordExceeded(String key, RateLimit limit) {
+    return table.recordExceeded(slotKey(key, limit));
+  }
+
+  // Różne limity tego samego klienta trafiają do różnych slotów
+  private static long slotKey(String key, RateLimit limit) {
+    return keyOf(key) ^ (limit.id() * 0x9E3779B97F4A7C15L);
+  }
+
+  static long keyOf(String clientIp) {
+    long key = IpAddresses.prefix64(clientIp);
+    if (key != 0) {
+      return key;
+    }
+    // Nie-IP (np. "unknown") - 64-bitowy FNV-1a z ustawionym najstarszym bitem
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < clientIp.length(); i++) {
+      hash = (hash ^ clientIp.charAt(i)) * 0x100000001B3L;
+    }
+    return hash | Long.MIN_VALUE;
+  }
+}
@@ -0,0 +1,289 @@
+package com.app.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tablica stanu token bucketów o stałym rozmiarze, bez blokad i bez alokacji
+ * na żądanie.
+ * <p>
+ * Każdy slot to dwa sąsiadujące longi w {@link AtomicLongArray}: klucz klienta
+ * i spakowany stan {@code [tick:32][tokens:20][exceed:12]}, gdzie {@code tick}
+ * to czas ostatniego uzupełnienia w milisekundach od startu tablicy, modulo
+ * 2^32 (zawija się co ~49,7 dnia, różnice są liczone modulo). Tick 0 jest
+ * pomijany, żeby stan opróżnionego kubełka nigdy nie był równy pustemu
+ * slotowi. Stan jest aktualizowany jednym CAS-em. Tablica jest podzielona na paczki (stripes),
+ * w obrębie paczki stosowane jest adresowanie otwarte z ograniczoną liczbą
+ * prób. Gdy wszystkie sloty w oknie są zajęte, wypierany jest slot, którego
+ * kubełek jest już pełny (taki wpis niczego nie ogranicza), a w drugiej
+ * kolejności najdłużej nieużywany.
+ * <p>
+ * Konfiguracja limitu (pojemność i okres) nie jest przechowywana w tablicy,
+ * tylko przekazywana przy każdym wywołaniu.
+ */
+public final class CompactTokenTable {
+
+  public static final int MAX_TOKENS = (1 << 20) - 1;
+
+  private static final long EMPTY = 0L;
+  private static final long TICK_MASK = 0xFFFF_FFFFL;
+  private static final int TOKENS_SHIFT = 12;
+  private static final long TOKENS_MASK = MAX_TOKENS;
+  private static final long EXCEED_MASK = 0xFFFL;
+
+  private final AtomicLongArray[] stripes;
+  private final int stripeBits;
+  private final int slotMask;
+  private final int maxProbe;
+  private final long originNanos;
+
+  /**
+   * @param capacity liczba slotów (zaokrąglana w górę do potęgi dwójki)
+   * @param stripes  liczba paczek (zaokrąglana w górę do potęgi dwójki)
+   * @param maxProbe maksymalna liczba sprawdzanych slotów na klucz
+   */
+  public CompactTokenTable(int capacity, int stripes, int maxProbe) {
+    this(capacity, stripes, maxProbe, System.nanoTime());
+  }
+
+  /**
+   * @param originNanos początek odliczania ticków ({@link System#nanoTime()})
+   */
+  CompactTokenTable(int capacity, int stripes, int maxProbe, long originNanos) {
+    this.originNanos = originNanos;
+    int stripeCount = ceilPowerOfTwo(Math.max(1, stripes));
+    int totalSlots = ceilPowerOfTwo(Math.max(capacity, stripeCount));
+    int slotsPerStripe = Math.max(1, totalSlots / stripeCount);
+
+    this.stripes = new AtomicLongArray[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new AtomicLongArray(slotsPerStripe * 2);
+    }
+    this.stripeBits = Integer.numberOfTrailingZeros(stripeCount);
+    this.slotMask = slotsPerStripe - 1;
+    this.maxProbe = Math.min(Math.max(1, maxProbe), slotsPerStripe);
+  }
+
+  /**
+   * Pobiera jeden token dla klucza.
+   *
+   * @param key          dowolny 64-bitowy identyfikator klienta
+   * @param capacity     pojemność kubełka (1..{@link #MAX_TOKENS})
+   * @param periodMillis czas pełnego uzupełnienia kubełka
+   * @return liczba pozostałych tokenów (>= 0) albo, gdy limit został
+   *         przekroczony, ujemna liczba nanosekund do pojawienia się tokena
+   */
+  public long tryConsume(long key, int capacity, long periodMillis) {
+    long now = currentTick();
+    key = normalize(key);
+    AtomicLongArray stripe = stripeFor(key);
+    int slot = findOrClaim(stripe, key, now, capacity, periodMillis);
+    int stateIndex = slot * 2 + 1;
+
+    for (;;) {
+      long state = stripe.get(stateIndex);
+      long tokens;
+      long last;
+      long exceed;
+      if (state == EMPTY) {
+        tokens = capacity;
+        last = now;
+        exceed = 0;
+      } else {
+        tokens = Math.min(capacity, (state >>> TOKENS_SHIFT) & TOKENS_MASK);
+        last = state >>> 32;
+        exceed = state & EXCEED_MASK;
+        long elapsed = (now - last) & TICK_MASK;
+        long added = elapsed * capacity / periodMillis;
+        if (added > 0) {
+          if (tokens + added >= capacity) {
+            tokens = capacity;
+            last = now;
+          } else {
+            tokens += added;
+            last = (last + added * periodMillis / capacity) & TICK_MASK;
+          }
+        }
+      }
+
+      if (tokens > 0) {
+        if (stripe.compareAndSet(stateIndex, state, pack(last, tokens - 1, exceed))) {
+          return tokens - 1;
+        }
+      } else {
+        long next = pack(last, 0, exceed);
+        if (next == state || stripe.compareAndSet(stateIndex, state, next)) {
+          long millisPerToken = (periodMillis + capacity - 1) / capacity;
+          long waitMillis = Math.max(1, millisPerToken - ((now - last) & TICK_MASK));
+          return -waitMillis * 1_000_000L;
+        }
+      }
+    }
+  }
+
+  /**
+   * Oddaje jeden token pobrany przez {@link #tryConsume}, najwyżej do
+   * pojemności. Czas ostatniego uzupełnienia się nie zmienia.
+   *
+   * @param capacity pojemność kubełka jak przy {@link #tryConsume}
+   */
+  public void refund(long key, int capacity) {
+    key = normalize(key);
+    AtomicLongArray stripe = stripeFor(key);
+    int slot = find(stripe, key);
+    if (slot < 0) {
+      return;
+    }
+    int stateIndex = slot * 2 + 1;
+    for (;;) {
+      long state = stripe.get(stateIndex);
+      if (state == EMPTY) {
+        return;
+      }
+      long tokens = (state >>> TOKENS_SHIFT) & TOKENS_MASK;
+      if (tokens >= capacity) {
+        return;
+      }
+      if (stripe.compareAndSet(stateIndex, state, state + (1L << TOKENS_SHIFT))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Zwiększa licznik przekroczeń klucza (12 bitów, z przepełnieniem).
+   *
+   * @return nowa wartość licznika albo 1 gdy klucza nie ma już w tablicy
+   */
+  public int recordExceeded(long key) {
+    key = normalize(key);
+    AtomicLongArray stripe = stripeFor(key);
+    int slot = find(stripe, key);
+    if (slot < 0) {
+      return 1;
+    }
+    int stateIndex = slot * 2 + 1;
+    for (;;) {
+      long state = stripe.get(stateIndex);
+      if (state == EMPTY) {
+        return 1;
+      }
+      long exceed = ((state & EXCEED_MASK) + 1) & EXCEED_MASK;
+      if (stripe.compareAndSet(stateIndex, state, (state & ~EXCEED_MASK) | exceed)) {
+        return (int) exceed;
+      }
+    }
+  }
+
+  /**
+   * @return liczba slotów w całej tablicy
+   */
+  public int capacity() {
+    return stripes.length * (slotMask + 1);
+  }
+
+  private int find(AtomicLongArray stripe, long key) {
+    int start = (int) mix(key) & slotMask;
+    for (int i = 0; i < maxProbe; i++) {
+      int slot = (start + i) & slotMask;
+      long current = stripe.get(slot * 2);
+      if (current == key) {
+        return slot;
+      }
+      if (current == EMPTY) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private int findOrClaim(AtomicLongArray stripe, long key, long now, int capacity, long periodMillis) {
+    for (;;) {
+      int slot = tryFindOrClaim(stripe, key, now, capacity, periodMillis);
+      if (slot >= 0) {
+        return slot;
+      }
+    }
+  }
+
+  private int tryFindOrClaim(AtomicLongArray stripe, long key, long now, int capacity, long periodMillis) {
+    int start = (int) mix(key) & slotMask;
+    int victim = start;
+    long victimAge = -1;
+
+    for (int i = 0; i < maxProbe; i++) {
+      int slot = (start + i) & slotMask;
+      int keyIndex = slot * 2;
+      long current = stripe.get(keyIndex);
+      if (current == key) {
+        return slot;
+      }
+      if (current == EMPTY) {
+        if (stripe.compareAndSet(keyIndex, EMPTY, key)) {
+          return slot;
+        }
+        if (stripe.get(keyIndex) == key) {
+          return slot;
+        }
+        continue;
+      }
+
+      long state = stripe.get(keyIndex + 1);
+      long age = (now - (state >>> 32)) & TICK_MASK;
+      long tokens = (state >>> TOKENS_SHIFT) & TOKENS_MASK;
+      if (state == EMPTY || tokens + age * capacity / periodMillis >= capacity) {
+        // Kubełek pełny - wyparcie nie zmienia limitu tego klienta
+        age = Long.MAX_VALUE;
+      }
+      if (age > victimAge) {
+        victimAge = age;
+        victim = slot;
+      }
+    }
+
+    // Okno pełne: zajmij slot ofiary. Równoległy CAS na stanie starego klucza
+    // może jeszcze trafić w ten slot - to świadomy kompromis dokładności.
+    int keyIndex = victim * 2;
+    long old = stripe.get(keyIndex);
+    if (old == key) {
+      return victim;
+    }
+    if (stripe.compareAndSet(keyIndex, old, key)) {
+      stripe.set(keyIndex + 1, EMPTY);
+      return victim;
+    }
+    // Inny wątek zajął slot w międzyczasie - kolejna próba
+    return -1;
+  }
+
+  private AtomicLongArray stripeFor(long key) {
+    if (stripeBits == 0) {
+      return stripes[0];
+    }
+    return stripes[(int) (mix(key) >>> (64 - stripeBits))];
+  }
+
+  private long currentTick() {
+    // Tick 0 (start i każde zawinięcie) zamieniony na 1 - stan pack(0, 0, 0)
+    // byłby równy EMPTY i opróżniony kubełek wyglądałby na pełny
+    long tick = ((System.nanoTime() - originNanos) / 1_000_000L) & TICK_MASK;
+    return tick == 0 ? 1 : tick;
+  }
+
+  private static long pack(long tick, long tokens, long exceed) {
+    return (tick << 32) | (tokens << TOKENS_SHIFT) | exceed;
+  }
+
+  private static long normalize(long key) {
+    return key == EMPTY ? -1L : key;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static int ceilPowerOfTwo(int n) {
+    return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+  }
+}
@@ -0,0 +1,80 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.accesslog.RequestLog;
+import com.app.backend.net.ClientIp;
+import com.app.backend.routing.RequestPaths;
+import jakarta.servlet.ServletException;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+import java.io.IOException;
+
+/**
+ * Zawór Tomcata (poziom silnika) odrzucający ruch z denylisty i żądania ponad
+ * limit IP/globalny polityki, zanim żądanie trafi do łańcucha filtrów -
+ * Spring Security, sanitizer i pozostałe filtry nie są wtedy uruchamiane.
+ * Odpowiedź to gotowa tablica bajtów z {@link RateLimitResponses}.
+ * <p>
+ * Poziom użytkownika i limit równoczesnych żądań wymagają uwierzytelnienia i
+ * obejmują całe przetwarzanie, więc zostają w {@code GlobalRateLimiterFilter}.
+ * Wczesne odpowiedzi nie mają nagłówków z {@code SecurityHeadersFilter};
+ * do access logu i histogramu tras zapisuje je sam zawór przez
+ * {@link RequestLog}, z correlation ID z nagłówka, jeśli klient go wysłał.
+ */
+public class EarlyRejectionValve extends ValveBase {
+
+  private final RateLimitEnforcer enforcer;
+  private final RateLimiterMetrics metrics;
+  private final RequestLog requestLog;
+
+  public EarlyRejectionValve(RateLimitEnforcer enforcer, RateLimiterMetrics metrics, RequestLog requestLog) {
+    super(true);
+    this.enforcer = enforcer;
+    this.metrics = metrics;
+    this.requestLog = requestLog;
+  }
+
+  @Override
+  public void invoke(Request request, Response response) throws IOException, ServletException {
+    long timestamp = System.currentTimeMillis();
+    long start = System.nanoTime();
+    ClientIp client = enforcer.resolveClient(request);
+    String ip = client.address();
+    RateLimitEnforcer.Access access = enforcer.access(client);
+
+    if (access == RateLimitEnforcer.Access.DENIED) {
+      metrics.recordRejected(ip, System.nanoTime() - start);
+      RateLimitResponses.writeForbidden(response);
+      rejected(request, response, timestamp, start);
+      return;
+    }
+    if (access == RateLimitEnforcer.Access.WHITELISTED) {
+      request.setAttribute(RateLimitPrecheck.ATTRIBUTE, new RateLimitPrecheck(ip, null, true, 0));
+      getNext().invoke(request, response);
+      return;
+    }
+
+    RateLimitPolicy policy = enforcer.resolvePolicy(request.getMethod(), RequestPaths.lookupPath(request));
+    int retryAfter = enforcer.tryConsume(policy.getIp(), ip, ip, policy);
+    if (retryAfter == 0) {
+      retryAfter = enforcer.tryConsume(policy.getGlobal(), RateLimitPolicy.GLOBAL_KEY, ip, policy);
+    }
+    if (retryAfter > 0) {
+      metrics.recordRejected(ip, System.nanoTime() - start);
+      RateLimitResponses.writeTooManyRequests(response, retryAfter);
+      rejected(request, response, timestamp, start);
+      return;
+    }
+
+    request.setAttribute(RateLimitPrecheck.ATTRIBUTE,
+        new RateLimitPrecheck(ip, policy, false, System.nanoTime() - start));
+    getNext().invoke(request, response);
+  }
+
+  private void rejected(Request request, Response response, long timestamp, long start) {
+    String correlationId = request.getHeader(RequestLog.CORRELATION_ID_HEADER);
+    requestLog.record(request, response.getStatus(), timestamp, System.nanoTime() - start,
+        correlationId == null || correlationId.isBlank() ? null : correlationId);
+  }
+}
@@ -0,0 +1,45 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Okresowo usuwa z tabeli {@link JdbcTokenLeaseStore} kubełki nieużywane
+ * dłużej niż {@code ratelimiter.cluster.idleTtl}. Przy własnym
+ * {@link TokenLeaseStore} (bez JDBC) nic nie robi. Kilka węzłów może
+ * czyścić naraz - DELETE sprawdza wiek wiersza ponownie.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ratelimiter", name = "backend", havingValue = "cluster")
+public class JdbcTokenLeaseCleanup {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcTokenLeaseCleanup.class);
+
+  private final ObjectProvider<JdbcTokenLeaseStore> store;
+  private final RateLimiterProperties.Cluster config;
+
+  public JdbcTokenLeaseCleanup(ObjectProvider<JdbcTokenLeaseStore> store, RateLimiterProperties props) {
+    this.store = store;
+    this.config = props.getCluster();
+  }
+
+  @Scheduled(initialDelayString = "${ratelimiter.cluster.cleanupInterval:10m}",
+      fixedDelayString = "${ratelimiter.cluster.cleanupInterval:10m}")
+  public void purge() {
+    JdbcTokenLeaseStore jdbc = store.getIfAvailable();
+    if (jdbc == null) {
+      return;
+    }
+    try {
+      jdbc.purgeIdle(config.getIdleTtl().toMillis(), config.getCleanupBatchSize());
+    } catch (DataAccessException e) {
+      log.warn("Rate limit bucket cleanup failed: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.app.backend.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link TokenLeaseStore} na tabeli w bazie aplikacji (H2/MySQL). Jeden wiersz
+ * na kubełek, dzierżawa to jedna krótka transakcja z
+ * {@code SELECT ... FOR UPDATE}.
+ * <p>
+ * Czas uzupełniania liczony jest zegarem węzła; przesunięcie zegara wstecz nie
+ * cofa {@code refilled_at}, więc rozjazd zegarów może tylko opóźnić
+ * uzupełnienie, a nie dodać tokenów.
+ * <p>
+ * Wiersze nieaktywnych klientów usuwa {@link #purgeIdle(long, int)} - bez
+ * tego tabela rośnie o jeden wiersz na każdy adres, który kiedykolwiek
+ * przyszedł.
+ */
+public class JdbcTokenLeaseStore implements TokenLeaseStore {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcTokenLeaseStore.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final LongSupplier clock;
+
+  private final String selectSql;
+  private final String insertSql;
+  private final String updateSql;
+  private final String createSql;
+  private final String idleKeysSql;
+  private final String deleteIdleSql;
+
+  public JdbcTokenLeaseStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String table) {
+    this(jdbcTemplate, transactionTemplate, table, System::currentTimeMillis);
+  }
+
+  JdbcTokenLeaseStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String table,
+      LongSupplier clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+        transactionTemplate);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.clock = clock;
+
+    this.selectSql = "SELECT tokens, refilled_at FROM " + table + " WHERE bucket_key = ? FOR UPDATE";
+    this.insertSql = "INSERT INTO " + table + " (bucket_key, tokens, refilled_at) VALUES (?, ?, ?)";
+    this.updateSql = "UPDATE " + table + " SET tokens = ?, refilled_at = ? WHERE bucket_key = ?";
+    this.createSql = "CREATE TABLE IF NOT EXISTS " + table + " ("
+        + "bucket_key VARCHAR(191) NOT NULL PRIMARY KEY, "
+        + "tokens BIGINT NOT NULL, "
+        + "refilled_at BIGINT NOT NULL)";
+    this.idleKeysSql = "SELECT bucket_key FROM " + table + " WHERE refilled_at < ?";
+    // Ponowne sprawdzenie - kubełek użyty w międzyczasie zostaje
+    this.deleteIdleSql = "DELETE FROM " + table + " WHERE bucket_key = ? AND refilled_at < ?";
+  }
+
+  /**
+   * Tworzy tabelę kubełków, jeśli jeszcze nie istnieje.
+   */
+  public void initSchema() {
+    jdbcTemplate.execute(createSql);
+    log.info("Rate limit lease table ready: {}", createSql);
+  }
+
+  @Override
+  public int acquire(String key, int requested, int capacity, long periodMillis) {
+    Integer granted = transactionTemplate.execute(status -> tryAcquire(key, requested, capacity, periodMillis));
+    if (granted != null) {
+      return granted;
+    }
+    // Nowy kubełek - wstaw pełny (wyścig z innym węzłem kończy się DuplicateKey)
+    try {
+      jdbcTemplate.update(insertSql, key, capacity, clock.getAsLong());
+    } catch (DuplicateKeyException e) {
+      log.debug("Bucket {} created concurrently by another node", key);
+    }
+    granted = transactionTemplate.execute(status -> tryAcquire(key, requested, capacity, periodMillis));
+    return granted != null ? granted : 0;
+  }
+
+  /**
+   * Usuwa kubełki nieuzupełniane od co najmniej {@code idleMillis}, paczkami
+   * po {@code batchSize} kluczy, każda paczka w osobnej krótkiej transakcji.
+   * Kubełek bezczynny dłużej niż okres limitu i tak byłby przy następnym
+   * żądaniu pełny, więc przy {@code idleMillis} nie krótszym niż najdłuższy
+   * okres usunięcie niczego nie zmienia.
+   *
+   * @return liczba usuniętych wierszy
+   */
+  public int purgeIdle(long idleMillis, int batchSize) {
+    long cutoff = clock.getAsLong() - idleMillis;
+    int deleted = 0;
+    while (true) {
+      List<String> keys = jdbcTemplate.query(con -> {
+        PreparedStatement ps = con.prepareStatement(idleKeysSql);
+        ps.setLong(1, cutoff);
+        ps.setMaxRows(batchSize);
+        return ps;
+      }, (rs, rowNum) -> rs.getString(1));
+      if (keys.isEmpty()) {
+        break;
+      }
+      int[][] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(deleteIdleSql, keys,
+          batchSize, (ps, key) -> {
+            ps.setString(1, key);
+            ps.setLong(2, cutoff);
+          }));
+      int batchDeleted = 0;
+      for (int[] batch : counts) {
+        for (int count : batch) {
+          // SUCCESS_NO_INFO (-2) z niektórych sterowników liczymy jako jeden wiersz
+          batchDeleted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+      }
+      deleted += batchDeleted;
+      // Nic nie usunięte - wszystkie klucze właśnie użyte; nie kręć się w kółko
+      if (keys.size() < batchSize || batchDeleted == 0) {
+        break;
+      }
+    }
+    if (deleted > 0) {
+      log.info("Purged {} idle rate limit buckets", deleted);
+    }
+    return deleted;
+  }
+
+  private Integer tryAcquire(String key, int requested, int capacity, long periodMillis) {
+    List<long[]> rows = jdbcTemplate.query(selectSql,
+        (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) }, key);
+    if (rows.isEmpty()) {
+      return null;
+    }
+    long now = clock.getAsLong();
+    long tokens = Math.min(capacity, rows.get(0)[0]);
+    long refilledAt = rows.get(0)[1];
+
+    long elapsed = Math.max(0, now - refilledAt);
+    long added = elapsed * capacity / periodMillis;
+    if (added > 0) {
+      if (tokens + added >= capacity) {
+        tokens = capacity;
+        refilledAt = now;
+      } else {
+        tokens += added;
+        refilledAt += added * periodMillis / capacity;
+      }
+    }
+
+    int granted = (int) Math.min(requested, tokens);
+    jdbcTemplate.update(updateSql, tokens - granted, refilledAt, key);
+    return granted;
+  }
+}
@@ -0,0 +1,217 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Backend klastrowy: limit jest wspólny dla wszystkich węzłów, a węzeł
+ * wydaje lokalnie tokeny wydzierżawione partiami z {@link TokenLeaseStore}.
+ * Do magazynu trafia jedno zapytanie na {@code batchSize} żądań klienta.
+ * <p>
+ * Po odmowie magazynu węzeł nie pyta go ponownie, dopóki wspólny kubełek nie
+ * uzupełni co najmniej jednego tokena - flood z jednego adresu nie przekłada
+ * się na ruch do bazy.
+ * <p>
+ * Po błędzie magazynu cały węzeł przestaje go pytać na
+ * {@code failureBackoff}, podwajane przy kolejnych błędach do
+ * {@code maxFailureBackoff}. W przerwie obowiązuje {@code failOpen} bez
+ * zapytania do bazy. Po przerwie pyta dokładnie jeden wątek; sukces zamyka
+ * przerwę, błąd ją wydłuża. Awaria bazy nie zamienia się więc w zapytanie
+ * (i czekanie na timeout) na każde żądanie.
+ */
+public class LeasingRateLimiterBackend implements RateLimiterBackend {
+
+  private static final Logger log = LoggerFactory.getLogger(LeasingRateLimiterBackend.class);
+
+  private final TokenLeaseStore store;
+  private final int batchSize;
+  private final long leaseTtlNanos;
+  private final boolean failOpen;
+  private final long failureBackoffNanos;
+  private final long maxFailureBackoffNanos;
+
+  // Stan magazynu wspólny dla wszystkich kluczy: kolejne błędy i moment
+  // następnej próby
+  private final AtomicInteger storeFailures = new AtomicInteger();
+  private final AtomicLong storeRetryAt = new AtomicLong();
+
+  private final Map<RateLimit, Cache<String, Lease>> leases = new ConcurrentHashMap<>();
+
+  private final Cache<String, AtomicInteger> exceedCounters = Caffeine.newBuilder()
+      .expireAfterAccess(Duration.ofMinutes(30))
+      .maximumSize(10_000)
+      .build();
+
+  public LeasingRateLimiterBackend(RateLimiterProperties props, TokenLeaseStore store) {
+    RateLimiterProperties.Cluster cluster = props.getCluster();
+    this.store = store;
+    this.batchSize = cluster.getBatchSize();
+    this.leaseTtlNanos = Duration.ofMillis(cluster.getLeaseTtlMillis()).toNanos();
+    this.failOpen = cluster.isFailOpen();
+    this.failureBackoffNanos = cluster.getFailureBackoff().toNanos();
+    this.maxFailureBackoffNanos = cluster.getMaxFailureBackoff().toNanos();
+  }
+
+  @Override
+  public long tryConsume(String key, RateLimit limit) {
+    Lease lease = leases.computeIfAbsent(limit, l -> Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .maximumSize(10_000)
+        .build())
+        .get(key, k -> new Lease());
+    int capacity = limit.requests();
+    long periodMillis = limit.periodMillis();
+    // Czas potrzebny wspólnemu kubełkowi na uzupełnienie jednego tokena
+    long retryNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, (periodMillis + capacity - 1) / capacity));
+
+    for (;;) {
+      long now = System.nanoTime();
+      long remaining = lease.take(now);
+      if (remaining >= 0) {
+        return remaining;
+      }
+      if (now - lease.deniedUntil < 0) {
+        return -(lease.deniedUntil - now);
+      }
+
+      lease.lock.lock();
+      try {
+        // Inny wątek mógł właśnie odnowić dzierżawę
+        if (lease.available(now) || now - lease.deniedUntil < 0) {
+          continue;
+        }
+        if (!mayQueryStore(now)) {
+          return storeUnavailable(lease, now, retryNanos);
+        }
+        int granted;
+        try {
+          granted = store.acquire(limit.name() + ":" + key, Math.min(batchSize, capacity), capacity, periodMillis);
+        } catch (RuntimeException e) {
+          storeFailed(now, e);
+          return storeUnavailable(lease, now, retryNanos);
+        }
+        storeSucceeded();
+        if (granted == 0) {
+          lease.deniedUntil = now + retryNanos;
+          return -retryNanos;
+        }
+        lease.renew(granted, now + leaseTtlNanos);
+      } finally {
+        lease.lock.unlock();
+      }
+    }
+  }
+
+  private boolean mayQueryStore(long now) {
+    if (storeFailures.get() == 0) {
+      return true;
+    }
+    // Po przerwie przepuść jedną próbę; reszta widzi przesunięty termin
+    long retryAt = storeRetryAt.get();
+    return now - retryAt >= 0 && storeRetryAt.compareAndSet(retryAt, now + backoff(storeFailures.get()));
+  }
+
+  private void storeFailed(long now, RuntimeException e) {
+    int failures = storeFailures.incrementAndGet();
+    long backoff = backoff(failures);
+    storeRetryAt.set(now + backoff);
+    if (failures == 1) {
+      log.warn("Token lease store unavailable ({}), failOpen={}, next attempt in {} ms", e.getMessage(), failOpen,
+          TimeUnit.NANOSECONDS.toMillis(backoff));
+    } else {
+      log.debug("Token lease store still unavailable after {} attempts ({}), next attempt in {} ms", failures,
+          e.getMessage(), TimeUnit.NANOSECONDS.toMillis(backoff));
+    }
+  }
+
+  private void storeSucceeded() {
+    int failures = storeFailures.getAndSet(0);
+    if (failures > 0) {
+      log.info("Token lease store available again after {} failed attempts", failures);
+    }
+  }
+
+  private long backoff(int failures) {
+    int doublings = Math.min(Math.max(failures - 1, 0), 62);
+    // Porównanie przed przesunięciem - bez przepełnienia
+    return failureBackoffNanos > maxFailureBackoffNanos >> doublings ? maxFailureBackoffNanos
+        : failureBackoffNanos << doublings;
+  }
+
+  private long storeUnavailable(Lease lease, long now, long retryNanos) {
+    if (failOpen) {
+      return 0;
+    }
+    lease.deniedUntil = now + retryNanos;
+    return -retryNanos;
+  }
+
+  /** Liczba kolejnych błędów magazynu (0 = dostępny). */
+  int storeFailures() {
+    return storeFailures.get();
+  }
+
+  /**
+   * Token wraca do lokalnej dzierżawy, jeśli jest jeszcze ważna; po jej
+   * wygaśnięciu przepada, tak jak niewykorzystana reszta partii.
+   */
+  @Override
+  public void refund(String key, RateLimit limit) {
+    Cache<String, Lease> cache = leases.get(limit);
+    Lease lease = cache != null ? cache.getIfPresent(key) : null;
+    if (lease != null && System.nanoTime() - lease.expiresAt < 0) {
+      lease.tokens.incrementAndGet();
+    }
+  }
+
+  @Override
+  public int recordExceeded(String key, RateLimit limit) {
+    return exceedCounters.get(key, k -> new AtomicInteger(0)).incrementAndGet();
+  }
+
+  /**
+   * Lokalna pula tokenów jednego klienta. Odnowienie jest chronione
+   * {@link ReentrantLock} (nie {@code synchronized}), bo obejmuje zapytanie
+   * do bazy.
+   */
+  private static final class Lease {
+    final ReentrantLock lock = new ReentrantLock();
+    final AtomicLong tokens = new AtomicLong();
+    volatile long expiresAt = System.nanoTime();
+    volatile long deniedUntil = System.nanoTime();
+
+    long take(long now) {
+      if (now - expiresAt >= 0) {
+        return -1;
+      }
+      long current;
+      do {
+        current = tokens.get();
+        if (current <= 0) {
+          return -1;
+        }
+      } while (!tokens.compareAndSet(current, current - 1));
+      return current - 1;
+    }
+
+    boolean available(long now) {
+      return now - expiresAt < 0 && tokens.get() > 0;
+    }
+
+    void renew(int granted, long expiresAt) {
+      tokens.set(granted);
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.app.backend.ratelimit;
+
+/**
+ * Pojedynczy limit (pojemność kubełka i czas jego pełnego uzupełnienia).
+ * {@code id} jest unikalne w obrębie {@link RateLimitPolicies} i pozwala
+ * backendom rozdzielić stan różnych limitów dla tego samego klienta.
+ */
+public record RateLimit(int id, String name, int requests, long periodMillis) {
+}
@@ -0,0 +1,113 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.net.CidrTrie;
+import com.app.backend.net.ClientIp;
+import com.app.backend.net.ClientIpResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Logika limitera wspólna dla {@link EarlyRejectionValve} (przed łańcuchem
+ * Springa) i {@code GlobalRateLimiterFilter}: adres klienta, whitelista i
+ * denylista (CIDR), wybór polityki oraz pobranie tokena z poziomu polityki.
+ * Oba etapy korzystają z tego samego {@link RateLimiterBackend}, więc dzielą
+ * stan kubełków.
+ */
+@Component
+public class RateLimitEnforcer {
+
+  private static final Logger log = LoggerFactory.getLogger(RateLimitEnforcer.class);
+
+  /**
+   * Klasyfikacja adresu wg whitelisty/denylisty. Przy nakładających się
+   * zakresach decyduje dłuższy prefiks, przy identycznych - denylista.
+   */
+  public enum Access {
+    LIMITED,
+    WHITELISTED,
+    DENIED
+  }
+
+  private static final Access[] ACCESS_VALUES = Access.values();
+
+  private final RateLimiterBackend backend;
+  private final RateLimitPolicies policies;
+  private final ClientIpResolver clientIpResolver;
+  private final CidrTrie accessList = new CidrTrie();
+  private final int logFrequency;
+
+  public RateLimitEnforcer(RateLimiterProperties props, RateLimiterBackend backend, RateLimitPolicies policies,
+      ClientIpResolver clientIpResolver) {
+    this.backend = backend;
+    this.policies = policies;
+    this.clientIpResolver = clientIpResolver;
+    addAll(props.getWhitelist(), Access.WHITELISTED);
+    addAll(props.getDenylist(), Access.DENIED);
+    this.logFrequency = props.getLogFrequency();
+  }
+
+  public ClientIp resolveClient(HttpServletRequest request) {
+    return clientIpResolver.resolve(request);
+  }
+
+  public Access access(ClientIp client) {
+    if (!client.valid() || accessList.isEmpty()) {
+      return Access.LIMITED;
+    }
+    int value = accessList.find(client.hi(), client.lo());
+    return value == CidrTrie.NO_MATCH ? Access.LIMITED : ACCESS_VALUES[value];
+  }
+
+  public RateLimitPolicy resolvePolicy(String method, String path) {
+    return policies.resolve(method, path);
+  }
+
+  /**
+   * Pobiera token z danego poziomu polityki; co N-te przekroczenie jest
+   * logowane.
+   *
+   * @param limit poziom polityki ({@code null} = brak limitu)
+   * @return 0 gdy żądanie może iść dalej, w przeciwnym razie liczba sekund do
+   *         nagłówka {@code Retry-After}
+   */
+  public int tryConsume(RateLimit limit, String key, String ip, RateLimitPolicy policy) {
+    if (limit == null) {
+      return 0;
+    }
+    long result = backend.tryConsume(key, limit);
+    if (result >= 0) {
+      return 0;
+    }
+
+    // Log only every Nth exceedance
+    int current = backend.recordExceeded(key, limit);
+    if (current % logFrequency == 0) {
+      log.warn("Rate limit {} exceeded for IP: {} ({} times, policy {})", limit.name(), ip, current,
+          policy.getName());
+    }
+    return (int) (-result / 1_000_000_000L) + 1;
+  }
+
+  /**
+   * Oddaje token pobrany przez {@link #tryConsume}, gdy żądanie odrzucił
+   * dalszy poziom polityki.
+   */
+  public void refund(RateLimit limit, String key) {
+    if (limit != null) {
+      backend.refund(key, limit);
+    }
+  }
+
+  private void addAll(List<String> cidrs, Access access) {
+    if (cidrs != null) {
+      for (String cidr : cidrs) {
+        accessList.add(cidr, access.ordinal());
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.routing.RouteTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Polityki limitów skompilowane przy starcie z {@code ratelimiter.policies}
+ * do {@link RouteTrie}. Trasy bez własnej polityki korzystają z polityki
+ * domyślnej zbudowanej z {@code ratelimiter.requests/durationMinutes}.
+ */
+@Component
+public class RateLimitPolicies {
+
+  private static final Logger log = LoggerFactory.getLogger(RateLimitPolicies.class);
+
+  private final RouteTrie<RateLimitPolicy> routes = new RouteTrie<>();
+  private final RateLimitPolicy defaultPolicy;
+  private int nextLimitId;
+
+  public RateLimitPolicies(RateLimiterProperties props) {
+    this.defaultPolicy = new RateLimitPolicy("default", null,
+        newLimit("default:ip", props.getRequests(), Duration.ofMinutes(props.getDurationMinutes())),
+        null, props.getMaxConcurrent());
+
+    for (RateLimiterProperties.Policy p : props.getPolicies()) {
+      RateLimitPolicy policy = new RateLimitPolicy(p.getName(),
+          newLimit(p.getName() + ":global", p.getGlobal()),
+          newLimit(p.getName() + ":ip", p.getIp()),
+          newLimit(p.getName() + ":user", p.getUser()),
+          p.getMaxConcurrent());
+      List<String> methods = p.getMethods();
+      for (String path : p.getPaths()) {
+        if (methods == null || methods.isEmpty()) {
+          routes.add(path, null, policy);
+        } else {
+          for (String method : methods) {
+            routes.add(path, method, policy);
+          }
+        }
+      }
+      log.info("Rate limit policy '{}' compiled: paths={}, methods={}, global={}, ip={}, user={}, maxConcurrent={}",
+          p.getName(), p.getPaths(), methods, policy.getGlobal(), policy.getIp(), policy.getUser(),
+          p.getMaxConcurrent());
+    }
+  }
+
+  /**
+   * @return polityka dla żądania, nigdy {@code null}
+   */
+  public RateLimitPolicy resolve(String method, String path) {
+    RateLimitPolicy policy = routes.find(method, path);
+    return policy != null ? policy : defaultPolicy;
+  }
+
+  private RateLimit newLimit(String name, RateLimiterProperties.Limit limit) {
+    return limit == null ? null : newLimit(name, limit.getRequests(), limit.getPeriod());
+  }
+
+  private RateLimit newLimit(String name, int requests, Duration period) {
+    return new RateLimit(nextLimitId++, name, requests, period.toMillis());
+  }
+}
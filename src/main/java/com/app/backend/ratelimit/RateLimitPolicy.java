@@ -0,0 +1,79 @@
+package com.app.backend.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zestaw zagnieżdżonych limitów dla grupy tras: globalny (wszyscy klienci
+ * razem), na adres IP i na zalogowanego użytkownika, plus limit żądań
+ * obsługiwanych równocześnie dla jednego klienta. Brakujący poziom
+ * ({@code null}) nie jest sprawdzany.
+ */
+public final class RateLimitPolicy {
+
+  /** Wspólny klucz kubełka dla limitu globalnego. */
+  public static final String GLOBAL_KEY = "*";
+
+  private final String name;
+  private final RateLimit global;
+  private final RateLimit ip;
+  private final RateLimit user;
+  private final int maxConcurrent;
+
+  private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+  public RateLimitPolicy(String name, RateLimit global, RateLimit ip, RateLimit user, int maxConcurrent) {
+    this.name = name;
+    this.global = global;
+    this.ip = ip;
+    this.user = user;
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public RateLimit getGlobal() {
+    return global;
+  }
+
+  public RateLimit getIp() {
+    return ip;
+  }
+
+  public RateLimit getUser() {
+    return user;
+  }
+
+  public int getMaxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * Rejestruje rozpoczęcie żądania klienta.
+   *
+   * @return {@code false} gdy klient ma już {@code maxConcurrent} żądań w
+   *         toku - wtedy nie wolno wywoływać {@link #exit(String)}
+   */
+  public boolean tryEnter(String client) {
+    if (maxConcurrent <= 0) {
+      return true;
+    }
+    Integer current = inFlight.merge(client, 1, Integer::sum);
+    if (current > maxConcurrent) {
+      exit(client);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Rejestruje zakończenie żądania przyjętego przez {@link #tryEnter(String)}.
+   */
+  public void exit(String client) {
+    if (maxConcurrent <= 0) {
+      return;
+    }
+    inFlight.computeIfPresent(client, (k, v) -> v <= 1 ? null : v - 1);
+  }
+}
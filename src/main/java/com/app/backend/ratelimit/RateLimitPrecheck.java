@@ -0,0 +1,16 @@
+package com.app.backend.ratelimit;
+
+/**
+ * Wynik wstępnego sprawdzenia wykonanego przez {@link EarlyRejectionValve},
+ * zapisywany jako atrybut żądania. Filtr pomija wtedy poziomy już sprawdzone
+ * (IP i globalny) i nie pobiera drugi raz tokenów z tych samych kubełków.
+ *
+ * @param clientIp    adres klienta
+ * @param policy      polityka trasy ({@code null} dla adresów z whitelisty)
+ * @param whitelisted adres jest na whiteliście
+ * @param checkNanos  czas sprawdzenia w zaworze
+ */
+public record RateLimitPrecheck(String clientIp, RateLimitPolicy policy, boolean whitelisted, long checkNanos) {
+
+  public static final String ATTRIBUTE = RateLimitPrecheck.class.getName();
+}
@@ -0,0 +1,70 @@
+package com.app.backend.ratelimit;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Gotowe odpowiedzi 429/403 limitera. Treść i wartość nagłówka
+ * {@code Retry-After} są kodowane raz na daną liczbę sekund, więc odrzucenie
+ * żądania to tylko zapis tablicy bajtów - bez formatowania i bez Writera.
+ */
+public final class RateLimitResponses {
+
+  private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+  private static final int CACHED_SECONDS = 3600;
+
+  private static final AtomicReferenceArray<byte[]> TOO_MANY_REQUESTS = new AtomicReferenceArray<>(
+      CACHED_SECONDS + 1);
+  private static final String[] RETRY_AFTER = new String[CACHED_SECONDS + 1];
+  private static final byte[] FORBIDDEN = "{\"error\":\"Forbidden\"}".getBytes(StandardCharsets.US_ASCII);
+
+  static {
+    for (int i = 0; i <= CACHED_SECONDS; i++) {
+      RETRY_AFTER[i] = Integer.toString(i);
+    }
+  }
+
+  private RateLimitResponses() {
+  }
+
+  public static void writeTooManyRequests(HttpServletResponse response, int retryAfterSeconds)
+      throws IOException {
+    int seconds = Math.max(1, retryAfterSeconds);
+    response.setStatus(429);
+    response.setHeader("Retry-After", seconds <= CACHED_SECONDS ? RETRY_AFTER[seconds] : Integer.toString(seconds));
+    write(response, tooManyRequestsBody(seconds));
+  }
+
+  public static void writeForbidden(HttpServletResponse response) throws IOException {
+    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+    write(response, FORBIDDEN);
+  }
+
+  static byte[] tooManyRequestsBody(int seconds) {
+    if (seconds > CACHED_SECONDS) {
+      return encode(seconds);
+    }
+    byte[] body = TOO_MANY_REQUESTS.get(seconds);
+    if (body == null) {
+      // Wyścig jest nieszkodliwy - obie wersje są identyczne
+      body = encode(seconds);
+      TOO_MANY_REQUESTS.set(seconds, body);
+    }
+    return body;
+  }
+
+  private static byte[] encode(int seconds) {
+    return ("{\"error\":\"Too many requests\",\"retryAfterSeconds\":" + seconds + "}")
+        .getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static void write(HttpServletResponse response, byte[] body) throws IOException {
+    response.setContentType(CONTENT_TYPE);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+    response.flushBuffer();
+  }
+}
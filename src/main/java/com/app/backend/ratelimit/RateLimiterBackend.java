@@ -0,0 +1,32 @@
+package com.app.backend.ratelimit;
+
+/**
+ * Magazyn stanu limitów używany przez
+ * {@link com.app.backend.filter.GlobalRateLimiterFilter}.
+ * Implementację wybiera {@code ratelimiter.backend}.
+ */
+public interface RateLimiterBackend {
+
+  /**
+   * Próbuje pobrać jeden token z kubełka {@code limit} dla klucza (adres IP,
+   * nazwa użytkownika lub stały klucz limitu globalnego).
+   *
+   * @return liczba pozostałych tokenów (>= 0) albo, gdy limit został
+   *         przekroczony, ujemna liczba nanosekund do pojawienia się tokena
+   */
+  long tryConsume(String key, RateLimit limit);
+
+  /**
+   * Oddaje token pobrany przez {@link #tryConsume}, gdy żądanie odrzucił
+   * dalszy poziom limitu. Kubełek nie przekracza pojemności; klucz, którego
+   * już nie ma w pamięci, jest pomijany.
+   */
+  void refund(String key, RateLimit limit);
+
+  /**
+   * Zwiększa licznik przekroczeń po odmowie z {@link #tryConsume}.
+   *
+   * @return nowa wartość licznika
+   */
+  int recordExceeded(String key, RateLimit limit);
+}
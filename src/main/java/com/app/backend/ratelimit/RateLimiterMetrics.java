@@ -0,0 +1,87 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.metrics.HeavyHitters;
+import com.app.backend.metrics.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Liczniki decyzji limitera, czas sprawdzenia limitu i ranking klientów
+ * (wg liczby żądań i odrzuceń). Zapis jest bez blokad, pamięć stała.
+ */
+@Component
+public class RateLimiterMetrics {
+
+  private final LongAdder allowed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder whitelisted = new LongAdder();
+  private final LatencyHistogram checkTime = new LatencyHistogram();
+  private final HeavyHitters topRequests;
+  private final HeavyHitters topRejections;
+
+  public RateLimiterMetrics(RateLimiterProperties props) {
+    RateLimiterProperties.Metrics m = props.getMetrics();
+    long window = TimeUnit.SECONDS.toNanos(m.getWindowSeconds());
+    this.topRequests = new HeavyHitters(m.getSketchWidth(), m.getSketchDepth(), m.getTopN(), window);
+    this.topRejections = new HeavyHitters(m.getSketchWidth(), m.getSketchDepth(), m.getTopN(), window);
+  }
+
+  public void recordWhitelisted() {
+    whitelisted.increment();
+  }
+
+  public void recordAllowed(String client, long checkNanos) {
+    allowed.increment();
+    checkTime.record(checkNanos);
+    topRequests.add(client);
+  }
+
+  public void recordRejected(String client, long checkNanos) {
+    rejected.increment();
+    checkTime.record(checkNanos);
+    topRequests.add(client);
+    topRejections.add(client);
+  }
+
+  public Map<String, Object> snapshot() {
+    Map<String, Object> decisions = new LinkedHashMap<>();
+    decisions.put("allowed", allowed.sum());
+    decisions.put("rejected", rejected.sum());
+    decisions.put("whitelisted", whitelisted.sum());
+
+    LatencyHistogram.Snapshot s = checkTime.snapshot();
+    Map<String, Object> latency = new LinkedHashMap<>();
+    latency.put("count", s.getCount());
+    latency.put("mean", Math.round(s.getMean()));
+    latency.put("p50", s.percentile(0.5));
+    latency.put("p90", s.percentile(0.9));
+    latency.put("p99", s.percentile(0.99));
+    latency.put("p999", s.percentile(0.999));
+    latency.put("max", s.getMax());
+
+    Map<String, Object> top = new LinkedHashMap<>();
+    top.put("windowSeconds", topRequests.windowSeconds());
+    top.put("byRequests", entries(topRequests.current()));
+    top.put("byRejections", entries(topRejections.current()));
+    top.put("previousByRequests", entries(topRequests.previous()));
+    top.put("previousByRejections", entries(topRejections.previous()));
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("decisions", decisions);
+    result.put("checkTimeNanos", latency);
+    result.put("topClients", top);
+    return result;
+  }
+
+  private static List<Map<String, Object>> entries(List<HeavyHitters.Entry> entries) {
+    return entries.stream()
+        .map(e -> Map.<String, Object>of("client", e.key(), "count", e.count()))
+        .toList();
+  }
+}
@@ -0,0 +1,19 @@
+package com.app.backend.ratelimit;
+
+/**
+ * Centralny magazyn kubełków współdzielony przez wszystkie węzły. Węzły nie
+ * pytają go o każde żądanie, tylko dzierżawią tokeny partiami
+ * ({@link LeasingRateLimiterBackend}).
+ */
+public interface TokenLeaseStore {
+
+  /**
+   * Pobiera do {@code requested} tokenów ze wspólnego kubełka {@code key},
+   * uzupełniając go wcześniej zgodnie z upływem czasu.
+   *
+   * @param capacity     pojemność kubełka
+   * @param periodMillis czas pełnego uzupełnienia kubełka
+   * @return liczba przyznanych tokenów (0..requested)
+   */
+  int acquire(String key, int requested, int capacity, long periodMillis);
+}
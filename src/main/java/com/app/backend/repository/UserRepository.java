@@ -1,15 +1,95 @@
 package com.app.backend.repository;
 
+import com.app.backend.dto.UserView;
 import com.app.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+// Zapytania zadeklarowane tutaj działają w transakcji read-only (Hibernate
+// bez flush i snapshotów, połączenie setReadOnly); save/delete z
+// SimpleJpaRepository zachowują własne @Transactional, a zmiany (@Modifying)
+// deklarują zapis. Odczyty pomijają wiersze po soft delete (deletedAt) -
+// odziedziczone findById/findAll/count ich nie filtrują.
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
 
-  Optional<User> findByUsername(String username);
+  // Odczyty dla API zwracają UserView: tylko publiczne kolumny, bez hasła
 
-  Optional<User> findByEmail(String email);
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.id = :id and u.deletedAt is null")
+  Optional<UserView> findViewById(@Param("id") Long id);
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.username = :username and u.deletedAt is null")
+  Optional<UserView> findViewByUsername(@Param("username") String username);
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.email = :email and u.deletedAt is null")
+  Optional<UserView> findViewByEmail(@Param("email") String email);
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.deletedAt is null order by u.id")
+  List<UserView> findAllViews();
+
+  // Bez filtra deletedAt: odpowiadają na pytanie, czy INSERT naruszy
+  // unikalność, a blokują ją także wiersze po soft delete
+
+  @Query("select u.username from User u where u.username in :usernames")
+  List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+  @Query("select u.email from User u where u.email in :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  // Stronicowanie keyset: warunek na kluczu zamiast OFFSET, więc koszt strony
+  // nie zależy od jej numeru (indeks PK i idx_users_created_at_id)
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.id > :id and u.deletedAt is null order by u.id")
+  List<UserView> findViewsAfterId(@Param("id") long id, Limit limit);
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.deletedAt is null order by u.createdAt desc, u.id desc")
+  List<UserView> findNewestViews(Limit limit);
+
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where (u.createdAt < :createdAt or (u.createdAt = :createdAt and u.id < :id)) "
+      + "and u.deletedAt is null order by u.createdAt desc, u.id desc")
+  List<UserView> findViewsCreatedBefore(@Param("createdAt") Instant createdAt, @Param("id") long id, Limit limit);
+
+  // Soft delete i usuwanie wierszy: jedno zapytanie bez ładowania encji
+
+  @Modifying
+  @Transactional
+  @Query("update User u set u.deletedAt = :deletedAt where u.id = :id and u.deletedAt is null")
+  int softDelete(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+  /** Także wiersz po soft delete - do unieważnienia wpisów zaraz po usunięciu. */
+  @Query("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+      + "from User u where u.id = :id")
+  Optional<UserView> findAnyViewById(@Param("id") Long id);
+
+  @Query("select u.id from User u where u.deletedAt is not null and u.deletedAt < :before")
+  List<Long> findDeletedIds(@Param("before") Instant before, Limit limit);
+
+  @Modifying
+  @Transactional
+  @Query("delete from User u where u.id in :ids and u.deletedAt is not null")
+  int purge(@Param("ids") Collection<Long> ids);
+
+  /** Usuwa od razu wiersze po soft delete blokujące ponowne użycie username/e-maili. */
+  @Modifying
+  @Transactional
+  @Query("delete from User u where u.deletedAt is not null and (u.username in :usernames or u.email in :emails)")
+  int purgeDeleted(@Param("usernames") Collection<String> usernames, @Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,21 @@
+package com.app.backend.routing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Ścieżka żądania do dopasowania w {@link RouteTrie} - taka, jaką dopasowuje
+ * Spring MVC: bez context path, bez parametrów ścieżki ({@code ;x=1},
+ * {@code ;jsessionid=...}), zdekodowana i bez podwójnych {@code /}. Na
+ * surowym {@code getRequestURI()} {@code /users/5;x=1} i {@code /%75sers/5}
+ * trafiają do handlera {@code /users/{id}}, ale omijają jego politykę.
+ */
+public final class RequestPaths {
+
+  private RequestPaths() {
+  }
+
+  public static String lookupPath(HttpServletRequest request) {
+    return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+  }
+}
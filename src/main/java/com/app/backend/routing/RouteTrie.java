@@ -0,0 +1,233 @@
+package com.app.backend.routing;
+
+import java.util.Locale;
+
+/**
+ * Drzewo segmentów ścieżki budowane raz przy starcie i potem tylko czytane.
+ * Koszt dopasowania zależy od liczby segmentów ścieżki, a nie od liczby
+ * zarejestrowanych wzorców, i nie wymaga tworzenia podciągów.
+ * <p>
+ * Obsługiwane wzorce: segmenty dosłowne ({@code /users}), jeden dowolny
+ * segment ({@code *} lub {@code {id}}) oraz {@code **} albo {@code {*path}}
+ * na końcu (dowolna reszta, również pusta). Pierwszeństwo: segment dosłowny,
+ * potem {@code *}, potem {@code **}. Wartość przypisana do konkretnej metody
+ * HTTP wygrywa z wartością dla wszystkich metod. Wzorców częściowych
+ * ({@code *.txt}, {@code a{b}}, {@code ?}) drzewo nie obsługuje i je
+ * odrzuca, zamiast dopasowywać je dosłownie.
+ *
+ * @param <T> typ wartości przypisanej do wzorca
+ */
+public final class RouteTrie<T> {
+
+  private static final String[] METHODS = { "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE" };
+  private static final int ANY = METHODS.length;
+
+  private final Node root = new Node();
+
+  /**
+   * Rejestruje wartość dla wzorca.
+   *
+   * @param method metoda HTTP albo {@code null} dla wszystkich metod
+   * @throws IllegalArgumentException gdy wzorzec lub metoda są niepoprawne
+   */
+  public void add(String pattern, String method, T value) {
+    int methodIndex = method == null ? ANY : methodIndex(method.toUpperCase(Locale.ROOT));
+    if (methodIndex < 0) {
+      throw new IllegalArgumentException("Unsupported HTTP method: " + method);
+    }
+    Node node = root;
+    int len = pattern.length();
+    int pos = 0;
+    while (true) {
+      while (pos < len && pattern.charAt(pos) == '/') {
+        pos++;
+      }
+      if (pos >= len) {
+        break;
+      }
+      int end = pattern.indexOf('/', pos);
+      if (end < 0) {
+        end = len;
+      }
+      String segment = pattern.substring(pos, end);
+      boolean variable = segment.startsWith("{") && segment.endsWith("}");
+      if (segment.equals("**") || (variable && segment.startsWith("{*"))) {
+        if (end < len && pattern.substring(end).replace("/", "").length() > 0) {
+          throw new IllegalArgumentException("'" + segment + "' must be the last segment: " + pattern);
+        }
+        if (node.rest == null) {
+          node.rest = new Node();
+        }
+        node = node.rest;
+        break;
+      }
+      if (segment.equals("*") || variable) {
+        if (node.param == null) {
+          node.param = new Node();
+        }
+        node = node.param;
+      } else if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+        throw new IllegalArgumentException("Unsupported pattern segment '" + segment + "': " + pattern);
+      } else {
+        node = node.literalOrCreate(segment);
+      }
+      pos = end;
+    }
+    node.values[methodIndex] = value;
+  }
+
+  /**
+   * Znajduje wartość dla metody i ścieżki (bez query string).
+   *
+   * @return dopasowana wartość albo {@code null}
+   */
+  public T find(String method, String path) {
+    if (path == null) {
+      return null;
+    }
+    int methodIndex = method == null ? ANY : methodIndex(method);
+    return match(root, path, 0, methodIndex);
+  }
+
+  /**
+   * Jak {@link #find(String, String)}, ale dopasowuje wzorce przypisane do
+   * wszystkich metod.
+   */
+  public T find(String path) {
+    return find(null, path);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T match(Node node, String path, int pos, int methodIndex) {
+    int len = path.length();
+    while (pos < len && path.charAt(pos) == '/') {
+      pos++;
+    }
+    if (pos >= len) {
+      Object value = node.value(methodIndex);
+      if (value == null && node.rest != null) {
+        value = node.rest.value(methodIndex);
+      }
+      return (T) value;
+    }
+    int end = path.indexOf('/', pos);
+    if (end < 0) {
+      end = len;
+    }
+
+    Node literal = node.literal(path, pos, end);
+    if (literal != null) {
+      T value = match(literal, path, end, methodIndex);
+      if (value != null) {
+        return value;
+      }
+    }
+    if (node.param != null) {
+      T value = match(node.param, path, end, methodIndex);
+      if (value != null) {
+        return value;
+      }
+    }
+    return node.rest != null ? (T) node.rest.value(methodIndex) : null;
+  }
+
+  private static int methodIndex(String method) {
+    switch (method) {
+      case "GET":
+        return 0;
+      case "HEAD":
+        return 1;
+      case "POST":
+        return 2;
+      case "PUT":
+        return 3;
+      case "PATCH":
+        return 4;
+      case "DELETE":
+        return 5;
+      case "OPTIONS":
+        return 6;
+      case "TRACE":
+        return 7;
+      default:
+        return -1;
+    }
+  }
+
+  private static final class Node {
+    final Object[] values = new Object[METHODS.length + 1];
+    // Tablica haszująca segmentów dosłownych (adresowanie otwarte)
+    String[] keys = new String[4];
+    Node[] children = new Node[4];
+    int size;
+    Node param;
+    Node rest;
+
+    Object value(int methodIndex) {
+      Object value = methodIndex >= 0 ? values[methodIndex] : null;
+      return value != null ? value : values[ANY];
+    }
+
+    Node literal(String path, int from, int to) {
+      if (size == 0) {
+        return null;
+      }
+      int h = 0;
+      for (int i = from; i < to; i++) {
+        h = 31 * h + path.charAt(i);
+      }
+      int mask = keys.length - 1;
+      int length = to - from;
+      for (int i = spread(h) & mask;; i = (i + 1) & mask) {
+        String key = keys[i];
+        if (key == null) {
+          return null;
+        }
+        if (key.length() == length && key.hashCode() == h && path.regionMatches(from, key, 0, length)) {
+          return children[i];
+        }
+      }
+    }
+
+    Node literalOrCreate(String segment) {
+      int mask = keys.length - 1;
+      int i = spread(segment.hashCode()) & mask;
+      for (; keys[i] != null; i = (i + 1) & mask) {
+        if (keys[i].equals(segment)) {
+          return children[i];
+        }
+      }
+      if ((size + 1) * 2 > keys.length) {
+        resize();
+        return literalOrCreate(segment);
+      }
+      Node child = new Node();
+      keys[i] = segment;
+      children[i] = child;
+      size++;
+      return child;
+    }
+
+    private void resize() {
+      String[] oldKeys = keys;
+      Node[] oldChildren = children;
+      keys = new String[oldKeys.length * 2];
+      children = new Node[oldKeys.length * 2];
+      int mask = keys.length - 1;
+      for (int j = 0; j < oldKeys.length; j++) {
+        if (oldKeys[j] != null) {
+          int i = spread(oldKeys[j].hashCode()) & mask;
+          while (keys[i] != null) {
+            i = (i + 1) & mask;
+          }
+          keys[i] = oldKeys[j];
+          children[i] = oldChildren[j];
+        }
+      }
+    }
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,74 @@
+package com.app.backend.sanitize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Bufor FIFO bajtów: generator dopisuje na końcu, czytelnik zabiera z
+ * początku. Rośnie tylko do rozmiaru wyjścia jednego fragmentu wejścia.
+ */
+final class ByteQueue extends OutputStream {
+
+  private byte[] buffer;
+  private int head;
+  private int tail;
+
+  ByteQueue(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  int size() {
+    return tail - head;
+  }
+
+  int read() {
+    return buffer[head++] & 0xFF;
+  }
+
+  int read(byte[] b, int off, int len) {
+    int n = Math.min(len, tail - head);
+    System.arraycopy(buffer, head, b, off, n);
+    head += n;
+    return n;
+  }
+
+  /**
+   * Przenosi całą zawartość do {@code out} bez kopii pośredniej.
+   *
+   * @return liczba przeniesionych bajtów
+   */
+  int drainTo(OutputStream out) throws IOException {
+    int n = tail - head;
+    out.write(buffer, head, n);
+    head = tail = 0;
+    return n;
+  }
+
+  @Override
+  public void write(int b) {
+    ensureCapacity(1);
+    buffer[tail++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    ensureCapacity(len);
+    System.arraycopy(b, off, buffer, tail, len);
+    tail += len;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (tail + extra <= buffer.length) {
+      return;
+    }
+    int size = tail - head;
+    if (size + extra <= buffer.length) {
+      System.arraycopy(buffer, head, buffer, 0, size);
+    } else {
+      buffer = Arrays.copyOfRange(buffer, head, head + Math.max(buffer.length * 2, size + extra));
+    }
+    head = 0;
+    tail = size;
+  }
+}
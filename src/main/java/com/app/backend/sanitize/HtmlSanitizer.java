@@ -0,0 +1,46 @@
+package com.app.backend.sanitize;
+
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * Sanitizacja pojedynczej wartości tekstowej: trim + HTML-escape.
+ * <p>
+ * Większość wartości nie zawiera nic do zmiany, dlatego najpierw jest jedno
+ * przejście po znakach: bez znaków do escape'owania wynikiem jest ten sam
+ * obiekt {@code String} (albo podciąg po trim), bez alokacji. Tylko wartości
+ * z {@code " & < >} lub znakami spoza ASCII trafiają do
+ * {@link StringEscapeUtils#escapeHtml4(String)} (encje HTML 4 obejmują m.in.
+ * Latin-1 i część symboli, więc znaki >= 0x80 idą ścieżką pełną).
+ */
+public final class HtmlSanitizer {
+
+  private HtmlSanitizer() {
+  }
+
+  /**
+   * Null-safe.
+   */
+  public static String sanitize(String input) {
+    if (input == null)
+      return null;
+
+    int start = 0;
+    int end = input.length();
+    while (start < end && input.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && input.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    for (int i = start; i < end; i++) {
+      if (needsEscape(input.charAt(i))) {
+        return StringEscapeUtils.escapeHtml4(input.substring(start, end));
+      }
+    }
+    return start == 0 && end == input.length() ? input : input.substring(start, end);
+  }
+
+  private static boolean needsEscape(char c) {
+    return c >= 0x80 || c == '<' || c == '>' || c == '&' || c == '"';
+  }
+}
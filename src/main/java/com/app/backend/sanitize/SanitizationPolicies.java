@@ -0,0 +1,126 @@
+package com.app.backend.sanitize;
+
+import com.app.backend.routing.RouteTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Polityki sanitizacji wszystkich handlerów z
+ * {@link RequestMappingHandlerMapping}, skompilowane po starcie kontekstu do
+ * {@link RouteTrie}. Rejestrowane są także handlery bez adnotacji (z
+ * polityką {@link SanitizationPolicy#FULL}), żeby ogólniejszy wzorzec z
+ * adnotacją nie przejął tras obsługiwanych przez inny handler.
+ * <p>
+ * Do czasu zbudowania tablicy i dla ścieżek spoza kontrolerów (np. pliki
+ * statyczne) stosowana jest polityka {@link SanitizationPolicy#FULL}.
+ * Wzorzec, którego tablica nie obsługuje, zatrzymuje start aplikacji.
+ */
+@Component
+public class SanitizationPolicies implements SmartInitializingSingleton {
+
+  private static final Logger log = LoggerFactory.getLogger(SanitizationPolicies.class);
+
+  private final ApplicationContext context;
+  private volatile RouteTrie<SanitizationPolicy> routes;
+
+  public SanitizationPolicies(ApplicationContext context) {
+    this.context = context;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    RequestMappingHandlerMapping mapping = context.getBean("requestMappingHandlerMapping",
+        RequestMappingHandlerMapping.class);
+    compile(mapping.getHandlerMethods());
+  }
+
+  /**
+   * Buduje tablicę z mapowań handlerów.
+   *
+   * @throws IllegalStateException gdy wzorca handlera nie da się zapisać w
+   *                               {@link RouteTrie} (np. {@code **} w środku
+   *                               przy {@code AntPathMatcher}) albo
+   *                               {@link Sanitize#maxBodySize()} jest błędny
+   */
+  public void compile(Map<RequestMappingInfo, HandlerMethod> handlers) {
+    RouteTrie<SanitizationPolicy> trie = new RouteTrie<>();
+    int annotated = 0;
+    for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlers.entrySet()) {
+      HandlerMethod handler = entry.getValue();
+      Sanitize sanitize = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), Sanitize.class);
+      if (sanitize == null) {
+        sanitize = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), Sanitize.class);
+      }
+      SanitizationPolicy policy = sanitize == null ? SanitizationPolicy.FULL
+          : SanitizationPolicy.of(sanitize, maxBodySize(sanitize, handler));
+      if (sanitize != null) {
+        annotated++;
+      }
+
+      RequestMappingInfo info = entry.getKey();
+      Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+      for (String pattern : info.getPatternValues()) {
+        try {
+          add(trie, pattern, methods, policy);
+        } catch (IllegalArgumentException e) {
+          throw new IllegalStateException("Cannot compile sanitization policy for " + handler.getShortLogMessage()
+              + ": " + e.getMessage(), e);
+        }
+      }
+    }
+    routes = trie;
+    log.info("Sanitization policies compiled: handlers={}, annotated={}", handlers.size(), annotated);
+  }
+
+  private static void add(RouteTrie<SanitizationPolicy> trie, String pattern, Set<RequestMethod> methods,
+      SanitizationPolicy policy) {
+    if (methods.isEmpty()) {
+      trie.add(pattern, null, policy);
+      return;
+    }
+    for (RequestMethod method : methods) {
+      trie.add(pattern, method.name(), policy);
+    }
+    // Spring obsługuje HEAD handlerem GET
+    if (methods.contains(RequestMethod.GET) && !methods.contains(RequestMethod.HEAD)) {
+      trie.add(pattern, RequestMethod.HEAD.name(), policy);
+    }
+  }
+
+  private long maxBodySize(Sanitize sanitize, HandlerMethod handler) {
+    if (!StringUtils.hasText(sanitize.maxBodySize())) {
+      return -1;
+    }
+    try {
+      return DataSize.parse(context.getEnvironment().resolveRequiredPlaceholders(sanitize.maxBodySize())).toBytes();
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Invalid @Sanitize maxBodySize '" + sanitize.maxBodySize() + "' on "
+          + handler.getShortLogMessage() + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return polityka dla żądania, nigdy {@code null}
+   */
+  public SanitizationPolicy resolve(String method, String path) {
+    RouteTrie<SanitizationPolicy> current = routes;
+    if (current == null) {
+      return SanitizationPolicy.FULL;
+    }
+    SanitizationPolicy policy = current.find(method, path);
+    return policy != null ? policy : SanitizationPolicy.FULL;
+  }
+}
@@ -0,0 +1,39 @@
+package com.app.backend.sanitize;
+
+import java.util.Set;
+
+/**
+ * Skompilowana polityka sanitizacji dla handlera.
+ *
+ * @param params sanitizować parametry query/form
+ * @param body   sanitizować body JSON
+ * @param fields ograniczenie do wybranych nazw ({@code null} = wszystkie)
+ * @param maxBodySize limit body w bajtach ({@code -1} = {@code sanitizer.maxBodySize})
+ */
+public record SanitizationPolicy(boolean params, boolean body, Set<String> fields, long maxBodySize) {
+
+  public static final SanitizationPolicy FULL = new SanitizationPolicy(true, true, null, -1);
+
+  /**
+   * @param maxBodySize rozwiązany {@link Sanitize#maxBodySize()} w bajtach albo
+   *                    {@code -1}
+   */
+  public static SanitizationPolicy of(Sanitize annotation, long maxBodySize) {
+    return switch (annotation.mode()) {
+      case NONE -> new SanitizationPolicy(false, false, null, maxBodySize);
+      case PARAMS -> new SanitizationPolicy(true, false, null, maxBodySize);
+      case JSON_BODY -> new SanitizationPolicy(false, true, null, maxBodySize);
+      case FULL -> new SanitizationPolicy(true, true, null, maxBodySize);
+      case FIELDS -> new SanitizationPolicy(true, true, Set.of(annotation.fields()), maxBodySize);
+    };
+  }
+
+  /** @return limit body dla tej polityki albo {@code defaultLimit} */
+  public long maxBodySize(long defaultLimit) {
+    return maxBodySize >= 0 ? maxBodySize : defaultLimit;
+  }
+
+  public boolean isNone() {
+    return !params && !body;
+  }
+}
@@ -0,0 +1,50 @@
+package com.app.backend.sanitize;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Deklaruje, jak {@code RequestSanitizationFilter} traktuje żądania do
+ * handlera. Adnotacja na metodzie ma pierwszeństwo przed adnotacją na klasie
+ * kontrolera; handlery bez adnotacji są sanitizowane w trybie
+ * {@link Mode#FULL}. Polityki są odczytywane raz przy starcie
+ * ({@link SanitizationPolicies}).
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sanitize {
+
+  Mode mode() default Mode.FULL;
+
+  /**
+   * Nazwy parametrów i pól JSON sanitizowanych w trybie {@link Mode#FIELDS}
+   * (pole na dowolnym poziomie zagnieżdżenia, także elementy tablicy pod tym
+   * polem).
+   */
+  String[] fields() default {};
+
+  /**
+   * Limit body dla tego handlera, np. {@code "2GB"} albo placeholder
+   * {@code "${users.bulkImport.maxBodySize}"}; pusty = {@code sanitizer.maxBodySize}.
+   * Dla tras przyjmujących duże strumienie (import), których nie powinien
+   * ograniczać limit zwykłych żądań JSON.
+   */
+  String maxBodySize() default "";
+
+  enum Mode {
+    /** Bez sanitizacji i bez wrapperów. */
+    NONE,
+    /** Tylko parametry query/form. */
+    PARAMS,
+    /** Tylko body JSON. */
+    JSON_BODY,
+    /** Parametry i body JSON. */
+    FULL,
+    /** Parametry i pola JSON wymienione w {@link Sanitize#fields()}. */
+    FIELDS
+  }
+}
@@ -0,0 +1,102 @@
+package com.app.backend.sanitize;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request z zsanityzowanymi parametrami (query i form). Mapa jest liczona
+ * leniwie przy pierwszym dostępie i zapamiętywana - Spring MVC pyta o
+ * parametry wielokrotnie w jednym żądaniu. Tablice wartości bez zmian są
+ * współdzielone z oryginałem, a gdy nic się nie zmieniło, zwracana jest
+ * oryginalna (niemodyfikowalna) mapa kontenera.
+ * <p>
+ * Opcjonalny zbiór {@code fields} ogranicza sanitizację do parametrów o tych
+ * nazwach ({@link Sanitize.Mode#FIELDS}).
+ */
+public class SanitizedParametersRequest extends HttpServletRequestWrapper {
+
+  private final Set<String> fields;
+  private Map<String, String[]> parameters;
+
+  public SanitizedParametersRequest(HttpServletRequest request) {
+    this(request, null);
+  }
+
+  /**
+   * @param fields nazwy sanitizowanych parametrów ({@code null} = wszystkie)
+   */
+  public SanitizedParametersRequest(HttpServletRequest request, Set<String> fields) {
+    super(request);
+    this.fields = fields;
+  }
+
+  @Override
+  public String getParameter(String name) {
+    String[] values = parameters().get(name);
+    return values == null || values.length == 0 ? null : values[0];
+  }
+
+  @Override
+  public String[] getParameterValues(String name) {
+    return parameters().get(name);
+  }
+
+  @Override
+  public Map<String, String[]> getParameterMap() {
+    return parameters();
+  }
+
+  @Override
+  public Enumeration<String> getParameterNames() {
+    return Collections.enumeration(parameters().keySet());
+  }
+
+  private Map<String, String[]> parameters() {
+    if (parameters == null) {
+      parameters = sanitize(super.getParameterMap(), fields);
+    }
+    return parameters;
+  }
+
+  private static Map<String, String[]> sanitize(Map<String, String[]> original, Set<String> fields) {
+    Map<String, String[]> result = null;
+    for (Map.Entry<String, String[]> entry : original.entrySet()) {
+      if (fields != null && !fields.contains(entry.getKey())) {
+        continue;
+      }
+      String[] values = entry.getValue();
+      String[] sanitized = sanitize(values);
+      if (sanitized != values && result == null) {
+        // Pierwsza zmiana - od teraz budujemy kopię
+        result = new LinkedHashMap<>(original);
+      }
+      if (result != null) {
+        result.put(entry.getKey(), sanitized);
+      }
+    }
+    return result == null ? original : Collections.unmodifiableMap(result);
+  }
+
+  private static String[] sanitize(String[] values) {
+    if (values == null) {
+      return null;
+    }
+    String[] result = values;
+    for (int i = 0; i < values.length; i++) {
+      String sanitized = HtmlSanitizer.sanitize(values[i]);
+      if (sanitized != values[i]) {
+        if (result == values) {
+          result = values.clone();
+        }
+        result[i] = sanitized;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,187 @@
+package com.app.backend.sanitize;
+
+import com.app.backend.exception.RequestBodyTooLargeException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Strumień body zwracający zsanityzowany JSON czytany na bieżąco z
+ * oryginalnego {@link ServletInputStream}. Wejście jest pobierane fragmentami
+ * tylko wtedy, gdy czytający potrzebuje kolejnych bajtów; limit rozmiaru jest
+ * sprawdzany w trakcie czytania (działa także dla body bez Content-Length).
+ * <p>
+ * Odczyt blokujący obsługuje operacje blokowe ({@code read(byte[], int, int)},
+ * {@link #readAllBytes()}, {@link #transferTo(OutputStream)}). Po
+ * {@link #setReadListener(ReadListener)} strumień działa nieblokująco:
+ * {@link #isReady()} pobiera z oryginału tylko to, co jest już dostępne, a
+ * zdarzenia kontenera są przekazywane do słuchacza aplikacji dopiero wtedy,
+ * gdy jest dla niego zsanityzowane wyjście - {@code onAllDataRead} po
+ * przeczytaniu całego wyjścia.
+ */
+public class SanitizedServletInputStream extends ServletInputStream {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private final ServletInputStream source;
+  private final long maxBodySize;
+  private final byte[] chunk = new byte[CHUNK_SIZE];
+  private final ByteQueue output = new ByteQueue(CHUNK_SIZE);
+  private final StreamingJsonSanitizer sanitizer;
+  private long consumed;
+  private boolean finished;
+  private IOException pendingError;
+  private ReadListener listener;
+
+  public SanitizedServletInputStream(ServletInputStream source, long maxBodySize) throws IOException {
+    this(source, maxBodySize, null);
+  }
+
+  /**
+   * @param fields nazwy sanitizowanych pól JSON ({@code null} = wszystkie)
+   */
+  public SanitizedServletInputStream(ServletInputStream source, long maxBodySize, Set<String> fields)
+      throws IOException {
+    this.source = source;
+    this.maxBodySize = maxBodySize;
+    this.sanitizer = new StreamingJsonSanitizer(output, fields);
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? output.read() : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    return fill() ? output.read(b, off, len) : -1;
+  }
+
+  @Override
+  public byte[] readAllBytes() throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream(CHUNK_SIZE);
+    transferTo(result);
+    return result.toByteArray();
+  }
+
+  @Override
+  public long transferTo(OutputStream out) throws IOException {
+    long transferred = 0;
+    while (fill()) {
+      transferred += output.drainTo(out);
+    }
+    return transferred;
+  }
+
+  @Override
+  public int available() {
+    return output.size();
+  }
+
+  @Override
+  public boolean isFinished() {
+    return finished && output.size() == 0;
+  }
+
+  @Override
+  public boolean isReady() {
+    if (output.size() > 0 || finished || pendingError != null) {
+      return true;
+    }
+    try {
+      pump(false);
+    } catch (IOException e) {
+      // Zgłoszony zostanie przy najbliższym read()
+      pendingError = e;
+    }
+    return output.size() > 0 || finished || pendingError != null;
+  }
+
+  @Override
+  public void setReadListener(ReadListener readListener) {
+    if (readListener == null) {
+      throw new NullPointerException("ReadListener");
+    }
+    if (listener != null) {
+      throw new IllegalStateException("ReadListener already set");
+    }
+    this.listener = readListener;
+    source.setReadListener(new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        if (isReady()) {
+          listener.onDataAvailable();
+        }
+      }
+
+      @Override
+      public void onAllDataRead() throws IOException {
+        if (!finished) {
+          pump(false);
+        }
+        if (output.size() > 0 || pendingError != null) {
+          listener.onDataAvailable();
+        }
+        if (isFinished()) {
+          listener.onAllDataRead();
+        }
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        listener.onError(t);
+      }
+    });
+  }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+
+  /**
+   * @return {@code false} gdy całe wyjście zostało już przeczytane
+   */
+  private boolean fill() throws IOException {
+    if (pendingError != null) {
+      IOException e = pendingError;
+      pendingError = null;
+      throw e;
+    }
+    if (output.size() == 0 && !finished) {
+      pump(listener == null);
+    }
+    return output.size() > 0;
+  }
+
+  /**
+   * Pobiera wejście, aż pojawi się wyjście albo skończą się dane.
+   *
+   * @param blocking {@code false} - czyta tylko, dopóki oryginał jest gotowy
+   */
+  private void pump(boolean blocking) throws IOException {
+    while (output.size() == 0 && !finished) {
+      if (!blocking && !source.isFinished() && !source.isReady()) {
+        return;
+      }
+      int n = source.isFinished() ? -1 : source.read(chunk, 0, CHUNK_SIZE);
+      if (n < 0) {
+        finished = true;
+        sanitizer.finish();
+      } else if (n > 0) {
+        consumed += n;
+        if (consumed > maxBodySize) {
+          throw new RequestBodyTooLargeException(maxBodySize);
+        }
+        sanitizer.feed(chunk, 0, n);
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.app.backend.sanitize;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+/**
+ * Sanitizacja JSON-a na poziomie tokenów: bajty wejścia są podawane do
+ * nieblokującego parsera Jacksona, a każdy token jest od razu zapisywany
+ * generatorem na wyjście - wartości tekstowe przez {@link HtmlSanitizer},
+ * reszta bez zmian (liczby jako oryginalny tekst, bez utraty precyzji).
+ * Nie powstaje drzewo dokumentu, więc pamięć nie zależy od rozmiaru body -
+ * w buforach jest co najwyżej bieżący fragment wejścia i jeden token.
+ * Opcjonalny zbiór {@code fields} ogranicza escape do wartości pól o tych
+ * nazwach (element tablicy należy do pola, pod którym leży tablica).
+ * <p>
+ * Jedna instancja obsługuje jedno body i nie jest bezpieczna wątkowo.
+ */
+public final class StreamingJsonSanitizer {
+
+  private static final JsonFactory FACTORY = new JsonFactoryBuilder()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      // Kilka wartości najwyższego poziomu (NDJSON) zostaje w osobnych liniach
+      .rootValueSeparator("\n")
+      .build();
+
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+  private final JsonGenerator generator;
+  private final Set<String> fields;
+
+  /**
+   * @param out wyjście na zsanityzowany JSON (UTF-8)
+   */
+  public StreamingJsonSanitizer(OutputStream out) throws IOException {
+    this(out, null);
+  }
+
+  /**
+   * @param out    wyjście na zsanityzowany JSON (UTF-8)
+   * @param fields nazwy sanitizowanych pól ({@code null} = wszystkie)
+   */
+  public StreamingJsonSanitizer(OutputStream out, Set<String> fields) throws IOException {
+    this.fields = fields;
+    this.parser = FACTORY.createNonBlockingByteArrayParser();
+    this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    this.generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+  }
+
+  /**
+   * Przetwarza kolejny fragment wejścia. Tablica nie może być modyfikowana
+   * przed następnym wywołaniem - parser czyta z niej bez kopiowania, ale po
+   * powrocie z metody cały fragment jest już skonsumowany.
+   *
+   * @throws com.fasterxml.jackson.core.JsonParseException gdy wejście nie jest
+   *                                                      poprawnym JSON-em
+   */
+  public void feed(byte[] data, int offset, int length) throws IOException {
+    feeder.feedInput(data, offset, offset + length);
+    drain();
+  }
+
+  /**
+   * Sygnalizuje koniec wejścia i wypisuje pozostałe tokeny.
+   *
+   * @throws com.fasterxml.jackson.core.JsonParseException gdy dokument jest
+   *                                                      niekompletny
+   */
+  public void finish() throws IOException {
+    feeder.endOfInput();
+    drain();
+    parser.close();
+    generator.close();
+  }
+
+  private void drain() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      copy(token);
+    }
+    generator.flush();
+  }
+
+  private void copy(JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT -> generator.writeStartObject();
+      case END_OBJECT -> generator.writeEndObject();
+      case START_ARRAY -> generator.writeStartArray();
+      case END_ARRAY -> generator.writeEndArray();
+      case FIELD_NAME -> generator.writeFieldName(parser.currentName());
+      case VALUE_STRING -> generator.writeString(
+          inSanitizedField() ? HtmlSanitizer.sanitize(parser.getText()) : parser.getText());
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> generator.writeNumber(parser.getText());
+      case VALUE_TRUE -> generator.writeBoolean(true);
+      case VALUE_FALSE -> generator.writeBoolean(false);
+      case VALUE_NULL -> generator.writeNull();
+      default -> throw new IllegalStateException("Unexpected JSON token: " + token);
+    }
+  }
+
+  private boolean inSanitizedField() {
+    if (fields == null) {
+      return true;
+    }
+    JsonStreamContext context = parser.getParsingContext();
+    while (context != null && context.inArray()) {
+      context = context.getParent();
+    }
+    String name = context == null ? null : context.getCurrentName();
+    return name != null && fields.contains(name);
+  }
+}
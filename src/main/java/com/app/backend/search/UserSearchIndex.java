@@ -0,0 +1,283 @@
+package com.app.backend.search;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.db.ReadYourWrites;
+import com.app.backend.dto.UserSearchPage;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.exception.ServiceUnavailableException;
+import com.app.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Wyszukiwanie użytkowników po fragmencie username lub lokalnej części
+ * e-maila ({@link UserTextIndex}) bez zapytań do bazy. Indeks powstaje po
+ * starcie ze strumienia tabeli (jak filtry dostępności), jest przebudowywany
+ * co {@code users.search.rebuildInterval} - co odzyskuje miejsce po usuniętych
+ * - a pomiędzy aktualizowany przy tworzeniu, imporcie i usuwaniu.
+ * <p>
+ * Zapisy z innych węzłów widać dopiero po przebudowie. Przebudowa, która
+ * przekroczyłaby {@code users.search.maxMemory}, jest przerywana i zostaje
+ * poprzedni indeks; do pierwszego zbudowania wyszukiwanie zwraca 503.
+ */
+@Component
+public class UserSearchIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+  private static final int MIN_QUERY_BYTES = 2;
+  private static final int BUDGET_CHECK_ROWS = 65_536;
+
+  private final EntityManager entityManager;
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final UserApiProperties props;
+  private final UserApiProperties.Search config;
+
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  // Zmiany indeksu i podmiana po przebudowie są szeregowane, żeby usunięcie
+  // nie trafiło między przeniesienie zaległych usunięć a podmianę
+  private final ReentrantLock updateLock = new ReentrantLock();
+  private volatile UserTextIndex index;
+  private volatile UserTextIndex building;
+  // Usunięcia w trakcie przebudowy - strumień mógł już przeczytać wiersz,
+  // więc są nakładane na nowy indeks tuż przed podmianą
+  private final Set<Long> pendingRemovals = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder searches = new LongAdder();
+  private final LongAdder truncatedSearches = new LongAdder();
+  private final LongAdder searchNanos = new LongAdder();
+  private final LongAccumulator maxSearchNanos = new LongAccumulator(Long::max, 0);
+  private volatile Instant lastRebuild;
+  private volatile long lastRebuildRows;
+  private volatile long lastRebuildMillis;
+  private volatile String lastRebuildFailure;
+
+  public UserSearchIndex(EntityManager entityManager, UserRepository userRepository,
+      PlatformTransactionManager transactionManager, UserApiProperties props) {
+    this.entityManager = entityManager;
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.props = props;
+    this.config = props.getSearch();
+  }
+
+  /**
+   * Najlepsze dopasowania: username równy zapytaniu, potem zaczynający się od
+   * niego, e-mail zaczynający się od niego, username i e-mail zawierające
+   * je; w obrębie rangi krótszy username, potem mniejsze id. Zapytanie
+   * 2-bajtowe szuka tylko prefiksów. Ranking obejmuje najwyżej
+   * {@code maxCandidates} kandydatów - przy szerszym zapytaniu
+   * {@code truncated} jest ustawione, a lista może pomijać lepsze trafienia.
+   *
+   * @param cursor {@code nextCursor} poprzedniej strony albo {@code null}
+   */
+  public UserSearchPage search(String query, Integer size, String cursor) {
+    String q = query == null ? "" : query.strip();
+    if (q.getBytes(StandardCharsets.UTF_8).length < MIN_QUERY_BYTES) {
+      throw new BadRequestException("Search query must have at least " + MIN_QUERY_BYTES + " characters");
+    }
+    UserTextIndex current = index;
+    if (!config.isEnabled() || current == null) {
+      throw new ServiceUnavailableException("User search index is not ready");
+    }
+    int pageSize = size == null ? props.getDefaultPageSize() : Math.max(1, Math.min(size, props.getMaxPageSize()));
+    long after = cursor == null || cursor.isBlank() ? -1 : decodeCursor(cursor);
+
+    long start = System.nanoTime();
+    UserTextIndex.Result result = current.search(q, after, pageSize + 1, config.getMaxCandidates());
+    long elapsed = System.nanoTime() - start;
+    searches.increment();
+    searchNanos.add(elapsed);
+    maxSearchNanos.accumulate(elapsed);
+    if (result.truncated()) {
+      truncatedSearches.increment();
+    }
+
+    int count = Math.min(pageSize, result.users().length);
+    String nextCursor = result.users().length > pageSize ? Long.toString(result.keys()[pageSize - 1], 36) : null;
+    return new UserSearchPage(Arrays.asList(result.users()).subList(0, count), nextCursor, result.matches(),
+        result.truncated());
+  }
+
+  public void added(UserView user) {
+    updateLock.lock();
+    try {
+      add(index, user);
+      add(building, user);
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  public void removed(long id) {
+    updateLock.lock();
+    try {
+      if (index != null) {
+        index.remove(id);
+      }
+      if (building != null) {
+        pendingRemovals.add(id);
+      }
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  private static void add(UserTextIndex target, UserView user) {
+    if (target != null && !target.add(user)) {
+      log.debug("User {} not added to search index", user.id());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    rebuild();
+  }
+
+  /**
+   * Buduje nowy indeks ze strumienia tabeli i podmienia go. Pomija przebudowę,
+   * jeśli poprzednia jeszcze trwa.
+   */
+  @Scheduled(initialDelayString = "${users.search.rebuildInterval:6h}",
+      fixedDelayString = "${users.search.rebuildInterval:6h}")
+  public void rebuild() {
+    if (!config.isEnabled() || !rebuildLock.tryLock()) {
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      long maxMemory = config.getMaxMemory().toBytes();
+      UserTextIndex next = new UserTextIndex((int) Math.min(userRepository.count() + 1024, Integer.MAX_VALUE - 8));
+      startBuilding(next);
+      // Z primary: wiersze zapisane tuż przed przebudową (added() ich już nie
+      // doda do nowego indeksu) i usunięcia muszą być widoczne w strumieniu
+      Long rows = ReadYourWrites.onPrimary(() -> readOnlyTransaction.execute(status -> {
+        long count = 0;
+        try (Stream<UserView> stream = entityManager
+            .createQuery("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+                + "from User u where u.deletedAt is null order by u.id", UserView.class)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, props.getExport().getFetchSize())
+            .getResultStream()) {
+          for (UserView user : (Iterable<UserView>) stream::iterator) {
+            next.add(user);
+            if (++count % BUDGET_CHECK_ROWS == 0 && next.memoryBytes() > maxMemory) {
+              throw new IllegalStateException("Search index exceeds users.search.maxMemory (" + maxMemory
+                  + " bytes) after " + count + " users");
+            }
+          }
+        }
+        return count;
+      }));
+      next.trimToSize();
+      if (next.memoryBytes() > maxMemory) {
+        throw new IllegalStateException("Search index exceeds users.search.maxMemory (" + maxMemory
+            + " bytes) with " + rows + " users");
+      }
+      publish(next);
+      lastRebuild = Instant.now();
+      lastRebuildRows = rows;
+      lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+      lastRebuildFailure = null;
+      log.info("Search index built from {} users in {} ms ({} MB, {} trigrams)", rows, lastRebuildMillis,
+          next.memoryBytes() >> 20, next.trigramCount());
+    } catch (RuntimeException e) {
+      // Zostaje poprzedni indeks (albo 503, jeśli go nie ma)
+      lastRebuildFailure = e.getMessage();
+      log.error("Search index rebuild failed", e);
+    } finally {
+      stopBuilding();
+      rebuildLock.unlock();
+    }
+  }
+
+  /** Od teraz zmiany trafiają też do {@code next}, a usunięcia czekają na podmianę. */
+  void startBuilding(UserTextIndex next) {
+    updateLock.lock();
+    try {
+      pendingRemovals.clear();
+      building = next;
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  /** Nakłada usunięcia z czasu budowy i podmienia indeks. */
+  void publish(UserTextIndex next) {
+    updateLock.lock();
+    try {
+      pendingRemovals.forEach(next::remove);
+      index = next;
+      building = null;
+      pendingRemovals.clear();
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  private void stopBuilding() {
+    updateLock.lock();
+    try {
+      building = null;
+      pendingRemovals.clear();
+    } finally {
+      updateLock.unlock();
+    }
+  }
+
+  public Map<String, Object> stats() {
+    UserTextIndex current = index;
+    long count = searches.sum();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", config.isEnabled());
+    result.put("ready", current != null);
+    result.put("searches", count);
+    result.put("truncatedSearches", truncatedSearches.sum());
+    result.put("avgSearchMicros", count == 0 ? 0 : searchNanos.sum() / count / 1_000);
+    result.put("maxSearchMicros", maxSearchNanos.get() / 1_000);
+    result.put("lastRebuild", lastRebuild);
+    result.put("lastRebuildRows", lastRebuildRows);
+    result.put("lastRebuildMillis", lastRebuildMillis);
+    result.put("lastRebuildFailure", lastRebuildFailure);
+    if (current != null) {
+      result.put("users", current.size());
+      result.put("trigrams", current.trigramCount());
+      result.put("memoryBytes", current.memoryBytes());
+      result.put("maxMemoryBytes", config.getMaxMemory().toBytes());
+    }
+    return result;
+  }
+
+  private static long decodeCursor(String cursor) {
+    try {
+      long key = Long.parseLong(cursor, 36);
+      if (key < 0) {
+        throw new NumberFormatException();
+      }
+      return key;
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Invalid search cursor");
+    }
+  }
+}
@@ -0,0 +1,603 @@
+package com.app.backend.search;
+
+import com.app.backend.dto.UserView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks n-gramowy username i lokalnej części e-maila (przed {@code @}) nad
+ * bajtami UTF-8, bez rozróżniania wielkości liter ASCII.
+ * <p>
+ * Każdy tekst jest poprzedzony dwoma bajtami {@code 0} i rozbity na trigramy;
+ * trigram to klucz 24-bitowy z listą slotów użytkowników, rosnąco. Dzięki
+ * dopełnieniu {@code "\0ab"} oznacza "zaczyna się od ab", więc zapytania
+ * 2-znakowe szukają prefiksów, a dłuższe - podciągów (przecięcie list,
+ * potem weryfikacja na tekście, bo trigramy mogą wystąpić w innej kolejności).
+ * <p>
+ * Teksty leżą w jednej tablicy bajtów, pola użytkownika w tablicach
+ * indeksowanych slotem, mapa id -> slot jest prymitywna (adresowanie
+ * otwarte) - żadnych obiektów na użytkownika. Usunięcie zeruje slot; listy i
+ * tekst odzyskuje dopiero przebudowa. Odczyty pod blokadą odczytu, zmiany
+ * pod blokadą zapisu.
+ */
+final class UserTextIndex {
+
+  /** Ranga trafienia - mniejsza jest lepsza. */
+  static final int EXACT = 0;
+  static final int USERNAME_PREFIX = 1;
+  static final int EMAIL_PREFIX = 2;
+  static final int USERNAME_CONTAINS = 3;
+  static final int EMAIL_CONTAINS = 4;
+  private static final int NO_MATCH = -1;
+
+  static final long MAX_ID = (1L << 40) - 1;
+  private static final int MAX_TEXT_BYTES = Short.MAX_VALUE;
+  // Obiekt Postings + wpis HashMap + Integer klucza + nagłówek tablicy
+  private static final int POSTINGS_OVERHEAD = 24 + 32 + 16 + 16;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Pola per slot
+  private long[] ids;
+  private long[] createdAtMicros;
+  private int[] offsets;
+  private short[] usernameLengths;
+  private short[] emailLengths;
+  private short[] localLengths;
+  private int slots;
+  private int live;
+
+  private byte[] text;
+  private int textSize;
+
+  private final Map<Integer, Postings> postings = new HashMap<>();
+  // Rozmiar tablic list + narzut obiektów, liczony przy zmianach
+  private long postingBytes;
+  private final IdMap idMap;
+
+  UserTextIndex(int expectedUsers) {
+    int capacity = Math.max(16, expectedUsers);
+    ids = new long[capacity];
+    createdAtMicros = new long[capacity];
+    offsets = new int[capacity];
+    usernameLengths = new short[capacity];
+    emailLengths = new short[capacity];
+    localLengths = new short[capacity];
+    text = new byte[Math.max(1024, capacity * 32)];
+    idMap = new IdMap(capacity);
+  }
+
+  /** @return {@code false} gdy użytkownik już jest albo nie mieści się w indeksie */
+  boolean add(UserView user) {
+    if (user.id() == null || user.id() <= 0 || user.id() > MAX_ID) {
+      return false;
+    }
+    byte[] username = user.username().getBytes(StandardCharsets.UTF_8);
+    byte[] email = user.email().getBytes(StandardCharsets.UTF_8);
+    if (username.length > MAX_TEXT_BYTES || email.length > MAX_TEXT_BYTES) {
+      return false;
+    }
+    int at = indexOf(email, (byte) '@');
+    int localLength = at < 0 ? email.length : at;
+
+    lock.writeLock().lock();
+    try {
+      if (idMap.get(user.id()) >= 0) {
+        return false;
+      }
+      int slot = slots;
+      ensureSlotCapacity(slot + 1);
+      ensureTextCapacity(textSize + username.length + email.length);
+      ids[slot] = user.id();
+      createdAtMicros[slot] = user.createdAt() == null ? 0
+          : user.createdAt().getEpochSecond() * 1_000_000 + user.createdAt().getNano() / 1_000;
+      offsets[slot] = textSize;
+      usernameLengths[slot] = (short) username.length;
+      emailLengths[slot] = (short) email.length;
+      localLengths[slot] = (short) localLength;
+      System.arraycopy(username, 0, text, textSize, username.length);
+      System.arraycopy(email, 0, text, textSize + username.length, email.length);
+      textSize += username.length + email.length;
+      slots++;
+      live++;
+      idMap.put(user.id(), slot);
+
+      for (int key : trigrams(username, username.length, email, localLength)) {
+        Postings list = postings.get(key);
+        if (list == null) {
+          list = new Postings();
+          postings.put(key, list);
+          postingBytes += POSTINGS_OVERHEAD + list.slots.length * 4L;
+        }
+        postingBytes += list.append(slot) * 4L;
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  boolean remove(long id) {
+    lock.writeLock().lock();
+    try {
+      int slot = idMap.remove(id);
+      if (slot < 0) {
+        return false;
+      }
+      ids[slot] = 0;
+      live--;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Po zbudowaniu: obcina zapas w tablicach list. */
+  void trimToSize() {
+    lock.writeLock().lock();
+    try {
+      for (Postings list : postings.values()) {
+        postingBytes -= list.trim() * 4L;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param query         co najmniej 2 bajty UTF-8
+   * @param after         klucz rankingu ostatniego elementu poprzedniej strony
+   *                      albo {@code -1}
+   * @param limit         ile najlepszych kluczy zwrócić
+   * @param maxCandidates ile kandydatów najwyżej zweryfikować
+   */
+  Result search(String query, long after, int limit, int maxCandidates) {
+    byte[] q = query.getBytes(StandardCharsets.UTF_8);
+    foldCase(q);
+    boolean prefixOnly = q.length < 3;
+    int[] keys = prefixOnly ? new int[] { key((byte) 0, q[0], q[1]) } : trigrams(q);
+
+    lock.readLock().lock();
+    try {
+      Postings[] lists = new Postings[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        lists[i] = postings.get(keys[i]);
+        if (lists[i] == null) {
+          return new Result(new long[0], new UserView[0], 0, false);
+        }
+      }
+      Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+      TopKeys top = new TopKeys(limit);
+      int[] cursors = new int[lists.length];
+      Postings smallest = lists[0];
+      long matches = 0;
+      int verified = 0;
+      boolean truncated = false;
+      candidates:
+      for (int i = 0; i < smallest.size; i++) {
+        int slot = smallest.slots[i];
+        for (int l = 1; l < lists.length; l++) {
+          int pos = lists[l].seek(slot, cursors[l]);
+          cursors[l] = pos;
+          if (pos >= lists[l].size || lists[l].slots[pos] != slot) {
+            continue candidates;
+          }
+        }
+        if (ids[slot] == 0) {
+          continue;
+        }
+        if (++verified > maxCandidates) {
+          truncated = true;
+          break;
+        }
+        int rank = rank(slot, q, prefixOnly);
+        if (rank == NO_MATCH) {
+          continue;
+        }
+        matches++;
+        long rankKey = rankKey(rank, usernameLengths[slot], ids[slot]);
+        if (rankKey > after) {
+          top.offer(rankKey);
+        }
+      }
+
+      long[] best = top.sorted();
+      UserView[] users = new UserView[best.length];
+      for (int i = 0; i < best.length; i++) {
+        users[i] = view(idMap.get(best[i] & MAX_ID));
+      }
+      return new Result(best, users, matches, truncated);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Klucz rankingu: 4 bity rangi, 20 bitów długości username, 40 bitów id -
+   * porządek kluczy jest porządkiem wyników i kursorem stron.
+   */
+  static long rankKey(int rank, int usernameLength, long id) {
+    return (long) rank << 60 | (long) usernameLength << 40 | id;
+  }
+
+  private int rank(int slot, byte[] q, boolean prefixOnly) {
+    int username = offsets[slot];
+    int usernameLength = usernameLengths[slot];
+    int local = username + usernameLength;
+    int localLength = localLengths[slot];
+    if (regionMatches(username, usernameLength, 0, q)) {
+      return usernameLength == q.length ? EXACT : USERNAME_PREFIX;
+    }
+    if (regionMatches(local, localLength, 0, q)) {
+      return EMAIL_PREFIX;
+    }
+    if (prefixOnly) {
+      return NO_MATCH;
+    }
+    if (contains(username, usernameLength, q)) {
+      return USERNAME_CONTAINS;
+    }
+    return contains(local, localLength, q) ? EMAIL_CONTAINS : NO_MATCH;
+  }
+
+  private boolean contains(int start, int length, byte[] q) {
+    for (int from = 1; from + q.length <= length; from++) {
+      if (regionMatches(start, length, from, q)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean regionMatches(int start, int length, int from, byte[] q) {
+    if (from + q.length > length) {
+      return false;
+    }
+    for (int i = 0; i < q.length; i++) {
+      if (fold(text[start + from + i]) != q[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private UserView view(int slot) {
+    int offset = offsets[slot];
+    int usernameLength = usernameLengths[slot];
+    long micros = createdAtMicros[slot];
+    return new UserView(ids[slot],
+        new String(text, offset, usernameLength, StandardCharsets.UTF_8),
+        new String(text, offset + usernameLength, emailLengths[slot], StandardCharsets.UTF_8),
+        micros == 0 ? null : Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            Math.floorMod(micros, 1_000_000) * 1_000));
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return live;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Szacunek zajętej pamięci: tablice slotów, tekst, mapa id i listy. */
+  long memoryBytes() {
+    lock.readLock().lock();
+    try {
+      return (long) ids.length * (8 + 8 + 4 + 2 + 2 + 2) + text.length + idMap.memoryBytes() + postingBytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int trigramCount() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void ensureSlotCapacity(int needed) {
+    if (needed <= ids.length) {
+      return;
+    }
+    int capacity = Math.max(needed, ids.length + (ids.length >> 1));
+    ids = Arrays.copyOf(ids, capacity);
+    createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+    offsets = Arrays.copyOf(offsets, capacity);
+    usernameLengths = Arrays.copyOf(usernameLengths, capacity);
+    emailLengths = Arrays.copyOf(emailLengths, capacity);
+    localLengths = Arrays.copyOf(localLengths, capacity);
+  }
+
+  private void ensureTextCapacity(int needed) {
+    if (needed < 0) {
+      throw new IllegalStateException("Search index text exceeds 2 GB");
+    }
+    if (needed > text.length) {
+      text = Arrays.copyOf(text, (int) Math.min(Integer.MAX_VALUE - 8,
+          Math.max(needed, text.length + (long) (text.length >> 1))));
+    }
+  }
+
+  /** Różne trigramy dopełnionego username i części lokalnej e-maila. */
+  private static int[] trigrams(byte[] username, int usernameLength, byte[] email, int localLength) {
+    int[] keys = new int[usernameLength + localLength + 4];
+    int n = padded(username, usernameLength, keys, 0);
+    n = padded(email, localLength, keys, n);
+    return distinct(keys, n);
+  }
+
+  private static int padded(byte[] value, int length, int[] keys, int n) {
+    byte b0 = 0;
+    byte b1 = 0;
+    for (int i = 0; i < length; i++) {
+      byte b2 = fold(value[i]);
+      keys[n++] = key(b0, b1, b2);
+      b0 = b1;
+      b1 = b2;
+    }
+    return n;
+  }
+
+  /** Trigramy zapytania bez dopełnienia - podciąg może być w środku tekstu. */
+  private static int[] trigrams(byte[] q) {
+    int[] keys = new int[q.length - 2];
+    for (int i = 0; i + 2 < q.length; i++) {
+      keys[i] = key(q[i], q[i + 1], q[i + 2]);
+    }
+    return distinct(keys, keys.length);
+  }
+
+  private static int[] distinct(int[] keys, int n) {
+    Arrays.sort(keys, 0, n);
+    int unique = 0;
+    for (int i = 0; i < n; i++) {
+      if (unique == 0 || keys[unique - 1] != keys[i]) {
+        keys[unique++] = keys[i];
+      }
+    }
+    return Arrays.copyOf(keys, unique);
+  }
+
+  private static int key(byte b0, byte b1, byte b2) {
+    return (b0 & 0xFF) << 16 | (b1 & 0xFF) << 8 | (b2 & 0xFF);
+  }
+
+  static void foldCase(byte[] value) {
+    for (int i = 0; i < value.length; i++) {
+      value[i] = fold(value[i]);
+    }
+  }
+
+  private static byte fold(byte b) {
+    return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+  }
+
+  private static int indexOf(byte[] value, byte b) {
+    for (int i = 0; i < value.length; i++) {
+      if (value[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param keys    klucze rankingu, rosnąco (ranga, długość username, id)
+   * @param users   użytkownicy w tej samej kolejności
+   * @param matches liczba trafień wśród zweryfikowanych kandydatów
+   */
+  record Result(long[] keys, UserView[] users, long matches, boolean truncated) {
+  }
+
+  /** Rosnąca lista slotów jednego trigramu. */
+  static final class Postings {
+    int[] slots = new int[4];
+    int size;
+
+    /** @return o ile elementów urosła tablica */
+    int append(int slot) {
+      int grown = 0;
+      if (size == slots.length) {
+        grown = size;
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      slots[size++] = slot;
+      return grown;
+    }
+
+    /** @return o ile elementów zmalała tablica */
+    int trim() {
+      int length = Math.max(1, size);
+      int freed = slots.length - length;
+      if (freed > 0) {
+        slots = Arrays.copyOf(slots, length);
+      }
+      return Math.max(0, freed);
+    }
+
+    /** Pierwsza pozycja od {@code from} z wartością ≥ {@code slot} (galopowanie + bisekcja). */
+    int seek(int slot, int from) {
+      int step = 1;
+      int lo = from;
+      int hi = from;
+      while (hi < size && slots[hi] < slot) {
+        lo = hi + 1;
+        hi += step;
+        step <<= 1;
+      }
+      hi = Math.min(hi, size);
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (slots[mid] < slot) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+  }
+
+  /** Najmniejsze {@code limit} kluczy - kopiec maksymalny na tablicy. */
+  static final class TopKeys {
+    private final long[] heap;
+    private int size;
+
+    TopKeys(int limit) {
+      this.heap = new long[limit];
+    }
+
+    void offer(long key) {
+      if (heap.length == 0) {
+        return;
+      }
+      if (size < heap.length) {
+        heap[size] = key;
+        siftUp(size++);
+      } else if (key < heap[0]) {
+        heap[0] = key;
+        siftDown(0);
+      }
+    }
+
+    long[] sorted() {
+      long[] result = Arrays.copyOf(heap, size);
+      Arrays.sort(result);
+      return result;
+    }
+
+    private void siftUp(int i) {
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (heap[parent] >= heap[i]) {
+          return;
+        }
+        swap(parent, i);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i) {
+      while (true) {
+        int left = 2 * i + 1;
+        int largest = i;
+        if (left < size && heap[left] > heap[largest]) {
+          largest = left;
+        }
+        if (left + 1 < size && heap[left + 1] > heap[largest]) {
+          largest = left + 1;
+        }
+        if (largest == i) {
+          return;
+        }
+        swap(i, largest);
+        i = largest;
+      }
+    }
+
+    private void swap(int a, int b) {
+      long t = heap[a];
+      heap[a] = heap[b];
+      heap[b] = t;
+    }
+  }
+
+  /** Mapa id -> slot, adresowanie otwarte z sondowaniem liniowym; klucz 0 = wolne. */
+  static final class IdMap {
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IdMap(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+      keys = new long[capacity];
+      values = new int[capacity];
+      mask = capacity - 1;
+    }
+
+    int get(long id) {
+      for (int i = index(id); keys[i] != 0; i = (i + 1) & mask) {
+        if (keys[i] == id) {
+          return values[i];
+        }
+      }
+      return -1;
+    }
+
+    void put(long id, int slot) {
+      if ((size + 1) * 4L > keys.length * 3L) {
+        resize();
+      }
+      int i = index(id);
+      while (keys[i] != 0 && keys[i] != id) {
+        i = (i + 1) & mask;
+      }
+      if (keys[i] == 0) {
+        size++;
+      }
+      keys[i] = id;
+      values[i] = slot;
+    }
+
+    /** Usuwa z przesunięciem wstecz, żeby nie zostawiać znaczników. */
+    int remove(long id) {
+      int i = index(id);
+      while (keys[i] != id) {
+        if (keys[i] == 0) {
+          return -1;
+        }
+        i = (i + 1) & mask;
+      }
+      int slot = values[i];
+      size--;
+      int gap = i;
+      for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+        int home = index(keys[j]);
+        // Element z j może przejść na gap, jeśli jego pozycja domowa nie leży
+        // cyklicznie w przedziale (gap, j]
+        if (((j - home) & mask) >= ((j - gap) & mask)) {
+          keys[gap] = keys[j];
+          values[gap] = values[j];
+          gap = j;
+        }
+      }
+      keys[gap] = 0;
+      return slot;
+    }
+
+    long memoryBytes() {
+      return (long) keys.length * (8 + 4);
+    }
+
+    private int index(long id) {
+      long h = id * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = new int[oldKeys.length * 2];
+      mask = keys.length - 1;
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != 0) {
+          put(oldKeys[i], oldValues[i]);
+        }
+      }
+    }
+  }
+}
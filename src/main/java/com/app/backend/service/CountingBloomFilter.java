@@ -0,0 +1,134 @@
+package com.app.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Licząca wersja filtra Blooma: zamiast bitów 4-bitowe liczniki (16 w
+ * jednym {@code long}), więc klucz można też usunąć. {@code false} z
+ * {@link #mightContain} jest pewne, {@code true} oznacza "może być" z
+ * prawdopodobieństwem fałszywego trafienia około {@code fpp}, dopóki liczba
+ * kluczy nie przekroczy {@code expectedInsertions}.
+ * <p>
+ * Licznik, który doszedł do 15, zostaje nasycony na stałe (nie jest już
+ * zmniejszany) - to może tylko dodać fałszywe trafienia. Usuwać wolno
+ * wyłącznie klucze wcześniej dodane, inaczej pojawią się fałszywe
+ * "na pewno nie ma". Operacje są bez blokad (CAS na słowie z licznikami).
+ */
+final class CountingBloomFilter {
+
+  private static final int COUNTER_BITS = 4;
+  private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+  private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+  private final AtomicLongArray words;
+  private final long counters;
+  private final int hashes;
+  private final AtomicLong size = new AtomicLong();
+
+  CountingBloomFilter(long expectedInsertions, double fpp) {
+    long n = Math.max(1, expectedInsertions);
+    long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD));
+    this.words = new AtomicLongArray(wordCount);
+    this.counters = (long) wordCount * COUNTERS_PER_WORD;
+    this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) counters / n * Math.log(2))));
+  }
+
+  void add(String key) {
+    long hash = hash(key);
+    for (int i = 0; i < hashes; i++) {
+      increment(index(hash, i));
+    }
+    size.incrementAndGet();
+  }
+
+  void remove(String key) {
+    long hash = hash(key);
+    for (int i = 0; i < hashes; i++) {
+      decrement(index(hash, i));
+    }
+    size.decrementAndGet();
+  }
+
+  boolean mightContain(String key) {
+    long hash = hash(key);
+    for (int i = 0; i < hashes; i++) {
+      long index = index(hash, i);
+      if (counter(words.get((int) (index / COUNTERS_PER_WORD)), index) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Przybliżona liczba kluczy (dodane minus usunięte). */
+  long size() {
+    return size.get();
+  }
+
+  long counters() {
+    return counters;
+  }
+
+  int hashes() {
+    return hashes;
+  }
+
+  long memoryBytes() {
+    return (long) words.length() * Long.BYTES;
+  }
+
+  // Podwójne haszowanie (Kirsch-Mitzenmacher): i-ty indeks z dwóch połówek
+  // jednego 64-bitowego hasha
+  private long index(long hash, int i) {
+    long h1 = hash;
+    long h2 = (hash >>> 32) | 1;
+    return ((h1 + i * h2) & Long.MAX_VALUE) % counters;
+  }
+
+  private void increment(long index) {
+    int word = (int) (index / COUNTERS_PER_WORD);
+    long unit = 1L << shift(index);
+    long current;
+    do {
+      current = words.get(word);
+      if (counter(current, index) == COUNTER_MAX) {
+        return;
+      }
+    } while (!words.compareAndSet(word, current, current + unit));
+  }
+
+  private void decrement(long index) {
+    int word = (int) (index / COUNTERS_PER_WORD);
+    long unit = 1L << shift(index);
+    long current;
+    do {
+      current = words.get(word);
+      long value = counter(current, index);
+      if (value == 0 || value == COUNTER_MAX) {
+        return;
+      }
+    } while (!words.compareAndSet(word, current, current - unit));
+  }
+
+  private static long counter(long word, long index) {
+    return (word >>> shift(index)) & COUNTER_MAX;
+  }
+
+  private static int shift(long index) {
+    return (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+  }
+
+  private static long hash(String key) {
+    long h = 0xCBF29CE484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001B3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+}
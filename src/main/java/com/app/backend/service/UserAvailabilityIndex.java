@@ -0,0 +1,232 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.db.ReadYourWrites;
+import com.app.backend.dto.UserView;
+import com.app.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Filtry Blooma istniejących username i e-maili do sprawdzania dostępności
+ * bez bazy: "na pewno wolne" wraca od razu, tylko "może zajęte" jest
+ * potwierdzane zapytaniem. Budowane po starcie (strumień z tabeli, jak
+ * eksport) i przebudowywane co {@code users.availability.rebuildInterval},
+ * a pomiędzy aktualizowane przy tworzeniu, imporcie i usuwaniu.
+ * <p>
+ * Klucze są w małych literach - MySQL porównuje bez wielkości liter, więc
+ * filtr musi zgłaszać "może" także dla "Alice" przy zapisanym "alice".
+ * Zapisy z innych węzłów trafiają do filtra dopiero po przebudowie; wynik jest
+ * więc podpowiedzią dla formularza - unikalność i tak pilnuje baza (409 z
+ * {@link UserService#createUser}). Do pierwszego zbudowania każde sprawdzenie
+ * idzie do bazy.
+ */
+@Component
+public class UserAvailabilityIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(UserAvailabilityIndex.class);
+  // Zapas na przesunięcie zegarów węzłów i czas trwania transakcji zapisu
+  private static final Duration SNAPSHOT_MARGIN = Duration.ofMinutes(1);
+
+  /** @param snapshot chwila tuż przed startem strumienia budującego filtry */
+  private record Filters(CountingBloomFilter usernames, CountingBloomFilter emails, Instant snapshot) {
+  }
+
+  private final EntityManager entityManager;
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final UserApiProperties.Availability config;
+  private final int fetchSize;
+
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+  private volatile Filters filters;
+  // Filtry w trakcie przebudowy - dodawania idą też do nich, żeby nie zgubić
+  // wierszy zapisanych po rozpoczęciu strumienia
+  private volatile Filters building;
+
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder definitelyFree = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+  private final LongAdder skippedRemovals = new LongAdder();
+  private volatile Instant lastRebuild;
+  private volatile long lastRebuildRows;
+  private volatile long lastRebuildMillis;
+
+  public UserAvailabilityIndex(EntityManager entityManager, UserRepository userRepository,
+      PlatformTransactionManager transactionManager, UserApiProperties props) {
+    this.entityManager = entityManager;
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.config = props.getAvailability();
+    this.fetchSize = props.getExport().getFetchSize();
+  }
+
+  /**
+   * @param exists zapytanie potwierdzające, wołane tylko gdy filtr nie wyklucza
+   *               username
+   */
+  public boolean isUsernameFree(String username, Predicate<String> exists) {
+    Filters current = filters;
+    return isFree(current == null ? null : current.usernames(), username, exists);
+  }
+
+  public boolean isEmailFree(String email, Predicate<String> exists) {
+    Filters current = filters;
+    return isFree(current == null ? null : current.emails(), email, exists);
+  }
+
+  private boolean isFree(CountingBloomFilter filter, String value, Predicate<String> exists) {
+    checks.increment();
+    if (filter != null && !filter.mightContain(key(value))) {
+      definitelyFree.increment();
+      return true;
+    }
+    boolean free = !exists.test(value);
+    if (free && filter != null) {
+      falsePositives.increment();
+    }
+    return free;
+  }
+
+  public void added(String username, String email) {
+    // building przed filters: jeśli przebudowy jeszcze nie było, strumień
+    // (czytany z primary) zobaczy już zatwierdzony wiersz; jeśli się
+    // skończyła, filters jest nowy
+    Filters next = building;
+    Filters current = filters;
+    add(current, username, email);
+    if (next != null && next != current) {
+      add(next, username, email);
+    }
+  }
+
+  /**
+   * Usunięcie klucza, którego filtr nie ma, daje fałszywe "na pewno wolne"
+   * dla innych kluczy. Dlatego liczniki maleją tylko dla użytkownika
+   * utworzonego wyraźnie przed startem strumienia bieżących filtrów - ten na
+   * pewno w nich jest. Pozostali (np. zapisani na innym węźle po przebudowie)
+   * zostają do następnej przebudowy jako fałszywe trafienie, które rozstrzyga
+   * baza. Filtrów w trakcie przebudowy nie dotyczy - strumień mógł go jeszcze
+   * nie przeczytać.
+   */
+  public void removed(UserView user) {
+    Filters current = filters;
+    if (current == null) {
+      return;
+    }
+    if (user.createdAt() == null || !user.createdAt().isBefore(current.snapshot().minus(SNAPSHOT_MARGIN))) {
+      skippedRemovals.increment();
+      return;
+    }
+    current.usernames().remove(key(user.username()));
+    current.emails().remove(key(user.email()));
+  }
+
+  private static void add(Filters target, String username, String email) {
+    if (target != null) {
+      target.usernames().add(key(username));
+      target.emails().add(key(email));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    rebuild();
+  }
+
+  /**
+   * Buduje nowe filtry ze strumienia całej tabeli i podmienia je atomowo.
+   * Rozmiar to co najmniej dwukrotność bieżącej liczby wierszy, więc rosnąca
+   * tabela nie podbija odsetka fałszywych trafień. Pomija przebudowę, jeśli
+   * poprzednia jeszcze trwa.
+   */
+  @Scheduled(initialDelayString = "${users.availability.rebuildInterval:1h}",
+      fixedDelayString = "${users.availability.rebuildInterval:1h}")
+  public void rebuild() {
+    if (!config.isEnabled() || !rebuildLock.tryLock()) {
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      long expected = Math.max(config.getExpectedInsertions(), 2 * userRepository.count());
+      Filters next = new Filters(
+          new CountingBloomFilter(expected, config.getFalsePositiveRate()),
+          new CountingBloomFilter(expected, config.getFalsePositiveRate()),
+          Instant.now());
+      building = next;
+      // Z primary, nie z repliki: opóźniona replika zgubiłaby wiersze
+      // zatwierdzone tuż przed przebudową (patrz added())
+      Long rows = ReadYourWrites.onPrimary(() -> readOnlyTransaction.execute(status -> {
+        long count = 0;
+        try (Stream<Object[]> stream = entityManager
+            .createQuery("select u.username, u.email from User u where u.deletedAt is null", Object[].class)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream()) {
+          for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+            next.usernames().add(key((String) row[0]));
+            next.emails().add(key((String) row[1]));
+            count++;
+          }
+        }
+        return count;
+      }));
+      filters = next;
+      lastRebuild = Instant.now();
+      lastRebuildRows = rows;
+      lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+      log.info("Availability filters built from {} users in {} ms ({} KB each, {} hashes)", rows,
+          lastRebuildMillis, next.usernames().memoryBytes() / 1024, next.usernames().hashes());
+    } catch (RuntimeException e) {
+      // Zostają poprzednie filtry (albo sprawdzanie w bazie, jeśli ich nie ma)
+      log.error("Availability filter rebuild failed", e);
+    } finally {
+      building = null;
+      rebuildLock.unlock();
+    }
+  }
+
+  public Map<String, Object> stats() {
+    Filters current = filters;
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", config.isEnabled());
+    result.put("ready", current != null);
+    result.put("checks", checks.sum());
+    result.put("definitelyFree", definitelyFree.sum());
+    result.put("falsePositives", falsePositives.sum());
+    result.put("skippedRemovals", skippedRemovals.sum());
+    result.put("lastRebuild", lastRebuild);
+    result.put("lastRebuildRows", lastRebuildRows);
+    result.put("lastRebuildMillis", lastRebuildMillis);
+    if (current != null) {
+      result.put("usernames", current.usernames().size());
+      result.put("emails", current.emails().size());
+      result.put("counters", current.usernames().counters());
+      result.put("hashes", current.usernames().hashes());
+      result.put("memoryBytes", current.usernames().memoryBytes() + current.emails().memoryBytes());
+    }
+    return result;
+  }
+
+  private static String key(String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,70 @@
+package com.app.backend.service;
+
+import com.app.backend.exception.BadRequestException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Pozycja w stronicowaniu keyset: klucz ostatniego wiersza poprzedniej strony.
+ * Dla klienta nieprzezroczysty token (Base64url z wersją, porządkiem i
+ * kluczem), więc format można zmienić bez łamania API.
+ */
+public record UserCursor(Sort sort, long id, Instant createdAt) {
+
+  /** Porządek listy użytkowników. */
+  public enum Sort {
+    /** Rosnąco po {@code id}. */
+    ID,
+    /** Od najnowszych: malejąco po {@code createdAt}, remisy malejąco po {@code id}. */
+    CREATED_AT
+  }
+
+  private static final byte VERSION = 1;
+
+  public String encode() {
+    ByteBuffer buf = ByteBuffer.allocate(sort == Sort.ID ? 10 : 22);
+    buf.put(VERSION).put((byte) sort.ordinal()).putLong(id);
+    if (sort == Sort.CREATED_AT) {
+      buf.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+  }
+
+  /**
+   * @throws BadRequestException gdy token jest uszkodzony albo został wydany
+   *           dla innego porządku niż {@code expected}
+   */
+  public static UserCursor decode(String token, Sort expected) {
+    try {
+      ByteBuffer buf = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+      if (buf.get() != VERSION) {
+        throw new BadRequestException("Unsupported cursor version");
+      }
+      int ordinal = buf.get();
+      if (ordinal != expected.ordinal()) {
+        throw new BadRequestException("Cursor was issued for a different sort order");
+      }
+      long id = buf.getLong();
+      Instant createdAt = null;
+      if (expected == Sort.CREATED_AT) {
+        long seconds = buf.getLong();
+        int nanos = buf.getInt();
+        // ofEpochSecond przyjąłby każdą korektę nanosekund
+        if (nanos < 0 || nanos > 999_999_999) {
+          throw new BadRequestException("Malformed cursor");
+        }
+        createdAt = Instant.ofEpochSecond(seconds, nanos);
+      }
+      if (buf.hasRemaining()) {
+        throw new BadRequestException("Malformed cursor");
+      }
+      return new UserCursor(expected, id, createdAt);
+    } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+      throw new BadRequestException("Malformed cursor", e);
+    }
+  }
+}
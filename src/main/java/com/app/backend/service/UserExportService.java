@@ -0,0 +1,167 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserView;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Eksport całej tabeli {@code users} strumieniem: jedno zapytanie z kursorem
+ * tylko do przodu ({@code users.export.fetchSize} wierszy na paczkę z bazy),
+ * wiersze jako {@link UserView} (poza kontekstem persystencji), więc pamięć
+ * nie zależy od liczby wierszy. Hasło nie jest nawet czytane z bazy.
+ * <p>
+ * MySQL streamuje wyniki tylko z {@code useCursorFetch=true} w URL (patrz
+ * application-prod.yml); bez tego sterownik wczytuje cały wynik.
+ * <p>
+ * Pola CSV zaczynające się od {@code = + - @}, tabulatora lub CR dostają
+ * prefiks {@code '}, żeby arkusz nie wykonał ich jako formuły.
+ */
+@Service
+public class UserExportService {
+
+  private static final Logger log = LoggerFactory.getLogger(UserExportService.class);
+  private static final JsonFactory JSON = new JsonFactory();
+
+  public enum Format {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate readOnlyTransaction;
+  private final int fetchSize;
+
+  public UserExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+      UserApiProperties props) {
+    this.entityManager = entityManager;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.fetchSize = props.getExport().getFetchSize();
+  }
+
+  /**
+   * Zapisuje wszystkich użytkowników do {@code out} (nie zamyka strumienia).
+   *
+   * @return liczba wierszy
+   */
+  public long export(Format format, OutputStream out) throws IOException {
+    long start = System.nanoTime();
+    Long rows;
+    try {
+      rows = readOnlyTransaction.execute(status -> {
+        try (Stream<UserView> users = entityManager
+            .createQuery("select new com.app.backend.dto.UserView(u.id, u.username, u.email, u.createdAt) "
+                + "from User u where u.deletedAt is null order by u.id", UserView.class)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream()) {
+          return format == Format.CSV ? writeCsv(users.iterator(), out) : writeNdjson(users.iterator(), out);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      // Zwykle klient przerwał pobieranie
+      throw e.getCause();
+    }
+    log.info("Exported {} users as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+    return rows;
+  }
+
+  private long writeNdjson(Iterator<UserView> users, OutputStream out) throws IOException {
+    long rows = 0;
+    try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      json.setRootValueSeparator(null);
+      while (users.hasNext()) {
+        UserView user = users.next();
+        json.writeStartObject();
+        json.writeNumberField("id", user.id());
+        json.writeStringField("username", user.username());
+        json.writeStringField("email", user.email());
+        json.writeStringField("createdAt", user.createdAt().toString());
+        json.writeEndObject();
+        json.writeRaw('\n');
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  private long writeCsv(Iterator<UserView> users, OutputStream out) throws IOException {
+    long rows = 0;
+    Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    csv.write("id,username,email,createdAt\r\n");
+    while (users.hasNext()) {
+      UserView user = users.next();
+      csv.write(Long.toString(user.id()));
+      csv.write(',');
+      csvField(csv, user.username());
+      csv.write(',');
+      csvField(csv, user.email());
+      csv.write(',');
+      csv.write(user.createdAt().toString());
+      csv.write("\r\n");
+      rows++;
+    }
+    csv.flush();
+    return rows;
+  }
+
+  /** RFC 4180: cudzysłów wokół pól z przecinkiem, cudzysłowem lub końcem linii. */
+  static void csvField(Writer csv, String value) throws IOException {
+    if (!value.isEmpty() && isFormulaStart(value.charAt(0))) {
+      value = "'" + value;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      csv.write(value);
+      return;
+    }
+    csv.write('"');
+    csv.write(value.replace("\"", "\"\""));
+    csv.write('"');
+  }
+
+  private static boolean isFormulaStart(char c) {
+    return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+  }
+}
@@ -0,0 +1,258 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserImportResult;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.exception.RequestBodyTooLargeException;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import com.app.backend.search.UserSearchIndex;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import użytkowników strumieniem: tablica JSON albo NDJSON jest czytana
+ * rekord po rekordzie, a rekordy są zapisywane paczkami po
+ * {@code users.bulk-import.batch-size} w osobnych transakcjach (batch JDBC,
+ * id z sekwencji pooled). W pamięci jest najwyżej jedna paczka.
+ * <p>
+ * Duplikaty nie psują paczki: przed zapisem odrzucane są powtórzenia w samej
+ * paczce i wartości już istniejące w bazie (jedno zapytanie na kolumnę). Gdy
+ * mimo to zapis paczki się nie uda (równoległy insert), paczka jest
+ * zapisywana wiersz po wierszu, żeby przypisać błąd do rekordu.
+ * <p>
+ * Błędne wejście albo przekroczony limit body przerywają import w trakcie:
+ * zapisane paczki zostają, a wyjątek podaje, ile rekordów zdążyło trafić do
+ * bazy.
+ */
+@Service
+public class UserImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+  private final UserRepository userRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transaction;
+  private final ObjectMapper objectMapper;
+  private final UserLookupCache cache;
+  private final UserAvailabilityIndex availability;
+  private final UserSearchIndex searchIndex;
+  private final int batchSize;
+  private final int maxErrors;
+
+  public UserImportService(UserRepository userRepository, EntityManager entityManager,
+      PlatformTransactionManager transactionManager, ObjectMapper objectMapper, UserLookupCache cache,
+      UserAvailabilityIndex availability, UserSearchIndex searchIndex, UserApiProperties props) {
+    this.userRepository = userRepository;
+    this.entityManager = entityManager;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.cache = cache;
+    this.availability = availability;
+    this.searchIndex = searchIndex;
+    this.batchSize = props.getBulkImport().getBatchSize();
+    this.maxErrors = props.getBulkImport().getMaxErrors();
+  }
+
+  public UserImportResult importUsers(InputStream in) throws IOException {
+    long start = System.nanoTime();
+    Progress progress = new Progress();
+    List<Row> batch = new ArrayList<>(batchSize);
+
+    try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      JsonToken token = parser.nextToken();
+      boolean array = token == JsonToken.START_ARRAY;
+      if (array) {
+        token = parser.nextToken();
+      }
+      long index = 0;
+      while (token != null && token != JsonToken.END_ARRAY) {
+        JsonNode node = objectMapper.readTree(parser);
+        Row row = toRow(index++, node, progress);
+        if (row != null) {
+          batch.add(row);
+          if (batch.size() == batchSize) {
+            saveBatch(batch, progress);
+            batch.clear();
+          }
+        }
+        token = parser.nextToken();
+      }
+      if (array && token == null) {
+        throw new BadRequestException("Unexpected end of input: JSON array is not closed");
+      }
+    } catch (JsonProcessingException e) {
+      // Zapisane paczki zostają; klient widzi, do którego miejsca doszedł import
+      throw new BadRequestException("Malformed import input after " + progress.imported + " imported users: "
+          + e.getOriginalMessage(), e);
+    } catch (RequestBodyTooLargeException e) {
+      throw new RequestBodyTooLargeException(e.getLimit(), e.getMessage() + "; import stopped after "
+          + progress.imported + " imported users (" + progress.failed + " rejected), the current batch was not saved");
+    }
+    saveBatch(batch, progress);
+
+    log.info("Imported {} users ({} rejected) in {} ms", progress.imported, progress.failed,
+        (System.nanoTime() - start) / 1_000_000);
+    return new UserImportResult(progress.imported, progress.failed, progress.errors,
+        progress.failed > progress.errors.size());
+  }
+
+  private Row toRow(long index, JsonNode node, Progress progress) {
+    if (!node.isObject()) {
+      progress.reject(index, null, null, "Expected a JSON object", maxErrors);
+      return null;
+    }
+    String username = text(node, "username");
+    String email = text(node, "email");
+    String password = text(node, "password");
+    if (isBlank(username) || isBlank(email) || isBlank(password)) {
+      progress.reject(index, username, email, "username, email and password are required", maxErrors);
+      return null;
+    }
+    return new Row(index, User.builder().username(username).email(email).password(password).build());
+  }
+
+  private void saveBatch(List<Row> batch, Progress progress) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<Row> accepted = withoutDuplicates(batch, progress);
+    if (accepted.isEmpty()) {
+      return;
+    }
+    try {
+      transaction.executeWithoutResult(status -> {
+        for (Row row : accepted) {
+          entityManager.persist(row.user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+      });
+      accepted.forEach(row -> imported(row, progress));
+    } catch (RuntimeException e) {
+      log.debug("Batch insert failed, retrying row by row: {}", e.getMessage());
+      for (Row row : accepted) {
+        saveRow(row, progress);
+      }
+    }
+  }
+
+  private void saveRow(Row row, Progress progress) {
+    User user = row.user;
+    // Encja z nieudanej paczki ma już przydzielone id - zapisz świeżą kopię
+    User copy = User.builder().username(user.getUsername()).email(user.getEmail()).password(user.getPassword())
+        .createdAt(user.getCreatedAt()).build();
+    try {
+      transaction.executeWithoutResult(status -> {
+        entityManager.persist(copy);
+        entityManager.flush();
+        entityManager.clear();
+      });
+      imported(new Row(row.index, copy), progress);
+    } catch (RuntimeException e) {
+      boolean duplicate = e instanceof DataIntegrityViolationException
+          || hasCause(e, ConstraintViolationException.class)
+          || hasCause(e, SQLIntegrityConstraintViolationException.class);
+      progress.reject(row.index, user.getUsername(), user.getEmail(), duplicate
+          ? "Username or email already exists"
+          : NestedExceptionUtils.getMostSpecificCause(e).getMessage(), maxErrors);
+    }
+  }
+
+  /** Odrzuca powtórzenia w paczce i wartości, które już są w bazie. */
+  private List<Row> withoutDuplicates(List<Row> batch, Progress progress) {
+    Set<String> usernames = new HashSet<>();
+    Set<String> emails = new HashSet<>();
+    for (Row row : batch) {
+      usernames.add(row.user.getUsername());
+      emails.add(row.user.getEmail());
+    }
+    // Wiersze po soft delete nadal blokują unikalność - import zwalnia je od razu
+    userRepository.purgeDeleted(usernames, emails);
+    Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(usernames));
+    Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(emails));
+
+    List<Row> accepted = new ArrayList<>(batch.size());
+    Set<String> seenUsernames = new HashSet<>();
+    Set<String> seenEmails = new HashSet<>();
+    for (Row row : batch) {
+      String username = row.user.getUsername();
+      String email = row.user.getEmail();
+      String reason = takenUsernames.contains(username) ? "Username already exists"
+          : takenEmails.contains(email) ? "Email already exists"
+          : !seenUsernames.add(username) ? "Duplicate username in import"
+          : !seenEmails.add(email) ? "Duplicate email in import"
+          : null;
+      if (reason == null) {
+        accepted.add(row);
+      } else {
+        progress.reject(row.index, username, email, reason, maxErrors);
+      }
+    }
+    return accepted;
+  }
+
+  private void imported(Row row, Progress progress) {
+    progress.imported++;
+    UserView user = UserView.of(row.user);
+    // Usuwa ewentualne negatywne wpisy dla nowych username/e-maili
+    cache.evict(user);
+    availability.added(user.username(), user.email());
+    searchIndex.added(user);
+  }
+
+  private static String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value != null && value.isTextual() ? value.asText() : null;
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+
+  private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (type.isInstance(t)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private record Row(long index, User user) {
+  }
+
+  private static final class Progress {
+    long imported;
+    long failed;
+    final List<UserImportResult.Error> errors = new ArrayList<>();
+
+    void reject(long index, String username, String email, String reason, int maxErrors) {
+      failed++;
+      if (errors.size() < maxErrors) {
+        errors.add(new UserImportResult.Error(index, username, email, reason));
+      }
+    }
+  }
+}
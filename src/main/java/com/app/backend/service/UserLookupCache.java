@@ -0,0 +1,136 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache odczytów użytkownika po id, username i e-mailu (Caffeine, read-through).
+ * Brak wiersza też jest zapamiętywany ({@code Optional.empty()}), ale krócej
+ * ({@code users.cache.negativeTtl}), żeby powtarzane zapytania o nieistniejące
+ * id nie szły do bazy. {@link UserService} unieważnia wpisy przy zapisie i
+ * usunięciu; zmiany z innych węzłów są widoczne najpóźniej po {@code ttl}.
+ * <p>
+ * Wpisy to niezmienne {@link UserView} (bez hasła), więc mogą być bezpiecznie
+ * współdzielone między wątkami.
+ */
+@Component
+public class UserLookupCache {
+
+  private final boolean enabled;
+  private final Cache<Long, Optional<UserView>> byId;
+  private final Cache<String, Optional<UserView>> byUsername;
+  private final Cache<String, Optional<UserView>> byEmail;
+
+  public UserLookupCache(UserApiProperties props) {
+    UserApiProperties.LookupCache config = props.getCache();
+    this.enabled = config.isEnabled();
+    this.byId = newCache(config);
+    this.byUsername = newCache(config);
+    this.byEmail = newCache(config);
+  }
+
+  private static <K> Cache<K, Optional<UserView>> newCache(UserApiProperties.LookupCache config) {
+    long ttl = config.getTtl().toNanos();
+    long negativeTtl = config.getNegativeTtl().toNanos();
+    return Caffeine.newBuilder()
+        .maximumSize(config.getMaximumSize())
+        .expireAfter(new Expiry<K, Optional<UserView>>() {
+          @Override
+          public long expireAfterCreate(K key, Optional<UserView> value, long currentTime) {
+            return value.isPresent() ? ttl : negativeTtl;
+          }
+
+          @Override
+          public long expireAfterUpdate(K key, Optional<UserView> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(K key, Optional<UserView> value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  public Optional<UserView> byId(Long id, Function<Long, Optional<UserView>> loader) {
+    return enabled ? byId.get(id, loader) : loader.apply(id);
+  }
+
+  public Optional<UserView> byUsername(String username, Function<String, Optional<UserView>> loader) {
+    return enabled ? byUsername.get(username, loader) : loader.apply(username);
+  }
+
+  public Optional<UserView> byEmail(String email, Function<String, Optional<UserView>> loader) {
+    return enabled ? byEmail.get(email, loader) : loader.apply(email);
+  }
+
+  /** Tylko wpis już obecny w cache (bez ładowania); brak albo wpis negatywny = pusty. */
+  public Optional<UserView> cachedById(Long id) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    Optional<UserView> cached = byId.getIfPresent(id);
+    return cached != null ? cached : Optional.empty();
+  }
+
+  /** Po zapisie: zastępuje też negatywne wpisy dla nowego id/username/e-maila. */
+  public void put(UserView user) {
+    if (!enabled) {
+      return;
+    }
+    Optional<UserView> value = Optional.of(user);
+    byId.put(user.id(), value);
+    byUsername.put(user.username(), value);
+    byEmail.put(user.email(), value);
+  }
+
+  public void evict(Long id) {
+    if (!enabled) {
+      return;
+    }
+    byId.invalidate(id);
+  }
+
+  public void evict(UserView user) {
+    if (!enabled) {
+      return;
+    }
+    byId.invalidate(user.id());
+    byUsername.invalidate(user.username());
+    byEmail.invalidate(user.email());
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", enabled);
+    result.put("byId", stats(byId));
+    result.put("byUsername", stats(byUsername));
+    result.put("byEmail", stats(byEmail));
+    return result;
+  }
+
+  private static Map<String, Object> stats(Cache<?, ?> cache) {
+    CacheStats s = cache.stats();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("size", cache.estimatedSize());
+    result.put("hits", s.hitCount());
+    result.put("misses", s.missCount());
+    result.put("hitRate", s.hitRate());
+    result.put("evictions", s.evictionCount());
+    result.put("loadFailures", s.loadFailureCount());
+    result.put("averageLoadNanos", Math.round(s.averageLoadPenalty()));
+    return result;
+  }
+}
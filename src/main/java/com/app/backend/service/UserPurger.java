@@ -0,0 +1,108 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fizycznie usuwa wiersze po soft delete ({@link UserService#deleteUser}) w
+ * tle: paczka id z indeksu {@code idx_users_deleted_at}, potem DELETE po
+ * kluczu głównym w osobnej transakcji, z przerwą między paczkami. Masowe
+ * usuwanie nie trzyma więc długich blokad ani nie zalewa replik jednym
+ * dużym DELETE.
+ * <p>
+ * Przebieg kończy się po {@code maxBatchesPerRun} paczkach - reszta czeka na
+ * następny. Kilka węzłów może usuwać naraz: DELETE sprawdza {@code deletedAt}
+ * ponownie, a wiersz usunięty przez inny węzeł jest po prostu pomijany.
+ * Przerwy zajmują wątek schedulera, więc pula schedulera musi mieć miejsce
+ * dla pozostałych zadań ({@code spring.task.scheduling.pool.size}).
+ */
+@Component
+public class UserPurger {
+
+  private static final Logger log = LoggerFactory.getLogger(UserPurger.class);
+
+  private final UserRepository userRepository;
+  private final UserApiProperties.Purge config;
+  private final ReentrantLock runLock = new ReentrantLock();
+
+  private final LongAdder purged = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private volatile Instant lastRun;
+  private volatile long lastRunPurged;
+  private volatile long lastRunMillis;
+  private volatile boolean lastRunComplete = true;
+
+  public UserPurger(UserRepository userRepository, UserApiProperties props) {
+    this.userRepository = userRepository;
+    this.config = props.getPurge();
+  }
+
+  @Scheduled(initialDelayString = "${users.purge.interval:1m}", fixedDelayString = "${users.purge.interval:1m}")
+  public void purge() {
+    if (!config.isEnabled() || !runLock.tryLock()) {
+      return;
+    }
+    try {
+      long start = System.nanoTime();
+      Instant before = Instant.now().minus(config.getRetention());
+      long count = 0;
+      boolean complete = false;
+      for (int batch = 0; batch < config.getMaxBatchesPerRun(); batch++) {
+        List<Long> ids = userRepository.findDeletedIds(before, Limit.of(config.getBatchSize()));
+        if (ids.isEmpty()) {
+          complete = true;
+          break;
+        }
+        int deleted = userRepository.purge(ids);
+        count += deleted;
+        purged.add(deleted);
+        batches.increment();
+        // Nic nie usunięto: id z opóźnionej repliki albo usunięte przez inny węzeł
+        if (deleted == 0 || ids.size() < config.getBatchSize()) {
+          complete = true;
+          break;
+        }
+        Thread.sleep(config.getPause());
+      }
+      lastRun = Instant.now();
+      lastRunPurged = count;
+      lastRunMillis = (System.nanoTime() - start) / 1_000_000;
+      lastRunComplete = complete;
+      if (count > 0) {
+        log.info("Purged {} deleted users in {} ms{}", count, lastRunMillis,
+            complete ? "" : " (batch limit reached, continuing next run)");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      // Wiersze zostają oznaczone - następny przebieg spróbuje ponownie
+      log.error("Purging deleted users failed", e);
+    } finally {
+      runLock.unlock();
+    }
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("enabled", config.isEnabled());
+    result.put("purged", purged.sum());
+    result.put("batches", batches.sum());
+    result.put("lastRun", lastRun);
+    result.put("lastRunPurged", lastRunPurged);
+    result.put("lastRunMillis", lastRunMillis);
+    result.put("lastRunComplete", lastRunComplete);
+    return result;
+  }
+}
@@ -1,34 +1,183 @@
 package com.app.backend.service;
 
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.db.ReadYourWrites;
+import com.app.backend.dto.CursorPage;
+import com.app.backend.dto.UserAvailability;
+import com.app.backend.dto.UserSearchPage;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.exception.ConflictException;
+import com.app.backend.exception.ResourceNotFoundException;
 import com.app.backend.model.User;
 import com.app.backend.repository.UserRepository;
+import com.app.backend.search.UserSearchIndex;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class UserService {
 
   private final UserRepository userRepository;
+  private final UserApiProperties props;
+  private final UserLookupCache cache;
+  private final UserAvailabilityIndex availability;
+  private final UserSearchIndex searchIndex;
 
-  public UserService(UserRepository userRepository) {
+  public UserService(UserRepository userRepository, UserApiProperties props, UserLookupCache cache,
+      UserAvailabilityIndex availability, UserSearchIndex searchIndex) {
     this.userRepository = userRepository;
+    this.props = props;
+    this.cache = cache;
+    this.availability = availability;
+    this.searchIndex = searchIndex;
   }
 
-  public User createUser(User user) {
-    return userRepository.save(user);
+  /**
+   * @throws ConflictException gdy username lub e-mail jest już zajęty
+   *                           (naruszenie unikalności w bazie)
+   */
+  public UserView createUser(User user) {
+    UserView saved;
+    try {
+      saved = UserView.of(userRepository.save(user));
+    } catch (DataIntegrityViolationException e) {
+      // Unikalność może blokować usunięty (soft delete), jeszcze nieusunięty
+      // fizycznie wiersz - wtedy usuń go od razu i zapisz ponownie
+      if (userRepository.purgeDeleted(Collections.singletonList(user.getUsername()),
+          Collections.singletonList(user.getEmail())) == 0) {
+        throw conflict(user, e);
+      }
+      // Id przydzielone w nieudanym zapisie - bez tego save robiłby merge
+      user.setId(null);
+      try {
+        saved = UserView.of(userRepository.save(user));
+      } catch (DataIntegrityViolationException retry) {
+        throw conflict(user, retry);
+      }
+    }
+    cache.put(saved);
+    availability.added(saved.username(), saved.email());
+    searchIndex.added(saved);
+    return saved;
   }
 
-  public List<User> getAllUsers() {
-    return userRepository.findAll();
+  // Tylko na ścieżce błędu: ustal, które pole jest zajęte; inne naruszenia
+  // (np. brak wymaganej kolumny) nie są konfliktem
+  private RuntimeException conflict(User user, DataIntegrityViolationException e) {
+    if (userRepository.findViewByUsername(user.getUsername()).isPresent()) {
+      return new ConflictException("Username already taken: " + user.getUsername(), e);
+    }
+    if (userRepository.findViewByEmail(user.getEmail()).isPresent()) {
+      return new ConflictException("Email already taken: " + user.getEmail(), e);
+    }
+    return e;
   }
 
-  public User getUserById(Long id) {
-    return userRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("User not found"));
+  /**
+   * Dostępność username i/lub e-maila dla formularza rejestracji. Wartość
+   * wykluczona przez filtr Blooma jest wolna bez zapytania, pozostałe są
+   * sprawdzane przez cache odczytów. Wynik to podpowiedź - wyścig z innym
+   * zapisem rozstrzyga dopiero {@link #createUser}.
+   */
+  public UserAvailability checkAvailability(String username, String email) {
+    if (username == null && email == null) {
+      throw new BadRequestException("Provide username and/or email");
+    }
+    Boolean usernameAvailable = username == null ? null
+        : availability.isUsernameFree(username, value -> findByUsername(value).isPresent());
+    Boolean emailAvailable = email == null ? null
+        : availability.isEmailFree(email, value -> findByEmail(value).isPresent());
+    return new UserAvailability(username, usernameAvailable, email, emailAvailable);
   }
 
+  /**
+   * Wyszukiwanie po fragmencie username lub e-maila z indeksu w pamięci -
+   * bez bazy i bez transakcji.
+   */
+  public UserSearchPage searchUsers(String query, Integer size, String cursor) {
+    return searchIndex.search(query, size, cursor);
+  }
+
+  @Transactional(readOnly = true)
+  public List<UserView> getAllUsers() {
+    return userRepository.findAllViews();
+  }
+
+  /**
+   * Strona użytkowników w porządku {@code sort}, zaczynając za {@code cursor}
+   * (keyset). Pobiera o jeden wiersz więcej, żeby wiedzieć, czy jest następna
+   * strona, bez osobnego COUNT.
+   *
+   * @param size żądany rozmiar strony, {@code null} = domyślny; przycinany do
+   *          {@code users.max-page-size}
+   * @param cursor token z poprzedniej strony albo {@code null} dla pierwszej
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<UserView> getUsersPage(UserCursor.Sort sort, Integer size, String cursor) {
+    int pageSize = size == null ? props.getDefaultPageSize() : Math.max(1, Math.min(size, props.getMaxPageSize()));
+    Limit limit = Limit.of(pageSize + 1);
+    UserCursor after = cursor == null || cursor.isBlank() ? null : UserCursor.decode(cursor, sort);
+
+    List<UserView> rows;
+    if (sort == UserCursor.Sort.ID) {
+      rows = userRepository.findViewsAfterId(after != null ? after.id() : 0L, limit);
+    } else if (after == null) {
+      rows = userRepository.findNewestViews(limit);
+    } else {
+      rows = userRepository.findViewsCreatedBefore(after.createdAt(), after.id(), limit);
+    }
+
+    if (rows.size() <= pageSize) {
+      return new CursorPage<>(rows, null);
+    }
+    List<UserView> page = rows.subList(0, pageSize);
+    UserView last = page.get(pageSize - 1);
+    return new CursorPage<>(page, new UserCursor(sort, last.id(), last.createdAt()).encode());
+  }
+
+  // Odczyty przez cache nie są @Transactional - trafienie nie bierze połączenia
+  // z puli; transakcję read-only otwiera dopiero zapytanie repozytorium
+
+  public UserView getUserById(Long id) {
+    return cache.byId(id, userRepository::findViewById)
+        .orElseThrow(() -> new ResourceNotFoundException("User not found: " + id));
+  }
+
+  public Optional<UserView> findByUsername(String username) {
+    return cache.byUsername(username, userRepository::findViewByUsername);
+  }
+
+  public Optional<UserView> findByEmail(String email) {
+    return cache.byEmail(email, userRepository::findViewByEmail);
+  }
+
+  /**
+   * Soft delete: jeden UPDATE po kluczu ustawiający {@code deletedAt} zamiast
+   * SELECT + DELETE; wiersz usuwa później {@link UserPurger} w paczkach. O
+   * usunięciu decyduje liczba zmienionych wierszy na primary, nie wcześniejszy
+   * odczyt (negatywny wpis w cache albo opóźniona replika mogłyby pominąć
+   * istniejącego użytkownika). Username i e-mail do unieważnienia wpisów
+   * pochodzą z cache albo z odczytu z primary - już po zapisie, żeby
+   * równoległy odczyt nie wstawił z powrotem starego wiersza.
+   */
   public void deleteUser(Long id) {
-    userRepository.deleteById(id);
+    if (userRepository.softDelete(id, Instant.now()) > 0) {
+      Optional<UserView> user = cache.cachedById(id)
+          .or(() -> ReadYourWrites.onPrimary(() -> userRepository.findAnyViewById(id)));
+      user.ifPresent(deleted -> {
+        cache.evict(deleted);
+        availability.removed(deleted);
+      });
+      searchIndex.removed(id);
+    }
+    cache.evict(id);
   }
 }
@@ -0,0 +1,98 @@
+package com.app.backend.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogEncoderTests {
+
+  private final AccessLogEncoder encoder = new AccessLogEncoder();
+
+  @Test
+  void encodesAllFieldsAsOneJsonLine() {
+    AccessLogRecord record = record("/users/5");
+    record.query = "page=2";
+    record.userAgent = "curl/8.0";
+    record.correlationId = "01J0000000000000000000000";
+
+    assertThat(encode(record)).isEqualTo("{\"ts\":\"2024-03-31T01:02:03.004Z\",\"method\":\"GET\",\"uri\":\"/users/5\","
+        + "\"query\":\"page=2\",\"status\":200,\"durationMs\":12.345,\"weight\":10,\"ip\":\"10.0.0.1\","
+        + "\"ua\":\"curl/8.0\",\"correlationId\":\"01J0000000000000000000000\"}\n");
+  }
+
+  @Test
+  void omitsOptionalFieldsAndWritesNullForMissingRequiredOnes() {
+    AccessLogRecord record = record("/users");
+    record.clientIp = null;
+
+    assertThat(encode(record))
+        .contains("\"ip\":null}")
+        .doesNotContain("\"query\"", "\"ua\"", "\"correlationId\"");
+  }
+
+  @Test
+  void escapesQuotesBackslashesAndControlCharacters() {
+    AccessLogRecord record = record("/a\"b\\c\nd\te\u0001\u001f");
+
+    assertThat(encode(record)).contains("\"uri\":\"/a\\\"b\\\\c\\u000ad\\u0009e\\u0001\\u001f\"");
+  }
+
+  @Test
+  void encodesNonAsciiAsUtf8AndReplacesLoneSurrogates() {
+    AccessLogRecord record = record("/zażółć/€/😀");
+    record.userAgent = "x\uD800y\uDC00";
+
+    String line = encode(record);
+
+    assertThat(line).contains("\"uri\":\"/zażółć/€/😀\"", "\"ua\":\"x?y?\"");
+  }
+
+  @Test
+  void truncatesLongFields() {
+    AccessLogRecord record = record("/" + "a".repeat(AccessLogEncoder.MAX_FIELD_LENGTH * 2));
+
+    String line = encode(record);
+
+    assertThat(line).contains("\"uri\":\"/" + "a".repeat(AccessLogEncoder.MAX_FIELD_LENGTH - 1) + "\",");
+  }
+
+  @Test
+  void reusesBufferBetweenRecords() {
+    String first = encode(record("/" + "x".repeat(5_000)));
+    String second = encode(record("/short"));
+
+    assertThat(first).contains("xxxx");
+    assertThat(second).contains("\"uri\":\"/short\"").doesNotContain("xxxx");
+  }
+
+  @Test
+  void formatsSubMillisecondDurationsAndTimestampsAcrossSeconds() {
+    AccessLogRecord record = record("/");
+    record.durationNanos = 7_000;
+    record.timestamp = Instant.parse("2024-03-31T01:02:03.999Z").toEpochMilli();
+    assertThat(encode(record)).contains("\"ts\":\"2024-03-31T01:02:03.999Z\"", "\"durationMs\":0.007,");
+
+    record.timestamp += 1;
+    assertThat(encode(record)).contains("\"ts\":\"2024-03-31T01:02:04.000Z\"");
+  }
+
+  private String encode(AccessLogRecord record) {
+    int length = encoder.encode(record);
+    return new String(encoder.buffer(), 0, length, StandardCharsets.UTF_8);
+  }
+
+  private static AccessLogRecord record(String uri) {
+    AccessLogRecord record = new AccessLogRecord();
+    record.timestamp = Instant.parse("2024-03-31T01:02:03.004Z").toEpochMilli();
+    record.durationNanos = 12_345_678;
+    record.status = 200;
+    record.weight = 10;
+    record.method = "GET";
+    record.uri = uri;
+    record.clientIp = "10.0.0.1";
+    return record;
+  }
+}
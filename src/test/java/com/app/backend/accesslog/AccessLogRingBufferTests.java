@@ -0,0 +1,129 @@
+package com.app.backend.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTests {
+
+  @Test
+  void roundsCapacityUpToPowerOfTwo() {
+    assertThat(new AccessLogRingBuffer(1).capacity()).isEqualTo(2);
+    assertThat(new AccessLogRingBuffer(8).capacity()).isEqualTo(8);
+    assertThat(new AccessLogRingBuffer(9).capacity()).isEqualTo(16);
+  }
+
+  @Test
+  void rejectsClaimsWhenFullAndReusesReleasedSlots() {
+    AccessLogRingBuffer ring = new AccessLogRingBuffer(2);
+    publish(ring, 1);
+    publish(ring, 2);
+
+    assertThat(ring.tryClaim()).isEqualTo(-1);
+
+    assertThat(ring.peek().status).isEqualTo(1);
+    ring.release();
+    publish(ring, 3);
+
+    assertThat(ring.peek().status).isEqualTo(2);
+    ring.release();
+    assertThat(ring.peek().status).isEqualTo(3);
+    ring.release();
+    assertThat(ring.peek()).isNull();
+  }
+
+  @Test
+  void claimedButUnpublishedSlotBlocksConsumer() {
+    AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+    long first = ring.tryClaim();
+    publish(ring, 2);
+
+    // Kolejność pozycji, nie publikacji - drugi rekord czeka na pierwszy
+    assertThat(ring.peek()).isNull();
+
+    ring.slot(first).status = 1;
+    ring.publish(first);
+    assertThat(ring.peek().status).isEqualTo(1);
+  }
+
+  @Test
+  void releaseClearsReferences() {
+    AccessLogRingBuffer ring = new AccessLogRingBuffer(2);
+    long pos = ring.tryClaim();
+    ring.slot(pos).uri = "/users";
+    ring.publish(pos);
+
+    AccessLogRecord record = ring.peek();
+    ring.release();
+
+    assertThat(record.uri).isNull();
+  }
+
+  @Test
+  void manyProducersDeliverEveryRecordExactlyOnceInPerProducerOrder() throws Exception {
+    int producers = 4;
+    int perProducer = 20_000;
+    AccessLogRingBuffer ring = new AccessLogRingBuffer(64);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(producers);
+    try {
+      for (int p = 0; p < producers; p++) {
+        int producer = p;
+        pool.execute(() -> {
+          await(start);
+          for (int i = 0; i < perProducer; i++) {
+            long pos;
+            while ((pos = ring.tryClaim()) < 0) {
+              Thread.yield();
+            }
+            AccessLogRecord r = ring.slot(pos);
+            r.status = producer;
+            r.weight = i;
+            ring.publish(pos);
+          }
+        });
+      }
+      start.countDown();
+
+      long[] next = new long[producers];
+      long received = 0;
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (received < (long) producers * perProducer && System.nanoTime() < deadline) {
+        AccessLogRecord r = ring.peek();
+        if (r == null) {
+          Thread.yield();
+          continue;
+        }
+        assertThat(r.weight).isEqualTo(next[r.status]);
+        next[r.status]++;
+        received++;
+        ring.release();
+      }
+
+      assertThat(received).isEqualTo((long) producers * perProducer);
+      assertThat(ring.peek()).isNull();
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static void publish(AccessLogRingBuffer ring, int status) {
+    long pos = ring.tryClaim();
+    assertThat(pos).isNotNegative();
+    ring.slot(pos).status = status;
+    ring.publish(pos);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
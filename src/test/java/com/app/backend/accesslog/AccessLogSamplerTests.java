@@ -0,0 +1,122 @@
+package com.app.backend.accesslog;
+
+import com.app.backend.config.AccessLogProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogSamplerTests {
+
+  private static final long FAST = 1_000_000;
+  private static final long NOW = 1_700_000_000_000L;
+
+  @Test
+  void alwaysKeepsErrorsRateLimitedAndSlowRequests() {
+    AccessLogSampler sampler = sampler(0.0, route("users", 0.0, null, "/users/**"));
+
+    assertThat(sampler.sample("GET", "/users/1", 500, FAST, NOW)).isEqualTo(1);
+    assertThat(sampler.sample("GET", "/users/1", 429, FAST, NOW)).isEqualTo(1);
+    assertThat(sampler.sample("GET", "/users/1", 200, Duration.ofSeconds(2).toNanos(), NOW)).isEqualTo(1);
+    assertThat(counters(sampler, "users")).containsEntry("always", 3L);
+  }
+
+  @Test
+  void keptLineCarriesWeightOfSuppressedRequests() {
+    AccessLogSampler sampler = sampler(0.0, route("health", null, 1, "/health"));
+
+    assertThat(sampler.sample("GET", "/health", 200, FAST, NOW)).isEqualTo(1);
+    assertThat(sampler.sample("GET", "/health", 200, FAST, NOW + 10)).isZero();
+    assertThat(sampler.sample("GET", "/health", 200, FAST, NOW + 20)).isZero();
+
+    assertThat(sampler.sample("GET", "/health", 200, FAST, NOW + 1_000)).isEqualTo(3);
+    assertThat(counters(sampler, "health"))
+        .containsEntry("total", 4L)
+        .containsEntry("sampled", 2L)
+        .containsEntry("suppressed", 2L)
+        .containsEntry("pendingWeight", 0L);
+  }
+
+  @Test
+  void zeroFractionStillFlushesWeightOncePerInterval() {
+    AccessLogSampler sampler = sampler(0.0, route("quiet", 0.0, null, "/quiet"));
+
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW)).isZero();
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW + 30_000)).isZero();
+    assertThat(counters(sampler, "quiet")).containsEntry("pendingWeight", 2L);
+
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW + 60_000)).isEqualTo(3);
+    // Odliczanie zaczyna się od nowa od następnego pominiętego
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW + 61_000)).isZero();
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW + 120_000)).isZero();
+    assertThat(sampler.sample("GET", "/quiet", 200, FAST, NOW + 121_000)).isEqualTo(3);
+  }
+
+  @Test
+  void zeroRateStillFlushesWeight() {
+    AccessLogSampler sampler = sampler(0.0, route("off", null, 0, "/off"));
+
+    assertThat(sampler.sample("GET", "/off", 200, FAST, NOW)).isZero();
+    assertThat(sampler.sample("GET", "/off", 200, FAST, NOW + 60_000)).isEqualTo(2);
+  }
+
+  @Test
+  void unrecordedWeightMovesToNextKeptLine() {
+    AccessLogSampler sampler = sampler(0.0, route("users", 1.0, null, "/users/**"));
+
+    long weight = sampler.sample("GET", "/users/1", 200, FAST, NOW);
+    sampler.unrecorded("GET", "/users/1", weight);
+
+    assertThat(sampler.sample("GET", "/users/2", 200, FAST, NOW)).isEqualTo(2);
+    assertThat(counters(sampler, "users")).containsEntry("unrecorded", 1L);
+  }
+
+  @Test
+  void matchesMethodsAndFallsBackToDefaultRoute() {
+    AccessLogProperties.Route writes = route("writes", 1.0, null, "/users", "/users/**");
+    writes.setMethods(List.of("POST", "DELETE"));
+    AccessLogSampler sampler = sampler(0.0, writes);
+
+    assertThat(sampler.sample("DELETE", "/users/5", 200, FAST, NOW)).isEqualTo(1);
+    assertThat(sampler.sample("GET", "/users/5", 200, FAST, NOW)).isZero();
+
+    assertThat(counters(sampler, "writes")).containsEntry("total", 1L);
+    assertThat(counters(sampler, "default")).containsEntry("total", 1L).containsEntry("suppressed", 1L);
+  }
+
+  @Test
+  void keepsEverythingWithWeightOneWhenDisabled() {
+    AccessLogProperties props = new AccessLogProperties();
+    props.getSampling().setEnabled(false);
+    props.getSampling().setDefaultFraction(0.0);
+    AccessLogSampler sampler = new AccessLogSampler(props);
+
+    assertThat(sampler.sample("GET", "/users", 200, FAST, NOW)).isEqualTo(1);
+  }
+
+  private static AccessLogSampler sampler(double defaultFraction, AccessLogProperties.Route... routes) {
+    AccessLogProperties props = new AccessLogProperties();
+    props.getSampling().setDefaultFraction(defaultFraction);
+    props.getSampling().setWeightFlushInterval(Duration.ofMinutes(1));
+    props.getSampling().setRoutes(List.of(routes));
+    return new AccessLogSampler(props);
+  }
+
+  private static AccessLogProperties.Route route(String name, Double fraction, Integer ratePerSecond,
+      String... paths) {
+    AccessLogProperties.Route route = new AccessLogProperties.Route();
+    route.setName(name);
+    route.setPaths(List.of(paths));
+    route.setFraction(fraction);
+    route.setRatePerSecond(ratePerSecond);
+    return route;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> counters(AccessLogSampler sampler, String route) {
+    return (Map<String, Object>) sampler.snapshot().get(route);
+  }
+}
@@ -0,0 +1,144 @@
+package com.app.backend.accesslog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingMappedFileTests {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void closeTruncatesSegmentToWrittenLength() throws IOException {
+    RollingMappedFile file = new RollingMappedFile(directory, "access", RollingMappedFile.CHUNK_SIZE, 5);
+    write(file, "{\"a\":1}\n");
+    write(file, "{\"b\":2}\n");
+
+    file.close();
+
+    assertThat(Files.readString(single())).isEqualTo("{\"a\":1}\n{\"b\":2}\n");
+  }
+
+  @Test
+  void lineSpanningMappedWindowsIsWrittenWhole() throws IOException {
+    RollingMappedFile file = new RollingMappedFile(directory, "access", 4L * RollingMappedFile.CHUNK_SIZE, 5);
+    byte[] line = line(RollingMappedFile.CHUNK_SIZE - 3);
+    file.write(line, line.length);
+    file.write(line, line.length);
+    file.close();
+
+    assertThat(Files.size(single())).isEqualTo(2L * line.length);
+  }
+
+  @Test
+  void rollsSegmentsAndKeepsOnlyMaxFiles() throws IOException {
+    RollingMappedFile file = new RollingMappedFile(directory, "access", RollingMappedFile.CHUNK_SIZE, 2);
+    byte[] line = line(RollingMappedFile.CHUNK_SIZE / 2 + 1);
+    for (int i = 0; i < 5; i++) {
+      file.write(line, line.length);
+    }
+    file.close();
+
+    List<Path> segments = segments();
+    assertThat(segments).hasSize(2);
+    for (Path segment : segments) {
+      assertThat(Files.size(segment)).isEqualTo(line.length);
+    }
+  }
+
+  @Test
+  void namesSegmentsInUtc() throws IOException {
+    long before = System.currentTimeMillis();
+    RollingMappedFile file = new RollingMappedFile(directory, "access", RollingMappedFile.CHUNK_SIZE, 5);
+    write(file, "{}\n");
+    file.close();
+
+    DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    String name = single().getFileName().toString();
+    String stamp = name.substring("access-".length(), name.length() - ".jsonl".length());
+    assertThat(stamp.compareTo(format.format(Instant.ofEpochMilli(before)))).isNotNegative();
+    assertThat(stamp.compareTo(format.format(Instant.now().plusSeconds(1)))).isNegative();
+  }
+
+  @Test
+  void recoversSegmentLeftWithNulPaddingAndPartialLine() throws IOException {
+    Path crashed = directory.resolve("access-20240101-000000-000.jsonl");
+    byte[] content = new byte[3 * 64 * 1024];
+    byte[] lines = "{\"a\":1}\n{\"b\":2}\n{\"c\":".getBytes(StandardCharsets.UTF_8);
+    System.arraycopy(lines, 0, content, 0, lines.length);
+    Files.write(crashed, content);
+    Path clean = directory.resolve("access-20240101-000001-000.jsonl");
+    Files.writeString(clean, "{\"d\":4}\n");
+
+    RollingMappedFile file = new RollingMappedFile(directory, "access", RollingMappedFile.CHUNK_SIZE, 5);
+    write(file, "{\"e\":5}\n");
+    file.close();
+
+    assertThat(Files.readString(crashed)).isEqualTo("{\"a\":1}\n{\"b\":2}\n");
+    assertThat(Files.readString(clean)).isEqualTo("{\"d\":4}\n");
+    assertThat(segments()).hasSize(3);
+  }
+
+  @Test
+  void recoveryEmptiesSegmentWithoutCompleteLine() throws IOException {
+    Path crashed = directory.resolve("access-20240101-000000-000.jsonl");
+    byte[] content = new byte[1024];
+    Arrays.fill(content, 0, 10, (byte) 'x');
+    Files.write(crashed, content);
+
+    RollingMappedFile.recover(crashed);
+
+    assertThat(Files.size(crashed)).isZero();
+  }
+
+  @Test
+  void resetAfterFailureStartsNewSegment() throws IOException {
+    RollingMappedFile file = new RollingMappedFile(directory, "access", RollingMappedFile.CHUNK_SIZE, 5);
+    write(file, "{\"a\":1}\n");
+    file.reset();
+    write(file, "{\"b\":2}\n");
+    file.close();
+
+    List<Path> segments = segments();
+    assertThat(segments).hasSize(2);
+    assertThat(Files.readString(segments.get(0))).isEqualTo("{\"a\":1}\n");
+    assertThat(Files.readString(segments.get(1))).isEqualTo("{\"b\":2}\n");
+  }
+
+  private static void write(RollingMappedFile file, String line) throws IOException {
+    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+    file.write(bytes, bytes.length);
+  }
+
+  private static byte[] line(int length) {
+    byte[] line = new byte[length];
+    Arrays.fill(line, (byte) 'x');
+    line[length - 1] = '\n';
+    return line;
+  }
+
+  private Path single() throws IOException {
+    List<Path> segments = segments();
+    assertThat(segments).hasSize(1);
+    return segments.get(0);
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.app.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpPropertiesTests {
+
+  @Test
+  void defaultsMatchApplicationYml() {
+    YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+    yaml.setResources(new ClassPathResource("application.yml"));
+    Properties properties = yaml.getObject();
+    List<String> trustedProxies = new ArrayList<>();
+    for (int i = 0; properties.containsKey("client-ip.trustedProxies[" + i + "]"); i++) {
+      trustedProxies.add(properties.getProperty("client-ip.trustedProxies[" + i + "]"));
+    }
+
+    ClientIpProperties defaults = new ClientIpProperties();
+
+    assertThat(defaults.getTrustedProxies()).isEqualTo(trustedProxies);
+    assertThat(defaults.getForwardedHeader()).isEqualTo(properties.getProperty("client-ip.forwardedHeader"));
+    assertThat(defaults.getRealIpHeader()).isEqualTo(properties.getProperty("client-ip.realIpHeader"));
+  }
+}
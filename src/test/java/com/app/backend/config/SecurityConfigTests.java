@@ -0,0 +1,76 @@
+package com.app.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@link SecurityConfig}: /internal/** tylko z HTTP Basic i bez tokenu CSRF,
+ * reszta otwarta, ale nadal chroniona przez CSRF.
+ */
+@SpringBootTest(properties = { "spring.security.user.name=ops", "spring.security.user.password=secret" })
+@AutoConfigureMockMvc
+class SecurityConfigTests {
+
+  private static final String BASIC = "Basic "
+      + Base64.getEncoder().encodeToString("ops:secret".getBytes(StandardCharsets.UTF_8));
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Test
+  void internalEndpointsRequireHttpBasic() throws Exception {
+    mvc.perform(get("/internal/ratelimiter"))
+        .andExpect(status().isUnauthorized())
+        .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, startsWith("Basic")));
+
+    mvc.perform(get("/internal/ratelimiter").header(HttpHeaders.AUTHORIZATION, "Basic "
+        + Base64.getEncoder().encodeToString("ops:wrong".getBytes(StandardCharsets.UTF_8))))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  void internalEndpointsServeAuthenticatedClients() throws Exception {
+    mvc.perform(get("/internal/ratelimiter").header(HttpHeaders.AUTHORIZATION, BASIC))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  void internalPostNeedsNoCsrfToken() throws Exception {
+    mvc.perform(post("/internal/users/import").header(HttpHeaders.AUTHORIZATION, BASIC)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void otherPostsStillNeedCsrfToken() throws Exception {
+    mvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content("{}"))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  void publicEndpointsAreOpenAndCarrySecurityHeaders() throws Exception {
+    mvc.perform(get("/hello"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+        .andExpect(header().string("X-Frame-Options", "SAMEORIGIN"))
+        .andExpect(header().string("Referrer-Policy", "no-referrer"))
+        .andExpect(header().string("Permissions-Policy", "geolocation=(), microphone=(), camera=()"));
+  }
+}
@@ -0,0 +1,45 @@
+package com.app.backend.config;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserApiPropertiesTests {
+
+  private final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+  private final Validator validator = factory.getValidator();
+
+  @AfterEach
+  void tearDown() {
+    factory.close();
+  }
+
+  @Test
+  void defaultsAreValid() {
+    assertThat(validator.validate(new UserApiProperties())).isEmpty();
+  }
+
+  @Test
+  void defaultPageSizeMayEqualMax() {
+    UserApiProperties props = new UserApiProperties();
+    props.setDefaultPageSize(50);
+    props.setMaxPageSize(50);
+
+    assertThat(validator.validate(props)).isEmpty();
+  }
+
+  @Test
+  void rejectsDefaultPageSizeAboveMax() {
+    UserApiProperties props = new UserApiProperties();
+    props.setDefaultPageSize(200);
+    props.setMaxPageSize(100);
+
+    assertThat(validator.validate(props)).extracting(ConstraintViolation::getMessage)
+        .containsExactly("users.defaultPageSize must not exceed users.maxPageSize");
+  }
+}
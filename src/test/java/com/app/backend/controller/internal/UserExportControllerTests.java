@@ -0,0 +1,97 @@
+package com.app.backend.controller.internal;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.service.UserExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserExportControllerTests {
+
+  @Test
+  void gzipNeedsPositiveWeight() {
+    assertThat(UserExportController.acceptsGzip("gzip")).isTrue();
+    assertThat(UserExportController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+    assertThat(UserExportController.acceptsGzip("x-gzip")).isTrue();
+    assertThat(UserExportController.acceptsGzip("br, *")).isTrue();
+
+    assertThat(UserExportController.acceptsGzip(null)).isFalse();
+    assertThat(UserExportController.acceptsGzip("identity")).isFalse();
+    assertThat(UserExportController.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(UserExportController.acceptsGzip("gzip; q=0.000, *")).isFalse();
+    assertThat(UserExportController.acceptsGzip("*;q=0")).isFalse();
+    assertThat(UserExportController.acceptsGzip("gzip;q=abc")).isFalse();
+    assertThat(UserExportController.acceptsGzip("notgzip")).isFalse();
+  }
+
+  @Test
+  void compressesWhenGzipIsAccepted() throws IOException {
+    ResponseEntity<StreamingResponseBody> response = controller(out -> out.write(bytes("id,username\r\n")))
+        .export("csv", "gzip, deflate");
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    response.getBody().writeTo(body);
+
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())).readAllBytes())
+        .isEqualTo(bytes("id,username\r\n"));
+  }
+
+  @Test
+  void plainBodyWhenGzipIsRefused() throws IOException {
+    ResponseEntity<StreamingResponseBody> response = controller(out -> out.write(bytes("{}\n")))
+        .export("ndjson", "gzip;q=0");
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    response.getBody().writeTo(body);
+
+    assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+    assertThat(body.toByteArray()).isEqualTo(bytes("{}\n"));
+  }
+
+  @Test
+  void failedExportDoesNotCloseResponseStream() {
+    ResponseEntity<StreamingResponseBody> response = controller(out -> {
+      out.write(bytes("partial"));
+      throw new IOException("Broken pipe");
+    }).export("csv", "gzip");
+    boolean[] closed = { false };
+    OutputStream body = new ByteArrayOutputStream() {
+      @Override
+      public void close() {
+        closed[0] = true;
+      }
+    };
+
+    assertThatThrownBy(() -> response.getBody().writeTo(body)).hasMessage("Broken pipe");
+    assertThat(closed[0]).isFalse();
+  }
+
+  private static UserExportController controller(Export export) {
+    UserExportService service = new UserExportService(null, null, new UserApiProperties()) {
+      @Override
+      public long export(Format format, OutputStream out) throws IOException {
+        export.write(out);
+        return 1;
+      }
+    };
+    return new UserExportController(service);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private interface Export {
+    void write(OutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,125 @@
+package com.app.backend.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedCorrelationIdGeneratorTests {
+
+  private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+  @Test
+  void encodesAll128BitsAsCrockfordBase32() {
+    assertThat(encode(0, 0)).isEqualTo("0".repeat(26));
+    assertThat(encode(-1, -1)).isEqualTo("7" + "Z".repeat(25));
+    Random random = new Random(3);
+    for (int i = 0; i < 1_000; i++) {
+      long hi = random.nextLong();
+      long lo = random.nextLong();
+      assertThat(decode(encode(hi, lo))).isEqualTo(unsigned(hi).shiftLeft(64).or(unsigned(lo)));
+    }
+  }
+
+  @Test
+  void carriesTimestampAndNodeId() {
+    long before = System.currentTimeMillis();
+    String id = new TimeOrderedCorrelationIdGenerator(0xBEEF).next();
+    long after = System.currentTimeMillis();
+
+    assertThat(id).hasSize(26).matches("[0-9A-HJKMNP-TV-Z]+");
+    BigInteger value = decode(id);
+    assertThat(value.shiftRight(80).longValueExact()).isBetween(before, after);
+    assertThat(value.shiftRight(64).intValue() & 0xFFFF).isEqualTo(0xBEEF);
+  }
+
+  @Test
+  void consecutiveIdsAreStrictlyIncreasing() {
+    TimeOrderedCorrelationIdGenerator ids = new TimeOrderedCorrelationIdGenerator(1);
+    String previous = ids.next();
+    for (int i = 0; i < 100_000; i++) {
+      String next = ids.next();
+      assertThat(next.compareTo(previous)).isPositive();
+      previous = next;
+    }
+  }
+
+  @Test
+  void threadsUseTheirOwnCounterStripe() throws Exception {
+    TimeOrderedCorrelationIdGenerator ids = new TimeOrderedCorrelationIdGenerator(1);
+    int stripeMask = TimeOrderedCorrelationIdGenerator.STRIPES - 1;
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<long[]>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(pool.submit(() -> new long[] {
+            decode(ids.next()).shiftRight(60).intValue() & stripeMask,
+            Thread.currentThread().threadId() & stripeMask }));
+      }
+      for (Future<long[]> f : futures) {
+        long[] stripes = f.get();
+        assertThat(stripes[0]).isEqualTo(stripes[1]);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void concurrentIdsAreUnique() throws Exception {
+    TimeOrderedCorrelationIdGenerator ids = new TimeOrderedCorrelationIdGenerator(1);
+    Set<String> seen = ConcurrentHashMap.newKeySet();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < 50_000; i++) {
+            seen.add(ids.next());
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertThat(seen).hasSize(8 * 50_000);
+  }
+
+  @Test
+  void rejectsNodeIdOutside16Bits() {
+    assertThatThrownBy(() -> new TimeOrderedCorrelationIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new TimeOrderedCorrelationIdGenerator(0x10000))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static String encode(long hi, long lo) {
+    char[] chars = new char[TimeOrderedCorrelationIdGenerator.LENGTH];
+    TimeOrderedCorrelationIdGenerator.encode(hi, lo, chars);
+    return new String(chars);
+  }
+
+  private static BigInteger decode(String id) {
+    BigInteger value = BigInteger.ZERO;
+    for (char c : id.toCharArray()) {
+      value = value.shiftLeft(5).or(BigInteger.valueOf(ALPHABET.indexOf(c)));
+    }
+    return value;
+  }
+
+  private static BigInteger unsigned(long value) {
+    return new BigInteger(Long.toUnsignedString(value));
+  }
+}
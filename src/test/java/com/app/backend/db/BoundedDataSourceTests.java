@@ -0,0 +1,89 @@
+package com.app.backend.db;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Zezwolenia {@link BoundedDataSource} na bazie H2 w pamięci: oddawane przy
+ * {@code close()} (raz, także przy podwójnym zamknięciu) i przy błędzie
+ * pobrania połączenia z docelowego {@code DataSource}.
+ */
+class BoundedDataSourceTests {
+
+  private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final DriverManagerDataSource h2 =
+      new DriverManagerDataSource("jdbc:h2:mem:bounded-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+  @Test
+  void closeReleasesPermitOnce() throws SQLException {
+    BoundedDataSource dataSource = new BoundedDataSource(h2, 2, TIMEOUT);
+
+    Connection first = dataSource.getConnection();
+    Connection second = dataSource.getConnection();
+    assertThat(dataSource.stats()).containsEntry("inUse", 2);
+
+    first.close();
+    first.close();
+    assertThat(dataSource.stats()).containsEntry("inUse", 1);
+
+    second.close();
+    assertThat(dataSource.stats()).containsEntry("inUse", 0).containsEntry("acquired", 2L);
+  }
+
+  @Test
+  void timesOutWhenAllPermitsAreTakenAndRecoversAfterClose() throws SQLException {
+    BoundedDataSource dataSource = new BoundedDataSource(h2, 1, TIMEOUT);
+    Connection held = dataSource.getConnection();
+
+    assertThatThrownBy(dataSource::getConnection)
+        .isInstanceOf(SQLTransientConnectionException.class)
+        .hasMessageContaining("no permit within 50 ms");
+    assertThat(dataSource.stats()).containsEntry("timeouts", 1L).containsEntry("inUse", 1);
+
+    held.close();
+    try (Connection next = dataSource.getConnection()) {
+      assertThat(next.isValid(1)).isTrue();
+    }
+    assertThat(dataSource.stats()).containsEntry("inUse", 0);
+  }
+
+  @Test
+  void failedAcquisitionReleasesPermit() {
+    DriverManagerDataSource broken = new DriverManagerDataSource("jdbc:no-such-driver:db");
+    BoundedDataSource dataSource = new BoundedDataSource(broken, 1, TIMEOUT);
+
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(dataSource::getConnection)
+          .isInstanceOf(SQLException.class)
+          .isNotInstanceOf(SQLTransientConnectionException.class);
+      assertThatThrownBy(() -> dataSource.getConnection("sa", ""))
+          .isInstanceOf(SQLException.class)
+          .isNotInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    assertThat(dataSource.stats()).containsEntry("inUse", 0).containsEntry("timeouts", 0L);
+  }
+
+  @Test
+  void proxyDelegatesEverythingButClose() throws SQLException {
+    BoundedDataSource dataSource = new BoundedDataSource(h2, 1, TIMEOUT);
+
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      assertThat(connection.getAutoCommit()).isFalse();
+      assertThat(connection.isClosed()).isFalse();
+      assertThat(connection).isEqualTo(connection);
+      assertThat(connection.toString()).startsWith("Bounded[");
+    }
+  }
+}
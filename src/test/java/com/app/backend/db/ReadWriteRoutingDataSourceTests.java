@@ -0,0 +1,190 @@
+package com.app.backend.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dwie osobne bazy H2 w pamięci jako primary i replika - bez replikacji,
+ * więc to, z której bazy przyszedł wynik, widać po danych. Ten sam układ
+ * co w {@code DataSourceRoutingConfig}: Lazy proxy -> routing -> bazy, z
+ * menedżerem transakcji JDBC i - jak w aplikacji - JPA (Hibernate przygotowuje
+ * połączenie już na początku transakcji, zanim flaga read-only jest znana).
+ */
+class ReadWriteRoutingDataSourceTests {
+
+  private String id;
+  private DataSource primary;
+  private DataSource replica;
+
+  @BeforeEach
+  void setUp() {
+    id = UUID.randomUUID().toString();
+    primary = database("primary-" + id, "primary");
+    replica = database("replica-" + id, "replica");
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReadYourWrites.clear();
+  }
+
+  @Test
+  void readOnlyTransactionsGoToReplica() {
+    Routed routed = routed(new ReadWriteRoutingDataSource(primary, List.of(replica)));
+
+    assertThat(routed.readOnly().execute(status -> routed.role())).isEqualTo("replica");
+  }
+
+  @Test
+  void writeTransactionsAndNonTransactionalAccessGoToPrimary() {
+    Routed routed = routed(new ReadWriteRoutingDataSource(primary, List.of(replica)));
+
+    assertThat(routed.readWrite().execute(status -> routed.role())).isEqualTo("primary");
+    assertThat(routed.role()).isEqualTo("primary");
+  }
+
+  @Test
+  void readYourWritesSeesOwnWriteDespiteLaggingReplica() {
+    Routed routed = routed(new ReadWriteRoutingDataSource(primary, List.of(replica)));
+    routed.readWrite().executeWithoutResult(status -> routed.jdbc().update("insert into node values ('written')"));
+
+    // Replika "nie nadążyła" - bez okna read-your-writes zapisu nie widać
+    assertThat(routed.readOnly().execute(status -> routed.count("written"))).isZero();
+
+    ReadYourWrites.forcePrimary();
+    assertThat(routed.readOnly().execute(status -> routed.count("written"))).isEqualTo(1);
+    ReadYourWrites.clear();
+
+    assertThat(routed.readOnly().execute(status -> routed.count("written"))).isZero();
+  }
+
+  @Test
+  void readsAreSpreadAcrossReplicas() {
+    DataSource second = database("replica2-" + id, "replica2");
+    Routed routed = routed(new ReadWriteRoutingDataSource(primary, List.of(replica, second)));
+
+    List<String> roles = List.of(
+        routed.readOnly().execute(status -> routed.role()),
+        routed.readOnly().execute(status -> routed.role()),
+        routed.readOnly().execute(status -> routed.role()),
+        routed.readOnly().execute(status -> routed.role()));
+
+    assertThat(roles).containsOnly("replica", "replica2");
+    assertThat(roles).filteredOn("replica"::equals).hasSize(2);
+  }
+
+  @Test
+  void unavailableReplicaFallsBackToPrimary() {
+    DataSource down = new DriverManagerDataSource("jdbc:h2:tcp://127.0.0.1:1/missing", "sa", "");
+    ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(down));
+    Routed routed = routed(routing);
+
+    assertThat(routed.readOnly().execute(status -> routed.role())).isEqualTo("primary");
+    assertThat(routing.stats()).containsEntry("replicaFallbacks", 1L);
+    assertThat((Map<?, ?>) routing.stats().get("primary")).containsEntry("readYourWrites", 0L);
+  }
+
+  @Test
+  void jpaReadOnlyTransactionsGoToReplica() {
+    Jpa jpa = jpa(new ReadWriteRoutingDataSource(primary, List.of(replica)));
+    try {
+      assertThat(jpa.readOnly().execute(status -> jpa.role())).isEqualTo("replica");
+      assertThat(jpa.readWrite().execute(status -> jpa.role())).isEqualTo("primary");
+    } finally {
+      jpa.close();
+    }
+  }
+
+  @Test
+  void onPrimaryForcesPrimaryForJpaReadOnlyTransactionAndRestoresState() {
+    Jpa jpa = jpa(new ReadWriteRoutingDataSource(primary, List.of(replica)));
+    try {
+      assertThat(ReadYourWrites.onPrimary(() -> jpa.readOnly().execute(status -> jpa.role()))).isEqualTo("primary");
+      assertThat(ReadYourWrites.isPrimaryForced()).isFalse();
+      assertThat(jpa.readOnly().execute(status -> jpa.role())).isEqualTo("replica");
+
+      // Zagnieżdżone w żądaniu z read-your-writes: znacznik zostaje
+      ReadYourWrites.forcePrimary();
+      ReadYourWrites.onPrimary(() -> jpa.readOnly().execute(status -> jpa.role()));
+      assertThat(ReadYourWrites.isPrimaryForced()).isTrue();
+    } finally {
+      jpa.close();
+    }
+  }
+
+  private static DataSource database(String name, String role) {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("create table node (role varchar(16))");
+    jdbc.update("insert into node values (?)", role);
+    return dataSource;
+  }
+
+  private static Routed routed(ReadWriteRoutingDataSource routing) {
+    DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    return new Routed(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), readOnly);
+  }
+
+  private Jpa jpa(ReadWriteRoutingDataSource routing) {
+    LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+    factory.setDataSource(new LazyConnectionDataSourceProxy(routing));
+    factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    // Bez encji - zapytania natywne wystarczą, liczy się ścieżka transakcji
+    factory.setPackagesToScan(getClass().getPackageName());
+    factory.setPersistenceUnitName("routing-" + id);
+    factory.afterPropertiesSet();
+    EntityManagerFactory emf = factory.getObject();
+    JpaTransactionManager transactionManager = new JpaTransactionManager(emf);
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    return new Jpa(emf, SharedEntityManagerCreator.createSharedEntityManager(emf),
+        new TransactionTemplate(transactionManager), readOnly);
+  }
+
+  private record Jpa(EntityManagerFactory emf, EntityManager entityManager, TransactionTemplate readWrite,
+      TransactionTemplate readOnly) {
+
+    String role() {
+      return (String) entityManager.createNativeQuery("select role from node where role <> 'written'")
+          .getSingleResult();
+    }
+
+    void close() {
+      emf.close();
+    }
+  }
+
+  private record Routed(JdbcTemplate jdbc, TransactionTemplate readWrite, TransactionTemplate readOnly) {
+
+    String role() {
+      return jdbc.queryForObject("select role from node where role <> 'written'", String.class);
+    }
+
+    int count(String role) {
+      return jdbc.queryForObject("select count(*) from node where role = ?", Integer.class, role);
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package com.app.backend.filter;
+
+import com.app.backend.config.ClientIpProperties;
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.net.ClientIpResolver;
+import com.app.backend.ratelimit.CompactRateLimiterBackend;
+import com.app.backend.ratelimit.RateLimitEnforcer;
+import com.app.backend.ratelimit.RateLimitPolicies;
+import com.app.backend.ratelimit.RateLimitPrecheck;
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtr na prawdziwym {@link RateLimitEnforcer} z backendem compact:
+ * denylista, whitelista, poziomy polityki, wynik {@link RateLimitPrecheck} z
+ * zaworu i limit równoczesnych żądań.
+ */
+class GlobalRateLimiterFilterTests {
+
+  private static final String CLIENT = "203.0.113.7";
+
+  private final RateLimiterProperties props = new RateLimiterProperties();
+  private RateLimitEnforcer enforcer;
+  private RateLimiterMetrics metrics;
+  private GlobalRateLimiterFilter filter;
+
+  GlobalRateLimiterFilterTests() {
+    props.getCompact().setCapacity(1024);
+    props.getCompact().setStripes(4);
+    props.setRequests(2);
+  }
+
+  @Test
+  void deniedClientIsRejectedBeforeChain() throws ServletException, IOException {
+    props.setDenylist(List.of("203.0.113.0/24"));
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = perform("GET", "/hello", chain);
+
+    assertThat(response.getStatus()).isEqualTo(403);
+    assertThat(chain.getRequest()).isNull();
+    assertThat(decisions()).containsEntry("rejected", 1L);
+  }
+
+  @Test
+  void whitelistedClientIsNotLimited() throws ServletException, IOException {
+    props.setWhitelist(List.of(CLIENT + "/32"));
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(200);
+    }
+    assertThat(decisions()).containsEntry("whitelisted", 5L).containsEntry("rejected", 0L);
+  }
+
+  @Test
+  void rejectsOverIpLimitWithRetryAfter() throws ServletException, IOException {
+    assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(200);
+    assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(200);
+
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = perform("GET", "/hello", chain);
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(Integer.parseInt(response.getHeader("Retry-After"))).isBetween(1, 60);
+    assertThat(response.getContentAsString()).contains("\"error\":\"Too many requests\"");
+    assertThat(chain.getRequest()).isNull();
+    assertThat(decisions()).containsEntry("allowed", 2L).containsEntry("rejected", 1L);
+  }
+
+  @Test
+  void precheckedRequestsDoNotConsumeIpTokensAgain() throws ServletException, IOException {
+    build();
+    for (int i = 0; i < 5; i++) {
+      MockHttpServletRequest request = request("GET", "/hello");
+      request.setAttribute(RateLimitPrecheck.ATTRIBUTE,
+          new RateLimitPrecheck(CLIENT, enforcer.resolvePolicy("GET", "/hello"), false, 1_000));
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      filter.doFilter(request, response, new MockFilterChain());
+
+      assertThat(response.getStatus()).isEqualTo(200);
+    }
+  }
+
+  @Test
+  void routePolicyAppliesOnlyToItsPathsAndMethods() throws ServletException, IOException {
+    props.setRequests(100);
+    props.setPolicies(List.of(policy("login", "/login", "POST", 1, null)));
+
+    assertThat(perform("POST", "/login", new MockFilterChain()).getStatus()).isEqualTo(200);
+    assertThat(perform("POST", "/login", new MockFilterChain()).getStatus()).isEqualTo(429);
+    assertThat(perform("GET", "/login", new MockFilterChain()).getStatus()).isEqualTo(200);
+    assertThat(perform("POST", "/other", new MockFilterChain()).getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void userLimitIsSharedAcrossAddresses() throws ServletException, IOException {
+    props.setPolicies(List.of(policy("api", "/api/**", null, 100, 1)));
+    build();
+
+    MockHttpServletRequest first = request("GET", "/api/a");
+    first.setUserPrincipal(() -> "alice");
+    MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+    filter.doFilter(first, firstResponse, new MockFilterChain());
+
+    MockHttpServletRequest second = request("GET", "/api/b");
+    second.setRemoteAddr("198.51.100.1");
+    second.setUserPrincipal(() -> "alice");
+    MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+    filter.doFilter(second, secondResponse, new MockFilterChain());
+
+    assertThat(firstResponse.getStatus()).isEqualTo(200);
+    assertThat(secondResponse.getStatus()).isEqualTo(429);
+  }
+
+  @Test
+  void ipRejectionDoesNotSpendUserQuota() throws ServletException, IOException {
+    props.setPolicies(List.of(policy("api", "/api/**", null, 1, 2)));
+    build();
+
+    assertThat(performAs("alice", CLIENT).getStatus()).isEqualTo(200);
+    assertThat(performAs("alice", CLIENT).getStatus()).isEqualTo(429);
+    assertThat(performAs("alice", CLIENT).getStatus()).isEqualTo(429);
+
+    // Odrzucenia po IP oddały tokeny - z innego adresu zostaje jedno żądanie
+    assertThat(performAs("alice", "198.51.100.1").getStatus()).isEqualTo(200);
+    assertThat(performAs("alice", "198.51.100.2").getStatus()).isEqualTo(429);
+  }
+
+  @Test
+  void concurrentLimitRejectsNestedRequestAndReleasesSlot() throws ServletException, IOException {
+    props.setRequests(100);
+    props.setMaxConcurrent(1);
+    build();
+
+    MockHttpServletResponse nested = new MockHttpServletResponse();
+    MockHttpServletResponse outer = new MockHttpServletResponse();
+    filter.doFilter(request("GET", "/hello"), outer,
+        (req, res) -> filter.doFilter(request("GET", "/hello"), nested, new MockFilterChain()));
+
+    assertThat(outer.getStatus()).isEqualTo(200);
+    assertThat(nested.getStatus()).isEqualTo(429);
+    assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void asyncRequestHoldsSlotUntilCompletion() throws ServletException, IOException {
+    props.setRequests(100);
+    props.setMaxConcurrent(1);
+    build();
+    MockHttpServletRequest streaming = request("GET", "/export");
+    streaming.setAsyncSupported(true);
+
+    filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+    assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(429);
+    streaming.getAsyncContext().complete();
+    assertThat(perform("GET", "/hello", new MockFilterChain()).getStatus()).isEqualTo(200);
+  }
+
+  private MockHttpServletResponse perform(String method, String uri, MockFilterChain chain)
+      throws ServletException, IOException {
+    if (filter == null) {
+      build();
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request(method, uri), response, chain);
+    return response;
+  }
+
+  private MockHttpServletResponse performAs(String user, String address) throws ServletException, IOException {
+    MockHttpServletRequest request = request("GET", "/api/a");
+    request.setRemoteAddr(address);
+    request.setUserPrincipal(() -> user);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  private void build() {
+    enforcer = new RateLimitEnforcer(props, new CompactRateLimiterBackend(props), new RateLimitPolicies(props),
+        new ClientIpResolver(new ClientIpProperties()));
+    metrics = new RateLimiterMetrics(props);
+    filter = new GlobalRateLimiterFilter(enforcer, metrics);
+  }
+
+  private Map<?, ?> decisions() {
+    return (Map<?, ?>) metrics.snapshot().get("decisions");
+  }
+
+  private static MockHttpServletRequest request(String method, String uri) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    request.setRemoteAddr(CLIENT);
+    return request;
+  }
+
+  private static RateLimiterProperties.Policy policy(String name, String path, String method, int ipRequests,
+      Integer userRequests) {
+    RateLimiterProperties.Policy policy = new RateLimiterProperties.Policy();
+    policy.setName(name);
+    policy.setPaths(List.of(path));
+    policy.setMethods(method == null ? List.of() : List.of(method));
+    policy.setIp(limit(ipRequests));
+    if (userRequests != null) {
+      policy.setUser(limit(userRequests));
+    }
+    return policy;
+  }
+
+  private static RateLimiterProperties.Limit limit(int requests) {
+    RateLimiterProperties.Limit limit = new RateLimiterProperties.Limit();
+    limit.setRequests(requests);
+    limit.setPeriod(Duration.ofMinutes(1));
+    return limit;
+  }
+}
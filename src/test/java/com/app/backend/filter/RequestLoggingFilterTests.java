@@ -0,0 +1,165 @@
+package com.app.backend.filter;
+
+import com.app.backend.accesslog.AccessLog;
+import com.app.backend.accesslog.AccessLogSampler;
+import com.app.backend.accesslog.RequestLog;
+import com.app.backend.config.AccessLogProperties;
+import com.app.backend.config.ClientIpProperties;
+import com.app.backend.config.RateLimiterProperties;
+import com.app.backend.correlation.TimeOrderedCorrelationIdGenerator;
+import com.app.backend.metrics.RouteLatencyMetrics;
+import com.app.backend.net.ClientIpResolver;
+import com.app.backend.ratelimit.CompactRateLimiterBackend;
+import com.app.backend.ratelimit.RateLimitEnforcer;
+import com.app.backend.ratelimit.RateLimitPolicies;
+import com.app.backend.ratelimit.RateLimiterMetrics;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtr logowania i limiter w kolejności z {@code @Order}: odpowiedź 429
+ * limitera trafia do access logu (z wagą 1) i do histogramu trasy. Żądanie
+ * asynchroniczne jest mierzone do zakończenia odpowiedzi.
+ */
+class RequestLoggingFilterTests {
+
+  private static final String CLIENT = "203.0.113.7";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void runsBeforeRateLimiter() {
+    AccessLogProperties accessLogProps = new AccessLogProperties();
+    accessLogProps.setEnabled(false);
+    accessLogProps.setDirectory(directory.toString());
+    List<Filter> filters = chainOf(new RequestLog(new ClientIpResolver(new ClientIpProperties()),
+        new AccessLog(accessLogProps), new AccessLogSampler(accessLogProps), new RouteLatencyMetrics()));
+
+    assertThat(filters).extracting(Object::getClass)
+        .containsExactly(RequestLoggingFilter.class, GlobalRateLimiterFilter.class);
+  }
+
+  @Test
+  void rateLimitedRequestIsWrittenWithWeightOne() throws ServletException, IOException, InterruptedException {
+    AccessLogProperties accessLogProps = new AccessLogProperties();
+    accessLogProps.setDirectory(directory.toString());
+    accessLogProps.getSampling().setDefaultFraction(0);
+    AccessLog accessLog = new AccessLog(accessLogProps);
+    RouteLatencyMetrics latencyMetrics = new RouteLatencyMetrics();
+    RequestLog requestLog = new RequestLog(new ClientIpResolver(new ClientIpProperties()), accessLog,
+        new AccessLogSampler(accessLogProps), latencyMetrics);
+    List<Filter> filters = chainOf(requestLog);
+
+    accessLog.start();
+    try {
+      assertThat(perform(filters).getStatus()).isEqualTo(200);
+      MockHttpServletResponse rejected = perform(filters);
+      assertThat(rejected.getStatus()).isEqualTo(429);
+      assertThat(rejected.getHeader(RequestLoggingFilter.CORRELATION_ID_HEADER)).isNotBlank();
+    } finally {
+      accessLog.stop();
+    }
+
+    assertThat(lines()).filteredOn(line -> line.contains("\"status\":429"))
+        .singleElement().asString().contains("\"weight\":1,").contains("\"ip\":\"" + CLIENT + "\"");
+    assertThat(latencyMetrics.snapshot()).anySatisfy(histogram -> assertThat(histogram)
+        .containsEntry("route", RouteLatencyMetrics.UNMATCHED).containsEntry("status", "4xx"));
+  }
+
+  @Test
+  void asyncRequestIsRecordedOnCompletion() throws ServletException, IOException, InterruptedException {
+    AccessLogProperties accessLogProps = new AccessLogProperties();
+    accessLogProps.setEnabled(false);
+    accessLogProps.setDirectory(directory.toString());
+    RouteLatencyMetrics latencyMetrics = new RouteLatencyMetrics();
+    List<Filter> filters = chainOf(new RequestLog(new ClientIpResolver(new ClientIpProperties()),
+        new AccessLog(accessLogProps), new AccessLogSampler(accessLogProps), latencyMetrics));
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/export");
+    request.setRemoteAddr(CLIENT);
+    request.setAsyncSupported(true);
+
+    new MockFilterChain(new AsyncServlet(), filters.toArray(Filter[]::new))
+        .doFilter(request, new MockHttpServletResponse());
+    assertThat(latencyMetrics.snapshot()).isEmpty();
+
+    Thread.sleep(50);
+    request.getAsyncContext().complete();
+
+    assertThat(latencyMetrics.snapshot()).singleElement().satisfies(histogram -> {
+      Map<?, ?> latency = (Map<?, ?>) histogram.get("latencyNanos");
+      assertThat(latency.get("count")).isEqualTo(1L);
+      assertThat((Long) latency.get("max")).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+    });
+  }
+
+  private static List<Filter> chainOf(RequestLog requestLog) {
+    RateLimiterProperties props = new RateLimiterProperties();
+    props.getCompact().setCapacity(1024);
+    props.getCompact().setStripes(4);
+    props.setRequests(1);
+    RateLimitEnforcer enforcer = new RateLimitEnforcer(props, new CompactRateLimiterBackend(props),
+        new RateLimitPolicies(props), new ClientIpResolver(new ClientIpProperties()));
+
+    // Kolejność rejestracji odwrotna do @Order - sortuje komparator Springa
+    List<Filter> filters = new ArrayList<>();
+    filters.add(new GlobalRateLimiterFilter(enforcer, new RateLimiterMetrics(props)));
+    filters.add(new RequestLoggingFilter(requestLog, new TimeOrderedCorrelationIdGenerator(1)));
+    AnnotationAwareOrderComparator.sort(filters);
+    return filters;
+  }
+
+  private static MockHttpServletResponse perform(List<Filter> filters) throws ServletException, IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+    request.setRemoteAddr(CLIENT);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    new MockFilterChain(new OkServlet(), filters.toArray(Filter[]::new)).doFilter(request, response);
+    return response;
+  }
+
+  private List<String> lines() throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.sorted().toList()) {
+        lines.addAll(Files.readAllLines(file));
+      }
+    }
+    return lines;
+  }
+
+  /** Handler, który tylko odpowiada 200. */
+  private static final class OkServlet extends HttpServlet {
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+      resp.setStatus(HttpServletResponse.SC_OK);
+    }
+  }
+
+  /** Handler asynchroniczny - odpowiedź kończy test przez {@code complete()}. */
+  private static final class AsyncServlet extends HttpServlet {
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+      req.startAsync();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.app.backend.filter;
+
+import com.app.backend.config.SanitizerProperties;
+import com.app.backend.sanitize.SanitizationPolicies;
+import com.app.backend.sanitize.Sanitize;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtr z politykami z {@link Sanitize}: trasy NONE bez wrappera, limit body
+ * handlera zamiast {@code sanitizer.maxBodySize}.
+ */
+class RequestSanitizationFilterTests {
+
+  private final RequestSanitizationFilter filter = filter();
+
+  @Test
+  void noneRouteGetsOriginalRequest() throws ServletException, IOException {
+    MockHttpServletRequest request = json("GET", "/hello", 10);
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    assertThat(chain.getRequest()).isSameAs(request);
+  }
+
+  @Test
+  void handlerLimitAllowsBodyAboveDefaultLimit() throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(json("POST", "/internal/users/import", 500), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    String body = StreamUtils.copyToString(((HttpServletRequest) chain.getRequest()).getInputStream(),
+        StandardCharsets.UTF_8);
+    assertThat(body).hasSize(500);
+  }
+
+  @Test
+  void rejectsBodyAboveHandlerLimit() throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(json("POST", "/internal/users/import", 2_000), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(413);
+    assertThat(chain.getRequest()).isNull();
+  }
+
+  @Test
+  void unannotatedRouteKeepsDefaultLimit() throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(json("POST", "/users", 500), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(413);
+    assertThat(chain.getRequest()).isNull();
+  }
+
+  /** JSON {@code {"a":"xxx"}} o długości dokładnie {@code length} bajtów. */
+  private static MockHttpServletRequest json(String method, String uri, int length) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    request.setContentType("application/json");
+    request.setContent(("{\"a\":\"" + "x".repeat(length - 8) + "\"}").getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+
+  private static RequestSanitizationFilter filter() {
+    SanitizationPolicies policies = new SanitizationPolicies(new StaticApplicationContext());
+    try {
+      Controller controller = new Controller();
+      policies.compile(Map.of(
+          RequestMappingInfo.paths("/hello").methods(RequestMethod.GET).build(),
+          new HandlerMethod(controller, "hello"),
+          RequestMappingInfo.paths("/internal/users/import").methods(RequestMethod.POST).build(),
+          new HandlerMethod(controller, "importUsers"),
+          RequestMappingInfo.paths("/users").methods(RequestMethod.POST).build(),
+          new HandlerMethod(controller, "create")));
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+    SanitizerProperties props = new SanitizerProperties();
+    props.setMaxBodySize(DataSize.ofBytes(100));
+    return new RequestSanitizationFilter(props, policies);
+  }
+
+  static class Controller {
+
+    @Sanitize(mode = Sanitize.Mode.NONE)
+    public void hello() {
+    }
+
+    @Sanitize(maxBodySize = "1KB")
+    public void importUsers() {
+    }
+
+    public void create() {
+    }
+  }
+}
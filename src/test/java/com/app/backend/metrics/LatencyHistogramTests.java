@@ -0,0 +1,70 @@
+package com.app.backend.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTests {
+
+  @Test
+  void bucketBoundsCoverEveryValueWithinThreePercent() {
+    Random random = new Random(1);
+    for (int i = 0; i < 100_000; i++) {
+      long value = random.nextLong(1L << 42);
+      int index = LatencyHistogram.indexOf(value);
+      long upper = LatencyHistogram.upperBound(index);
+      assertThat(upper).isGreaterThanOrEqualTo(value);
+      assertThat(index == 0 || LatencyHistogram.upperBound(index - 1) < value).isTrue();
+      assertThat((double) (upper - value)).isLessThanOrEqualTo(Math.max(1, value * 0.032));
+    }
+  }
+
+  @Test
+  void percentilesMatchSortedValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Random random = new Random(2);
+    long[] values = new long[10_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1_000 + random.nextLong(50_000_000);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getCount()).isEqualTo(values.length);
+    assertThat(snapshot.getMax()).isEqualTo(values[values.length - 1]);
+    for (double q : new double[] { 0.5, 0.9, 0.99, 0.999 }) {
+      long exact = values[(int) Math.ceil(q * values.length) - 1];
+      assertThat((double) snapshot.percentile(q)).isBetween((double) exact, exact * 1.032);
+    }
+  }
+
+  @Test
+  void minusGivesIncrementSinceEarlierSnapshot() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(100);
+    LatencyHistogram.Snapshot first = histogram.snapshot();
+    histogram.record(5_000);
+    histogram.record(-7);
+
+    LatencyHistogram.Snapshot diff = histogram.snapshot().minus(first);
+
+    assertThat(diff.getCount()).isEqualTo(2);
+    assertThat(diff.getSum()).isEqualTo(5_000);
+    assertThat(diff.countAtOrBelow(0)).isEqualTo(1);
+    assertThat(diff.countAtOrBelow(100)).isEqualTo(1);
+    assertThat(histogram.snapshot().minus(null).getCount()).isEqualTo(3);
+  }
+
+  @Test
+  void emptySnapshotReportsZeros() {
+    LatencyHistogram.Snapshot empty = new LatencyHistogram().snapshot();
+
+    assertThat(empty.percentile(0.99)).isZero();
+    assertThat(empty.getMean()).isEqualTo(0.0);
+  }
+}
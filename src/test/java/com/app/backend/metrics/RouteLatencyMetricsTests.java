@@ -0,0 +1,115 @@
+package com.app.backend.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteLatencyMetricsTests {
+
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final RouteLatencyMetrics metrics = new RouteLatencyMetrics();
+
+  @Test
+  void groupsByMethodRouteAndStatusClass() {
+    metrics.record("GET", "/users/{id}", 200, 2 * MS);
+    metrics.record("GET", "/users/{id}", 204, 4 * MS);
+    metrics.record("GET", "/users/{id}", 404, MS);
+    metrics.record("BREW", null, 999, MS);
+
+    List<Map<String, Object>> snapshot = metrics.snapshot();
+
+    assertThat(snapshot.stream().map(e -> e.get("route") + " " + e.get("method") + " " + e.get("status")).toList())
+        .containsExactly("/users/{id} GET 2xx", "/users/{id} GET 4xx", "UNMATCHED OTHER 5xx");
+    assertThat(latency(snapshot.get(0))).containsEntry("count", 2L);
+  }
+
+  @Test
+  void intervalIsTrackedPerConsumer() {
+    metrics.record("GET", "/users", 200, MS);
+    assertThat(count(metrics.intervalSnapshot("a"))).isEqualTo(1);
+
+    metrics.record("GET", "/users", 200, MS);
+    metrics.record("GET", "/users", 200, MS);
+
+    // "b" czyta pierwszy raz - widzi wszystko od startu, nie zabiera
+    // przyrostu "a"
+    assertThat(count(metrics.intervalSnapshot("b"))).isEqualTo(3);
+    assertThat(count(metrics.intervalSnapshot("a"))).isEqualTo(2);
+    assertThat(count(metrics.intervalSnapshot("a"))).isZero();
+    assertThat(count(metrics.snapshot())).isEqualTo(3);
+  }
+
+  @Test
+  void rejectsInvalidConsumerNames() {
+    assertThatThrownBy(() -> metrics.intervalSnapshot(null)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> metrics.intervalSnapshot("")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> metrics.prometheusInterval("a b")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> metrics.intervalSnapshot("x".repeat(65))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void limitsNumberOfConsumers() {
+    for (int i = 0; i < RouteLatencyMetrics.MAX_CONSUMERS; i++) {
+      metrics.intervalSnapshot("c" + i);
+    }
+
+    assertThatThrownBy(() -> metrics.intervalSnapshot("one-too-many"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Too many interval consumers");
+    // Znany konsument nadal może czytać
+    metrics.intervalSnapshot("c0");
+  }
+
+  @Test
+  void cumulativePrometheusOutputIsHistogram() {
+    metrics.record("GET", "/users", 200, 2 * MS);
+    metrics.record("GET", "/users", 200, 20 * MS);
+
+    String text = metrics.prometheus();
+
+    assertThat(text).contains(
+        "# TYPE http_server_request_duration_seconds histogram\n",
+        "http_server_request_duration_seconds_bucket{method=\"GET\",route=\"/users\",status=\"2xx\",le=\"0.001\"} 0\n",
+        "http_server_request_duration_seconds_bucket{method=\"GET\",route=\"/users\",status=\"2xx\",le=\"0.005\"} 1\n",
+        "http_server_request_duration_seconds_bucket{method=\"GET\",route=\"/users\",status=\"2xx\",le=\"+Inf\"} 2\n",
+        "http_server_request_duration_seconds_count{method=\"GET\",route=\"/users\",status=\"2xx\"} 2\n");
+  }
+
+  @Test
+  void intervalPrometheusOutputIsSummaryWithCumulativeCount() {
+    metrics.record("GET", "/users", 200, MS);
+    metrics.prometheusInterval("scraper");
+    metrics.record("GET", "/users", 200, MS);
+
+    String text = metrics.prometheusInterval("scraper");
+
+    assertThat(text).contains(
+        "# TYPE http_server_request_duration_interval_seconds summary\n",
+        "http_server_request_duration_interval_seconds{method=\"GET\",route=\"/users\",status=\"2xx\",quantile=\"0.5\"} ",
+        "http_server_request_duration_interval_seconds_count{method=\"GET\",route=\"/users\",status=\"2xx\"} 2\n",
+        "http_server_request_duration_interval_seconds_sum{method=\"GET\",route=\"/users\",status=\"2xx\"} ");
+    assertThat(text).doesNotContain("gauge");
+  }
+
+  @Test
+  void escapesRouteLabel() {
+    metrics.record("GET", "/a/{x:\"\\d+}", 200, MS);
+
+    assertThat(metrics.prometheus()).contains("route=\"/a/{x:\\\"\\\\d+}\"");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> latency(Map<String, Object> entry) {
+    return (Map<String, Object>) entry.get("latencyNanos");
+  }
+
+  private static long count(List<Map<String, Object>> snapshot) {
+    return snapshot.stream().mapToLong(e -> (long) latency(e).get("count")).sum();
+  }
+}
@@ -0,0 +1,52 @@
+package com.app.backend.net;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CidrTrieTests {
+
+  private final long[] address = new long[2];
+
+  @Test
+  void longestPrefixWins() {
+    CidrTrie trie = new CidrTrie();
+    trie.add("10.0.0.0/8", 1);
+    trie.add("10.1.0.0/16", 2);
+    trie.add("10.1.2.3", 3);
+    trie.add("2001:db8::/32", 4);
+
+    assertThat(find(trie, "10.200.0.1")).isEqualTo(1);
+    assertThat(find(trie, "10.1.9.9")).isEqualTo(2);
+    assertThat(find(trie, "10.1.2.3")).isEqualTo(3);
+    assertThat(find(trie, "11.0.0.1")).isEqualTo(CidrTrie.NO_MATCH);
+    assertThat(find(trie, "2001:db8:ffff::1")).isEqualTo(4);
+    assertThat(find(trie, "2001:db9::1")).isEqualTo(CidrTrie.NO_MATCH);
+    // IPv4 zmapowany na IPv6 to ten sam adres
+    assertThat(find(trie, "::ffff:10.1.2.3")).isEqualTo(3);
+  }
+
+  @Test
+  void zeroLengthPrefixMatchesEverything() {
+    CidrTrie trie = new CidrTrie();
+    trie.add("::/0", 7);
+    trie.add("0.0.0.0/0", 8);
+
+    assertThat(find(trie, "1.2.3.4")).isEqualTo(8);
+    assertThat(find(trie, "fe80::1")).isEqualTo(7);
+  }
+
+  @Test
+  void rejectsInvalidRanges() {
+    CidrTrie trie = new CidrTrie();
+    assertThatThrownBy(() -> trie.add("10.0.0.0/33", 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> trie.add("10.0.0/8", 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> trie.add("::1/abc", 1)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private int find(CidrTrie trie, String ip) {
+    assertThat(IpAddresses.parse(ip, address)).isTrue();
+    return trie.find(address[0], address[1]);
+  }
+}
@@ -0,0 +1,90 @@
+package com.app.backend.net;
+
+import com.app.backend.config.ClientIpProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTests {
+
+  private final ClientIpResolver resolver = new ClientIpResolver(properties("10.0.0.0/8", "::1"));
+
+  @Test
+  void ignoresHeadersFromUntrustedPeer() {
+    MockHttpServletRequest request = request("203.0.113.7");
+    request.addHeader("X-Forwarded-For", "1.1.1.1");
+    request.addHeader("X-Real-IP", "2.2.2.2");
+
+    assertThat(resolver.resolve(request).address()).isEqualTo("203.0.113.7");
+  }
+
+  @Test
+  void walksForwardedForRightToLeftSkippingTrustedProxies() {
+    MockHttpServletRequest request = request("10.0.0.2");
+    request.addHeader("X-Forwarded-For", "6.6.6.6, 198.51.100.4 ,10.0.0.9");
+
+    ClientIp ip = resolver.resolve(request);
+    assertThat(ip.address()).isEqualTo("198.51.100.4");
+    assertThat(ip.valid()).isTrue();
+  }
+
+  @Test
+  void usesLeftmostWhenAllHopsAreTrusted() {
+    MockHttpServletRequest request = request("::1");
+    request.addHeader("X-Forwarded-For", "10.1.1.1, 10.2.2.2");
+
+    assertThat(resolver.resolve(request).address()).isEqualTo("10.1.1.1");
+  }
+
+  @Test
+  void readsMultipleHeadersFromTheLast() {
+    MockHttpServletRequest request = request("10.0.0.2");
+    request.addHeader("X-Forwarded-For", "7.7.7.7");
+    request.addHeader("X-Forwarded-For", "10.3.3.3");
+
+    assertThat(resolver.resolve(request).address()).isEqualTo("7.7.7.7");
+  }
+
+  @Test
+  void stopsAtUnparseableEntry() {
+    MockHttpServletRequest request = request("10.0.0.2");
+    request.addHeader("X-Forwarded-For", "8.8.8.8, unknown, 10.0.0.3");
+
+    ClientIp ip = resolver.resolve(request);
+    assertThat(ip.address()).isEqualTo("unknown");
+    assertThat(ip.valid()).isFalse();
+  }
+
+  @Test
+  void fallsBackToRealIpThenRemoteAddress() {
+    MockHttpServletRequest withRealIp = request("10.0.0.2");
+    withRealIp.addHeader("X-Real-IP", " 192.0.2.1 ");
+    assertThat(resolver.resolve(withRealIp).address()).isEqualTo("192.0.2.1");
+
+    assertThat(resolver.resolve(request("10.0.0.2")).address()).isEqualTo("10.0.0.2");
+  }
+
+  @Test
+  void cachesResultPerRequest() {
+    MockHttpServletRequest request = request("203.0.113.7");
+    ClientIp first = resolver.resolve(request);
+    request.setRemoteAddr("203.0.113.8");
+
+    assertThat(resolver.resolve(request)).isSameAs(first);
+  }
+
+  private static MockHttpServletRequest request(String remoteAddr) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    request.setRemoteAddr(remoteAddr);
+    return request;
+  }
+
+  private static ClientIpProperties properties(String... trusted) {
+    ClientIpProperties props = new ClientIpProperties();
+    props.setTrustedProxies(List.of(trusted));
+    return props;
+  }
+}
@@ -0,0 +1,118 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.net.IpAddresses;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactTokenTableTests {
+
+  private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+  @Test
+  void consumesUpToCapacityThenRejects() {
+    CompactTokenTable table = new CompactTokenTable(1024, 4, 8);
+
+    for (int i = 4; i >= 0; i--) {
+      assertThat(table.tryConsume(42L, 5, HOUR)).isEqualTo(i);
+    }
+    long rejected = table.tryConsume(42L, 5, HOUR);
+    assertThat(rejected).isNegative();
+    assertThat(-rejected).isLessThanOrEqualTo(TimeUnit.MINUTES.toNanos(12));
+
+    assertThat(table.recordExceeded(42L)).isEqualTo(1);
+    assertThat(table.recordExceeded(42L)).isEqualTo(2);
+    // Inny klient ma własny kubełek
+    assertThat(table.tryConsume(43L, 5, HOUR)).isEqualTo(4);
+  }
+
+  @Test
+  void refundReturnsTokenUpToCapacity() {
+    CompactTokenTable table = new CompactTokenTable(1024, 4, 8);
+    table.tryConsume(42L, 2, HOUR);
+    table.tryConsume(42L, 2, HOUR);
+
+    table.refund(42L, 2);
+    assertThat(table.tryConsume(42L, 2, HOUR)).isZero();
+
+    table.refund(42L, 2);
+    table.refund(42L, 2);
+    table.refund(42L, 2);
+    assertThat(table.tryConsume(42L, 2, HOUR)).isEqualTo(1);
+    // Klucza nie ma w tablicy - nic do oddania
+    table.refund(43L, 2);
+    assertThat(table.tryConsume(43L, 2, HOUR)).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentConsumersNeverExceedCapacity() throws Exception {
+    CompactTokenTable table = new CompactTokenTable(1024, 4, 8);
+    AtomicInteger granted = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < 1_000; i++) {
+            if (table.tryConsume(7L, 500, HOUR) >= 0) {
+              granted.incrementAndGet();
+            }
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertThat(granted.get()).isEqualTo(500);
+  }
+
+  @Test
+  void fullWindowEvictsIdleClientsInsteadOfFailing() {
+    CompactTokenTable table = new CompactTokenTable(1024, 1, 4);
+    for (long key = 1; key <= 10_000; key++) {
+      assertThat(table.tryConsume(key, 3, HOUR)).isEqualTo(2);
+    }
+    assertThat(table.capacity()).isEqualTo(1024);
+  }
+
+  @Test
+  void drainedBucketStaysDrainedAcrossTickWrap() {
+    // Tick (ms od startu, 32 bity) zawija się po ~49,7 dnia - start tablicy
+    // tuż przed zawinięciem
+    long wrapMillis = 1L << 32;
+    CompactTokenTable table = new CompactTokenTable(1024, 1, 8,
+        System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(wrapMillis - 10));
+    long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(40);
+
+    for (long key = 1; System.nanoTime() - end < 0; key++) {
+      assertThat(table.tryConsume(key, 1, HOUR)).isZero();
+      assertThat(table.tryConsume(key, 1, HOUR)).as("key %d", key).isNegative();
+    }
+  }
+
+  @Test
+  void ipv6ClientsAreKeyedBySlash64() {
+    long a = CompactRateLimiterBackend.keyOf("2001:db8:1:2::1");
+    long b = CompactRateLimiterBackend.keyOf("2001:db8:1:2:ffff::9");
+    long c = CompactRateLimiterBackend.keyOf("2001:db8:1:3::1");
+    assertThat(a).isEqualTo(b).isNotEqualTo(c);
+    assertThat(CompactRateLimiterBackend.keyOf("10.0.0.1"))
+        .isEqualTo(CompactRateLimiterBackend.keyOf("::ffff:10.0.0.1"))
+        .isEqualTo(IpAddresses.IPV4_MAPPED_PREFIX | 0x0A000001L);
+    assertThat(CompactRateLimiterBackend.keyOf("::1")).isEqualTo(1L);
+    // Nie-IP - hash z ustawionym najstarszym bitem
+    assertThat(CompactRateLimiterBackend.keyOf("unknown")).isNegative();
+    assertThat(IpAddresses.prefix64("unknown")).isZero();
+  }
+}
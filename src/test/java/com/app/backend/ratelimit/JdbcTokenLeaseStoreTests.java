@@ -0,0 +1,149 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kilka "węzłów" (osobne datasource i backendy) na jednej plikowej bazie H2,
+ * tak jak kilka instancji aplikacji uruchomionych lokalnie.
+ */
+class JdbcTokenLeaseStoreTests {
+
+  private static final int NODES = 3;
+  private static final int CAPACITY = 1_000;
+
+  @TempDir
+  Path dir;
+
+  private String url;
+
+  @BeforeEach
+  void setUp() {
+    url = "jdbc:h2:file:" + dir.resolve("ratelimit").toAbsolutePath() + ";LOCK_TIMEOUT=10000";
+    node().initSchema();
+  }
+
+  @Test
+  void concurrentLeasesNeverExceedBucket() throws Exception {
+    List<JdbcTokenLeaseStore> stores = new ArrayList<>();
+    for (int i = 0; i < NODES; i++) {
+      stores.add(node());
+    }
+    AtomicInteger granted = new AtomicInteger();
+    runConcurrently(8, 200, i -> granted.addAndGet(stores.get(i % NODES).acquire("10.0.0.1", 7, CAPACITY, 86_400_000L)));
+
+    assertThat(granted.get()).isEqualTo(CAPACITY);
+  }
+
+  @Test
+  void clusterOfBackendsSharesOneLimit() throws Exception {
+    RateLimiterProperties props = new RateLimiterProperties();
+    props.getCluster().setBatchSize(20);
+
+    RateLimit limit = new RateLimit(0, "default:ip", CAPACITY, 86_400_000L);
+    List<LeasingRateLimiterBackend> backends = new ArrayList<>();
+    for (int i = 0; i < NODES; i++) {
+      backends.add(new LeasingRateLimiterBackend(props, node()));
+    }
+    AtomicInteger allowed = new AtomicInteger();
+    runConcurrently(8, 600, i -> {
+      if (backends.get(i % NODES).tryConsume("10.0.0.2", limit) >= 0) {
+        allowed.incrementAndGet();
+      }
+    });
+
+    // Jedna lokalna dzierżawa na węzeł może zostać niewykorzystana
+    assertThat(allowed.get()).isBetween(CAPACITY - NODES * 20, CAPACITY);
+    assertThat(backends.get(0).tryConsume("10.0.0.2", limit)).isNegative();
+  }
+
+  @Test
+  void purgeIdleRemovesOnlyBucketsNotRefilledWithinTtl() {
+    AtomicLong now = new AtomicLong(1_000_000);
+    JdbcTokenLeaseStore store = node(now::get);
+    for (int i = 0; i < 7; i++) {
+      store.acquire("idle-" + i, 1, 10, 60_000);
+    }
+    now.addAndGet(3_600_001);
+    store.acquire("active", 1, 10, 60_000);
+    // Uzupełnienie przesuwa refilled_at - kubełek przestaje być bezczynny
+    store.acquire("idle-0", 1, 10, 60_000);
+
+    assertThat(store.purgeIdle(3_600_000, 2)).isEqualTo(6);
+
+    assertThat(keys()).containsExactlyInAnyOrder("active", "idle-0");
+    assertThat(store.purgeIdle(3_600_000, 2)).isZero();
+  }
+
+  @Test
+  void purgedBucketStartsFullAgain() {
+    AtomicLong now = new AtomicLong(1_000_000);
+    JdbcTokenLeaseStore store = node(now::get);
+    assertThat(store.acquire("10.0.0.3", 10, 10, 60_000)).isEqualTo(10);
+
+    now.addAndGet(60_001);
+    store.purgeIdle(60_000, 100);
+
+    assertThat(keys()).isEmpty();
+    assertThat(store.acquire("10.0.0.3", 10, 10, 60_000)).isEqualTo(10);
+  }
+
+  private List<String> keys() {
+    return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""))
+        .queryForList("SELECT bucket_key FROM rate_limit_bucket", String.class);
+  }
+
+  private JdbcTokenLeaseStore node(LongSupplier clock) {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+    return new JdbcTokenLeaseStore(new JdbcTemplate(dataSource),
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)), "rate_limit_bucket", clock);
+  }
+
+  private JdbcTokenLeaseStore node() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+    return new JdbcTokenLeaseStore(new JdbcTemplate(dataSource),
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)), "rate_limit_bucket");
+  }
+
+  private interface Task {
+    void run(int i);
+  }
+
+  private static void runConcurrently(int threads, int iterationsPerThread, Task task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < iterationsPerThread; i++) {
+            task.run(offset + i);
+          }
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
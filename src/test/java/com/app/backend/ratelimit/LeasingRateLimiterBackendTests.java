@@ -0,0 +1,98 @@
+package com.app.backend.ratelimit;
+
+import com.app.backend.config.RateLimiterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Przerwa po błędzie magazynu dzierżaw: w czasie przerwy węzeł nie pyta
+ * magazynu wcale, po przerwie pyta raz, sukces ją zamyka. Zwrot tokena
+ * trafia do lokalnej dzierżawy.
+ */
+class LeasingRateLimiterBackendTests {
+
+  private static final RateLimit LIMIT = new RateLimit(0, "default:ip", 1_000, 60_000);
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final AtomicBoolean down = new AtomicBoolean(true);
+
+  private final TokenLeaseStore store = (key, requested, capacity, periodMillis) -> {
+    calls.incrementAndGet();
+    if (down.get()) {
+      throw new IllegalStateException("database down");
+    }
+    return requested;
+  };
+
+  @Test
+  void failOpenAllowsWithoutQueryingStoreDuringBackoff() {
+    LeasingRateLimiterBackend backend = backend(true, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(backend.tryConsume("10.0.0." + i, LIMIT)).isZero();
+    }
+
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(backend.storeFailures()).isEqualTo(1);
+  }
+
+  @Test
+  void failClosedDeniesWithoutQueryingStoreDuringBackoff() {
+    LeasingRateLimiterBackend backend = backend(false, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(backend.tryConsume("10.0.0." + i, LIMIT)).isNegative();
+    }
+
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void retriesOnceAfterBackoffAndRecovers() throws InterruptedException {
+    LeasingRateLimiterBackend backend = backend(true, Duration.ofMillis(100));
+    backend.tryConsume("10.0.0.1", LIMIT);
+
+    Thread.sleep(120);
+    backend.tryConsume("10.0.0.2", LIMIT);
+    assertThat(calls.get()).isEqualTo(2);
+    assertThat(backend.storeFailures()).isEqualTo(2);
+
+    // Druga przerwa jest dwa razy dłuższa
+    Thread.sleep(120);
+    backend.tryConsume("10.0.0.3", LIMIT);
+    assertThat(calls.get()).isEqualTo(2);
+
+    down.set(false);
+    Thread.sleep(120);
+    assertThat(backend.tryConsume("10.0.0.4", LIMIT)).isEqualTo(9);
+    assertThat(backend.storeFailures()).isZero();
+    assertThat(backend.tryConsume("10.0.0.5", LIMIT)).isEqualTo(9);
+    assertThat(calls.get()).isEqualTo(4);
+  }
+
+  @Test
+  void refundGoesBackToLease() {
+    down.set(false);
+    LeasingRateLimiterBackend backend = backend(true, Duration.ofMinutes(1));
+    assertThat(backend.tryConsume("10.0.0.1", LIMIT)).isEqualTo(9);
+
+    backend.refund("10.0.0.1", LIMIT);
+    backend.refund("10.0.0.2", LIMIT);
+
+    assertThat(backend.tryConsume("10.0.0.1", LIMIT)).isEqualTo(9);
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  private LeasingRateLimiterBackend backend(boolean failOpen, Duration backoff) {
+    RateLimiterProperties props = new RateLimiterProperties();
+    props.getCluster().setFailOpen(failOpen);
+    props.getCluster().setFailureBackoff(backoff);
+    props.getCluster().setMaxFailureBackoff(backoff.multipliedBy(4));
+    return new LeasingRateLimiterBackend(props, store);
+  }
+}
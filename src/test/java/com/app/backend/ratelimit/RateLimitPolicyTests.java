@@ -0,0 +1,46 @@
+package com.app.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitPolicyTests {
+
+  @Test
+  void limitsRequestsInFlightPerClient() {
+    RateLimitPolicy policy = new RateLimitPolicy("upload", null, null, null, 2);
+
+    assertThat(policy.tryEnter("a")).isTrue();
+    assertThat(policy.tryEnter("a")).isTrue();
+    assertThat(policy.tryEnter("a")).isFalse();
+    assertThat(policy.tryEnter("b")).isTrue();
+
+    policy.exit("a");
+    assertThat(policy.tryEnter("a")).isTrue();
+    assertThat(policy.tryEnter("a")).isFalse();
+  }
+
+  @Test
+  void refusedEnterDoesNotLeakSlot() {
+    RateLimitPolicy policy = new RateLimitPolicy("upload", null, null, null, 1);
+
+    assertThat(policy.tryEnter("a")).isTrue();
+    for (int i = 0; i < 10; i++) {
+      assertThat(policy.tryEnter("a")).isFalse();
+    }
+    policy.exit("a");
+
+    assertThat(policy.tryEnter("a")).isTrue();
+  }
+
+  @Test
+  void zeroMeansUnlimited() {
+    RateLimitPolicy policy = new RateLimitPolicy("default", null, null, null, 0);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.tryEnter("a")).isTrue();
+    }
+    policy.exit("a");
+    assertThat(policy.tryEnter("a")).isTrue();
+  }
+}
@@ -0,0 +1,55 @@
+package com.app.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitResponsesTests {
+
+  @Test
+  void tooManyRequestsCarriesRetryAfterInHeaderAndBody() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    RateLimitResponses.writeTooManyRequests(response, 30);
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("30");
+    assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+    assertThat(response.getContentAsString()).isEqualTo("{\"error\":\"Too many requests\",\"retryAfterSeconds\":30}");
+    assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+    assertThat(response.isCommitted()).isTrue();
+  }
+
+  @Test
+  void retryAfterIsAtLeastOneSecond() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    RateLimitResponses.writeTooManyRequests(response, 0);
+
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(response.getContentAsString()).endsWith("\"retryAfterSeconds\":1}");
+  }
+
+  @Test
+  void bodiesAreCachedOnlyWithinCachedRange() {
+    assertThat(RateLimitResponses.tooManyRequestsBody(60)).isSameAs(RateLimitResponses.tooManyRequestsBody(60));
+
+    byte[] large = RateLimitResponses.tooManyRequestsBody(7200);
+    assertThat(large).isNotSameAs(RateLimitResponses.tooManyRequestsBody(7200));
+    assertThat(new String(large, StandardCharsets.US_ASCII)).endsWith("\"retryAfterSeconds\":7200}");
+  }
+
+  @Test
+  void forbiddenHasJsonBody() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    RateLimitResponses.writeForbidden(response);
+
+    assertThat(response.getStatus()).isEqualTo(403);
+    assertThat(response.getContentAsString()).isEqualTo("{\"error\":\"Forbidden\"}");
+  }
+}
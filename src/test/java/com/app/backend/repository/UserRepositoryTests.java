@@ -0,0 +1,86 @@
+package com.app.backend.repository;
+
+import com.app.backend.dto.UserView;
+import com.app.backend.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.RecordComponent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Zapytania {@code UserView} (H2): każde zwraca tylko publiczne kolumny, a
+ * JSON odpowiedzi nie zawiera hasła ani jego wartości.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryTests {
+
+  private static final String PASSWORD = "$2a$10$hashOfTheSecretPassword";
+  private static final Instant CREATED = Instant.parse("2024-05-01T10:15:30Z");
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void viewHasOnlyPublicColumns() {
+    assertThat(Arrays.stream(UserView.class.getRecordComponents()).map(RecordComponent::getName))
+        .containsExactly("id", "username", "email", "createdAt");
+  }
+
+  @Test
+  void everyViewQueryLeavesPasswordOut() throws JsonProcessingException {
+    User alice = userRepository.save(user("alice"));
+    assertThat(userRepository.findById(alice.getId()).orElseThrow().getPassword()).isEqualTo(PASSWORD);
+
+    List<UserView> views = new ArrayList<>();
+    views.add(userRepository.findViewById(alice.getId()).orElseThrow());
+    views.add(userRepository.findViewByUsername("alice").orElseThrow());
+    views.add(userRepository.findViewByEmail("alice@example.com").orElseThrow());
+    views.add(userRepository.findAnyViewById(alice.getId()).orElseThrow());
+    views.addAll(userRepository.findAllViews());
+    views.addAll(userRepository.findViewsAfterId(0, Limit.of(10)));
+    views.addAll(userRepository.findNewestViews(Limit.of(10)));
+    views.addAll(userRepository.findViewsCreatedBefore(CREATED.plusSeconds(1), 0, Limit.of(10)));
+
+    assertThat(views).hasSize(8).allSatisfy(view -> assertThat(view)
+        .isEqualTo(new UserView(alice.getId(), "alice", "alice@example.com", CREATED)));
+    for (UserView view : views) {
+      String json = objectMapper.writeValueAsString(view);
+      assertThat(json).doesNotContain("password").doesNotContain(PASSWORD);
+    }
+  }
+
+  @Test
+  void viewOfEntityDropsPassword() throws JsonProcessingException {
+    User user = user("bob");
+
+    String json = objectMapper.writeValueAsString(UserView.of(user));
+
+    assertThat(json).contains("\"username\":\"bob\"").doesNotContain("password").doesNotContain(PASSWORD);
+  }
+
+  private static User user(String name) {
+    return User.builder().username(name).email(name + "@example.com").password(PASSWORD).createdAt(CREATED)
+        .build();
+  }
+}
@@ -0,0 +1,106 @@
+package com.app.backend.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteTrieTests {
+
+  private final RouteTrie<String> trie = routes();
+
+  @Test
+  void prefersLiteralThenParameterThenRest() {
+    assertThat(trie.find("GET", "/users/availability")).isEqualTo("availability");
+    assertThat(trie.find("GET", "/users/5")).isEqualTo("users-read");
+    assertThat(trie.find("GET", "/users/5/roles/admin")).isEqualTo("users-any");
+    assertThat(trie.find("GET", "/other")).isNull();
+  }
+
+  @Test
+  void methodSpecificValueWinsOverAnyMethod() {
+    assertThat(trie.find("DELETE", "/users/5")).isEqualTo("users-write");
+    assertThat(trie.find("PATCH", "/users/5")).isEqualTo("users-read");
+  }
+
+  @Test
+  void restMatchesEmptyRemainderAndRepeatedSlashes() {
+    assertThat(trie.find("GET", "/internal")).isEqualTo("internal");
+    assertThat(trie.find("GET", "/internal/users/export")).isEqualTo("internal");
+    assertThat(trie.find("DELETE", "//users///5/")).isEqualTo("users-write");
+  }
+
+  @Test
+  void pathParametersDoNotBypassRoutePolicy() {
+    assertThat(trie.find("DELETE", lookupPath("DELETE", "/users/5;x=1"))).isEqualTo("users-write");
+    assertThat(trie.find("DELETE", lookupPath("DELETE", "/users;a=b/5"))).isEqualTo("users-write");
+    assertThat(trie.find("DELETE", lookupPath("DELETE", "/users/5;jsessionid=abc"))).isEqualTo("users-write");
+  }
+
+  @Test
+  void percentEncodingDoesNotBypassRoutePolicy() {
+    assertThat(trie.find("DELETE", lookupPath("DELETE", "/%75sers/5"))).isEqualTo("users-write");
+    assertThat(trie.find("GET", lookupPath("GET", "/users/%61vailability"))).isEqualTo("availability");
+  }
+
+  @Test
+  void lookupPathIgnoresContextPath() {
+    MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/app/users/5");
+    request.setContextPath("/app");
+
+    assertThat(trie.find("DELETE", RequestPaths.lookupPath(request))).isEqualTo("users-write");
+  }
+
+  @Test
+  void captureVariableMatchesRestOfPath() {
+    RouteTrie<String> routes = new RouteTrie<>();
+    routes.add("/files/{*path}", null, "files");
+    routes.add("/files/{name}/meta", null, "meta");
+
+    assertThat(routes.find("GET", "/files")).isEqualTo("files");
+    assertThat(routes.find("GET", "/files/a/b/c")).isEqualTo("files");
+    assertThat(routes.find("GET", "/files/a/meta")).isEqualTo("meta");
+  }
+
+  @Test
+  void regexVariableIsOneSegment() {
+    RouteTrie<String> routes = new RouteTrie<>();
+    routes.add("/users/{id:[0-9]*}", null, "user");
+
+    assertThat(routes.find("GET", "/users/5")).isEqualTo("user");
+    assertThat(routes.find("GET", "/users/5/roles")).isNull();
+  }
+
+  @Test
+  void rejectsNonTerminalRestAndUnknownMethod() {
+    RouteTrie<String> routes = new RouteTrie<>();
+    assertThatThrownBy(() -> routes.add("/a/**/b", null, "x")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> routes.add("/a/{*rest}/b", null, "x")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> routes.add("/a", "FETCH", "x")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rejectsPartialWildcardSegments() {
+    RouteTrie<String> routes = new RouteTrie<>();
+    for (String pattern : new String[] { "/files/*.txt", "/users/a{id}", "/users/{id}x", "/file?", "/a**" }) {
+      assertThatThrownBy(() -> routes.add(pattern, null, "x"))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("Unsupported pattern segment");
+    }
+  }
+
+  private static String lookupPath(String method, String uri) {
+    return RequestPaths.lookupPath(new MockHttpServletRequest(method, uri));
+  }
+
+  private static RouteTrie<String> routes() {
+    RouteTrie<String> routes = new RouteTrie<>();
+    routes.add("/users/availability", null, "availability");
+    routes.add("/users/{id}", null, "users-read");
+    routes.add("/users/{id}", "DELETE", "users-write");
+    routes.add("/users/**", null, "users-any");
+    routes.add("/internal/**", null, "internal");
+    return routes;
+  }
+}
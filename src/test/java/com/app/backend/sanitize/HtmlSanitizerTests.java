@@ -0,0 +1,41 @@
+package com.app.backend.sanitize;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmlSanitizerTests {
+
+  @Test
+  void cleanValueIsReturnedAsIs() {
+    String value = "alice.smith-42@example.com";
+
+    assertThat(HtmlSanitizer.sanitize(value)).isSameAs(value);
+  }
+
+  @Test
+  void trimsWithoutEscapingCleanValue() {
+    assertThat(HtmlSanitizer.sanitize(" \talice\r\n")).isEqualTo("alice");
+    assertThat(HtmlSanitizer.sanitize("   ")).isEmpty();
+    assertThat(HtmlSanitizer.sanitize(null)).isNull();
+  }
+
+  @Test
+  void escapesMarkupAndNonAscii() {
+    assertThat(HtmlSanitizer.sanitize(" <script>alert(\"x\")</script> "))
+        .isEqualTo("&lt;script&gt;alert(&quot;x&quot;)&lt;/script&gt;");
+    assertThat(HtmlSanitizer.sanitize("Tom & Jerry")).isEqualTo("Tom &amp; Jerry");
+    assertThat(HtmlSanitizer.sanitize("café")).isEqualTo("caf&eacute;");
+  }
+
+  @Test
+  void matchesFullEscapeOfTrimmedValue() {
+    String[] inputs = { "plain", "  padded  ", "a<b", "x > y", "\"quoted\"", "R&D", "zażółć", "€100", "it's",
+        "\u0000ctrl\u0001", "emoji 😀", "" };
+
+    for (String input : inputs) {
+      assertThat(HtmlSanitizer.sanitize(input)).as(input).isEqualTo(StringEscapeUtils.escapeHtml4(input.trim()));
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.app.backend.sanitize;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SanitizationPoliciesTests {
+
+  private final StaticApplicationContext context = new StaticApplicationContext();
+  private final SanitizationPolicies policies = new SanitizationPolicies(context);
+  private final Map<RequestMappingInfo, HandlerMethod> handlers = new LinkedHashMap<>();
+
+  @Test
+  void usesFullPolicyBeforeCompileAndForUnknownPaths() throws NoSuchMethodException {
+    assertThat(policies.resolve("GET", "/hello")).isEqualTo(SanitizationPolicy.FULL);
+
+    map("/hello", "none", RequestMethod.GET);
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("GET", "/other")).isEqualTo(SanitizationPolicy.FULL);
+  }
+
+  @Test
+  void methodAnnotationWinsOverClassAnnotation() throws NoSuchMethodException {
+    map("/hello", "none", RequestMethod.GET);
+    map("/users/{id}", "inherited", RequestMethod.GET);
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("GET", "/hello").isNone()).isTrue();
+    assertThat(policies.resolve("GET", "/users/5")).isEqualTo(new SanitizationPolicy(true, false, null, -1));
+    // HEAD obsługuje handler GET
+    assertThat(policies.resolve("HEAD", "/users/5")).isEqualTo(new SanitizationPolicy(true, false, null, -1));
+    assertThat(policies.resolve("POST", "/users/5")).isEqualTo(SanitizationPolicy.FULL);
+  }
+
+  @Test
+  void fieldsModeKeepsListedNames() throws NoSuchMethodException {
+    map("/users", "fields", RequestMethod.POST);
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("POST", "/users").fields()).isEqualTo(Set.of("username", "email"));
+  }
+
+  @Test
+  void unannotatedHandlerIsNotTakenOverByBroaderAnnotatedPattern() throws NoSuchMethodException {
+    map("/files/**", "none");
+    handlers.put(RequestMappingInfo.paths("/files/upload").build(),
+        new HandlerMethod(new PlainController(), "upload"));
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("GET", "/files/a/b").isNone()).isTrue();
+    assertThat(policies.resolve("POST", "/files/upload")).isEqualTo(SanitizationPolicy.FULL);
+  }
+
+  @Test
+  void captureVariableCoversRestOfPath() throws NoSuchMethodException {
+    map("/static/{*path}", "none", RequestMethod.GET);
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("GET", "/static").isNone()).isTrue();
+    assertThat(policies.resolve("GET", "/static/css/app.css").isNone()).isTrue();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void rejectsNonTerminalRestWithConfigError() throws NoSuchMethodException {
+    // PathPatternParser odrzuca taki wzorzec sam; AntPathMatcher go przyjmuje
+    RequestMappingInfo.BuilderConfiguration ant = new RequestMappingInfo.BuilderConfiguration();
+    ant.setPathMatcher(new AntPathMatcher());
+    handlers.put(RequestMappingInfo.paths("/files/**/meta").options(ant).build(),
+        new HandlerMethod(new AnnotatedController(), "none"));
+
+    assertThatThrownBy(() -> policies.compile(handlers))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Cannot compile sanitization policy")
+        .hasMessageContaining("'**' must be the last segment: /files/**/meta");
+  }
+
+  @Test
+  void resolvesPerHandlerMaxBodySize() throws NoSuchMethodException {
+    context.getEnvironment().getPropertySources()
+        .addFirst(new MapPropertySource("test", Map.of("users.bulkImport.maxBodySize", "2GB")));
+    map("/import", "bulk", RequestMethod.POST);
+    map("/users/{id}", "inherited", RequestMethod.GET);
+    policies.compile(handlers);
+
+    assertThat(policies.resolve("POST", "/import").maxBodySize(100)).isEqualTo(DataSize.ofGigabytes(2).toBytes());
+    assertThat(policies.resolve("GET", "/users/5").maxBodySize(100)).isEqualTo(100);
+  }
+
+  @Test
+  void rejectsInvalidMaxBodySize() throws NoSuchMethodException {
+    map("/broken", "broken", RequestMethod.POST);
+
+    assertThatThrownBy(() -> policies.compile(handlers))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Invalid @Sanitize maxBodySize 'lots'");
+  }
+
+  private void map(String pattern, String method, RequestMethod... methods) throws NoSuchMethodException {
+    handlers.put(RequestMappingInfo.paths(pattern).methods(methods).build(),
+        new HandlerMethod(new AnnotatedController(), method));
+  }
+
+  @Sanitize(mode = Sanitize.Mode.PARAMS)
+  static class AnnotatedController {
+
+    @Sanitize(mode = Sanitize.Mode.NONE)
+    public void none() {
+    }
+
+    public void inherited() {
+    }
+
+    @Sanitize(mode = Sanitize.Mode.FIELDS, fields = { "username", "email" })
+    public void fields() {
+    }
+
+    @Sanitize(maxBodySize = "${users.bulkImport.maxBodySize}")
+    public void bulk() {
+    }
+
+    @Sanitize(maxBodySize = "lots")
+    public void broken() {
+    }
+  }
+
+  static class PlainController {
+
+    public void upload() {
+    }
+  }
+}
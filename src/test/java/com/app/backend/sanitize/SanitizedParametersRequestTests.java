@@ -0,0 +1,87 @@
+package com.app.backend.sanitize;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SanitizedParametersRequestTests {
+
+  @Test
+  void sanitizesEveryAccessor() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/search");
+    request.addParameter("q", " <b>x</b> ", "ok");
+
+    SanitizedParametersRequest wrapper = new SanitizedParametersRequest(request);
+
+    assertThat(wrapper.getParameter("q")).isEqualTo("&lt;b&gt;x&lt;/b&gt;");
+    assertThat(wrapper.getParameterValues("q")).containsExactly("&lt;b&gt;x&lt;/b&gt;", "ok");
+    assertThat(wrapper.getParameterMap().get("q")).containsExactly("&lt;b&gt;x&lt;/b&gt;", "ok");
+    assertThat(Collections.list(wrapper.getParameterNames())).containsExactly("q");
+    assertThat(wrapper.getParameter("missing")).isNull();
+  }
+
+  @Test
+  void computesMapOnceAndSharesCleanArrays() {
+    CountingRequest request = new CountingRequest();
+    request.addParameter("page", "2");
+    request.addParameter("q", "<i>");
+    String[] page = request.getParameterValues("page");
+
+    SanitizedParametersRequest wrapper = new SanitizedParametersRequest(request);
+    Map<String, String[]> first = wrapper.getParameterMap();
+    wrapper.getParameter("q");
+    wrapper.getParameterValues("page");
+    Collections.list(wrapper.getParameterNames());
+
+    assertThat(request.mapCalls).isEqualTo(1);
+    assertThat(wrapper.getParameterMap()).isSameAs(first);
+    assertThat(first.get("page")).isSameAs(page);
+    assertThat(request.getParameter("q")).isEqualTo("<i>");
+    assertThatThrownBy(() -> first.put("x", new String[0])).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void cleanParametersKeepContainerMap() {
+    CountingRequest request = new CountingRequest();
+    request.addParameter("page", "2");
+
+    SanitizedParametersRequest wrapper = new SanitizedParametersRequest(request);
+
+    assertThat(wrapper.getParameterMap()).isSameAs(request.lastMap);
+  }
+
+  @Test
+  void fieldsModeSanitizesOnlyListedNames() {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+    request.addParameter("username", "<b>bob</b>");
+    request.addParameter("password", "<p&ss>");
+
+    SanitizedParametersRequest wrapper = new SanitizedParametersRequest(request, Set.of("username"));
+
+    assertThat(wrapper.getParameter("username")).isEqualTo("&lt;b&gt;bob&lt;/b&gt;");
+    assertThat(wrapper.getParameter("password")).isEqualTo("<p&ss>");
+  }
+
+  /** Liczy odczyty mapy parametrów kontenera. */
+  private static final class CountingRequest extends MockHttpServletRequest {
+    int mapCalls;
+    Map<String, String[]> lastMap;
+
+    CountingRequest() {
+      super("GET", "/users");
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+      mapCalls++;
+      lastMap = super.getParameterMap();
+      return lastMap;
+    }
+  }
+}
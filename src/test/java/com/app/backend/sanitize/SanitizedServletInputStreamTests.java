@@ -0,0 +1,180 @@
+package com.app.backend.sanitize;
+
+import com.app.backend.exception.RequestBodyTooLargeException;
+import com.fasterxml.jackson.core.JsonParseException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.DelegatingServletInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SanitizedServletInputStreamTests {
+
+  @Test
+  void escapesStringValuesAndKeepsStructure() throws IOException {
+    String json = "{\"name\":\" <b>Ann</b> \",\"age\":30,\"price\":12345678901234567890.125,"
+        + "\"tags\":[\"a&b\",null,true,false],\"nested\":{\"q\":\"\\\"x\\\"\"}}";
+
+    assertThat(sanitize(json, Long.MAX_VALUE)).isEqualTo(
+        "{\"name\":\"&lt;b&gt;Ann&lt;/b&gt;\",\"age\":30,\"price\":12345678901234567890.125,"
+            + "\"tags\":[\"a&amp;b\",null,true,false],\"nested\":{\"q\":\"&quot;x&quot;\"}}");
+  }
+
+  @Test
+  void handlesInputSplitAtEveryByte() throws IOException {
+    String json = "{\"emoji\":\"zażółć 😀 <i>\",\"list\":[1,2.5,-3e10]}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    InputStream oneByteAtATime = new ByteArrayInputStream(bytes) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, 1));
+      }
+    };
+
+    try (InputStream in = new SanitizedServletInputStream(new DelegatingServletInputStream(oneByteAtATime),
+        Long.MAX_VALUE)) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo("{\"emoji\":\"zaż&oacute;łć 😀 &lt;i&gt;\",\"list\":[1,2.5,-3e10]}");
+    }
+  }
+
+  @Test
+  void streamsBodiesLargerThanInternalBuffers() throws IOException {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100_000; i++) {
+      json.append(i == 0 ? "" : ",").append("\"<").append(i).append(">\"");
+    }
+    json.append(']');
+
+    String result = sanitize(json.toString(), Long.MAX_VALUE);
+    assertThat(result).startsWith("[\"&lt;0&gt;\",\"&lt;1&gt;\"").endsWith("\"&lt;99999&gt;\"]");
+  }
+
+  @Test
+  void honoursReadListenerInNonBlockingMode() throws IOException {
+    AsyncSource source = new AsyncSource();
+    SanitizedServletInputStream in = new SanitizedServletInputStream(source, Long.MAX_VALUE);
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    AtomicBoolean allRead = new AtomicBoolean();
+
+    in.setReadListener(new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        byte[] buffer = new byte[64];
+        while (in.isReady() && !in.isFinished()) {
+          int n = in.read(buffer);
+          if (n > 0) {
+            received.write(buffer, 0, n);
+          }
+        }
+      }
+
+      @Override
+      public void onAllDataRead() {
+        allRead.set(true);
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        throw new AssertionError(t);
+      }
+    });
+
+    source.arrive("{\"a\":\"<");
+    assertThat(in.isReady()).isFalse();
+    source.arrive("b>\",\"n\":1");
+    source.arrive("}");
+    assertThat(allRead).isFalse();
+    source.complete();
+
+    assertThat(allRead).isTrue();
+    assertThat(in.isFinished()).isTrue();
+    assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo("{\"a\":\"&lt;b&gt;\",\"n\":1}");
+  }
+
+  @Test
+  void enforcesLimitWhileStreaming() {
+    String json = "{\"data\":\"" + "x".repeat(100_000) + "\"}";
+
+    assertThatThrownBy(() -> sanitize(json, 50_000))
+        .isInstanceOf(RequestBodyTooLargeException.class);
+  }
+
+  @Test
+  void rejectsMalformedAndTruncatedJson() {
+    assertThatThrownBy(() -> sanitize("{\"a\":}", Long.MAX_VALUE)).isInstanceOf(JsonParseException.class);
+    assertThatThrownBy(() -> sanitize("{\"a\":[1,2", Long.MAX_VALUE)).isInstanceOf(JsonParseException.class);
+  }
+
+  private static String sanitize(String json, long limit) throws IOException {
+    InputStream source = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    try (InputStream in = new SanitizedServletInputStream(new DelegatingServletInputStream(source), limit)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Źródło symulujące kontener w trybie nieblokującym: dane pojawiają się
+   * partiami, a po każdej partii wywoływany jest słuchacz.
+   */
+  private static class AsyncSource extends ServletInputStream {
+    private final Deque<byte[]> arrived = new ArrayDeque<>();
+    private ReadListener listener;
+    private boolean complete;
+
+    void arrive(String data) throws IOException {
+      arrived.add(data.getBytes(StandardCharsets.UTF_8));
+      listener.onDataAvailable();
+    }
+
+    void complete() throws IOException {
+      complete = true;
+      listener.onAllDataRead();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return complete && arrived.isEmpty();
+    }
+
+    @Override
+    public boolean isReady() {
+      return !arrived.isEmpty() || complete;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+      this.listener = readListener;
+    }
+
+    @Override
+    public int read() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (arrived.isEmpty()) {
+        if (complete) {
+          return -1;
+        }
+        throw new IllegalStateException("read() while not ready");
+      }
+      byte[] data = arrived.poll();
+      assertThat(data.length).isLessThanOrEqualTo(len);
+      System.arraycopy(data, 0, b, off, data.length);
+      return data.length;
+    }
+  }
+}
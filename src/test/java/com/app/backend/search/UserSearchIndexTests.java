@@ -0,0 +1,131 @@
+package com.app.backend.search;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserSearchPage;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.exception.ServiceUnavailableException;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UserSearchIndex} na prawdziwym repozytorium (H2): przebudowa,
+ * kursory stron i usunięcia w trakcie przebudowy. Każdy test ma własny
+ * indeks.
+ */
+@DataJpaTest
+@Import(UserApiProperties.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSearchIndexTests {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private UserApiProperties props;
+
+  private UserSearchIndex searchIndex;
+
+  @BeforeEach
+  void setUp() {
+    searchIndex = new UserSearchIndex(entityManager, userRepository, transactionManager, props);
+  }
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void returns503UntilFirstBuild() {
+    assertThatThrownBy(() -> searchIndex.search("anna", null, null))
+        .isInstanceOf(ServiceUnavailableException.class);
+  }
+
+  @Test
+  void rejectsShortQueryAndInvalidCursor() {
+    searchIndex.rebuild();
+
+    assertThatThrownBy(() -> searchIndex.search(" a ", null, null)).isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> searchIndex.search("anna", null, "not a cursor!"))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> searchIndex.search("anna", null, "-1")).isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void cursorPagesThroughRankedMatches() {
+    for (String name : List.of("joanna", "annabel", "anna", "annika", "hanna", "bob")) {
+      userRepository.save(user(name));
+    }
+    searchIndex.rebuild();
+
+    List<String> usernames = new ArrayList<>();
+    String cursor = null;
+    do {
+      UserSearchPage page = searchIndex.search("anna", 2, cursor);
+      assertThat(page.items()).hasSizeBetween(1, 2);
+      page.items().forEach(user -> usernames.add(user.username()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+
+    assertThat(usernames).containsExactly("anna", "annabel", "hanna", "joanna");
+  }
+
+  @Test
+  void rebuildSkipsSoftDeletedUsers() {
+    User kept = userRepository.save(user("alice"));
+    User deleted = userRepository.save(user("alina"));
+    userRepository.softDelete(deleted.getId(), Instant.now());
+
+    searchIndex.rebuild();
+
+    assertThat(searchIndex.search("al", null, null).items()).extracting(UserView::id)
+        .containsExactly(kept.getId());
+  }
+
+  @Test
+  void removalDuringBuildIsAppliedBeforeSwap() {
+    UserView alice = new UserView(1L, "alice", "alice@example.com", Instant.now());
+    UserView alina = new UserView(2L, "alina", "alina@example.com", Instant.now());
+    UserTextIndex next = new UserTextIndex(16);
+
+    searchIndex.startBuilding(next);
+    // Strumień przebudowy przeczytał wiersz, zanim przyszło usunięcie
+    next.add(alice);
+    searchIndex.removed(alice.id());
+    searchIndex.added(alina);
+    searchIndex.publish(next);
+
+    assertThat(searchIndex.search("al", null, null).items()).containsExactly(alina);
+    // Po podmianie usunięcia trafiają już tylko do aktywnego indeksu
+    searchIndex.removed(alina.id());
+    assertThat(searchIndex.search("al", null, null).items()).isEmpty();
+  }
+
+  private static User user(String name) {
+    return User.builder().username(name).email(name + "@example.com").password("secret").build();
+  }
+}
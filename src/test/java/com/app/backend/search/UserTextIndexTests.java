@@ -0,0 +1,188 @@
+package com.app.backend.search;
+
+import com.app.backend.dto.UserView;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserTextIndexTests {
+
+  private static final Instant CREATED = Instant.parse("2024-05-01T10:15:30.123456Z");
+
+  @Test
+  void idMapRemovalKeepsCollidingKeysReachable() {
+    // Mała tablica i dużo operacji - łańcuchy sondowania zawijają się
+    // i przesunięcie wstecz musi je naprawiać bez znaczników
+    UserTextIndex.IdMap map = new UserTextIndex.IdMap(8);
+    Map<Long, Integer> expected = new HashMap<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 50_000; i++) {
+      long id = 1 + random.nextInt(200);
+      if (random.nextInt(3) == 0) {
+        assertThat(map.remove(id)).isEqualTo(expected.containsKey(id) ? expected.remove(id) : -1);
+      } else {
+        map.put(id, i);
+        expected.put(id, i);
+      }
+    }
+    for (long id = 1; id <= 200; id++) {
+      assertThat(map.get(id)).isEqualTo(expected.getOrDefault(id, -1));
+    }
+  }
+
+  @Test
+  void postingsSeekFindsFirstSlotNotLessThanTarget() {
+    UserTextIndex.Postings list = new UserTextIndex.Postings();
+    for (int slot = 0; slot < 1_000; slot += 3) {
+      list.append(slot);
+    }
+    for (int from = 0; from < list.size; from += 37) {
+      for (int target = -1; target <= 1_002; target++) {
+        int expected = from;
+        while (expected < list.size && list.slots[expected] < target) {
+          expected++;
+        }
+        assertThat(list.seek(target, from)).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  void topKeysKeepsSmallestKeysInOrder() {
+    Random random = new Random(11);
+    long[] keys = random.longs(5_000, 0, Long.MAX_VALUE).toArray();
+    UserTextIndex.TopKeys top = new UserTextIndex.TopKeys(25);
+    for (long key : keys) {
+      top.offer(key);
+    }
+    long[] sorted = keys.clone();
+    Arrays.sort(sorted);
+
+    assertThat(top.sorted()).isEqualTo(Arrays.copyOf(sorted, 25));
+    UserTextIndex.TopKeys none = new UserTextIndex.TopKeys(0);
+    none.offer(1);
+    assertThat(none.sorted()).isEmpty();
+  }
+
+  @Test
+  void rankKeyOrdersByRankThenUsernameLengthThenId() {
+    long maxLength = UserTextIndex.rankKey(UserTextIndex.EXACT, Short.MAX_VALUE, UserTextIndex.MAX_ID);
+
+    assertThat(maxLength).isLessThan(UserTextIndex.rankKey(UserTextIndex.USERNAME_PREFIX, 0, 1));
+    assertThat(UserTextIndex.rankKey(UserTextIndex.EMAIL_CONTAINS, Short.MAX_VALUE, UserTextIndex.MAX_ID))
+        .isPositive();
+    assertThat(UserTextIndex.rankKey(UserTextIndex.USERNAME_PREFIX, 5, UserTextIndex.MAX_ID))
+        .isLessThan(UserTextIndex.rankKey(UserTextIndex.USERNAME_PREFIX, 6, 1));
+    assertThat(UserTextIndex.rankKey(UserTextIndex.EMAIL_PREFIX, 4, 41))
+        .isLessThan(UserTextIndex.rankKey(UserTextIndex.EMAIL_PREFIX, 4, 42));
+    assertThat(maxLength & UserTextIndex.MAX_ID).isEqualTo(UserTextIndex.MAX_ID);
+  }
+
+  @Test
+  void ranksExactThenPrefixesThenSubstrings() {
+    UserTextIndex index = index(
+        user(1, "joanna", "jo@example.com"),
+        user(2, "annabel", "bel@example.com"),
+        user(3, "Anna", "a@example.com"),
+        user(4, "zed", "anna.z@example.com"),
+        user(5, "bob", "hanna@example.com"),
+        user(6, "ann", "x@anna.com"));
+
+    UserTextIndex.Result result = index.search("ANNA", -1, 10, 100);
+
+    assertThat(ids(result)).containsExactly(3L, 2L, 4L, 1L, 5L);
+    assertThat(result.matches()).isEqualTo(5);
+    assertThat(result.truncated()).isFalse();
+    assertThat(result.users()[0]).isEqualTo(user(3, "Anna", "a@example.com"));
+  }
+
+  @Test
+  void twoByteQueryMatchesOnlyPrefixes() {
+    UserTextIndex index = index(
+        user(1, "alice", "alice@example.com"),
+        user(2, "malina", "m@example.com"),
+        user(3, "bob", "alpha@example.com"));
+
+    assertThat(ids(index.search("al", -1, 10, 100))).containsExactly(1L, 3L);
+    assertThat(ids(index.search("ali", -1, 10, 100))).containsExactly(1L, 2L);
+    assertThat(ids(index.search("zz", -1, 10, 100))).isEmpty();
+  }
+
+  @Test
+  void afterKeyPagesThroughAllMatchesWithoutRepeats() {
+    List<UserView> users = new ArrayList<>();
+    for (int i = 1; i <= 57; i++) {
+      users.add(user(i, "kate" + "x".repeat(i % 5) + i, "k" + i + "@example.com"));
+    }
+    UserTextIndex index = index(users.toArray(UserView[]::new));
+
+    List<Long> seen = new ArrayList<>();
+    long after = -1;
+    while (true) {
+      UserTextIndex.Result page = index.search("kat", after, 10, 1_000);
+      if (page.keys().length == 0) {
+        break;
+      }
+      assertThat(page.keys()[0]).isGreaterThan(after);
+      seen.addAll(ids(page));
+      after = page.keys()[page.keys().length - 1];
+    }
+
+    assertThat(seen).hasSize(57).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void candidateLimitTruncatesRanking() {
+    UserView[] users = new UserView[300];
+    for (int i = 0; i < users.length; i++) {
+      users[i] = user(i + 1, "tom" + i, "t" + i + "@example.com");
+    }
+    UserTextIndex index = index(users);
+
+    UserTextIndex.Result result = index.search("tom", -1, 5, 100);
+
+    assertThat(result.truncated()).isTrue();
+    assertThat(result.matches()).isEqualTo(100);
+    assertThat(result.keys()).hasSize(5);
+  }
+
+  @Test
+  void removedUserIsNotFoundAndCannotBeAddedTwice() {
+    UserView alice = user(1, "alice", "alice@example.com");
+    UserTextIndex index = index(alice, user(2, "alina", "alina@example.com"));
+
+    assertThat(index.add(alice)).isFalse();
+    assertThat(index.remove(1)).isTrue();
+    assertThat(index.remove(1)).isFalse();
+
+    assertThat(ids(index.search("al", -1, 10, 100))).containsExactly(2L);
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.add(user(0, "zero", "zero@example.com"))).isFalse();
+    assertThat(index.add(user(UserTextIndex.MAX_ID + 1, "big", "big@example.com"))).isFalse();
+  }
+
+  private static UserTextIndex index(UserView... users) {
+    UserTextIndex index = new UserTextIndex(users.length);
+    for (UserView user : users) {
+      assertThat(index.add(user)).isTrue();
+    }
+    index.trimToSize();
+    return index;
+  }
+
+  private static List<Long> ids(UserTextIndex.Result result) {
+    return Arrays.stream(result.users()).map(UserView::id).toList();
+  }
+
+  private static UserView user(long id, String username, String email) {
+    return new UserView(id, username, email, CREATED);
+  }
+}
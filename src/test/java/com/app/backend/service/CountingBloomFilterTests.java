@@ -0,0 +1,85 @@
+package com.app.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingBloomFilterTests {
+
+  private static final int KEYS = 100_000;
+
+  @Test
+  void hasNoFalseNegativesAndFalsePositiveRateNearTarget() {
+    for (double fpp : new double[] { 0.01, 0.001 }) {
+      CountingBloomFilter filter = new CountingBloomFilter(KEYS, fpp);
+      for (int i = 0; i < KEYS; i++) {
+        filter.add(member(i));
+      }
+
+      for (int i = 0; i < KEYS; i++) {
+        assertThat(filter.mightContain(member(i))).isTrue();
+      }
+      int falsePositives = 0;
+      for (int i = 0; i < 2 * KEYS; i++) {
+        if (filter.mightContain("other" + i + "@example.com")) {
+          falsePositives++;
+        }
+      }
+      assertThat(falsePositives / (2.0 * KEYS)).isLessThan(fpp * 1.5);
+    }
+  }
+
+  @Test
+  void removingAddedKeysKeepsTheRest() {
+    CountingBloomFilter filter = new CountingBloomFilter(KEYS, 0.01);
+    for (int i = 0; i < KEYS; i++) {
+      filter.add(member(i));
+    }
+
+    int stillReported = 0;
+    for (int i = 0; i < KEYS / 2; i++) {
+      filter.remove(member(i));
+    }
+    for (int i = 0; i < KEYS / 2; i++) {
+      if (filter.mightContain(member(i))) {
+        stillReported++;
+      }
+    }
+
+    for (int i = KEYS / 2; i < KEYS; i++) {
+      assertThat(filter.mightContain(member(i))).isTrue();
+    }
+    // Usunięte wracają do "na pewno nie ma" poza fałszywymi trafieniami
+    assertThat(stillReported).isLessThan(KEYS / 100);
+    assertThat(filter.size()).isEqualTo(KEYS / 2);
+  }
+
+  @Test
+  void removeOfOneKeyLeavesOthers() {
+    CountingBloomFilter filter = new CountingBloomFilter(1_000_000, 0.01);
+    filter.add("alice");
+    filter.add("bob");
+
+    filter.remove("alice");
+
+    assertThat(filter.mightContain("alice")).isFalse();
+    assertThat(filter.mightContain("bob")).isTrue();
+  }
+
+  @Test
+  void saturatedCountersAreNeverDecremented() {
+    CountingBloomFilter filter = new CountingBloomFilter(1, 0.5);
+    for (int i = 0; i < 20; i++) {
+      filter.add("key");
+    }
+    for (int i = 0; i < 20; i++) {
+      filter.remove("key");
+    }
+
+    assertThat(filter.mightContain("key")).isTrue();
+  }
+
+  private static String member(int i) {
+    return "user" + i + "@example.com";
+  }
+}
@@ -0,0 +1,106 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserView;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link UserAvailabilityIndex} na prawdziwym repozytorium (H2): które
+ * usunięcia zmniejszają liczniki filtrów. Każdy test ma własne filtry.
+ */
+@DataJpaTest
+@Import(UserApiProperties.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserAvailabilityIndexTests {
+
+  // Zapytanie, które nie powinno być potrzebne - filtr ma wykluczyć wartość
+  private static final Predicate<String> NO_QUERY = value -> {
+    throw new AssertionError("Unexpected database check for " + value);
+  };
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private UserApiProperties props;
+
+  private UserAvailabilityIndex availability;
+
+  @BeforeEach
+  void setUp() {
+    availability = new UserAvailabilityIndex(entityManager, userRepository, transactionManager, props);
+  }
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void removesUserReadByRebuild() {
+    UserView alice = save("alice", Instant.now().minus(Duration.ofHours(1)));
+    save("bob", Instant.now().minus(Duration.ofHours(1)));
+    availability.rebuild();
+    assertThat(availability.isUsernameFree("alice", value -> true)).isFalse();
+
+    availability.removed(alice);
+
+    assertThat(availability.isUsernameFree("alice", NO_QUERY)).isTrue();
+    assertThat(availability.isEmailFree("alice@example.com", NO_QUERY)).isTrue();
+    assertThat(availability.isUsernameFree("bob", value -> true)).isFalse();
+  }
+
+  @Test
+  void skipsRemovalOfUserFilterMayNotHave() {
+    save("carol", Instant.now().minus(Duration.ofHours(1)));
+    availability.rebuild();
+    // Utworzony na innym węźle po przebudowie - filtr go nie zna
+    UserView ghost = new UserView(999L, "carol", "carol@example.com", Instant.now());
+
+    availability.removed(ghost);
+
+    assertThat(availability.stats()).containsEntry("skippedRemovals", 1L);
+    assertThat(availability.isUsernameFree("carol", value -> true)).isFalse();
+  }
+
+  @Test
+  void addedUserStaysUntilRebuildAfterDelete() {
+    availability.rebuild();
+    UserView dave = new UserView(1L, "dave", "dave@example.com", Instant.now());
+    availability.added(dave.username(), dave.email());
+
+    availability.removed(dave);
+
+    // Fałszywe trafienie rozstrzyga baza, ale filtr nie traci innych kluczy
+    assertThat(availability.isUsernameFree("dave", value -> false)).isTrue();
+    assertThat(availability.stats()).containsEntry("falsePositives", 1L);
+  }
+
+  private UserView save(String name, Instant createdAt) {
+    return UserView.of(userRepository.save(User.builder().username(name).email(name + "@example.com")
+        .password("secret").createdAt(createdAt).build()));
+  }
+}
@@ -0,0 +1,87 @@
+package com.app.backend.service;
+
+import com.app.backend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCursorTests {
+
+  private static final Instant CREATED = Instant.parse("2024-05-01T10:15:30.123456789Z");
+
+  @Test
+  void roundTripsBothSortOrders() {
+    UserCursor byId = new UserCursor(UserCursor.Sort.ID, 42, null);
+    UserCursor byCreatedAt = new UserCursor(UserCursor.Sort.CREATED_AT, Long.MAX_VALUE, CREATED);
+
+    assertThat(UserCursor.decode(byId.encode(), UserCursor.Sort.ID)).isEqualTo(byId);
+    assertThat(UserCursor.decode(byCreatedAt.encode(), UserCursor.Sort.CREATED_AT)).isEqualTo(byCreatedAt);
+  }
+
+  @Test
+  void idCursorDropsCreatedAt() {
+    UserCursor cursor = new UserCursor(UserCursor.Sort.ID, 7, CREATED);
+
+    assertThat(UserCursor.decode(cursor.encode(), UserCursor.Sort.ID).createdAt()).isNull();
+  }
+
+  @Test
+  void tokenIsUrlSafeWithoutPadding() {
+    String token = new UserCursor(UserCursor.Sort.CREATED_AT, -1, CREATED).encode();
+
+    assertThat(token).matches("[A-Za-z0-9_-]+");
+  }
+
+  @Test
+  void rejectsCursorIssuedForDifferentSort() {
+    String byId = new UserCursor(UserCursor.Sort.ID, 42, null).encode();
+    String byCreatedAt = new UserCursor(UserCursor.Sort.CREATED_AT, 42, CREATED).encode();
+
+    assertThatThrownBy(() -> UserCursor.decode(byId, UserCursor.Sort.CREATED_AT))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("different sort order");
+    assertThatThrownBy(() -> UserCursor.decode(byCreatedAt, UserCursor.Sort.ID))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("different sort order");
+  }
+
+  @Test
+  void rejectsTamperedTokens() {
+    byte[] valid = Base64.getUrlDecoder().decode(new UserCursor(UserCursor.Sort.CREATED_AT, 42, CREATED).encode());
+
+    byte[] version = valid.clone();
+    version[0] = 2;
+    assertThatThrownBy(() -> decode(version))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("version");
+
+    byte[] truncated = Arrays.copyOf(valid, valid.length - 1);
+    byte[] extended = Arrays.copyOf(valid, valid.length + 1);
+    byte[] badNanos = valid.clone();
+    badNanos[valid.length - 4] = 0x7F;
+    for (byte[] token : new byte[][] { truncated, extended, badNanos, new byte[0] }) {
+      assertThatThrownBy(() -> decode(token))
+          .isInstanceOf(BadRequestException.class)
+          .hasMessage("Malformed cursor");
+    }
+  }
+
+  @Test
+  void rejectsTokensThatAreNotBase64Url() {
+    for (String token : new String[] { "not a cursor", "AQ==AQ", "AQAAAAAAAAAq+/" }) {
+      assertThatThrownBy(() -> UserCursor.decode(token, UserCursor.Sort.ID))
+          .isInstanceOf(BadRequestException.class)
+          .hasMessage("Malformed cursor");
+    }
+  }
+
+  private static UserCursor decode(byte[] token) {
+    return UserCursor.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(token),
+        UserCursor.Sort.CREATED_AT);
+  }
+}
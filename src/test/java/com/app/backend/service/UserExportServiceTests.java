@@ -0,0 +1,97 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link UserExportService} na prawdziwym repozytorium (H2) i kodowanie pól
+ * CSV.
+ */
+@DataJpaTest
+@Import({ UserApiProperties.class, UserExportService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserExportServiceTests {
+
+  private static final Instant CREATED = Instant.parse("2024-05-01T10:15:30Z");
+
+  @Autowired
+  private UserExportService exportService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void csvFieldsAreQuotedAndFormulasNeutralized() throws IOException {
+    assertThat(csv("alice")).isEqualTo("alice");
+    assertThat(csv("")).isEqualTo("");
+    assertThat(csv("a,b")).isEqualTo("\"a,b\"");
+    assertThat(csv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+    assertThat(csv("line\nbreak")).isEqualTo("\"line\nbreak\"");
+    assertThat(csv("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+    assertThat(csv("+1")).isEqualTo("'+1");
+    assertThat(csv("-2+3")).isEqualTo("'-2+3");
+    assertThat(csv("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+    assertThat(csv("\tcmd")).isEqualTo("'\tcmd");
+    assertThat(csv("a=b")).isEqualTo("a=b");
+  }
+
+  @Test
+  void csvExportSkipsDeletedUsers() throws IOException {
+    User kept = userRepository.save(user("=cmd", "kept@example.com"));
+    User deleted = userRepository.save(user("gone", "gone@example.com"));
+    userRepository.softDelete(deleted.getId(), Instant.now());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long rows = exportService.export(UserExportService.Format.CSV, out);
+
+    assertThat(rows).isEqualTo(1);
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,username,email,createdAt\r\n"
+        + kept.getId() + ",'=cmd,kept@example.com," + CREATED + "\r\n");
+  }
+
+  @Test
+  void ndjsonExportWritesOneObjectPerLine() throws IOException {
+    User alice = userRepository.save(user("alice", "alice@example.com"));
+    User bob = userRepository.save(user("bob", "bob@example.com"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exportService.export(UserExportService.Format.NDJSON, out);
+
+    assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+        "{\"id\":" + alice.getId() + ",\"username\":\"alice\",\"email\":\"alice@example.com\",\"createdAt\":\""
+            + CREATED + "\"}\n"
+            + "{\"id\":" + bob.getId() + ",\"username\":\"bob\",\"email\":\"bob@example.com\",\"createdAt\":\""
+            + CREATED + "\"}\n");
+  }
+
+  private static String csv(String value) throws IOException {
+    StringWriter out = new StringWriter();
+    UserExportService.csvField(out, value);
+    return out.toString();
+  }
+
+  private static User user(String username, String email) {
+    return User.builder().username(username).email(email).password("secret").createdAt(CREATED).build();
+  }
+}
@@ -0,0 +1,158 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserImportResult;
+import com.app.backend.exception.RequestBodyTooLargeException;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import com.app.backend.sanitize.SanitizedServletInputStream;
+import com.app.backend.search.UserSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UserImportService} na prawdziwym repozytorium (H2), bez transakcji
+ * testu - paczki zatwierdzają się same, jak w aplikacji.
+ */
+@DataJpaTest
+@Import({ UserApiProperties.class, UserLookupCache.class, UserAvailabilityIndex.class, UserSearchIndex.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTests {
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private UserLookupCache cache;
+
+  @Autowired
+  private UserAvailabilityIndex availability;
+
+  @Autowired
+  private UserSearchIndex searchIndex;
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void reportsDuplicatesAndInvalidRecordsAndSavesTheRest() throws IOException {
+    userRepository.save(User.builder().username("alice").email("alice@example.com").password("secret").build());
+
+    UserImportResult result = service(100, 100).importUsers(ndjson(
+        row("alice", "other@example.com"),
+        row("bob", "alice@example.com"),
+        row("carol", "carol@example.com"),
+        row("carol", "carol2@example.com"),
+        row("dave", "carol@example.com"),
+        "{\"username\":\"eve\"}",
+        "42"));
+
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.failed()).isEqualTo(6);
+    assertThat(result.errorsTruncated()).isFalse();
+    assertThat(result.errors()).extracting(UserImportResult.Error::index).containsExactly(5L, 6L, 0L, 1L, 3L, 4L);
+    assertThat(result.errors()).extracting(UserImportResult.Error::reason).containsExactly(
+        "username, email and password are required",
+        "Expected a JSON object",
+        "Username already exists",
+        "Email already exists",
+        "Duplicate username in import",
+        "Duplicate email in import");
+    assertThat(userRepository.findViewByUsername("carol")).isPresent();
+  }
+
+  @Test
+  void failedBatchIsRetriedRowByRow() throws IOException {
+    // Przechodzi wstępne sprawdzenie duplikatów, ale baza odrzuca długość
+    String tooLong = "x".repeat(300);
+
+    UserImportResult result = service(10, 100).importUsers(ndjson(
+        row("frank", "frank@example.com"),
+        row(tooLong, "long@example.com"),
+        row("gina", "gina@example.com")));
+
+    assertThat(result.imported()).isEqualTo(2);
+    assertThat(result.failed()).isEqualTo(1);
+    assertThat(result.errors()).singleElement()
+        .satisfies(error -> assertThat(error.index()).isEqualTo(1));
+    assertThat(userRepository.count()).isEqualTo(2);
+    assertThat(userRepository.findViewByUsername("gina")).isPresent();
+  }
+
+  @Test
+  void limitsReportedErrors() throws IOException {
+    UserImportResult result = service(10, 2).importUsers(ndjson("1", "2", "3", row("henry", "henry@example.com")));
+
+    assertThat(result.imported()).isEqualTo(1);
+    assertThat(result.failed()).isEqualTo(3);
+    assertThat(result.errors()).hasSize(2);
+    assertThat(result.errorsTruncated()).isTrue();
+  }
+
+  @Test
+  void bodyLimitMidStreamReportsSavedBatches() {
+    String[] rows = new String[1_000];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = row("user" + i, "user" + i + "@example.com");
+    }
+    InputStream limited = limited(ndjson(rows), 20_000);
+
+    assertThatThrownBy(() -> service(10, 100).importUsers(limited))
+        .isInstanceOf(RequestBodyTooLargeException.class)
+        .satisfies(e -> {
+          long saved = userRepository.count();
+          assertThat(saved).isPositive().isLessThan(rows.length);
+          assertThat(saved % 10).isZero();
+          assertThat(e.getMessage()).contains("import stopped after " + saved + " imported users");
+        });
+  }
+
+  private UserImportService service(int batchSize, int maxErrors) {
+    UserApiProperties props = new UserApiProperties();
+    props.getBulkImport().setBatchSize(batchSize);
+    props.getBulkImport().setMaxErrors(maxErrors);
+    return new UserImportService(userRepository, entityManager, transactionManager, new ObjectMapper(), cache,
+        availability, searchIndex, props);
+  }
+
+  private static InputStream limited(InputStream body, long limit) {
+    try {
+      return new SanitizedServletInputStream(new DelegatingServletInputStream(body), limit);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static InputStream ndjson(String... lines) {
+    return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String row(String username, String email) {
+    return "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"secret\"}";
+  }
+}
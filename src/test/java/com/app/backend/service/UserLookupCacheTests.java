@@ -0,0 +1,131 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.UserView;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Read-through i wpisy negatywne {@link UserLookupCache} bez bazy - loader
+ * liczy swoje wywołania.
+ */
+class UserLookupCacheTests {
+
+  private static final UserView ALICE = new UserView(1L, "alice", "alice@example.com",
+      Instant.parse("2024-05-01T10:15:30Z"));
+
+  private final UserApiProperties props = new UserApiProperties();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void loadsEachKeyOnce() {
+    UserLookupCache cache = new UserLookupCache(props);
+
+    assertThat(cache.byId(1L, loader(ALICE))).contains(ALICE);
+    assertThat(cache.byId(1L, loader(ALICE))).contains(ALICE);
+
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(stats(cache, "byId")).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    assertThat(cache.cachedById(1L)).contains(ALICE);
+  }
+
+  @Test
+  void remembersMissingUser() {
+    UserLookupCache cache = new UserLookupCache(props);
+
+    assertThat(cache.byUsername("ghost", loader(null))).isEmpty();
+    assertThat(cache.byUsername("ghost", loader(null))).isEmpty();
+    assertThat(cache.byId(404L, loader(null))).isEmpty();
+    assertThat(cache.byId(404L, loader(null))).isEmpty();
+
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.cachedById(404L)).isEmpty();
+  }
+
+  @Test
+  void negativeEntryExpiresBeforePositiveOne() throws InterruptedException {
+    props.getCache().setNegativeTtl(Duration.ofMillis(200));
+    UserLookupCache cache = new UserLookupCache(props);
+    cache.byId(1L, loader(ALICE));
+    cache.byId(404L, loader(null));
+
+    Thread.sleep(300);
+    cache.byId(1L, loader(ALICE));
+    cache.byId(404L, loader(null));
+
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  void putReplacesNegativeEntriesForAllKeys() {
+    UserLookupCache cache = new UserLookupCache(props);
+    cache.byId(1L, loader(null));
+    cache.byUsername("alice", loader(null));
+    cache.byEmail("alice@example.com", loader(null));
+
+    cache.put(ALICE);
+
+    assertThat(cache.byId(1L, loader(null))).contains(ALICE);
+    assertThat(cache.byUsername("alice", loader(null))).contains(ALICE);
+    assertThat(cache.byEmail("alice@example.com", loader(null))).contains(ALICE);
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  void evictDropsAllKeysOfUser() {
+    UserLookupCache cache = new UserLookupCache(props);
+    cache.put(ALICE);
+
+    cache.evict(ALICE);
+
+    assertThat(cache.cachedById(1L)).isEmpty();
+    assertThat(cache.byUsername("alice", loader(null))).isEmpty();
+    assertThat(cache.byEmail("alice@example.com", loader(null))).isEmpty();
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void failedLoadIsNotCached() {
+    UserLookupCache cache = new UserLookupCache(props);
+
+    assertThatThrownBy(() -> cache.byId(1L, id -> {
+      throw new IllegalStateException("database down");
+    })).isInstanceOf(IllegalStateException.class);
+
+    assertThat(cache.byId(1L, loader(ALICE))).contains(ALICE);
+    assertThat(stats(cache, "byId")).containsEntry("loadFailures", 1L);
+  }
+
+  @Test
+  void disabledCacheAlwaysLoads() {
+    props.getCache().setEnabled(false);
+    UserLookupCache cache = new UserLookupCache(props);
+    cache.put(ALICE);
+
+    cache.byId(1L, loader(ALICE));
+    cache.byId(1L, loader(ALICE));
+
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.cachedById(1L)).isEmpty();
+  }
+
+  private <K> Function<K, Optional<UserView>> loader(UserView result) {
+    return key -> {
+      loads.incrementAndGet();
+      return Optional.ofNullable(result);
+    };
+  }
+
+  private static Map<?, ?> stats(UserLookupCache cache, String name) {
+    return (Map<?, ?>) cache.stats().get(name);
+  }
+}
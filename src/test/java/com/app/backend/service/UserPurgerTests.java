@@ -0,0 +1,122 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link UserPurger} na prawdziwym repozytorium (H2): paczki, limit paczek
+ * na przebieg i {@code retention}.
+ */
+@DataJpaTest
+@Import({ UserApiProperties.class, UserPurger.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPurgerTests {
+
+  @Autowired
+  private UserPurger purger;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserApiProperties props;
+
+  @BeforeEach
+  void setUp() {
+    UserApiProperties.Purge config = props.getPurge();
+    config.setEnabled(true);
+    config.setRetention(Duration.ZERO);
+    config.setBatchSize(2);
+    config.setMaxBatchesPerRun(100);
+    config.setPause(Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void purgesDeletedRowsInBatchesAndKeepsLiveOnes() {
+    List<Long> ids = save("a", "b", "c", "d", "e");
+    softDelete(ids.subList(0, 4));
+    long batches = (long) purger.stats().get("batches");
+
+    purger.purge();
+
+    assertThat(userRepository.findAll()).extracting(User::getId).containsExactly(ids.get(4));
+    assertThat(purger.stats())
+        .containsEntry("lastRunPurged", 4L)
+        .containsEntry("batches", batches + 2)
+        .containsEntry("lastRunComplete", true);
+  }
+
+  @Test
+  void stopsAfterMaxBatchesAndContinuesNextRun() {
+    props.getPurge().setBatchSize(1);
+    props.getPurge().setMaxBatchesPerRun(2);
+    softDelete(save("a", "b", "c"));
+
+    purger.purge();
+
+    assertThat(userRepository.count()).isEqualTo(1);
+    assertThat(purger.stats()).containsEntry("lastRunComplete", false);
+
+    purger.purge();
+
+    assertThat(userRepository.count()).isZero();
+    assertThat(purger.stats()).containsEntry("lastRunComplete", true);
+  }
+
+  @Test
+  void keepsRowsDeletedWithinRetention() {
+    props.getPurge().setRetention(Duration.ofHours(1));
+    softDelete(save("a", "b"));
+
+    purger.purge();
+
+    assertThat(userRepository.count()).isEqualTo(2);
+    assertThat(purger.stats()).containsEntry("lastRunPurged", 0L);
+  }
+
+  @Test
+  void doesNothingWhenDisabled() {
+    props.getPurge().setEnabled(false);
+    softDelete(save("a"));
+
+    purger.purge();
+
+    assertThat(userRepository.count()).isEqualTo(1);
+  }
+
+  private List<Long> save(String... names) {
+    List<Long> ids = new ArrayList<>();
+    for (String name : names) {
+      ids.add(userRepository.save(User.builder().username(name).email(name + "@example.com").password("secret")
+          .build()).getId());
+    }
+    return ids;
+  }
+
+  private void softDelete(List<Long> ids) {
+    // Sekundę wstecz - findDeletedIds porównuje ściśle z "teraz"
+    Instant deletedAt = Instant.now().minusSeconds(1);
+    ids.forEach(id -> userRepository.softDelete(id, deletedAt));
+  }
+}
@@ -0,0 +1,211 @@
+package com.app.backend.service;
+
+import com.app.backend.config.UserApiProperties;
+import com.app.backend.dto.CursorPage;
+import com.app.backend.dto.UserView;
+import com.app.backend.exception.BadRequestException;
+import com.app.backend.exception.ConflictException;
+import com.app.backend.exception.ResourceNotFoundException;
+import com.app.backend.model.User;
+import com.app.backend.repository.UserRepository;
+import com.app.backend.search.UserSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UserService} na prawdziwym repozytorium (H2), bez transakcji testu -
+ * każde wywołanie zatwierdza się samo, jak w aplikacji.
+ */
+@DataJpaTest
+@Import({ UserApiProperties.class, UserService.class, UserLookupCache.class, UserAvailabilityIndex.class,
+    UserSearchIndex.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceTests {
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserLookupCache cache;
+
+  @AfterEach
+  void tearDown() {
+    userRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void deleteMarksUserDespiteNegativeCacheEntry() {
+    // Wiersz zapisany "na innym węźle", a ten węzeł pamięta brak użytkownika
+    User stored = userRepository.save(user("alice"));
+    cache.byId(stored.getId(), id -> Optional.empty());
+
+    userService.deleteUser(stored.getId());
+
+    assertThat(userRepository.findById(stored.getId())).get()
+        .satisfies(user -> assertThat(user.getDeletedAt()).isNotNull());
+    assertThatThrownBy(() -> userService.getUserById(stored.getId()))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
+
+  @Test
+  void deleteReleasesUsernameInCacheAndAvailability() {
+    Long id = userService.createUser(user("bob")).id();
+    assertThat(userService.findByUsername("bob")).isPresent();
+
+    userService.deleteUser(id);
+
+    assertThat(userService.findByUsername("bob")).isEmpty();
+    assertThat(userService.findByEmail("bob@example.com")).isEmpty();
+    assertThat(userService.checkAvailability("bob", null).usernameAvailable()).isTrue();
+  }
+
+  @Test
+  void deleteOfMissingOrAlreadyDeletedUserChangesNothing() {
+    Long id = userService.createUser(user("carol")).id();
+    userService.deleteUser(id);
+    User tombstone = userRepository.findById(id).orElseThrow();
+
+    userService.deleteUser(id);
+    userService.deleteUser(id + 1_000);
+
+    assertThat(userRepository.findById(id).orElseThrow().getDeletedAt()).isEqualTo(tombstone.getDeletedAt());
+  }
+
+  @Test
+  void createReusesNameOfDeletedUserBeforeItIsPurged() {
+    Long deletedId = userService.createUser(user("dave")).id();
+    userService.deleteUser(deletedId);
+
+    UserView created = userService.createUser(user("dave"));
+
+    assertThat(created.id()).isNotEqualTo(deletedId);
+    assertThat(userRepository.findById(deletedId)).isEmpty();
+    assertThat(userService.findByUsername("dave")).hasValue(created);
+  }
+
+  @Test
+  void createStillConflictsWithLiveUser() {
+    userService.createUser(user("erin"));
+
+    assertThatThrownBy(() -> userService.createUser(user("erin")))
+        .isInstanceOf(ConflictException.class)
+        .hasMessageContaining("Username");
+    User sameEmail = User.builder().username("erin2").email("erin@example.com").password("secret").build();
+    assertThatThrownBy(() -> userService.createUser(sameEmail))
+        .isInstanceOf(ConflictException.class)
+        .hasMessageContaining("Email");
+    assertThat(userRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void deletedUserIsHiddenFromEveryRead() {
+    Long frank = userService.createUser(user("frank")).id();
+    Long gina = userService.createUser(user("gina")).id();
+    userService.deleteUser(frank);
+
+    assertThat(userService.getAllUsers()).extracting(UserView::id).containsExactly(gina);
+    for (UserCursor.Sort sort : UserCursor.Sort.values()) {
+      assertThat(userService.getUsersPage(sort, 10, null).items()).extracting(UserView::id)
+          .containsExactly(gina);
+    }
+    assertThat(userRepository.findViewById(frank)).isEmpty();
+    assertThat(userRepository.findViewByUsername("frank")).isEmpty();
+    assertThat(userRepository.findViewByEmail("frank@example.com")).isEmpty();
+    // Kontrola unikalności widzi wiersz do czasu fizycznego usunięcia
+    assertThat(userRepository.findAnyViewById(frank)).isPresent();
+  }
+
+  @Test
+  void pagingByCreatedAtWalksTiesWithoutGapsOrDuplicates() {
+    Instant tie = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    List<Long> expected = new ArrayList<>();
+    expected.add(save("newest", tie.plusSeconds(1)));
+    List<Long> tied = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      tied.add(save("tied" + i, tie));
+    }
+    tied.sort(Comparator.reverseOrder());
+    expected.addAll(tied);
+    expected.add(save("oldest", tie.minusSeconds(1)));
+
+    assertThat(walk(UserCursor.Sort.CREATED_AT, 3)).containsExactlyElementsOf(expected);
+    assertThat(walk(UserCursor.Sort.CREATED_AT, 1)).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void lastFullPageHasNoNextCursor() {
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      ids.add(userService.createUser(user("page" + i)).id());
+    }
+
+    CursorPage<UserView> first = userService.getUsersPage(UserCursor.Sort.ID, 3, null);
+    CursorPage<UserView> second = userService.getUsersPage(UserCursor.Sort.ID, 3, first.nextCursor());
+
+    assertThat(first.items()).extracting(UserView::id).containsExactlyElementsOf(ids.subList(0, 3));
+    assertThat(second.items()).extracting(UserView::id).containsExactlyElementsOf(ids.subList(3, 6));
+    assertThat(second.nextCursor()).isNull();
+  }
+
+  @Test
+  void pageSizeIsClampedToConfiguredLimits() {
+    for (int i = 0; i < 3; i++) {
+      userService.createUser(user("size" + i));
+    }
+
+    assertThat(userService.getUsersPage(UserCursor.Sort.ID, 0, null).items()).hasSize(1);
+    assertThat(userService.getUsersPage(UserCursor.Sort.ID, -5, null).items()).hasSize(1);
+    assertThat(userService.getUsersPage(UserCursor.Sort.ID, Integer.MAX_VALUE, null).items()).hasSize(3);
+  }
+
+  @Test
+  void rejectsCursorOfOtherSortOrTamperedCursor() {
+    for (int i = 0; i < 3; i++) {
+      userService.createUser(user("cursor" + i));
+    }
+    String byId = userService.getUsersPage(UserCursor.Sort.ID, 1, null).nextCursor();
+
+    assertThatThrownBy(() -> userService.getUsersPage(UserCursor.Sort.CREATED_AT, 1, byId))
+        .isInstanceOf(BadRequestException.class);
+    assertThatThrownBy(() -> userService.getUsersPage(UserCursor.Sort.ID, 1, byId + "A"))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  private List<Long> walk(UserCursor.Sort sort, int size) {
+    List<Long> ids = new ArrayList<>();
+    String cursor = null;
+    do {
+      CursorPage<UserView> page = userService.getUsersPage(sort, size, cursor);
+      page.items().forEach(view -> ids.add(view.id()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    return ids;
+  }
+
+  private Long save(String name, Instant createdAt) {
+    return userRepository.save(User.builder().username(name).email(name + "@example.com").password("secret")
+        .createdAt(createdAt).build()).getId();
+  }
+
+  private static User user(String name) {
+    return User.builder().username(name).email(name + "@example.com").password("secret").build();
+  }
+}